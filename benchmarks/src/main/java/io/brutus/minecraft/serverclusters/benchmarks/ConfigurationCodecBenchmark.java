@@ -0,0 +1,59 @@
+package io.brutus.minecraft.serverclusters.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.brutus.minecraft.serverclusters.protocol.config.ConfigurationMessage;
+
+/**
+ * Encode and decode throughput of the network-wide configuration, which is sent with Java
+ * serialization.
+ * <p>
+ * <code>clusters</code> is the number of clusters configured, which is what the message's size
+ * grows with.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConfigurationCodecBenchmark {
+
+  @Param({"5", "50", "500"})
+  public int clusters;
+
+  @Param({"16"})
+  public int idLength;
+
+  private ConfigurationMessage config;
+  private byte[] message;
+
+  @Setup
+  public void setup() {
+    config = Fixtures.configuration(clusters, idLength);
+    message = ConfigurationMessage.createMessage(config);
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    return ConfigurationMessage.createMessage(config);
+  }
+
+  @Benchmark
+  public ConfigurationMessage decode() {
+    return ConfigurationMessage.fromBytes(message);
+  }
+
+}
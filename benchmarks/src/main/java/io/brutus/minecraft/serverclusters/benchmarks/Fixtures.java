@@ -0,0 +1,83 @@
+package io.brutus.minecraft.serverclusters.benchmarks;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.brutus.minecraft.serverclusters.protocol.config.ConfigurationMessage;
+import io.brutus.minecraft.serverclusters.selection.ServerSelectionMode;
+
+/**
+ * Realistic inputs for benchmarks.
+ * <p>
+ * Ids are built the way the network's id generator builds them: a cluster name followed by a
+ * number, padded out to the requested length.
+ */
+public class Fixtures {
+
+  private static final String ID_CHARACTERS = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+  private Fixtures() {}
+
+  /**
+   * Gets a server or cluster id of an exact length.
+   * 
+   * @param prefix The readable start of the id, such as a cluster name.
+   * @param number A number to make the id unique.
+   * @param length The exact length of the id.
+   * @return An id of the given length.
+   */
+  public static String id(String prefix, int number, int length) {
+    StringBuilder sb = new StringBuilder(length);
+    sb.append(prefix).append('-').append(number);
+    Random random = new Random(number);
+    while (sb.length() < length) {
+      sb.append(ID_CHARACTERS.charAt(random.nextInt(ID_CHARACTERS.length())));
+    }
+    sb.setLength(length);
+    return sb.toString();
+  }
+
+  /**
+   * Gets a group of random player ids.
+   * 
+   * @param count The number of players in the group.
+   * @return The players.
+   */
+  public static Set<UUID> players(int count) {
+    Set<UUID> ret = new HashSet<UUID>();
+    while (ret.size() < count) {
+      ret.add(UUID.randomUUID());
+    }
+    return ret;
+  }
+
+  /**
+   * Gets a complete network configuration.
+   * 
+   * @param clusters The number of clusters in the configuration.
+   * @param idLength The length of each cluster's id.
+   * @return The configuration message.
+   */
+  public static ConfigurationMessage configuration(int clusters, int idLength) {
+    ConcurrentHashMap<String, ServerSelectionMode> modes =
+        new ConcurrentHashMap<String, ServerSelectionMode>();
+    ServerSelectionMode[] values = ServerSelectionMode.values();
+    for (int i = 0; i < clusters; i++) {
+      modes.put(id("cluster", i, idLength), values[i % values.length]);
+    }
+
+    return ConfigurationMessage.builder().setClusters(modes)
+        .setIdRequestChannel("ServerClusters-IdRequests".getBytes())
+        .setIdResponseChannel("ServerClusters-IdResponses".getBytes())
+        .setHeartbeatChannel("ServerClusters-Heartbeats".getBytes())
+        .setShutdownChannel("ServerClusters-Shutdowns".getBytes())
+        .setReservationRequestChannel("ServerClusters-ReservationRequests".getBytes())
+        .setReservationResponseChannel("ServerClusters-ReservationResponses".getBytes())
+        .setMinHeartRate(5000).setMaxHeartRate(100).setServerTimeout(15000)
+        .setReservationResponseTimeout(500).setReservationTimeout(10000).build();
+  }
+
+}
@@ -0,0 +1,107 @@
+package io.brutus.minecraft.serverclusters.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.brutus.minecraft.serverclusters.protocol.Heartbeat;
+import io.brutus.minecraft.serverclusters.protocol.PlayerFilter;
+import io.brutus.minecraft.serverclusters.protocol.ShutdownNotification;
+
+/**
+ * Encode and decode throughput of heartbeats and shutdown notifications, the messages every node
+ * receives from every game server.
+ * <p>
+ * <code>players</code> is the size of the player list a heartbeat carries. <code>0</code> is a
+ * heartbeat with no player changes, which is what most heartbeats are.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HeartbeatCodecBenchmark {
+
+  @Param({"8", "24", "48"})
+  public int idLength;
+
+  @Param({"0", "20", "200"})
+  public int players;
+
+  private String clusterId;
+  private String serverId;
+  private String ip;
+  private List<UUID> joined;
+  private byte[] filter;
+
+  private byte[] heartbeat;
+  private byte[] shutdown;
+
+  @Setup
+  public void setup() {
+    clusterId = Fixtures.id("cluster", 1, idLength);
+    serverId = Fixtures.id("server", 1, idLength);
+    ip = "10.0.12.134";
+    joined = new ArrayList<UUID>(Fixtures.players(players));
+
+    PlayerFilter playerFilter = new PlayerFilter();
+    int i = 0;
+    for (UUID player : joined) {
+      playerFilter.add(player, "Player" + i++);
+    }
+    filter = playerFilter.toBytes();
+
+    heartbeat = encode();
+    shutdown = ShutdownNotification.createMessage(serverId);
+  }
+
+  @Benchmark
+  public byte[] encodeHeartbeat() {
+    return encode();
+  }
+
+  @Benchmark
+  public byte[] updateHeartbeat() {
+    Heartbeat.updateMessage(heartbeat, 7);
+    return heartbeat;
+  }
+
+  @Benchmark
+  public Heartbeat decodeHeartbeat() {
+    return Heartbeat.fromBytes(heartbeat);
+  }
+
+  @Benchmark
+  public byte[] encodeShutdown() {
+    return ShutdownNotification.createMessage(serverId);
+  }
+
+  @Benchmark
+  public ShutdownNotification decodeShutdown() {
+    return ShutdownNotification.fromBytes(shutdown);
+  }
+
+  private byte[] encode() {
+    if (players == 0) {
+      return Heartbeat.createMessage(clusterId, serverId, ip, 25565, 12);
+    }
+    return Heartbeat.createMessage(clusterId, serverId, ip, 25565, 12, 1, false, joined,
+        Collections.<UUID>emptyList(), filter);
+  }
+
+}
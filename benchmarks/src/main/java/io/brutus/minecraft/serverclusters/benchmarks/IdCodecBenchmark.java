@@ -0,0 +1,71 @@
+package io.brutus.minecraft.serverclusters.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.brutus.minecraft.serverclusters.protocol.IdRequest;
+import io.brutus.minecraft.serverclusters.protocol.IdResponse;
+
+/**
+ * Encode and decode throughput of unique-id requests and responses.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IdCodecBenchmark {
+
+  @Param({"8", "24", "48"})
+  public int idLength;
+
+  private String clusterId;
+  private String serverId;
+  private IdRequest decodedRequest;
+
+  private byte[] request;
+  private byte[] response;
+
+  @Setup
+  public void setup() {
+    clusterId = Fixtures.id("cluster", 1, idLength);
+    serverId = Fixtures.id("server", 1, idLength);
+
+    request = encodeRequest();
+    decodedRequest = IdRequest.fromBytes(request);
+    response = encodeResponse();
+  }
+
+  @Benchmark
+  public byte[] encodeRequest() {
+    return IdRequest.createMessage(clusterId, "10.0.12.134", 25565);
+  }
+
+  @Benchmark
+  public IdRequest decodeRequest() {
+    return IdRequest.fromBytes(request);
+  }
+
+  @Benchmark
+  public byte[] encodeResponse() {
+    return IdResponse.createMessage(serverId, decodedRequest);
+  }
+
+  @Benchmark
+  public IdResponse decodeResponse() {
+    return IdResponse.fromBytes(response);
+  }
+
+}
@@ -0,0 +1,94 @@
+package io.brutus.minecraft.serverclusters.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import io.brutus.minecraft.serverclusters.protocol.Heartbeat;
+import io.brutus.minecraft.serverclusters.protocol.IdRequest;
+import io.brutus.minecraft.serverclusters.protocol.IdResponse;
+import io.brutus.minecraft.serverclusters.protocol.PlayerFilter;
+import io.brutus.minecraft.serverclusters.protocol.ReservationRequest;
+import io.brutus.minecraft.serverclusters.protocol.ReservationResponse;
+import io.brutus.minecraft.serverclusters.protocol.ShutdownNotification;
+import io.brutus.minecraft.serverclusters.protocol.config.ConfigurationMessage;
+
+/**
+ * Prints the encoded size of every protocol message for the same inputs the codec benchmarks use.
+ * <p>
+ * JMH measures time and allocation but not the size of what goes over the wire, so sizes are
+ * reported separately. Run with:
+ * 
+ * <pre>
+ * java -cp ServerClustersBenchmarks.jar io.brutus.minecraft.serverclusters.benchmarks.MessageSizes
+ * </pre>
+ */
+public class MessageSizes {
+
+  private static final int[] ID_LENGTHS = {8, 24, 48};
+  private static final int[] HEARTBEAT_PLAYERS = {0, 20, 200};
+  private static final int[] GROUP_SIZES = {1, 4, 16};
+  private static final int[] CLUSTERS = {5, 50, 500};
+
+  public static void main(String[] args) {
+    for (int idLength : ID_LENGTHS) {
+      String clusterId = Fixtures.id("cluster", 1, idLength);
+      String serverId = Fixtures.id("server", 1, idLength);
+      String otherServerId = Fixtures.id("server", 2, idLength);
+
+      for (int players : HEARTBEAT_PLAYERS) {
+        print("Heartbeat", idLength, "players=" + players,
+            heartbeat(clusterId, serverId, players).length);
+      }
+
+      print("ShutdownNotification", idLength, "",
+          ShutdownNotification.createMessage(serverId).length);
+
+      for (int groupSize : GROUP_SIZES) {
+        Set<UUID> group = Fixtures.players(groupSize);
+        String detail = "groupSize=" + groupSize;
+        print("ReservationRequest (server)", idLength, detail, ReservationRequest
+            .createMessageToServer(serverId, otherServerId, 42, group).length);
+        print("ReservationRequest (uuid)", idLength, detail, ReservationRequest
+            .createMessageToPlayer(UUID.randomUUID(), otherServerId, 42, group).length);
+        print("ReservationRequest (name)", idLength, detail, ReservationRequest
+            .createMessageToPlayer("SomePlayerName", otherServerId, 42, group).length);
+      }
+
+      print("ReservationResponse", idLength, "",
+          ReservationResponse.createMessage(otherServerId, serverId, 42, true).length);
+
+      byte[] idRequest = IdRequest.createMessage(clusterId, "10.0.12.134", 25565);
+      print("IdRequest", idLength, "", idRequest.length);
+      print("IdResponse", idLength, "",
+          IdResponse.createMessage(serverId, IdRequest.fromBytes(idRequest)).length);
+    }
+
+    for (int clusters : CLUSTERS) {
+      print("ConfigurationMessage", 16, "clusters=" + clusters, ConfigurationMessage
+          .createMessage(Fixtures.configuration(clusters, 16)).length);
+    }
+  }
+
+  private static byte[] heartbeat(String clusterId, String serverId, int players) {
+    if (players == 0) {
+      return Heartbeat.createMessage(clusterId, serverId, "10.0.12.134", 25565, 12);
+    }
+    List<UUID> joined = new ArrayList<UUID>(Fixtures.players(players));
+    PlayerFilter filter = new PlayerFilter();
+    int i = 0;
+    for (UUID player : joined) {
+      filter.add(player, "Player" + i++);
+    }
+    return Heartbeat.createMessage(clusterId, serverId, "10.0.12.134", 25565, 12, 1, false,
+        joined, Collections.<UUID>emptyList(), filter.toBytes());
+  }
+
+  private static void print(String message, int idLength, String detail, int bytes) {
+    System.out.println(String.format("%-30s idLength=%-4d %-16s %7d bytes", message, idLength,
+        detail, bytes));
+  }
+
+}
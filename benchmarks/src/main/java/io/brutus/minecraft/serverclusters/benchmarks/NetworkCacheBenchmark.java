@@ -0,0 +1,150 @@
+package io.brutus.minecraft.serverclusters.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.brutus.minecraft.serverclusters.networkstatus.NetworkCache;
+import io.brutus.minecraft.serverclusters.networkstatus.ServerStatus;
+import io.brutus.minecraft.serverclusters.protocol.Heartbeat;
+import io.brutus.minecraft.serverclusters.selection.ServerSelectionMode;
+
+/**
+ * Server selection from the {@link NetworkCache} while heartbeats are coming in.
+ * <p>
+ * This is the hot path of a proxy placing players as they log in: reader threads pick servers for
+ * a cluster while the messaging thread keeps applying heartbeats from every server on the network.
+ * <p>
+ * The <code>contended</code> group runs 2 heartbeat writers, 4 <code>getServers</code> readers,
+ * and 2 <code>getClusterSize</code> readers against one cache. The <code>uncontended</code> group
+ * runs the same readers with no writers, as a baseline. Throughput and sample-time modes are both
+ * run, so p99 latency is reported per call; add <code>-prof gc</code> for allocation per call.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NetworkCacheBenchmark {
+
+  private static final int SERVERS_PER_CLUSTER = 20;
+  private static final long SERVER_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
+  /**
+   * A cache of the whole network, shared by every thread in a group.
+   */
+  @State(Scope.Group)
+  public static class Network {
+
+    @Param({"10", "100", "1000", "5000"})
+    public int servers;
+
+    @Param({"LOAD_BALANCING", "MATCHMAKING", "RANDOM"})
+    public ServerSelectionMode mode;
+
+    private NetworkCache cache;
+    private Heartbeat[] heartbeats;
+    private String[] clusterIds;
+
+    @Setup
+    public void setup() {
+      cache = new NetworkCache(SERVER_TIMEOUT, null);
+
+      int clusters = Math.max(1, servers / SERVERS_PER_CLUSTER);
+      clusterIds = new String[clusters];
+      for (int i = 0; i < clusters; i++) {
+        clusterIds[i] = Fixtures.id("cluster", i, 16);
+      }
+
+      // several heartbeats per server, with different numbers of open slots, so writers keep
+      // changing what readers see
+      heartbeats = new Heartbeat[servers * 4];
+      for (int i = 0; i < heartbeats.length; i++) {
+        int server = i % servers;
+        heartbeats[i] =
+            Heartbeat.fromBytes(Heartbeat.createMessage(clusterIds[server % clusters],
+                Fixtures.id("server", server, 24), "10.0." + (server / 250) + "."
+                    + (server % 250), 25565, (i * 7) % 60));
+      }
+
+      for (int i = 0; i < servers; i++) {
+        cache.onHeartbeat(heartbeats[i]);
+      }
+    }
+
+    @TearDown
+    public void tearDown() {
+      cache.destroy();
+    }
+
+  }
+
+  /**
+   * Each thread's own position in the heartbeats and clusters, so threads do not share a counter.
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+
+    private int next;
+
+    private int next(int bound) {
+      next = (next + 1) % bound;
+      return next;
+    }
+
+  }
+
+  @Benchmark
+  @Group("contended")
+  @GroupThreads(2)
+  public void heartbeat(Network network, Cursor cursor) {
+    network.cache.onHeartbeat(network.heartbeats[cursor.next(network.heartbeats.length)]);
+  }
+
+  @Benchmark
+  @Group("contended")
+  @GroupThreads(4)
+  public List<ServerStatus> getServers(Network network, Cursor cursor) {
+    return network.cache.getServers(network.clusterIds[cursor.next(network.clusterIds.length)],
+        network.mode, 1);
+  }
+
+  @Benchmark
+  @Group("contended")
+  @GroupThreads(2)
+  public int getClusterSize(Network network, Cursor cursor) {
+    return network.cache.getClusterSize(network.clusterIds[cursor
+        .next(network.clusterIds.length)]);
+  }
+
+  @Benchmark
+  @Group("uncontended")
+  @GroupThreads(4)
+  public List<ServerStatus> getServersAlone(Network network, Cursor cursor) {
+    return network.cache.getServers(network.clusterIds[cursor.next(network.clusterIds.length)],
+        network.mode, 1);
+  }
+
+  @Benchmark
+  @Group("uncontended")
+  @GroupThreads(2)
+  public int getClusterSizeAlone(Network network, Cursor cursor) {
+    return network.cache.getClusterSize(network.clusterIds[cursor
+        .next(network.clusterIds.length)]);
+  }
+
+}
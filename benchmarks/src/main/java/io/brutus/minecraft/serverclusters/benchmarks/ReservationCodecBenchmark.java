@@ -0,0 +1,108 @@
+package io.brutus.minecraft.serverclusters.benchmarks;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.brutus.minecraft.serverclusters.protocol.ReservationRequest;
+import io.brutus.minecraft.serverclusters.protocol.ReservationResponse;
+
+/**
+ * Encode and decode throughput of reservation requests, for each kind of target, and of their
+ * responses.
+ * <p>
+ * <code>groupSize</code> is the number of players the slots are being reserved for. A single
+ * player is the common case; parties are sent as groups.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReservationCodecBenchmark {
+
+  @Param({"8", "24", "48"})
+  public int idLength;
+
+  @Param({"1", "4", "16"})
+  public int groupSize;
+
+  private String targetServer;
+  private String requestingServer;
+  private UUID targetPlayer;
+  private String targetName;
+  private Set<UUID> players;
+
+  private byte[] serverRequest;
+  private byte[] uuidRequest;
+  private byte[] nameRequest;
+  private byte[] response;
+
+  @Setup
+  public void setup() {
+    targetServer = Fixtures.id("server", 1, idLength);
+    requestingServer = Fixtures.id("server", 2, idLength);
+    targetPlayer = UUID.randomUUID();
+    targetName = "SomePlayerName";
+    players = Fixtures.players(groupSize);
+
+    serverRequest = encodeToServer();
+    uuidRequest = encodeToPlayerUuid();
+    nameRequest = encodeToPlayerName();
+    response = encodeResponse();
+  }
+
+  @Benchmark
+  public byte[] encodeToServer() {
+    return ReservationRequest.createMessageToServer(targetServer, requestingServer, 42, players);
+  }
+
+  @Benchmark
+  public byte[] encodeToPlayerUuid() {
+    return ReservationRequest.createMessageToPlayer(targetPlayer, requestingServer, 42, players);
+  }
+
+  @Benchmark
+  public byte[] encodeToPlayerName() {
+    return ReservationRequest.createMessageToPlayer(targetName, requestingServer, 42, players);
+  }
+
+  @Benchmark
+  public ReservationRequest decodeToServer() {
+    return ReservationRequest.fromBytes(serverRequest);
+  }
+
+  @Benchmark
+  public ReservationRequest decodeToPlayerUuid() {
+    return ReservationRequest.fromBytes(uuidRequest);
+  }
+
+  @Benchmark
+  public ReservationRequest decodeToPlayerName() {
+    return ReservationRequest.fromBytes(nameRequest);
+  }
+
+  @Benchmark
+  public byte[] encodeResponse() {
+    return ReservationResponse.createMessage(requestingServer, targetServer, 42, true);
+  }
+
+  @Benchmark
+  public ReservationResponse decodeResponse() {
+    return ReservationResponse.fromBytes(response);
+  }
+
+}
@@ -1,10 +1,14 @@
 package io.brutus.minecraft.serverclusters.bukkit;
 
+import java.io.File;
+
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
 import io.brutus.minecraft.pubsub.PubSub;
+import io.brutus.minecraft.serverclusters.config.ConfigurationCache;
 import io.brutus.minecraft.serverclusters.config.SharedConfiguration;
+import io.brutus.minecraft.serverclusters.config.SharedConfigurationListener;
 import io.brutus.minecraft.serverclusters.config.SharedConfigurationManager;
 import io.brutus.minecraft.serverclusters.gameserver.ServerClustersConfiguration;
 import io.brutus.minecraft.serverclusters.protocol.serialization.Encoding;
@@ -55,6 +59,8 @@ public class BukkitConfiguration implements ServerClustersConfiguration {
       messagerName = messagerSec.getString("pubsub-messager");
       configRequestChannel = messagerSec.getString("request-channel").getBytes(Encoding.CHARSET);
       configResponseChannel = messagerSec.getString("response-channel").getBytes(Encoding.CHARSET);
+      // configs from before the cache existed get the default file
+      String cacheFile = messagerSec.getString("cache-file", "shared-config.cache");
 
       PubSubMessager messager = PubSub.getSingleton().getMessager(messagerName);
       if (messager == null) {
@@ -63,8 +69,12 @@ public class BukkitConfiguration implements ServerClustersConfiguration {
       }
 
       // blocks thread while attempting to load central configuration
+      ConfigurationCache cache =
+          cacheFile == null || cacheFile.isEmpty() ? null : new ConfigurationCache(new File(
+              plugin.getDataFolder(), cacheFile));
       configManager =
-          new SharedConfigurationManager(messager, configRequestChannel, configResponseChannel);
+          new SharedConfigurationManager(messager, configRequestChannel, configResponseChannel,
+              cache);
       // TODO add admin notifier
       sharedConfig = configManager.loadConfiguration(null);
 
@@ -121,6 +131,17 @@ public class BukkitConfiguration implements ServerClustersConfiguration {
     configManager.destroy();
   }
 
+  @Override
+  public void registerListener(SharedConfigurationListener listener)
+      throws IllegalArgumentException {
+    configManager.registerListener(listener);
+  }
+
+  @Override
+  public void unregisterListener(SharedConfigurationListener listener) {
+    configManager.unregisterListener(listener);
+  }
+
   @Override
   public String getServerId() {
     return serverId;
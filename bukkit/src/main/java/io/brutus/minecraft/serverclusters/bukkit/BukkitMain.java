@@ -1,6 +1,7 @@
 package io.brutus.minecraft.serverclusters.bukkit;
 
 import io.brutus.minecraft.serverclusters.gameserver.ServerClusters;
+import io.brutus.minecraft.serverclusters.logging.Log;
 
 import org.bukkit.plugin.java.JavaPlugin;
 
@@ -10,19 +11,23 @@ import org.bukkit.plugin.java.JavaPlugin;
 public class BukkitMain extends JavaPlugin {
 
   private BukkitConfiguration config;
+  private BukkitSlotManager bukkitSlots;
 
   @Override
   public void onEnable() {
 
-    config = new BukkitConfiguration(this);
     BukkitUtils serverUtils = new BukkitUtils(this);
+    Log.start(serverUtils.getLogger());
+
+    config = new BukkitConfiguration(this);
 
     // initializes slot manager that will track this server's open slots and handle other server's
     // reservation requests
-    BukkitSlotManager bukkitSlots =
+    bukkitSlots =
         new BukkitSlotManager(this, config.getTotalSlots(),
             config.getReservationFulfillmentTimeout(), config.strictReservations());
     getServer().getPluginManager().registerEvents(bukkitSlots, this);
+    config.registerListener(bukkitSlots);
 
     getCommand("networkstatus").setExecutor(new NetworkStatusCommand());
 
@@ -34,10 +39,13 @@ public class BukkitMain extends JavaPlugin {
   @Override
   public void onDisable() {
     ServerClusters.onDisable();
+    config.unregisterListener(bukkitSlots);
+    bukkitSlots.destroy();
 
     config.destroy();
 
     getLogger().info("has been disabled.");
+    Log.stop();
   }
 
 }
@@ -1,15 +1,15 @@
 package io.brutus.minecraft.serverclusters.bukkit;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
-import net.jodah.expiringmap.ExpiringMap;
-import net.jodah.expiringmap.ExpiringMap.ExpirationListener;
-import net.jodah.expiringmap.ExpiringMap.ExpirationPolicy;
-
+import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
@@ -21,22 +21,37 @@ import org.bukkit.event.player.PlayerQuitEvent;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
+import io.brutus.minecraft.serverclusters.config.SharedConfiguration;
+import io.brutus.minecraft.serverclusters.config.SharedConfigurationListener;
 import io.brutus.minecraft.serverclusters.gameserver.SlotManager;
+import io.brutus.minecraft.serverclusters.logging.Log;
 
 /**
  * A slot manager that uses Bukkit events to handle player logins, joins, and quits.
+ * <p>
+ * Slots are tracked with a lock-free ledger: a single atomic counter of claimed slots (players
+ * online, players with a reservation, and players who have logged in but not yet joined). Slots
+ * are claimed with a compare-and-set loop, so concurrent reservation requests can never
+ * oversubscribe the server. Reservations that are not fulfilled in time are released by a
+ * dedicated sweeper thread.
  */
-public class BukkitSlotManager implements SlotManager, Listener, ExpirationListener<UUID, Long> {
+public class BukkitSlotManager implements SlotManager, SharedConfigurationListener, Listener {
 
-  private final BukkitMain plugin;
+  private static final long MIN_SWEEP_INTERVAL = 50;
+  private static final int SWEEPS_PER_TIMEOUT = 10;
 
   private volatile int totalSlots;
-  private final AtomicInteger onlinePlayers;
+  private final AtomicInteger claimedSlots;
 
   private final boolean strictReservations;
-  private final Map<UUID, Long> reservations;
+  private volatile long reservationTimeout;
+  private final Map<UUID, Long> reservations; // <player, reservation deadline>
+  private final Map<UUID, Long> arrivals; // <player logging in, join deadline>
+  private final Set<UUID> online;
+
+  private final AtomicReference<SettableFuture<Boolean>> future;
 
-  private SettableFuture<Boolean> future;
+  private volatile boolean alive;
 
   public BukkitSlotManager(BukkitMain plugin, int totalSlots, long reservationTimeout,
       boolean strictReservations) throws IllegalArgumentException {
@@ -50,14 +65,43 @@ public class BukkitSlotManager implements SlotManager, Listener, ExpirationListe
       throw new IllegalArgumentException("reservation timeout must be positive");
     }
 
-    this.plugin = plugin;
     this.strictReservations = strictReservations;
     this.totalSlots = totalSlots;
-    this.onlinePlayers = new AtomicInteger(plugin.getServer().getOnlinePlayers().size());
+    this.claimedSlots = new AtomicInteger(plugin.getServer().getOnlinePlayers().size());
+
+    this.reservationTimeout = reservationTimeout;
+    this.reservations = new ConcurrentHashMap<UUID, Long>();
+    this.arrivals = new ConcurrentHashMap<UUID, Long>();
+    this.online = Collections.newSetFromMap(new ConcurrentHashMap<UUID, Boolean>());
+    for (Player player : plugin.getServer().getOnlinePlayers()) {
+      online.add(player.getUniqueId());
+    }
+
+    this.future = new AtomicReference<SettableFuture<Boolean>>();
+
+    startSweeping();
+  }
+
+  /**
+   * Stops expiring reservations and relinquishes this slot manager's resources.
+   * <p>
+   * Irreversible.
+   */
+  public void destroy() {
+    alive = false;
+  }
 
-    this.reservations =
-        ExpiringMap.builder().expirationPolicy(ExpirationPolicy.CREATED)
-            .expiration(reservationTimeout, TimeUnit.MILLISECONDS).expirationListener(this).build();
+  @Override
+  public void onConfigurationChange(SharedConfiguration config) {
+    long timeout = config.getReservationFulfillmentTimeout();
+    if (timeout < 1) {
+      Log.warning("[ServerClusters] Ignoring the updated reservation timeout of {} ms, it must be"
+          + " positive.", timeout);
+    } else if (timeout != reservationTimeout) {
+      // reservations already made keep their deadlines
+      reservationTimeout = timeout;
+      Log.info("[ServerClusters] Reservation timeout changed to {} ms.", timeout);
+    }
   }
 
   @Override
@@ -66,9 +110,10 @@ public class BukkitSlotManager implements SlotManager, Listener, ExpirationListe
       throw new IllegalArgumentException("total slots cannot be negative");
     }
 
-    if (future != null) { // informs client that previous attempt was overwritten
-      future.set(false);
-      future = null;
+    // informs client that previous attempt was overwritten
+    SettableFuture<Boolean> previous = future.getAndSet(null);
+    if (previous != null) {
+      previous.set(false);
     }
 
     this.totalSlots = totalSlots;
@@ -76,8 +121,10 @@ public class BukkitSlotManager implements SlotManager, Listener, ExpirationListe
     SettableFuture<Boolean> ret = SettableFuture.create();
 
     // needs to wait for reservations to resolve before finishing.
-    if (totalSlots < onlinePlayers.get() + reservations.size() && reservations.size() > 0) {
-      future = ret;
+    if (totalSlots < claimedSlots.get() && hasPendingPlayers()) {
+      future.set(ret);
+      // reservations may have resolved while the future was being set
+      checkFuture();
     } else { // else no need to wait; finishes immediately.
       ret.set(true);
     }
@@ -91,7 +138,7 @@ public class BukkitSlotManager implements SlotManager, Listener, ExpirationListe
 
   @Override
   public int getOpenSlots() {
-    int ret = totalSlots - onlinePlayers.get() - reservations.size();
+    int ret = totalSlots - claimedSlots.get();
     if (ret < 0) {
       return 0;
     }
@@ -104,66 +151,216 @@ public class BukkitSlotManager implements SlotManager, Listener, ExpirationListe
       throw new IllegalArgumentException("must pass in at least 1 player");
     }
 
-    if (getOpenSlots() < players.size()) {
+    if (!claim(players.size())) {
       return false;
     }
 
-    long now = System.currentTimeMillis();
+    long deadline = System.currentTimeMillis() + reservationTimeout;
     for (UUID pid : players) {
-      reservations.put(pid, now);
+      // a player who already had a reservation only keeps the one slot
+      if (reservations.put(pid, deadline) != null) {
+        release(1);
+      }
     }
 
     return true;
   }
 
   @Override
-  public void expired(UUID player, Long reservationMade) {
+  public boolean transferReservation(Set<UUID> placeholders, Set<UUID> players)
+      throws IllegalArgumentException {
+    if (placeholders == null || placeholders.isEmpty() || players == null || players.isEmpty()) {
+      throw new IllegalArgumentException("must pass in at least 1 placeholder and 1 player");
+    }
+
+    // takes over the slots of placeholders whose reservations have not expired yet
+    int held = 0;
+    for (UUID placeholder : placeholders) {
+      if (reservations.remove(placeholder) != null) {
+        held++;
+      }
+    }
+
+    // players already on the server or logging in to it hold a slot of their own
+    Set<UUID> coming = new HashSet<UUID>();
+    for (UUID pid : players) {
+      if (!isHere(pid)) {
+        coming.add(pid);
+      }
+    }
+
+    int needed = coming.size() - held;
+    if (needed > 0 && !claim(needed)) {
+      release(held);
+      checkFuture();
+      return false;
+    } else if (needed < 0) {
+      release(-needed);
+    }
+
+    long deadline = System.currentTimeMillis() + reservationTimeout;
+    for (UUID pid : coming) {
+      if (reservations.put(pid, deadline) != null) {
+        release(1);
+      }
+      // the player may have started logging in since they were checked
+      if (isHere(pid) && reservations.remove(pid, deadline)) {
+        release(1);
+      }
+    }
     checkFuture();
+    return true;
   }
 
   @EventHandler(priority = EventPriority.HIGHEST)
   public void onAsyncPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
-    Long reservationMade = reservations.remove(event.getUniqueId());
+    UUID playerId = event.getUniqueId();
+    Long reservationDeadline = reservations.remove(playerId);
 
     if (event.getLoginResult() != Result.ALLOWED) {
+      if (reservationDeadline != null) {
+        release(1);
+        checkFuture();
+      }
       return;
     }
 
-    if (reservationMade == null) {
+    if (reservationDeadline == null) {
       if (strictReservations) {
         // no reservation, gtfo
         event
             .disallow(Result.KICK_OTHER,
                 "You are not currently allowed to go there! Please contact a staff member and report this bug.");
+        return;
 
-      } else if (getOpenSlots() < 1) {
+      } else if (!claim(1)) {
         // okay, so you don't have a reservation. We would seat you but it is just too busy tonight
         event.disallow(Result.KICK_FULL,
             "Sorry, there is no room there right now. Please try again.");
+        return;
       }
     }
+
+    // holds the player's slot until they finish joining or the login falls through
+    if (arrivals.put(playerId, System.currentTimeMillis() + reservationTimeout) != null) {
+      release(1);
+    }
+    // a reservation handed over while the player was logging in would hold a second slot
+    if (reservations.remove(playerId) != null) {
+      release(1);
+    }
   }
 
   @EventHandler(priority = EventPriority.MONITOR)
   public void onPlayerJoin(PlayerJoinEvent event) {
-    plugin.getServer().getScheduler().runTaskLater(plugin, new Runnable() {
-      @Override
-      public void run() {
-        onlinePlayers.set(plugin.getServer().getOnlinePlayers().size());
-        checkFuture();
-      }
-    }, 1L);
+    // the slot claimed while logging in is now held by the online player. Players who joined
+    // without going through a login that claimed a slot still need to be counted.
+    online.add(event.getPlayer().getUniqueId());
+    if (arrivals.remove(event.getPlayer().getUniqueId()) == null) {
+      claimedSlots.incrementAndGet();
+    }
+    checkFuture();
   }
 
   @EventHandler(priority = EventPriority.MONITOR)
   public void onPlayerQuit(PlayerQuitEvent event) {
-    plugin.getServer().getScheduler().runTaskLater(plugin, new Runnable() {
+    online.remove(event.getPlayer().getUniqueId());
+    release(1);
+    checkFuture();
+  }
+
+  /**
+   * Atomically claims a number of slots, if that many are open.
+   * 
+   * @param slots The number of slots to claim.
+   * @return <code>true</code> if the slots were claimed, <code>false</code> if there was not enough
+   *         room for all of them and none were claimed.
+   */
+  private boolean claim(int slots) {
+    while (true) {
+      int claimed = claimedSlots.get();
+      if (totalSlots - claimed < slots) {
+        return false;
+      }
+      if (claimedSlots.compareAndSet(claimed, claimed + slots)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Releases a number of previously claimed slots.
+   * 
+   * @param slots The number of slots to release.
+   */
+  private void release(int slots) {
+    while (true) {
+      int claimed = claimedSlots.get();
+      int updated = Math.max(0, claimed - slots);
+      if (claimedSlots.compareAndSet(claimed, updated)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Releases the slots of reservations and logins that have passed their deadline.
+   */
+  private void sweep() {
+    long now = System.currentTimeMillis();
+    int released = sweep(reservations, now) + sweep(arrivals, now);
+    if (released > 0) {
+      release(released);
+      checkFuture();
+    }
+  }
+
+  private int sweep(Map<UUID, Long> pending, long now) {
+    int released = 0;
+    for (Map.Entry<UUID, Long> entry : pending.entrySet()) {
+      // only releases the slot if the entry was not fulfilled or renewed in the meantime
+      if (entry.getValue() <= now && pending.remove(entry.getKey(), entry.getValue())) {
+        released++;
+      }
+    }
+    return released;
+  }
+
+  /**
+   * Starts periodically releasing expired reservations.
+   */
+  private void startSweeping() {
+    alive = true;
+
+    Thread sweeper = new Thread() {
+
       @Override
       public void run() {
-        onlinePlayers.set(plugin.getServer().getOnlinePlayers().size());
-        checkFuture();
+        while (alive) {
+          try {
+            Thread.sleep(Math.max(MIN_SWEEP_INTERVAL, reservationTimeout / SWEEPS_PER_TIMEOUT));
+          } catch (InterruptedException e) {
+            Log.warning("[ServerClusters] The reservation sweeper was interrupted.", e);
+            alive = false;
+            return;
+          }
+          sweep();
+        }
       }
-    }, 1L);
+    };
+    sweeper.setDaemon(true);
+    sweeper.start();
+  }
+
+  /**
+   * Gets whether a player is on this server or logging in to it, and so already holds a slot.
+   */
+  private boolean isHere(UUID playerId) {
+    return online.contains(playerId) || arrivals.containsKey(playerId);
+  }
+
+  private boolean hasPendingPlayers() {
+    return !reservations.isEmpty() || !arrivals.isEmpty();
   }
 
   /**
@@ -171,10 +368,12 @@ public class BukkitSlotManager implements SlotManager, Listener, ExpirationListe
    * to change the number of slots.
    */
   private void checkFuture() {
-    if (future != null) {
-      if (reservations.isEmpty() || totalSlots >= onlinePlayers.get() + reservations.size()) {
-        future.set(true);
-        future = null;
+    SettableFuture<Boolean> waiting = future.get();
+    if (waiting != null) {
+      if (!hasPendingPlayers() || totalSlots >= claimedSlots.get()) {
+        if (future.compareAndSet(waiting, null)) {
+          waiting.set(true);
+        }
       }
     }
   }
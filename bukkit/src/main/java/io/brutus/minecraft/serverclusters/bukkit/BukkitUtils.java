@@ -1,6 +1,8 @@
 package io.brutus.minecraft.serverclusters.bukkit;
 
+import io.brutus.minecraft.serverclusters.gameserver.OnlinePlayerIndex;
 import io.brutus.minecraft.serverclusters.gameserver.ServerUtils;
+import io.brutus.minecraft.serverclusters.logging.Log;
 
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
@@ -14,17 +16,33 @@ import java.util.logging.Logger;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 
 /**
  * Bukkit-specific server utilities.
+ * <p>
+ * Keeps an index of online players up to date from join and quit events, so that lookups of online
+ * players are thread safe.
  */
-public class BukkitUtils implements ServerUtils {
+public class BukkitUtils implements ServerUtils, Listener {
 
   private JavaPlugin plugin;
+  private final OnlinePlayerIndex onlinePlayers;
 
   public BukkitUtils(JavaPlugin plugin) {
     this.plugin = plugin;
+
+    this.onlinePlayers = new OnlinePlayerIndex();
+    for (Player player : plugin.getServer().getOnlinePlayers()) {
+      onlinePlayers.add(player.getUniqueId(), player.getName());
+    }
+    plugin.getServer().getPluginManager().registerEvents(this, plugin);
+
     plugin.getServer().getMessenger().registerOutgoingPluginChannel(plugin, "BungeeCord");
   }
 
@@ -70,9 +88,8 @@ public class BukkitUtils implements ServerUtils {
           out.writeUTF("Connect");
           out.writeUTF(destinationServer);
         } catch (IOException e) {
-          System.out
-              .println("There was an issue writing a message to send a player to a connected server");
-          e.printStackTrace();
+          Log.warning("There was an issue writing a message to send a player to a connected server",
+              e);
         }
 
         player.sendPluginMessage(plugin, "BungeeCord", b.toByteArray());
@@ -83,20 +100,17 @@ public class BukkitUtils implements ServerUtils {
 
   @Override
   public boolean isPlayerOnline(UUID id) {
-    Player p = Bukkit.getPlayer(id);
-    if (p == null || !p.isOnline()) {
-      return false;
-    }
-    return true;
+    return onlinePlayers.contains(id);
   }
 
   @Override
   public boolean isPlayerOnline(String name) {
-    Player p = Bukkit.getPlayerExact(name);
-    if (p == null || !p.isOnline()) {
-      return false;
-    }
-    return true;
+    return onlinePlayers.contains(name);
+  }
+
+  @Override
+  public OnlinePlayerIndex getOnlinePlayerIndex() {
+    return onlinePlayers;
   }
 
   @Override
@@ -143,5 +157,15 @@ public class BukkitUtils implements ServerUtils {
     }
   }
 
+  @EventHandler(priority = EventPriority.LOWEST)
+  public void onPlayerJoin(PlayerJoinEvent event) {
+    Player player = event.getPlayer();
+    onlinePlayers.add(player.getUniqueId(), player.getName());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onPlayerQuit(PlayerQuitEvent event) {
+    onlinePlayers.remove(event.getPlayer().getUniqueId());
+  }
 
 }
@@ -3,13 +3,17 @@ package io.brutus.minecraft.serverclusters.bungee;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import io.brutus.minecraft.pubsub.PubSub;
+import io.brutus.minecraft.serverclusters.config.ConfigurationCache;
 import io.brutus.minecraft.serverclusters.config.LocalConfiguration;
 import io.brutus.minecraft.serverclusters.config.SharedConfiguration;
+import io.brutus.minecraft.serverclusters.config.SharedConfigurationListener;
 import io.brutus.minecraft.serverclusters.config.SharedConfigurationManager;
 import io.brutus.minecraft.serverclusters.protocol.serialization.Encoding;
 import io.brutus.minecraft.serverclusters.selection.ServerSelectionMode;
@@ -34,6 +38,12 @@ public class BungeeConfiguration implements SharedConfiguration, LocalConfigurat
 
   private String defaultCluster;
   private Map<String, String> forcedHostDefaults;
+  private int placementPoolSize;
+  private int loginQueueMaxInFlight;
+  private int loginQueueMaxQueued;
+  private int loginQueueBatchSize;
+  private long loginQueueMaxWait;
+  private long loginQueueRetryAfter;
 
   private String messagerName;
   private byte[] configRequestChannel;
@@ -77,11 +87,22 @@ public class BungeeConfiguration implements SharedConfiguration, LocalConfigurat
         String cluster = fhSec.getString(key);
         forcedHostDefaults.put(forcedHost, cluster);
       }
+      placementPoolSize = Math.max(0, config.getInt("placement-pool-size", 0));
+
+      // configs from before the login queue existed get the defaults
+      Configuration queueSec = config.getSection("login-queue");
+      loginQueueMaxInFlight = queueSec.getInt("max-in-flight", 32);
+      loginQueueMaxQueued = queueSec.getInt("max-queued", 1000);
+      loginQueueBatchSize = queueSec.getInt("batch-size", 1);
+      loginQueueMaxWait = queueSec.getLong("max-wait-seconds", 20) * 1000;
+      loginQueueRetryAfter = queueSec.getLong("retry-after-seconds", 10);
 
       Configuration messagerSec = config.getSection("central-config");
       messagerName = messagerSec.getString("pubsub-messager");
       configRequestChannel = messagerSec.getString("request-channel").getBytes(Encoding.CHARSET);
       configResponseChannel = messagerSec.getString("response-channel").getBytes(Encoding.CHARSET);
+      // configs from before the cache existed get the default file
+      String cacheFile = messagerSec.getString("cache-file", "shared-config.cache");
 
       PubSubMessager messager = null;
       // if PubSub is not enabled, waits for it to enable, periodically retrying to get an instance
@@ -103,8 +124,12 @@ public class BungeeConfiguration implements SharedConfiguration, LocalConfigurat
       // GETS SHARED NETWORK CONFIG
       // ----
       // blocks thread while attempting to load central configuration
+      ConfigurationCache cache =
+          cacheFile == null || cacheFile.isEmpty() ? null : new ConfigurationCache(new File(
+              plugin.getDataFolder(), cacheFile));
       configManager =
-          new SharedConfigurationManager(messager, configRequestChannel, configResponseChannel);
+          new SharedConfigurationManager(messager, configRequestChannel, configResponseChannel,
+              cache);
       // TODO add admin notifier
       sharedConfig = configManager.loadConfiguration(null);
 
@@ -169,6 +194,27 @@ public class BungeeConfiguration implements SharedConfiguration, LocalConfigurat
     configManager.destroy();
   }
 
+  /**
+   * Registers a listener to be told when the shared configuration changes, such as when it is
+   * reloaded on the coordinator.
+   * 
+   * @param listener The listener to register.
+   * @throws IllegalArgumentException on a <code>null</code> listener.
+   */
+  public void registerListener(SharedConfigurationListener listener)
+      throws IllegalArgumentException {
+    configManager.registerListener(listener);
+  }
+
+  /**
+   * Unregisters a listener so it is no longer told when the shared configuration changes.
+   * 
+   * @param listener The listener to unregister.
+   */
+  public void unregisterListener(SharedConfigurationListener listener) {
+    configManager.unregisterListener(listener);
+  }
+
   /**
    * Gets the current, ephemeral unique id of this bungee instance.
    * 
@@ -205,6 +251,84 @@ public class BungeeConfiguration implements SharedConfiguration, LocalConfigurat
     return ret;
   }
 
+  /**
+   * Gets every cluster that players can be sent to on logging into this proxy, whether as the
+   * default or for a forced host.
+   * 
+   * @return The ids of the default clusters.
+   */
+  public Set<String> getDefaultClusterIds() {
+    Set<String> ret = new HashSet<String>();
+    if (defaultCluster != null && !defaultCluster.isEmpty()) {
+      ret.add(defaultCluster);
+    }
+    for (String cluster : forcedHostDefaults.values()) {
+      if (cluster != null && !cluster.isEmpty()) {
+        ret.add(cluster);
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Gets the number of slots to keep reserved ahead of time on each default cluster, so players
+   * logging in can be placed right away.
+   * 
+   * @return The number of slots to keep per default cluster. <code>0</code> to place every player
+   *         with a reservation request as they log in.
+   */
+  public int getPlacementPoolSize() {
+    return placementPoolSize;
+  }
+
+  /**
+   * Gets the most players that can be being placed on one default cluster at once. Other players
+   * logging in wait in line for their turn.
+   * 
+   * @return The most placements in progress per default cluster.
+   */
+  public int getLoginQueueMaxInFlight() {
+    return loginQueueMaxInFlight;
+  }
+
+  /**
+   * Gets the most players that can wait in line for one default cluster. Players who log in while
+   * the line is full are turned away.
+   * 
+   * @return The most waiting players per default cluster.
+   */
+  public int getLoginQueueMaxQueued() {
+    return loginQueueMaxQueued;
+  }
+
+  /**
+   * Gets the most waiting players to ask one server to take together.
+   * 
+   * @return The most players per reservation request. <code>1</code> to place every player on
+   *         their own.
+   */
+  public int getLoginQueueBatchSize() {
+    return loginQueueBatchSize;
+  }
+
+  /**
+   * Gets the longest a player can wait in line before they are turned away.
+   * 
+   * @return The longest wait, in milliseconds.
+   */
+  public long getLoginQueueMaxWait() {
+    return loginQueueMaxWait;
+  }
+
+  /**
+   * Gets how long players who are turned away are told to wait before trying again.
+   * 
+   * @return The time to wait, in seconds.
+   */
+  public long getLoginQueueRetryAfter() {
+    return loginQueueRetryAfter;
+  }
+
   @Override
   public String getMessagerInstanceName() {
     return messagerName;
@@ -4,9 +4,12 @@ import java.net.InetSocketAddress;
 import java.util.Collections;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import io.brutus.minecraft.pubsub.PubSub;
+import io.brutus.minecraft.serverclusters.logging.Log;
+import io.brutus.minecraft.serverclusters.metrics.StartupTimer;
 import io.brutus.minecraft.serverclusters.networkstatus.HeartbeatSubscription;
 import io.brutus.minecraft.serverclusters.networkstatus.NetworkCache;
 import io.brutus.minecraft.serverclusters.networkstatus.NetworkChangeListener;
@@ -28,6 +31,7 @@ import net.md_5.bungee.api.plugin.Plugin;
 public class BungeeMain extends Plugin implements NetworkChangeListener {
 
   private static final long REMOVAL_DELAY_SECONDS = 60;
+  private static final long STARTUP_TIMEOUT_SECONDS = 60;
   private static final TextComponent KICK_REASON = new TextComponent(
       "This instance is restarting, please try reconnecting.");
 
@@ -35,6 +39,7 @@ public class BungeeMain extends Plugin implements NetworkChangeListener {
   private PubSubMessager messager;
   private HeartbeatSubscription heartbeats;
   private NetworkStatus networkStatus;
+  private FirstJoinServerSelecter selecter;
 
   private Set<String> dynamicServers;
 
@@ -42,51 +47,87 @@ public class BungeeMain extends Plugin implements NetworkChangeListener {
 
   @Override
   public void onEnable() {
+    Log.start(getLogger());
     final BungeeMain thisPlugin = this;
+    final StartupTimer startup = new StartupTimer();
+    final CountDownLatch done = new CountDownLatch(1);
 
     // runs asynchronously to be able to create threads
     getProxy().getScheduler().runAsync(this, new Runnable() {
       @Override
       public void run() {
-        config = new BungeeConfiguration(thisPlugin);
+        try {
+          startup.phase("scheduling");
 
-        dynamicServers = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+          config = new BungeeConfiguration(thisPlugin);
+          startup.phase("config");
 
-        messager = PubSub.getSingleton().getMessager(config.getMessagerInstanceName());
+          dynamicServers = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
-        heartbeats =
-            new HeartbeatSubscription(messager, config.getHeartbeatChannel(), config
-                .getShutdownChannel());
+          messager = PubSub.getSingleton().getMessager(config.getMessagerInstanceName());
+          startup.phase("messager");
 
-        networkStatus = new NetworkCache(config.getServerTimeout(), null);
+          heartbeats =
+              new HeartbeatSubscription(messager, config.getHeartbeatChannel(), config
+                  .getShutdownChannel());
 
-        heartbeats.registerListener((NetworkCache) networkStatus);
-        networkStatus.registerListener(thisPlugin);
+          networkStatus = new NetworkCache(config.getServerTimeout(), null);
 
-        new FirstJoinServerSelecter(thisPlugin, networkStatus, messager, config);
+          heartbeats.registerListener((NetworkCache) networkStatus);
+          networkStatus.registerListener(thisPlugin);
+          config.registerListener((NetworkCache) networkStatus);
+          startup.phase("network status");
 
-        getProxy().getPluginManager().registerCommand(thisPlugin,
-            new NetworkStatusCommand(networkStatus));
+          selecter = new FirstJoinServerSelecter(thisPlugin, networkStatus, messager, config);
 
-        initialized = true;
+          getProxy().getPluginManager().registerCommand(thisPlugin,
+              new NetworkStatusCommand(networkStatus, selecter.getRelocationMetrics(),
+                  selecter.getPlacementPool(), selecter.getLoginQueue()));
+          startup.phase("player placement");
+
+          initialized = true;
+          Log.info("[ServerClusters] Initialized in {}.", startup);
+
+        } catch (RuntimeException e) {
+          Log.severe("[ServerClusters] Initialization failed after " + startup, e);
+        } finally {
+          done.countDown();
+        }
       }
     });
 
     // while we cannot create threads from the main thread, we still want to wait for initialization
-    // to finish before other plugins load. In other words, this is a hacky workaround for the
-    // SecurityManager. (note that instructing this thread to sleep does NOT work, which is why an
-    // empty loop is necessary)
-    while (!initialized) {
+    // to finish before other plugins load. In other words, this is a workaround for the
+    // SecurityManager. Waits on a latch rather than spinning, and only for so long, so a
+    // coordinator that never answers cannot hang the proxy's boot forever.
+    try {
+      if (!done.await(STARTUP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        getLogger().severe("initialization did not finish within " + STARTUP_TIMEOUT_SECONDS
+            + " seconds (" + startup + "). Starting without it; it keeps going in the background.");
+        return;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      getLogger().severe("interrupted while waiting for initialization to finish.");
+      return;
     }
 
-    getLogger().info("initialization complete.");
+    if (initialized) {
+      getLogger().info("initialization complete.");
+    }
   }
 
   @Override
   public void onDisable() {
+    if (selecter != null) {
+      selecter.destroy();
+    }
     if (heartbeats != null) {
       heartbeats.destroy();
     }
+    if (networkStatus != null) {
+      ((NetworkCache) networkStatus).destroy();
+    }
     if (dynamicServers != null) {
       for (String serverId : dynamicServers) {
         removeServer(serverId);
@@ -97,6 +138,7 @@ public class BungeeMain extends Plugin implements NetworkChangeListener {
       config.destroy();
     }
     initialized = false;
+    Log.stop();
   }
 
   // when a server first declares itself or recovers after a long downtime, adds it to the
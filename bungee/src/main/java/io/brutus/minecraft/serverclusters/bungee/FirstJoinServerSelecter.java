@@ -1,19 +1,19 @@
 package io.brutus.minecraft.serverclusters.bungee;
 
-import java.util.ConcurrentModificationException;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 
+import io.brutus.minecraft.serverclusters.logging.Log;
 import io.brutus.minecraft.serverclusters.networkstatus.NetworkStatus;
-import io.brutus.minecraft.serverclusters.selection.ServerSelectionMode;
 import io.brutus.minecraft.serverclusters.sendplayer.PlayerRelocationClient;
 import io.brutus.minecraft.serverclusters.sendplayer.PlayerSender;
+import io.brutus.minecraft.serverclusters.sendplayer.RelocationResult;
+import io.brutus.minecraft.serverclusters.sendplayer.RelocationMetrics;
 import io.brutus.networking.pubsubmessager.PubSubMessager;
 import net.md_5.bungee.api.config.ServerInfo;
 import net.md_5.bungee.api.event.LoginEvent;
@@ -25,15 +25,21 @@ import net.md_5.bungee.event.EventHandler;
 
 /**
  * Selects a server from a default cluster(s) for players when they first log in.
+ * <p>
+ * If configured with a placement pool, places players on slots the pool reserved ahead of time,
+ * holding their login only until the slot's server has taken it over. Otherwise, when the pool is
+ * empty, or when the server no longer has the slot, holds the login and puts the player in a
+ * {@link LoginQueue} to wait their turn to be placed.
  */
 public class FirstJoinServerSelecter {
 
   private Plugin plugin;
   private PlayerRelocationClient relocator;
+  private PlacementPool pool;
+  private LoginQueue queue;
   private BungeeConfiguration config;
 
   private Map<UUID, String> destinations;
-  private Map<UUID, LoginEvent> heldEvents;
 
   /**
    * Class constructor.
@@ -57,13 +63,61 @@ public class FirstJoinServerSelecter {
     this.relocator =
         new PlayerRelocationClient(config.getBungeeId(), networkStatus, new StoragePlayerSender(),
             messager, config);
+    config.registerListener(relocator);
+    if (config.getPlacementPoolSize() > 0) {
+      this.pool =
+          new PlacementPool(relocator, config, config.getDefaultClusterIds(),
+              config.getPlacementPoolSize(), config.getReservationFulfillmentTimeout());
+      config.registerListener(pool);
+    }
+
+    this.queue = new LoginQueue(plugin, relocator, config);
 
     this.destinations = new ConcurrentHashMap<UUID, String>();
-    this.heldEvents = new ConcurrentHashMap<UUID, LoginEvent>();
 
     plugin.getProxy().getPluginManager().registerListener(plugin, new PlayerProxyJoinListener());
   }
 
+  /**
+   * Gets the metrics of the placements this proxy has attempted for logging-in players.
+   * 
+   * @return Live, read-only relocation metrics.
+   */
+  public RelocationMetrics getRelocationMetrics() {
+    return relocator.getMetrics();
+  }
+
+  /**
+   * Gets the pool of slots reserved ahead of time for logging-in players.
+   * 
+   * @return The placement pool. <code>null</code> if this proxy does not keep one.
+   */
+  public PlacementPool getPlacementPool() {
+    return pool;
+  }
+
+  /**
+   * Gets the line of logging-in players waiting to be placed.
+   * 
+   * @return The login queue.
+   */
+  public LoginQueue getLoginQueue() {
+    return queue;
+  }
+
+  /**
+   * Stops placing players and kills this selecter's connections. Cannot be reversed.
+   */
+  public void destroy() {
+    if (pool != null) {
+      config.unregisterListener(pool);
+      pool.destroy();
+    }
+    config.unregisterListener(relocator);
+    queue.destroy();
+    relocator.destroy();
+  }
+
   /**
    * Listens for players joining the proxy.
    */
@@ -74,7 +128,7 @@ public class FirstJoinServerSelecter {
     public void onLogin(LoginEvent event) {
 
       String host = event.getConnection().getVirtualHost().getHostString();
-      final UUID playerId = event.getConnection().getUniqueId();
+      UUID playerId = event.getConnection().getUniqueId();
 
       String clusterId = config.getForcedHostDefaultClusterId(host);
       if (clusterId == null || clusterId.isEmpty()) {
@@ -82,47 +136,55 @@ public class FirstJoinServerSelecter {
         return;
       }
 
-      event.registerIntent(plugin);
-      heldEvents.put(playerId, event);
-
-      Set<UUID> idSet = new HashSet<UUID>();
-      idSet.add(playerId);
-
-      ServerSelectionMode mode = config.getSelectionMode(clusterId);
-      if (mode == null) {
-        mode = ServerSelectionMode.RANDOM;
-        plugin.getLogger().warning(
-            "Players are being sent to cluster '" + clusterId
-                + "', but it is not configured. Defaulting to random instance selection...");
+      // places the player on a slot that was reserved ahead of time, only holding the login until
+      // the server hands the slot over
+      PlacementPool.Slot slot = pool != null ? pool.take(clusterId) : null;
+      if (slot != null) {
+        claim(clusterId, slot, event);
+        return;
       }
 
-      try {
-        final ListenableFuture<Boolean> fut =
-            relocator.sendPlayersToCluster(clusterId, mode, idSet);
-
-        fut.addListener(new Runnable() {
-          @Override
-          public void run() {
-            // stops holding the login event so it the player can be sent to their destination, if
-            // one was found for them.
-            LoginEvent heldEvent = heldEvents.remove(playerId);
-            if (heldEvent != null) {
-              heldEvent.completeIntent(plugin);
-            }
-          }
-        }, MoreExecutors.sameThreadExecutor());
+      // holds the login until the player's turn to be placed comes and a server is found
+      queue.enqueue(clusterId, event);
+    }
 
-      } catch (ConcurrentModificationException e) {
-        System.out.println("[" + getClass().getSimpleName() + "] Attempted to send a player '"
-            + event.getConnection().getName() + "' who was already in the process of being sent.");
+    /**
+     * Hands a pooled slot over to a logging-in player. If the server does not take it over, puts
+     * the player in line instead.
+     */
+    private void claim(final String clusterId, PlacementPool.Slot slot, final LoginEvent event) {
+      event.registerIntent(plugin);
 
-        // kicks the player if they already have a sending in progress
-        heldEvents.remove(playerId);
+      final ListenableFuture<RelocationResult> fut;
+      try {
+        fut =
+            relocator.claimReservation(slot.getServerId(),
+                Collections.singleton(slot.getPlaceholder()),
+                Collections.singleton(event.getConnection().getUniqueId()));
+      } catch (RuntimeException e) {
+        Log.warning("[ServerClusters FirstJoinServerSelecter] Could not claim a pooled slot.", e);
+        queue.enqueue(clusterId, event);
         event.completeIntent(plugin);
-
-        event.setCancelled(true);
-        event.setCancelReason("Too many login requests. Wait a few seconds and try again.");
+        return;
       }
+
+      fut.addListener(new Runnable() {
+        @Override
+        public void run() {
+          RelocationResult result = null;
+          try {
+            result = fut.get();
+          } catch (Exception e) {
+            Log.warning("[ServerClusters FirstJoinServerSelecter] Could not claim a pooled slot.",
+                e);
+          }
+          if (result == null || !result.isSuccessful()) {
+            // the queue holds the login on its own before this lets go of it
+            queue.enqueue(clusterId, event);
+          }
+          event.completeIntent(plugin);
+        }
+      }, MoreExecutors.sameThreadExecutor());
     }
 
     // uses the destination server that was obtained when the player is about to connect to their
@@ -149,10 +211,7 @@ public class FirstJoinServerSelecter {
     public void onPlayerDisconnect(PlayerDisconnectEvent event) {
       UUID uid = event.getPlayer().getUniqueId();
       destinations.remove(uid);
-      LoginEvent heldEvent = heldEvents.remove(uid);
-      if (heldEvent != null) {
-        heldEvent.completeIntent(plugin);
-      }
+      queue.remove(uid);
     }
 
   }
@@ -165,6 +224,10 @@ public class FirstJoinServerSelecter {
     @Override
     public void sendPlayer(UUID playerId, String destinationServer) throws IllegalStateException,
         IllegalArgumentException {
+      // slots reserved for the pool are not for anyone yet
+      if (pool != null && pool.isPlaceholder(playerId)) {
+        return;
+      }
       destinations.put(playerId, destinationServer);
     }
 
@@ -0,0 +1,439 @@
+package io.brutus.minecraft.serverclusters.bungee;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import io.brutus.minecraft.serverclusters.logging.Log;
+import io.brutus.minecraft.serverclusters.metrics.Histogram;
+import io.brutus.minecraft.serverclusters.selection.ServerSelectionMode;
+import io.brutus.minecraft.serverclusters.sendplayer.PlayerRelocationClient;
+import io.brutus.minecraft.serverclusters.sendplayer.RelocationResult;
+import net.md_5.bungee.api.event.LoginEvent;
+import net.md_5.bungee.api.plugin.Plugin;
+
+/**
+ * A bounded, first-come-first-served line of logging-in players waiting to be placed on a default
+ * cluster.
+ * <p>
+ * Each cluster has its own line, and only a set number of placements for a cluster run at once.
+ * Everyone else waits their turn with their login held, so a mass reconnect does not flood the
+ * cluster's servers with reservation requests. Waiting players can be asked for together in
+ * batches, so one request places several of them. A batch that fails is split up, and its players
+ * are asked for one at a time at the front of the line.
+ * <p>
+ * When a line is full, players are turned away right away and told when to try again, rather
+ * than left to time out. Players who wait longer than a set time are turned away the same way.
+ * <p>
+ * This implementation is thread safe.
+ */
+public class LoginQueue {
+
+  private static final long SWEEP_INTERVAL = 250;
+
+  private final Plugin plugin;
+  private final PlayerRelocationClient relocator;
+  private final BungeeConfiguration config;
+
+  private final int maxInFlight;
+  private final int maxQueued;
+  private final int batchSize;
+  private final long maxWait;
+  private final long retryAfter;
+
+  private final ConcurrentMap<String, ClusterLine> lines;
+  private final ConcurrentMap<UUID, Waiting> waiting; // <player, their place in line>
+
+  private final Histogram waitTimes;
+  private final AtomicLong admitted;
+  private final AtomicLong turnedAway;
+  private final AtomicLong timedOut;
+
+  private volatile boolean alive;
+
+  /**
+   * Class constructor. Starts turning away players who wait too long immediately.
+   * 
+   * @param plugin The plugin main, to hold logins for.
+   * @param relocator The client to place players through.
+   * @param config The main bungee configuration, for the size of the lines and the clusters'
+   *        selection modes.
+   * @throws IllegalArgumentException on a <code>null</code> parameter.
+   */
+  public LoginQueue(Plugin plugin, PlayerRelocationClient relocator, BungeeConfiguration config)
+      throws IllegalArgumentException {
+    if (plugin == null || relocator == null || config == null) {
+      throw new IllegalArgumentException("params cannot be null");
+    }
+
+    this.plugin = plugin;
+    this.relocator = relocator;
+    this.config = config;
+
+    this.maxInFlight = Math.max(1, config.getLoginQueueMaxInFlight());
+    this.maxQueued = Math.max(0, config.getLoginQueueMaxQueued());
+    this.batchSize = Math.max(1, config.getLoginQueueBatchSize());
+    this.maxWait = Math.max(1, config.getLoginQueueMaxWait());
+    this.retryAfter = Math.max(1, config.getLoginQueueRetryAfter());
+
+    this.lines = new ConcurrentHashMap<String, ClusterLine>();
+    this.waiting = new ConcurrentHashMap<UUID, Waiting>();
+
+    this.waitTimes = new Histogram();
+    this.admitted = new AtomicLong();
+    this.turnedAway = new AtomicLong();
+    this.timedOut = new AtomicLong();
+
+    startSweeping();
+  }
+
+  /**
+   * Stops placing players and lets every waiting login through without a destination.
+   * <p>
+   * Irreversible.
+   */
+  public void destroy() {
+    alive = false;
+    for (Waiting w : waiting.values()) {
+      release(w);
+    }
+  }
+
+  /**
+   * Holds a player's login and puts them in line to be placed on a cluster.
+   * <p>
+   * Must be called from the login event's handler, or while another intent holds the login. If the
+   * line is full, the login is cancelled with a message telling the player when to try again.
+   * 
+   * @param clusterId The cluster to place the player on.
+   * @param event The player's login event.
+   */
+  public void enqueue(String clusterId, LoginEvent event) {
+    UUID playerId = event.getConnection().getUniqueId();
+    ClusterLine line = forCluster(clusterId);
+
+    Waiting w = new Waiting(line, playerId, event);
+    if (waiting.putIfAbsent(playerId, w) != null) {
+      Log.warning("[ServerClusters LoginQueue] Attempted to send a player '{}' who was already in"
+          + " the process of being sent.", event.getConnection().getName());
+      event.setCancelled(true);
+      event.setCancelReason("Too many login requests. Wait a few seconds and try again.");
+      return;
+    }
+
+    int ahead;
+    boolean queued = false;
+    synchronized (line) {
+      ahead = line.waiting.size();
+      if (ahead < maxQueued) {
+        event.registerIntent(plugin);
+        line.waiting.add(w);
+        queued = true;
+      }
+    }
+
+    if (!queued) {
+      waiting.remove(playerId, w);
+      turnedAway.incrementAndGet();
+      event.setCancelled(true);
+      event.setCancelReason("The servers are full right now, with " + ahead
+          + " players waiting to get in. Try again in " + retryAfter + " seconds.");
+      return;
+    }
+
+    drain(line);
+  }
+
+  /**
+   * Takes a player out of line, such as when they disconnect while waiting.
+   * 
+   * @param playerId The player to take out of line.
+   */
+  public void remove(UUID playerId) {
+    Waiting w = waiting.get(playerId);
+    if (w != null) {
+      synchronized (w.line) {
+        w.line.waiting.remove(w);
+      }
+      release(w);
+    }
+  }
+
+  /**
+   * Gets a human-readable summary of the lines.
+   * 
+   * @return The summary, one line per entry.
+   */
+  public List<String> toStringList() {
+    List<String> ret = new ArrayList<String>();
+    ret.add("Login queue: " + admitted.get() + " placed in turn, " + turnedAway.get()
+        + " turned away while full, " + timedOut.get() + " turned away after waiting too long");
+    ret.add("  wait (ms): p50 " + waitTimes.getValueAtPercentile(50) + ", p99 "
+        + waitTimes.getValueAtPercentile(99) + ", max " + waitTimes.getMax());
+    for (ClusterLine line : lines.values()) {
+      synchronized (line) {
+        ret.add("  " + line.clusterId + ": " + line.waiting.size() + "/" + maxQueued
+            + " waiting, " + line.inFlight + "/" + maxInFlight + " being placed");
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Gets the line for a cluster, creating it if this is the first time it has been used.
+   */
+  private ClusterLine forCluster(String clusterId) {
+    ClusterLine ret = lines.get(clusterId);
+    if (ret == null) {
+      ClusterLine created = new ClusterLine(clusterId);
+      ret = lines.putIfAbsent(clusterId, created);
+      if (ret == null) {
+        ret = created;
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Starts placing the players at the front of a line, as long as there is room for more
+   * placements on its cluster.
+   * <p>
+   * Only one thread drains a line at a time. Placements that finish while it is draining have it
+   * look again instead of draining recursively.
+   */
+  private void drain(ClusterLine line) {
+    synchronized (line) {
+      if (line.draining) {
+        line.redrain = true;
+        return;
+      }
+      line.draining = true;
+    }
+
+    while (true) {
+      List<Waiting> batch = new ArrayList<Waiting>();
+      synchronized (line) {
+        if (line.inFlight < maxInFlight && !line.waiting.isEmpty()) {
+          Waiting first = line.waiting.poll();
+          batch.add(first);
+          while (!first.alone && batch.size() < batchSize && !line.waiting.isEmpty()
+              && !line.waiting.peek().alone) {
+            batch.add(line.waiting.poll());
+          }
+          line.inFlight++;
+
+        } else if (line.redrain) {
+          line.redrain = false;
+          continue;
+        } else {
+          line.draining = false;
+          return;
+        }
+      }
+      place(line, batch);
+    }
+  }
+
+  /**
+   * Starts placing a batch of waiting players on their line's cluster.
+   */
+  private void place(final ClusterLine line, final List<Waiting> batch) {
+    long now = System.nanoTime();
+    Set<UUID> players = new HashSet<UUID>();
+    for (Waiting w : batch) {
+      players.add(w.playerId);
+      // players split out of a failed batch were already counted when it was dispatched
+      if (!w.alone) {
+        waitTimes.record(TimeUnit.NANOSECONDS.toMillis(now - w.enqueued));
+      }
+    }
+
+    ServerSelectionMode mode = config.getSelectionMode(line.clusterId);
+    if (mode == null) {
+      mode = ServerSelectionMode.RANDOM;
+      Log.warning("[ServerClusters LoginQueue] Players are being sent to cluster '{}', but it is"
+          + " not configured. Defaulting to random instance selection...", line.clusterId);
+    }
+
+    final ListenableFuture<RelocationResult> fut;
+    try {
+      fut = relocator.sendPlayersToCluster(line.clusterId, mode, players);
+    } catch (RuntimeException e) {
+      Log.warning("[ServerClusters LoginQueue] Could not place " + batch.size()
+          + " players on login.", e);
+      synchronized (line) {
+        line.inFlight--;
+      }
+      for (Waiting w : batch) {
+        turnAway(w, "Too many login requests. Wait a few seconds and try again.");
+      }
+      return;
+    }
+
+    fut.addListener(new Runnable() {
+      @Override
+      public void run() {
+        RelocationResult result = null;
+        try {
+          result = fut.get();
+        } catch (Exception e) {
+          Log.warning("[ServerClusters LoginQueue] Could not place " + batch.size()
+              + " players on login.", e);
+        }
+        Log.debug("[ServerClusters LoginQueue] Placing {} players on login: {}", batch.size(),
+            result);
+
+        // a batch that could not be placed together gets another chance one player at a time
+        boolean split = batch.size() > 1 && (result == null || !result.isSuccessful());
+        synchronized (line) {
+          line.inFlight--;
+          if (split) {
+            for (int i = batch.size() - 1; i >= 0; i--) {
+              Waiting w = batch.get(i);
+              if (waiting.get(w.playerId) == w) {
+                w.alone = true;
+                line.waiting.addFirst(w);
+              }
+            }
+          }
+        }
+        if (!split) {
+          if (result != null && result.isSuccessful()) {
+            admitted.addAndGet(batch.size());
+          }
+          // stops holding the logins so the players can be sent to their destination, if one was
+          // found for them.
+          for (Waiting w : batch) {
+            release(w);
+          }
+        }
+        drain(line);
+      }
+    }, MoreExecutors.sameThreadExecutor());
+  }
+
+  /**
+   * Lets a waiting player's login go through.
+   */
+  private void release(Waiting w) {
+    if (waiting.remove(w.playerId, w)) {
+      w.event.completeIntent(plugin);
+    }
+  }
+
+  /**
+   * Cancels a waiting player's login.
+   */
+  private void turnAway(Waiting w, String reason) {
+    if (waiting.remove(w.playerId, w)) {
+      w.event.setCancelled(true);
+      w.event.setCancelReason(reason);
+      w.event.completeIntent(plugin);
+    }
+  }
+
+  /**
+   * Turns away the players who have been waiting too long, and makes sure no line is stuck.
+   */
+  private void sweep() {
+    long oldest = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(maxWait);
+    for (ClusterLine line : lines.values()) {
+      List<Waiting> expired = new ArrayList<Waiting>();
+      synchronized (line) {
+        // the line is in the order players joined it, apart from split batches at the front
+        Iterator<Waiting> it = line.waiting.iterator();
+        while (it.hasNext()) {
+          Waiting w = it.next();
+          if (w.enqueued < oldest) {
+            it.remove();
+            expired.add(w);
+          } else if (!w.alone) {
+            break;
+          }
+        }
+      }
+      for (Waiting w : expired) {
+        timedOut.incrementAndGet();
+        turnAway(w, "The servers are too busy to take you right now. Try again in " + retryAfter
+            + " seconds.");
+      }
+      drain(line);
+    }
+  }
+
+  /**
+   * Starts periodically turning away players who have waited too long.
+   */
+  private void startSweeping() {
+    alive = true;
+
+    Thread sweeper = new Thread() {
+
+      @Override
+      public void run() {
+        while (alive) {
+          try {
+            Thread.sleep(SWEEP_INTERVAL);
+          } catch (InterruptedException e) {
+            Log.warning("[ServerClusters] The login queue sweeper was interrupted.", e);
+            alive = false;
+            return;
+          }
+          sweep();
+        }
+      }
+    };
+    sweeper.setDaemon(true);
+    sweeper.start();
+  }
+
+  /**
+   * The line for one cluster. Guarded by its own lock.
+   */
+  private static class ClusterLine {
+
+    private final String clusterId;
+    private final LinkedList<Waiting> waiting;
+    private int inFlight;
+    private boolean draining;
+    private boolean redrain;
+
+    private ClusterLine(String clusterId) {
+      this.clusterId = clusterId;
+      this.waiting = new LinkedList<Waiting>();
+    }
+
+  }
+
+  /**
+   * A player waiting in line.
+   */
+  private static class Waiting {
+
+    private final ClusterLine line;
+    private final UUID playerId;
+    private final LoginEvent event;
+    private final long enqueued;
+    private boolean alone; // guarded by the line's lock
+
+    private Waiting(ClusterLine line, UUID playerId, LoginEvent event) {
+      this.line = line;
+      this.playerId = playerId;
+      this.event = event;
+      this.enqueued = System.nanoTime();
+    }
+
+  }
+
+}
@@ -3,26 +3,40 @@ package io.brutus.minecraft.serverclusters.bungee;
 import java.util.List;
 
 import io.brutus.minecraft.serverclusters.networkstatus.NetworkStatus;
+import io.brutus.minecraft.serverclusters.sendplayer.RelocationMetrics;
 import net.md_5.bungee.api.ChatColor;
 import net.md_5.bungee.api.CommandSender;
 import net.md_5.bungee.api.chat.TextComponent;
 import net.md_5.bungee.api.plugin.Command;
 
 /**
- * A command that displays the contents of the local network cache.
+ * A command that displays the contents of the local network cache, this proxy's relocation
+ * metrics, its login queue, and its placement pool if it has one.
  */
 public class NetworkStatusCommand extends Command {
 
   private NetworkStatus status;
+  private RelocationMetrics metrics;
+  private PlacementPool pool;
+  private LoginQueue queue;
 
-  public NetworkStatusCommand(NetworkStatus status) {
+  public NetworkStatusCommand(NetworkStatus status, RelocationMetrics metrics, PlacementPool pool,
+      LoginQueue queue) {
     super("networkstatus", "serverclustsers.networkstatus", "ns");
     this.status = status;
+    this.metrics = metrics;
+    this.pool = pool;
+    this.queue = queue;
   }
 
   @Override
   public void execute(CommandSender sender, String[] args) {
     List<String> result = status.toStringList();
+    result.addAll(metrics.toStringList());
+    result.addAll(queue.toStringList());
+    if (pool != null) {
+      result.addAll(pool.toStringList());
+    }
     for (String str : result) {
       sender.sendMessage(new TextComponent(ChatColor.GREEN + str));
     }
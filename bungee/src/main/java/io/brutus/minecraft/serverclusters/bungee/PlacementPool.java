@@ -0,0 +1,316 @@
+package io.brutus.minecraft.serverclusters.bungee;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import io.brutus.minecraft.serverclusters.config.SharedConfiguration;
+import io.brutus.minecraft.serverclusters.config.SharedConfigurationListener;
+import io.brutus.minecraft.serverclusters.logging.Log;
+import io.brutus.minecraft.serverclusters.selection.ServerSelectionMode;
+import io.brutus.minecraft.serverclusters.sendplayer.PlayerRelocationClient;
+import io.brutus.minecraft.serverclusters.sendplayer.RelocationResult;
+
+/**
+ * A pool of slots reserved ahead of time on the best servers of the default clusters, so players
+ * logging in can be placed without waiting for a reservation round trip.
+ * <p>
+ * Keeps up to a set number of slots per cluster. Each is reserved for a random placeholder id
+ * through the normal relocation process. A background thread tops the pools up as slots are
+ * taken. It also throws out slots that have been held long enough that their reservation might
+ * expire before a player gets there. When a refill fails, the cluster is left alone for a while,
+ * so a full cluster is not flooded with requests.
+ * <p>
+ * Slots that are thrown out or never taken are left to expire on their servers. Until they do, they
+ * still count against their servers' capacity, so a pool can hold up to twice its size in slots on
+ * a cluster.
+ * <p>
+ * Reservations are made with {@link PlayerRelocationClient#reserveForPool(String,
+ * ServerSelectionMode, Set)}, so they are counted apart from placements of players. Follows changes
+ * to the reservation timeout in the shared configuration.
+ */
+public class PlacementPool implements SharedConfigurationListener {
+
+  private static final long REFILL_INTERVAL = 100;
+  private static final long FAILURE_BACKOFF = 1000;
+
+  private final PlayerRelocationClient relocator;
+  private final BungeeConfiguration config;
+  private final int size;
+  private volatile long maxAge;
+
+  private final Map<String, Queue<Slot>> pools; // <cluster, slots in the order they were reserved>
+  private final Map<String, AtomicInteger> refills; // <cluster, refills in progress>
+  private final Map<String, Long> backoffs; // <cluster, when to try refilling it again>
+  private final Set<UUID> placeholders; // of refills in progress
+
+  private final AtomicLong hits;
+  private final AtomicLong misses;
+  private final AtomicLong expired;
+
+  private volatile boolean alive;
+
+  /**
+   * Class constructor. Starts filling the pools immediately.
+   * 
+   * @param relocator The client to reserve slots through.
+   * @param config The main bungee configuration, for the clusters' selection modes.
+   * @param clusterIds The clusters to keep slots reserved on.
+   * @param size The number of slots to keep reserved on each cluster.
+   * @param reservationTimeout How long servers hold a reservation for, in milliseconds.
+   * @throws IllegalArgumentException on a <code>null</code> parameter or a non-positive number.
+   */
+  public PlacementPool(PlayerRelocationClient relocator, BungeeConfiguration config,
+      Set<String> clusterIds, int size, long reservationTimeout) throws IllegalArgumentException {
+    if (relocator == null || config == null || clusterIds == null) {
+      throw new IllegalArgumentException("params cannot be null");
+    }
+    if (size < 1 || reservationTimeout < 1) {
+      throw new IllegalArgumentException("pool size and reservation timeout must be positive");
+    }
+
+    this.relocator = relocator;
+    this.config = config;
+    this.size = size;
+    // leaves a player half the reservation to get to the server
+    this.maxAge = reservationTimeout / 2;
+
+    this.pools = new ConcurrentHashMap<String, Queue<Slot>>();
+    this.refills = new ConcurrentHashMap<String, AtomicInteger>();
+    for (String clusterId : clusterIds) {
+      pools.put(clusterId, new ConcurrentLinkedQueue<Slot>());
+      refills.put(clusterId, new AtomicInteger());
+    }
+    this.backoffs = new ConcurrentHashMap<String, Long>();
+    this.placeholders = Collections.newSetFromMap(new ConcurrentHashMap<UUID, Boolean>());
+
+    this.hits = new AtomicLong();
+    this.misses = new AtomicLong();
+    this.expired = new AtomicLong();
+
+    startRefilling();
+  }
+
+  /**
+   * Stops refilling the pools. Slots still in them are left to expire.
+   * <p>
+   * Irreversible.
+   */
+  public void destroy() {
+    alive = false;
+  }
+
+  @Override
+  public void onConfigurationChange(SharedConfiguration config) {
+    long timeout = config.getReservationFulfillmentTimeout();
+    if (timeout < 1) {
+      Log.warning("[ServerClusters PlacementPool] Ignoring the updated reservation timeout of {}"
+          + " ms, it must be positive.", timeout);
+    } else if (timeout / 2 != maxAge) {
+      // slots already in the pool are judged by the new age from now on
+      maxAge = timeout / 2;
+      Log.info("[ServerClusters PlacementPool] Slots are now kept for up to {} ms.", maxAge);
+    }
+  }
+
+  /**
+   * Takes a reserved slot on a cluster out of the pool.
+   * 
+   * @param clusterId The cluster to get a slot on.
+   * @return A slot whose reservation should still be held. <code>null</code> if the cluster's pool
+   *         is empty or the cluster is not pooled.
+   */
+  public Slot take(String clusterId) {
+    Queue<Slot> pool = pools.get(clusterId);
+    if (pool == null) {
+      return null;
+    }
+
+    long oldest = System.currentTimeMillis() - maxAge;
+    Slot slot;
+    while ((slot = pool.poll()) != null) {
+      if (slot.reserved >= oldest) {
+        hits.incrementAndGet();
+        return slot;
+      }
+      expired.incrementAndGet();
+    }
+    misses.incrementAndGet();
+    return null;
+  }
+
+  /**
+   * Gets whether an id is the placeholder of a slot that is being reserved for the pool.
+   * 
+   * @param id The id to check.
+   * @return <code>true</code> if the id is a placeholder and not a real player.
+   */
+  public boolean isPlaceholder(UUID id) {
+    return placeholders.contains(id);
+  }
+
+  /**
+   * Gets a human-readable summary of the pools.
+   * 
+   * @return The summary, one line per entry.
+   */
+  public List<String> toStringList() {
+    List<String> ret = new ArrayList<String>();
+    ret.add("Placement pool: " + hits.get() + " logins placed from the pool, " + misses.get()
+        + " not, " + expired.get() + " slots expired unused");
+    for (Map.Entry<String, Queue<Slot>> entry : pools.entrySet()) {
+      ret.add("  " + entry.getKey() + ": " + entry.getValue().size() + "/" + size
+          + " slots ready, " + refills.get(entry.getKey()).get() + " being reserved");
+    }
+    return ret;
+  }
+
+  /**
+   * Throws out slots that are too old and reserves new ones in their place.
+   */
+  private void refill() {
+    long now = System.currentTimeMillis();
+    for (Map.Entry<String, Queue<Slot>> entry : pools.entrySet()) {
+      String clusterId = entry.getKey();
+      Queue<Slot> pool = entry.getValue();
+
+      Slot head;
+      while ((head = pool.peek()) != null && head.reserved < now - maxAge) {
+        // another thread may have taken it in the meantime
+        if (pool.remove(head)) {
+          expired.incrementAndGet();
+        }
+      }
+
+      Long backoff = backoffs.get(clusterId);
+      if (backoff != null && backoff > now) {
+        continue;
+      }
+
+      AtomicInteger inProgress = refills.get(clusterId);
+      for (int i = pool.size() + inProgress.get(); i < size; i++) {
+        reserve(clusterId, pool, inProgress);
+      }
+    }
+  }
+
+  /**
+   * Starts reserving a slot for a cluster's pool.
+   */
+  private void reserve(final String clusterId, final Queue<Slot> pool,
+      final AtomicInteger inProgress) {
+    ServerSelectionMode mode = config.getSelectionMode(clusterId);
+    if (mode == null) {
+      mode = ServerSelectionMode.RANDOM;
+    }
+
+    final UUID placeholder = UUID.randomUUID();
+    placeholders.add(placeholder);
+    inProgress.incrementAndGet();
+
+    final ListenableFuture<RelocationResult> fut;
+    try {
+      fut = relocator.reserveForPool(clusterId, mode, Collections.singleton(placeholder));
+    } catch (RuntimeException e) {
+      Log.warning("[ServerClusters PlacementPool] Could not reserve a slot on " + clusterId, e);
+      placeholders.remove(placeholder);
+      inProgress.decrementAndGet();
+      backoffs.put(clusterId, System.currentTimeMillis() + FAILURE_BACKOFF);
+      return;
+    }
+
+    fut.addListener(new Runnable() {
+      @Override
+      public void run() {
+        RelocationResult result = null;
+        try {
+          result = fut.get();
+        } catch (Exception e) {
+          Log.warning("[ServerClusters PlacementPool] Could not reserve a slot on " + clusterId, e);
+        }
+
+        long now = System.currentTimeMillis();
+        if (result != null && result.isSuccessful()) {
+          pool.add(new Slot(result.getServerId(), placeholder, now));
+        } else {
+          backoffs.put(clusterId, now + FAILURE_BACKOFF);
+        }
+        placeholders.remove(placeholder);
+        inProgress.decrementAndGet();
+      }
+    }, MoreExecutors.sameThreadExecutor());
+  }
+
+  /**
+   * Starts periodically topping up the pools.
+   */
+  private void startRefilling() {
+    alive = true;
+
+    Thread refiller = new Thread() {
+
+      @Override
+      public void run() {
+        while (alive) {
+          refill();
+          try {
+            Thread.sleep(REFILL_INTERVAL);
+          } catch (InterruptedException e) {
+            Log.warning("[ServerClusters] The placement pool refiller was interrupted.", e);
+            alive = false;
+            return;
+          }
+        }
+      }
+    };
+    refiller.setDaemon(true);
+    refiller.start();
+  }
+
+  /**
+   * A slot reserved on a server under a placeholder id.
+   */
+  public static class Slot {
+
+    private final String serverId;
+    private final UUID placeholder;
+    private final long reserved;
+
+    private Slot(String serverId, UUID placeholder, long reserved) {
+      this.serverId = serverId;
+      this.placeholder = placeholder;
+      this.reserved = reserved;
+    }
+
+    /**
+     * Gets the server the slot is reserved on.
+     * 
+     * @return The server's id.
+     */
+    public String getServerId() {
+      return serverId;
+    }
+
+    /**
+     * Gets the id the slot is reserved under.
+     * 
+     * @return The placeholder id.
+     */
+    public UUID getPlaceholder() {
+      return placeholder;
+    }
+
+  }
+
+}
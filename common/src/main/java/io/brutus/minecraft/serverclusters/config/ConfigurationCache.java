@@ -0,0 +1,158 @@
+package io.brutus.minecraft.serverclusters.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import io.brutus.minecraft.serverclusters.logging.Log;
+import io.brutus.minecraft.serverclusters.protocol.config.ConfigurationMessage;
+
+/**
+ * A copy of the last shared configuration received, kept on disk so a server can start with it
+ * before the coordinator answers, or when it does not answer at all.
+ * <p>
+ * The file holds a format version, when it was written, the configuration's version, and the
+ * configuration as it was sent over the network. Configuration versions are hashes of their
+ * contents, so a file that is missing, of another format version, or whose configuration does not
+ * match its version is ignored.
+ * <p>
+ * Writes go to a temporary file first, which then replaces the cache, so a crash partway through
+ * a write never leaves a broken cache behind.
+ * <p>
+ * This implementation is thread safe.
+ */
+public class ConfigurationCache {
+
+  private static final int MAGIC = 0x53434346; // "SCCF"
+  private static final int FORMAT_VERSION = 2;
+  private static final int HEADER_SIZE = 28; // magic, format, written, config version, length
+
+  private final File file;
+  private long version;
+
+  /**
+   * Class constructor.
+   * 
+   * @param file The file to keep the cached configuration in. Does not have to exist yet.
+   * @throws IllegalArgumentException on a <code>null</code> file.
+   */
+  public ConfigurationCache(File file) throws IllegalArgumentException {
+    if (file == null) {
+      throw new IllegalArgumentException("file cannot be null");
+    }
+    this.file = file;
+  }
+
+  /**
+   * Reads the cached configuration.
+   * 
+   * @return The configuration last written to the cache. <code>null</code> if there is none, or if
+   *         it cannot be used.
+   */
+  public synchronized ConfigurationMessage read() {
+    if (!file.isFile()) {
+      return null;
+    }
+
+    try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+        Log.warning("[ServerClusters] Ignoring the cached network config at {}, it is not in a"
+            + " format this version understands.", file);
+        return null;
+      }
+      long written = in.readLong();
+      long configVersion = in.readLong();
+      // checks the stored length before allocating so a corrupt file cannot exhaust the heap
+      int length = in.readInt();
+      if (length < 0 || length != file.length() - HEADER_SIZE) {
+        Log.warning("[ServerClusters] Ignoring the cached network config at {}, it is corrupt.",
+            file);
+        return null;
+      }
+      byte[] config = new byte[length];
+      in.readFully(config);
+
+      if (ConfigurationMessage.getVersion(config) != configVersion) {
+        Log.warning("[ServerClusters] Ignoring the cached network config at {}, it is corrupt.",
+            file);
+        return null;
+      }
+
+      ConfigurationMessage ret = ConfigurationMessage.fromBytes(config);
+      version = configVersion;
+      Log.info("[ServerClusters] Read the network config cached {} seconds ago.",
+          (System.currentTimeMillis() - written) / 1000);
+      return ret;
+
+    } catch (IOException | RuntimeException e) {
+      Log.warning("[ServerClusters] Could not read the cached network config at " + file, e);
+      return null;
+    }
+  }
+
+  /**
+   * Gets the version of the configuration last read from or written to the cache.
+   * 
+   * @return The cached configuration's version. <code>0</code> if none is known.
+   */
+  public synchronized long getVersion() {
+    return version;
+  }
+
+  /**
+   * Writes a configuration to the cache, replacing what was there. Does nothing if the cache
+   * already holds the same configuration.
+   * 
+   * @param message The serialized configuration message to cache, as it was received.
+   * @return <code>true</code> if the configuration was written, because it differs from the one
+   *         cached before or because nothing was known to be cached.
+   * @throws IllegalArgumentException on a <code>null</code> or empty message.
+   */
+  public synchronized boolean write(byte[] message) throws IllegalArgumentException {
+    long configVersion = ConfigurationMessage.getVersion(message);
+    if (configVersion == version) {
+      return false;
+    }
+
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(message.length + HEADER_SIZE);
+    try (DataOutputStream out = new DataOutputStream(buffer)) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeLong(System.currentTimeMillis());
+      out.writeLong(configVersion);
+      out.writeInt(message.length);
+      out.write(message);
+    } catch (IOException e) {
+      // cannot happen writing to memory
+      throw new IllegalStateException(e);
+    }
+
+    File temp = new File(file.getPath() + ".tmp");
+    try {
+      File dir = file.getAbsoluteFile().getParentFile();
+      if (dir != null) {
+        dir.mkdirs();
+      }
+      try (FileOutputStream out = new FileOutputStream(temp)) {
+        buffer.writeTo(out);
+        out.getFD().sync();
+      }
+      Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException e) {
+      Log.warning("[ServerClusters] Could not cache the network config at " + file, e);
+      temp.delete();
+    }
+
+    // remembered even if the write failed, so a broken disk is not retried on every update
+    version = configVersion;
+    return true;
+  }
+
+}
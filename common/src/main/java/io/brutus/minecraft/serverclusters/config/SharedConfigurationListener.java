@@ -0,0 +1,22 @@
+package io.brutus.minecraft.serverclusters.config;
+
+/**
+ * A listener to changes in the network-wide configuration, such as when it is reloaded on the
+ * coordinator and pushed to every node.
+ * <p>
+ * Lets components that copy settings for their hot paths pick up the new values without a
+ * restart.
+ */
+public interface SharedConfigurationListener {
+
+  /**
+   * Called after the shared configuration has been replaced with a different one.
+   * <p>
+   * Runs on the thread that received the new configuration, so implementations should only swap in
+   * the new values and return quickly.
+   * 
+   * @param config The new configuration.
+   */
+  void onConfigurationChange(SharedConfiguration config);
+
+}
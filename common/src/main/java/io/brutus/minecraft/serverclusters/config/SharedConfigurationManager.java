@@ -1,9 +1,21 @@
 package io.brutus.minecraft.serverclusters.config;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import io.brutus.minecraft.serverclusters.logging.Log;
+import io.brutus.minecraft.serverclusters.messaging.RequestResender;
 import io.brutus.minecraft.serverclusters.notifications.AdminNotifier;
 import io.brutus.minecraft.serverclusters.protocol.config.ConfigurationMessage;
+import io.brutus.minecraft.serverclusters.protocol.config.ConfigurationNotModified;
 import io.brutus.minecraft.serverclusters.protocol.config.ConfigurationRequest;
 import io.brutus.networking.pubsubmessager.PubSubMessager;
 import io.brutus.networking.pubsubmessager.Subscriber;
@@ -11,25 +23,44 @@ import io.brutus.networking.pubsubmessager.Subscriber;
 /**
  * Loads, maintains, and updates the network-wide configuration.
  * <p>
- * When loading, hangs until a response is received.
+ * A request is published as soon as loading starts, and the load completes on the first
+ * configuration message received. Requests that get no response are resent with exponential
+ * backoff, starting at a few tens of milliseconds, so a request that is lost or that beats the
+ * subscription to the broker costs little time.
+ * <p>
+ * When given a cache, starts with the configuration cached there and keeps requesting the live
+ * one in the background, so starting up does not wait on the coordinator. Every live
+ * configuration received replaces the one in the cache.
+ * <p>
+ * Requests carry the version of the configuration this already has. If it is still current, the
+ * coordinator only says so, instead of sending the whole configuration again. Configurations sent
+ * in answer to other nodes are only decoded when their version differs from the one in use.
+ * <p>
+ * Registered {@link SharedConfigurationListener}s are told whenever a different configuration
+ * replaces the one in use.
  */
 public class SharedConfigurationManager {
 
-  private static final long WARMUP = 1500;
-  private static final long WAIT_INTERVAL = 100;
-  private static final long LOG_INTERVAL = 15000;
-  private static final long RESEND_INTERVAL = 10000;
-  private static final int FAILS_TO_NOTIFY_ADMIN = 10;
+  private static final long FIRST_RESEND_DELAY = 50;
 
   private final ConfigSubscriber sub;
   private final PubSubMessager messager;
-  private ConfigWrapper wrapper;
+  private volatile ConfigWrapper wrapper;
+  private volatile long version;
 
   private final byte[] requestChannel;
   private final byte[] responseChannel;
 
-  private final long started;
-  private volatile boolean waiting;
+  private final ConfigurationCache cache;
+  private volatile boolean usingCache;
+
+  private SettableFuture<SharedConfiguration> loading;
+  private ListenableFuture<SharedConfiguration> result;
+  private volatile long requested;
+  private volatile long loadTime;
+  private final AtomicInteger requestsSent;
+
+  private final List<SharedConfigurationListener> listeners;
 
   /**
    * Class constructor.
@@ -42,6 +73,23 @@ public class SharedConfigurationManager {
    */
   public SharedConfigurationManager(PubSubMessager messager, byte[] requestChannel,
       byte[] responseChannel) throws IllegalArgumentException {
+    this(messager, requestChannel, responseChannel, null);
+  }
+
+  /**
+   * Class constructor.
+   * 
+   * @param messager The pub/sub messaging instance on which to request and receive the centralized
+   *        network config.
+   * @param requestChannel The channel on which to publish configuration requests.
+   * @param responseChannel The channel on which to subscribe for configuration responses.
+   * @param cache The cache to start from and to keep the live config in. <code>null</code> to
+   *        always wait for the live config.
+   * @throws IllegalArgumentException On a <code>null</code> messager or a <code>null</code> or
+   *         empty channel.
+   */
+  public SharedConfigurationManager(PubSubMessager messager, byte[] requestChannel,
+      byte[] responseChannel, ConfigurationCache cache) throws IllegalArgumentException {
     if (messager == null) {
       throw new IllegalArgumentException("messager cannot be null");
     } else if (requestChannel == null || requestChannel.length < 1 || responseChannel == null
@@ -50,18 +98,24 @@ public class SharedConfigurationManager {
     }
     this.sub = new ConfigSubscriber();
     this.messager = messager;
-    messager.subscribe(responseChannel, sub);
-    this.started = System.currentTimeMillis();
+    this.cache = cache;
+    this.loadTime = -1;
+    this.requestsSent = new AtomicInteger();
+    this.listeners = new CopyOnWriteArrayList<SharedConfigurationListener>();
 
     this.requestChannel = requestChannel.clone();
     this.responseChannel = responseChannel.clone();
+
+    messager.subscribe(responseChannel, sub);
   }
 
   /**
    * Loads the central network configuration.
    * <p>
    * Thread-safe, but waits to get a response from a remote server on whatever thread it is run on.
-   * Should not be used on any thread that cannot be delayed indefinitely.
+   * Should not be used on any thread that cannot be delayed indefinitely, unless there is a cached
+   * config to start from. To load without blocking, use
+   * {@link #requestConfiguration(AdminNotifier)}.
    * 
    * @param notifier The admin notifier to use in case the id request cannot be completed and hangs
    *        indefinitely. Can be <code>null</code> not to attempt to notify admins in case of a
@@ -69,81 +123,108 @@ public class SharedConfigurationManager {
    * @return The central network configuration. <code>null</code> if the config could not be loaded.
    */
   public SharedConfiguration loadConfiguration(AdminNotifier notifier) {
-
-    // gives the subscription a chance to actually happen before shooting off a request
-    long sinceStarted = System.currentTimeMillis() - started;
-    if (sinceStarted < WARMUP) {
-      try {
-        Thread.sleep(WARMUP - sinceStarted);
-      } catch (InterruptedException e) {
-        System.out
-            .println("[ServerClusters] thread was interrupted while warming up to load the shared configuration");
-        e.printStackTrace();
-      }
-    }
-
-    System.out.println("[ServerClusters] Requesting network config...");
-    waiting = true;
+    SharedConfiguration ret = null;
     try {
+      ret = requestConfiguration(notifier).get();
+    } catch (InterruptedException e) {
+      Log.warning("[ServerClusters] thread was interrupted while loading the shared"
+          + " configuration. Aborting...", e);
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | CancellationException e) {
+      Log.warning("[ServerClusters] Failed to load the network config.", e);
+    }
 
-      long timeSinceRequest = Long.MAX_VALUE;
-      long timeSinceLog = 0;
-      int tries = 0;
-
-      // continually waits and retries until a response is received
-      while (waiting) {
-
-        if (timeSinceRequest >= RESEND_INTERVAL) {
-          // time to publish a request
-          timeSinceRequest = 0;
-          tries++;
+    if (ret == null) {
+      Log.severe("[ServerClusters] Could not load network config.");
+    }
+    return ret;
+  }
 
-          if (!messager.publish(requestChannel, ConfigurationRequest.createMessage()).get()) {
-            // publishing obviously failed
-            System.out
-                .println("[ServerClusters] failed to publish a configuration-request message.");
-          }
-        }
+  /**
+   * Starts loading the central network configuration, without waiting for it.
+   * <p>
+   * Publishes a request immediately, and keeps resending it until a configuration message arrives.
+   * Only one load is ever made: later calls get the same future.
+   * <p>
+   * If there is a cached config, the future completes with it immediately, while the live config is
+   * requested in the background. The configuration object is updated once the live config arrives.
+   * 
+   * @param notifier The admin notifier to use in case the request goes unanswered for a long time.
+   *        Can be <code>null</code> not to attempt to notify admins in case of a continuously
+   *        unfulfilled request.
+   * @return A future that completes with the central network configuration once it arrives.
+   *         Completes with <code>null</code> if loading was aborted.
+   */
+  public ListenableFuture<SharedConfiguration> requestConfiguration(final AdminNotifier notifier) {
+    final SettableFuture<SharedConfiguration> fut;
+    synchronized (this) {
+      if (result != null) {
+        return result;
+      }
+      fut = SettableFuture.create();
+      loading = fut;
+      result = fut;
+      requested = System.nanoTime();
+      if (wrapper != null) {
+        // a config was pushed before anybody asked for it
+        fut.set(wrapper);
+        return fut;
+      }
 
-        // periodically logs to clarify why the server might be hanging
-        if (timeSinceLog >= LOG_INTERVAL) {
-          System.out.println("[ServerClusters] Still waiting for the network config to load...");
-          timeSinceLog = 0;
-        }
+      ConfigurationMessage cached = cache != null ? cache.read() : null;
+      if (cached != null) {
+        wrapper = new ConfigWrapper(cached);
+        version = cache.getVersion();
+        usingCache = true;
+        SettableFuture<SharedConfiguration> fromCache = SettableFuture.create();
+        fromCache.set(wrapper);
+        result = fromCache;
+      }
+    }
 
-        try {
-          Thread.sleep(WAIT_INTERVAL);
-          timeSinceRequest += WAIT_INTERVAL;
-          timeSinceLog += WAIT_INTERVAL;
-        } catch (InterruptedException e) {
-          System.out
-              .println("[ServerClusters] thread was interrupted while loading the shared configuration. Aborting...");
-          e.printStackTrace();
-          waiting = false;
-        }
+    Log.info("[ServerClusters] Requesting network config...");
 
-        // attempts to send a notification to admins if the request keeps failing
-        if (notifier != null && waiting && tries == FAILS_TO_NOTIFY_ADMIN) {
-          notifier
-              .sendNotification(
-                  "ServerClusters Coordinator Unresponsive (config request)",
-                  "The ServerClusters coordinator is failing to respond to a request for the centralized config from a server. "
-                      + "The coordinator, the message broker, or the network path between them and this server may be down or malfunctioning.");
-        }
+    Thread requester = new Thread() {
+      @Override
+      public void run() {
+        resendUntilLoaded(fut, notifier);
       }
+    };
+    requester.setDaemon(true);
+    requester.start();
 
-    } catch (Exception e) {
-      System.out.println("[ServerClusters] Failed to load the network config.");
-      e.printStackTrace();
-    }
+    return result;
+  }
 
-    if (wrapper != null) {
-      System.out.println("[ServerClusters] Network config loaded.");
-    } else {
-      System.out.println("[ServerClusters] Could not load network config.");
-    }
+  /**
+   * Gets how long the central network configuration took to load, from when it was first requested
+   * until the first configuration message arrived, or until the coordinator confirmed the cached
+   * one was current.
+   * 
+   * @return The load time, in milliseconds. <code>-1</code> if it has not loaded yet, or if it
+   *         arrived without being requested.
+   */
+  public long getLoadTime() {
+    return loadTime;
+  }
 
-    return wrapper;
+  /**
+   * Gets whether the configuration in use is the one read from the cache, because the live one has
+   * not arrived yet.
+   * 
+   * @return <code>true</code> if the live configuration is still being waited on.
+   */
+  public boolean isUsingCachedConfiguration() {
+    return usingCache;
+  }
+
+  /**
+   * Gets how many configuration requests this has published.
+   * 
+   * @return The number of requests sent.
+   */
+  public int getRequestsSent() {
+    return requestsSent.get();
   }
 
   /**
@@ -157,6 +238,29 @@ public class SharedConfigurationManager {
     return wrapper;
   }
 
+  /**
+   * Registers a listener to be told when the configuration changes.
+   * 
+   * @param listener The listener to register.
+   * @throws IllegalArgumentException on a <code>null</code> listener.
+   */
+  public void registerListener(SharedConfigurationListener listener)
+      throws IllegalArgumentException {
+    if (listener == null) {
+      throw new IllegalArgumentException("listener cannot be null");
+    }
+    listeners.add(listener);
+  }
+
+  /**
+   * Unregisters a listener so it is no longer told when the configuration changes.
+   * 
+   * @param listener The listener to unregister.
+   */
+  public void unregisterListener(SharedConfigurationListener listener) {
+    listeners.remove(listener);
+  }
+
   /**
    * Destroys this object and relinquishes its resources.
    * <p>
@@ -166,15 +270,101 @@ public class SharedConfigurationManager {
     messager.unsubscribe(responseChannel, sub);
   }
 
-  private void onConfigurationMessage(ConfigurationMessage config) {
-    waiting = false;
-    if (wrapper == null) {
-      wrapper = new ConfigWrapper(config);
-    } else {
-      wrapper.setConfiguration(config);
+  /**
+   * Publishes configuration requests until a load completes, waiting twice as long for a response
+   * each time, up to a limit.
+   */
+  private void resendUntilLoaded(SettableFuture<SharedConfiguration> fut, AdminNotifier notifier) {
+    RequestResender resender =
+        new RequestResender(messager, requestChannel, FIRST_RESEND_DELAY,
+            "the network config to load", "a configuration-request") {
+          @Override
+          protected byte[] createRequest() {
+            requestsSent.incrementAndGet();
+            return ConfigurationRequest.createMessage(version);
+          }
+        };
+
+    boolean loaded =
+        resender
+            .resendUntilAnswered(
+                fut,
+                notifier,
+                "ServerClusters Coordinator Unresponsive (config request)",
+                "The ServerClusters coordinator is failing to respond to a request for the centralized config from a server. "
+                    + "The coordinator, the message broker, or the network path between them and this server may be down or malfunctioning.");
+    if (!loaded) {
+      fut.set(null);
     }
   }
 
+  private void onConfigurationMessage(ConfigurationMessage config, byte[] message,
+      long configVersion) {
+    SettableFuture<SharedConfiguration> fut;
+    boolean changed;
+    synchronized (this) {
+      changed = wrapper != null;
+      if (wrapper == null) {
+        wrapper = new ConfigWrapper(config);
+      } else {
+        wrapper.setConfiguration(config);
+      }
+      version = configVersion;
+      // keeps the cache in the order configs arrived in
+      if (cache != null && cache.write(message) && usingCache) {
+        Log.warning("[ServerClusters] The network config changed since it was cached. Changed"
+            + " messaging channels only take effect after a restart.");
+      }
+      fut = finishLoading();
+    }
+
+    if (fut != null && fut.set(wrapper)) {
+      Log.info("[ServerClusters] Network config loaded in {} ms after {} requests.", loadTime,
+          requestsSent.get());
+    }
+
+    if (changed) {
+      Log.info("[ServerClusters] Network config updated.");
+      for (SharedConfigurationListener listener : listeners) {
+        try {
+          listener.onConfigurationChange(wrapper);
+        } catch (Exception e) {
+          Log.warning("[ServerClusters] A listener failed to apply the updated network config.", e);
+        }
+      }
+    }
+  }
+
+  private void onCurrentVersion(long currentVersion) {
+    SettableFuture<SharedConfiguration> fut;
+    synchronized (this) {
+      if (wrapper == null || currentVersion != version) {
+        return;
+      }
+      fut = finishLoading();
+    }
+
+    if (fut != null && fut.set(wrapper)) {
+      Log.info("[ServerClusters] Network config confirmed current in {} ms after {} requests.",
+          loadTime, requestsSent.get());
+    }
+  }
+
+  /**
+   * Marks the live config as in use. Must be called while synchronized on this.
+   * 
+   * @return The load to complete, if this is the first live config since it was requested.
+   */
+  private SettableFuture<SharedConfiguration> finishLoading() {
+    usingCache = false;
+    // times the first response to a request, before anybody waiting on it is let go
+    if (loading != null && loadTime < 0) {
+      loadTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - requested);
+      return loading;
+    }
+    return null;
+  }
+
   /**
    * Hides subscriber methods so they cannot be messed with.
    * <p>
@@ -188,12 +378,20 @@ public class SharedConfigurationManager {
     public void onMessage(byte[] channel, byte[] message) {
       if (Arrays.equals(channel, responseChannel)) {
         try {
-          ConfigurationMessage cm = ConfigurationMessage.fromBytes(message);
-          onConfigurationMessage(cm);
+          if (ConfigurationNotModified.isNotModified(message)) {
+            onCurrentVersion(ConfigurationNotModified.fromBytes(message).getCurrentVersion());
+            return;
+          }
+          long configVersion = ConfigurationMessage.getVersion(message);
+          if (configVersion == version) {
+            onCurrentVersion(configVersion);
+          } else {
+            onConfigurationMessage(ConfigurationMessage.fromBytes(message), message,
+                configVersion);
+          }
         } catch (Exception e) {
-          System.out
-              .println("[ServerClusters] Received a message on the configuration response channel, but it was not a correctly formatted configuration message");
-          e.printStackTrace();
+          Log.warning("[ServerClusters] Received a message on the configuration response channel,"
+              + " but it was not a correctly formatted configuration message", e);
         }
       }
     }
@@ -1,21 +1,54 @@
 package io.brutus.minecraft.serverclusters.config;
 
 import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+import io.brutus.minecraft.serverclusters.logging.Log;
 import io.brutus.minecraft.serverclusters.protocol.config.ConfigurationMessage;
+import io.brutus.minecraft.serverclusters.protocol.config.ConfigurationNotModified;
+import io.brutus.minecraft.serverclusters.protocol.config.ConfigurationRequest;
 import io.brutus.networking.pubsubmessager.PubSubMessager;
 import io.brutus.networking.pubsubmessager.Subscriber;
 
 /**
  * Provides the shared network configuration to clients who request it.
+ * <p>
+ * The configuration is serialized once per version and the bytes are reused for every response.
+ * Requesters that already have the current version get a short not-modified response instead of
+ * the whole configuration.
+ * <p>
+ * Responses are broadcast to every node, so one response answers every request that came in
+ * around the same time. Requests are held for a short window and answered together, so a wave of
+ * nodes booting at once costs a handful of publishes rather than one each.
  */
 public class SharedConfigurationProvider {
 
+  private static final long COLLAPSE_WINDOW = 25;
+
   private PubSubMessager messager;
   private LocalConfiguration localConfig;
   private SharedConfigurationLoader sharedConfig;
 
   private RequestSubscriber sub;
+  private final ScheduledExecutorService scheduler;
+
+  private ConfigurationMessage serializedConfig; // the config the serialized bytes are of
+  private byte[] serialized;
+  private long version;
+
+  private final AtomicBoolean flushScheduled;
+  private final AtomicBoolean fullPending;
+  private final AtomicBoolean notModifiedPending;
+
+  private final AtomicLong requests;
+  private final AtomicLong publications;
+  private final AtomicLong notModified;
+  private final AtomicLong collapsed;
 
   public SharedConfigurationProvider(PubSubMessager messager, LocalConfiguration localConfig,
       SharedConfigurationLoader sharedConfig) throws IllegalArgumentException {
@@ -26,6 +59,24 @@ public class SharedConfigurationProvider {
     this.localConfig = localConfig;
     this.sharedConfig = sharedConfig;
 
+    this.flushScheduled = new AtomicBoolean();
+    this.fullPending = new AtomicBoolean();
+    this.notModifiedPending = new AtomicBoolean();
+
+    this.requests = new AtomicLong();
+    this.publications = new AtomicLong();
+    this.notModified = new AtomicLong();
+    this.collapsed = new AtomicLong();
+
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread t = new Thread(r, "ServerClusters config publisher");
+        t.setDaemon(true);
+        return t;
+      }
+    });
+
     sub = new RequestSubscriber();
     messager.subscribe(localConfig.getConfigurationRequestChannel(), sub);
   }
@@ -37,14 +88,128 @@ public class SharedConfigurationProvider {
    */
   public void destroy() {
     messager.unsubscribe(localConfig.getConfigurationRequestChannel(), sub);
+    scheduler.shutdownNow();
   }
 
   /**
    * Forces this to publish its current version of the shared configuration.
    */
   public void publishConfiguration() {
-    messager.publish(localConfig.getConfigurationResponseChannel(),
-        ConfigurationMessage.createMessage(sharedConfig.getConfigurationMessage()));
+    messager.publish(localConfig.getConfigurationResponseChannel(), getSerialized());
+    publications.incrementAndGet();
+  }
+
+  /**
+   * Gets the version of the current shared configuration.
+   * 
+   * @return The current version, as given by {@link ConfigurationMessage#getVersion(byte[])}.
+   */
+  public synchronized long getVersion() {
+    getSerialized();
+    return version;
+  }
+
+  /**
+   * Gets the number of configuration requests this has received since it was created.
+   * 
+   * @return The total configuration requests received.
+   */
+  public long getRequestCount() {
+    return requests.get();
+  }
+
+  /**
+   * Gets the number of times this has published the configuration since it was created, whether
+   * in response to a request or when forced to.
+   * 
+   * @return The total times the configuration was published.
+   */
+  public long getPublishCount() {
+    return publications.get();
+  }
+
+  /**
+   * Gets the number of not-modified responses this has published since it was created.
+   * 
+   * @return The total not-modified responses published.
+   */
+  public long getNotModifiedCount() {
+    return notModified.get();
+  }
+
+  /**
+   * Gets the number of requests that were answered by a response published for another request,
+   * rather than getting one of their own.
+   * 
+   * @return The total requests collapsed into other responses.
+   */
+  public long getCollapsedCount() {
+    return collapsed.get();
+  }
+
+  /**
+   * Gets the current configuration, serialized. Only serializes it again when it has been
+   * reloaded.
+   */
+  private synchronized byte[] getSerialized() {
+    ConfigurationMessage current = sharedConfig.getConfigurationMessage();
+    if (current != serializedConfig) {
+      serialized = ConfigurationMessage.createMessage(current);
+      version = ConfigurationMessage.getVersion(serialized);
+      serializedConfig = current;
+    }
+    return serialized;
+  }
+
+  private void onRequest(ConfigurationRequest request) {
+    requests.incrementAndGet();
+
+    AtomicBoolean pending =
+        request.getKnownVersion() == getVersion() ? notModifiedPending : fullPending;
+    if (!pending.compareAndSet(false, true)) {
+      // an answer that covers this request is already on its way
+      collapsed.incrementAndGet();
+      return;
+    }
+
+    if (flushScheduled.compareAndSet(false, true)) {
+      try {
+        scheduler.schedule(new Runnable() {
+          @Override
+          public void run() {
+            flush();
+          }
+        }, COLLAPSE_WINDOW, TimeUnit.MILLISECONDS);
+      } catch (RuntimeException e) {
+        // shut down
+        flushScheduled.set(false);
+      }
+    }
+  }
+
+  /**
+   * Answers the requests that came in during the last window.
+   */
+  private void flush() {
+    flushScheduled.set(false);
+    boolean full = fullPending.getAndSet(false);
+    boolean current = notModifiedPending.getAndSet(false);
+
+    try {
+      if (full) {
+        // the full config answers requesters that already had it too
+        publishConfiguration();
+        if (current) {
+          collapsed.incrementAndGet();
+        }
+      } else if (current) {
+        messager.publish(localConfig.getConfigurationResponseChannel(),
+            ConfigurationNotModified.createMessage(getVersion()));
+        notModified.incrementAndGet();
+      }
+    } catch (RuntimeException e) {
+      Log.warning("[ServerClusters] Failed to answer configuration requests.", e);
+    }
   }
 
   /**
@@ -55,7 +220,7 @@ public class SharedConfigurationProvider {
     @Override
     public void onMessage(byte[] channel, byte[] message) {
       if (Arrays.equals(channel, localConfig.getConfigurationRequestChannel())) {
-        publishConfiguration();
+        onRequest(ConfigurationRequest.fromBytes(message));
       }
     }
   }
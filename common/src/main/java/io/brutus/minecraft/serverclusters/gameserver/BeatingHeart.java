@@ -1,5 +1,13 @@
 package io.brutus.minecraft.serverclusters.gameserver;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import io.brutus.minecraft.serverclusters.config.SharedConfiguration;
+import io.brutus.minecraft.serverclusters.config.SharedConfigurationListener;
+import io.brutus.minecraft.serverclusters.logging.Log;
 import io.brutus.minecraft.serverclusters.protocol.Heartbeat;
 import io.brutus.minecraft.serverclusters.protocol.ShutdownNotification;
 import io.brutus.networking.pubsubmessager.PubSubMessager;
@@ -12,30 +20,58 @@ import io.brutus.networking.pubsubmessager.PubSubMessager;
  * open slots changes often, the heart will beat fast in order to reduce the chances of a connected
  * server having outdated information. When no change is happening, the heart will beat more slowly,
  * just periodically letting connected servers know that this server has not crashed.
+ * <p>
+ * Heartbeats also carry the players who joined and left this server since the last heartbeat, so
+ * connected servers can keep a directory of where players are. The periodic heartbeats that are
+ * sent when nothing is changing carry the full list of players online instead. Either way, they
+ * carry a Bloom filter of the players online, so connected servers can look players up by name.
  */
-public class BeatingHeart {
+public class BeatingHeart implements SharedConfigurationListener {
 
   private final String thisServerId;
 
   private final SlotManager slotManager;
+  private final ServerUtils serverUtils;
 
   private final PubSubMessager messager;
   private final byte[] shutdownChannel;
   private final byte[] heartbeatChannel;
   private final byte[] baseMessage;
 
+  private final String clusterId;
+  private final String ip;
+  private final int port;
+
+  // {check-in interval, max wait time}, swapped as one so they always match
+  private volatile long[] heartRates;
+
+  // only accessed on the main thread
+  private Set<UUID> sentPlayers;
+  private int playerSequence;
+
   private volatile boolean alive;
 
+  /**
+   * Class constructor. Starts the heart beating.
+   * 
+   * @param config The configuration of this server.
+   * @param messager The messager to send heartbeats and shutdown notifications on.
+   * @param slotManager The manager of this server's slots.
+   * @param serverUtils Utilities for this server, used to send heartbeats on its main thread.
+   * @throws IllegalArgumentException On a <code>null</code> parameter, an empty channel or an
+   *         undefined server ip.
+   */
   public BeatingHeart(ServerClustersConfiguration config, PubSubMessager messager,
-      SlotManager slotManager) throws IllegalArgumentException {
+      SlotManager slotManager, ServerUtils serverUtils) throws IllegalArgumentException {
 
-    if (config == null || slotManager == null || messager == null) {
+    if (config == null || slotManager == null || messager == null || serverUtils == null) {
       throw new IllegalArgumentException("params cannot be null");
     }
 
     this.thisServerId = config.getServerId();
 
     this.slotManager = slotManager;
+    this.serverUtils = serverUtils;
 
     shutdownChannel = config.getShutdownChannel();
     heartbeatChannel = config.getHeartbeatChannel();
@@ -47,22 +83,43 @@ public class BeatingHeart {
 
     this.messager = messager;
 
-    ServerUtils utils = ServerClusters.getSingleton().getServerUtils();
-    String ip = utils.getServerIp();
+    String ip = serverUtils.getServerIp();
     if (ip == null || ip.isEmpty()) {
-      System.out.println("==================================================================");
-      System.out
-          .println("[IMPORTANT!!!] The server's IP address must be manually set in server.properties for "
-              + "ServerClusters to work properly. It is not set, and so ServerClusters will not work.");
-      System.out.println("==================================================================");
+      Log.severe("==================================================================");
+      Log.severe("[IMPORTANT!!!] The server's IP address must be manually set in server.properties"
+          + " for ServerClusters to work properly. It is not set, and so ServerClusters will not"
+          + " work.");
+      Log.severe("==================================================================");
       throw new IllegalArgumentException("server ip must be defined");
     }
-    int port = utils.getServerPort();
+    int port = serverUtils.getServerPort();
+
+    this.clusterId = config.getClusterId();
+    this.ip = ip;
+    this.port = port;
+    this.sentPlayers = Collections.emptySet();
 
     this.baseMessage =
         Heartbeat.createMessage(config.getClusterId(), config.getServerId(), ip, port, 0);
 
-    startHeartBeating(config);
+    this.heartRates = new long[] {config.getMaxHeartRate(), config.getMinHeartRate()};
+
+    startHeartBeating();
+  }
+
+  @Override
+  public void onConfigurationChange(SharedConfiguration config) {
+    long newCheckIn = config.getMaxHeartRate();
+    long newMaxWait = config.getMinHeartRate();
+    if (newCheckIn < 1 || newMaxWait < 1) {
+      Log.warning("[ServerClusters] Ignoring the updated heart rates, they must be positive.");
+      return;
+    }
+    long[] current = heartRates;
+    if (newCheckIn != current[0] || newMaxWait != current[1]) {
+      heartRates = new long[] {newCheckIn, newMaxWait};
+      Log.info("[ServerClusters] Heart rates changed to {} and {} ms.", newCheckIn, newMaxWait);
+    }
   }
 
   /**
@@ -79,7 +136,7 @@ public class BeatingHeart {
       return;
     }
     alive = false;
-    ServerClusters.getSingleton().getServerUtils().sync(new Runnable() {
+    serverUtils.sync(new Runnable() {
       @Override
       public void run() {
         messager.publish(shutdownChannel, ShutdownNotification.createMessage(thisServerId));
@@ -105,13 +162,38 @@ public class BeatingHeart {
    * thread, it does not matter that some thread that only triggers heartbeats is still running.
    * 
    * @param openSlots The number of open slots to send the heartbeat with.
+   * @param fullPlayerList Whether to send the full list of players online, rather than only the
+   *        players who joined or left since the last heartbeat.
    */
-  private void sendHeartbeat(final int openSlots) {
-    ServerClusters.getSingleton().getServerUtils().sync(new Runnable() {
+  private void sendHeartbeat(final int openSlots, final boolean fullPlayerList) {
+    serverUtils.sync(new Runnable() {
       @Override
       public void run() {
-        Heartbeat.updateMessage(baseMessage, openSlots);
-        messager.publish(heartbeatChannel, baseMessage);
+        Set<UUID> online = serverUtils.getOnlinePlayerIds();
+
+        if (fullPlayerList) {
+          sentPlayers = online;
+          messager.publish(heartbeatChannel, Heartbeat.createMessage(clusterId, thisServerId, ip,
+              port, openSlots, ++playerSequence, true, online, Collections.<UUID>emptySet(),
+              serverUtils.getOnlinePlayerIndex().getFilter()));
+          return;
+        }
+
+        Set<UUID> joined = new HashSet<UUID>(online);
+        joined.removeAll(sentPlayers);
+        Set<UUID> left = new HashSet<UUID>(sentPlayers);
+        left.removeAll(online);
+
+        if (joined.isEmpty() && left.isEmpty()) { // reuses the base message when nothing changed
+          Heartbeat.updateMessage(baseMessage, openSlots);
+          messager.publish(heartbeatChannel, baseMessage);
+          return;
+        }
+
+        sentPlayers = online;
+        messager.publish(heartbeatChannel, Heartbeat.createMessage(clusterId, thisServerId, ip,
+            port, openSlots, ++playerSequence, false, joined, left, serverUtils
+                .getOnlinePlayerIndex().getFilter()));
       }
     });
   }
@@ -119,10 +201,8 @@ public class BeatingHeart {
   /**
    * Starts the variable-rate heartbeats.
    */
-  private void startHeartBeating(ServerClustersConfiguration config) {
+  private void startHeartBeating() {
     alive = true;
-    final long checkInInterval = config.getMaxHeartRate();
-    final long maxWaitTime = config.getMinHeartRate();
 
     new Thread(new Runnable() {
 
@@ -130,15 +210,22 @@ public class BeatingHeart {
       public void run() {
         long timePassed = 0;
         int lastOpenSlots = Integer.MIN_VALUE;
+        boolean forced = true;
 
         while (alive) {
+          // picks up heart rates changed since the last beat
+          long[] rates = heartRates;
+          long checkInInterval = rates[0];
+          long maxWaitTime = rates[1];
 
           // sends a heartbeat if anything has changed that connected servers should know about.
+          // Heartbeats forced by the max wait time refresh the full list of players online.
           int slotsNow = slotManager.getOpenSlots();
           if (slotsNow != lastOpenSlots) {
-            sendHeartbeat(slotsNow);
+            sendHeartbeat(slotsNow, forced);
             lastOpenSlots = slotsNow;
             timePassed = 0;
+            forced = false;
           }
 
           // if waiting another checkInInterval would cause there to be no heartbeat past the max
@@ -146,18 +233,18 @@ public class BeatingHeart {
           // then forces a heartbeat.
           if (timePassed + checkInInterval >= maxWaitTime) {
             try {
-              Thread.sleep(maxWaitTime - timePassed);
+              Thread.sleep(Math.max(0, maxWaitTime - timePassed));
             } catch (InterruptedException e) {
-              System.out.println("[ServerClusters] The heartbeat thread was interrupted");
+              Log.info("[ServerClusters] The heartbeat thread was interrupted");
             }
             lastOpenSlots = Integer.MIN_VALUE; // sets an impossible value; triggers heartbeat
+            forced = true;
 
           } else {
             try {
               Thread.sleep(checkInInterval);
             } catch (InterruptedException e) {
-              System.out.println("[ServerClusters] The heartbeat thread was interrupted.");
-              e.printStackTrace();
+              Log.warning("[ServerClusters] The heartbeat thread was interrupted.", e);
               destroy();
             }
             timePassed += checkInInterval;
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
+import io.brutus.minecraft.serverclusters.logging.Log;
 import io.brutus.minecraft.serverclusters.networkstatus.NetworkStatus;
 import io.brutus.minecraft.serverclusters.networkstatus.ServerStatus;
 import io.brutus.minecraft.serverclusters.selection.ServerSelectionMode;
@@ -116,8 +117,7 @@ public class InstanceConsolidator {
           try {
             Thread.sleep(PERIOD_MILLIS);
           } catch (InterruptedException e) {
-            System.out.println("[ServerClusters] The heartbeat thread was interrupted.");
-            e.printStackTrace();
+            Log.warning("[ServerClusters] The heartbeat thread was interrupted.", e);
             alive = false;
           }
 
@@ -0,0 +1,111 @@
+package io.brutus.minecraft.serverclusters.gameserver;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.brutus.minecraft.serverclusters.protocol.PlayerFilter;
+
+/**
+ * A thread-safe index of the players online this server.
+ * <p>
+ * Lets any thread check whether a player is online without syncing to the server's main thread.
+ * Server implementations are responsible for keeping the index up to date as players join and
+ * quit.
+ * <p>
+ * Also keeps a {@link PlayerFilter} of the players online up to date as players are added and
+ * removed, so it can be sent to connected servers.
+ */
+public class OnlinePlayerIndex {
+
+  private final Map<UUID, String> names; // <player id, lower-cased name>
+  private final Map<String, UUID> ids; // <lower-cased name, player id>
+  private final PlayerFilter filter;
+
+  public OnlinePlayerIndex() {
+    this.names = new ConcurrentHashMap<UUID, String>();
+    this.ids = new ConcurrentHashMap<String, UUID>();
+    this.filter = new PlayerFilter();
+  }
+
+  /**
+   * Adds a player who is now online this server.
+   * 
+   * @param id The player's unique id.
+   * @param name The player's name.
+   * @throws IllegalArgumentException On a <code>null</code> parameter.
+   */
+  public void add(UUID id, String name) throws IllegalArgumentException {
+    if (id == null || name == null) {
+      throw new IllegalArgumentException("params cannot be null");
+    }
+    String key = name.toLowerCase();
+    String previous = names.put(id, key);
+    if (previous != null && !previous.equals(key)) {
+      ids.remove(previous, id);
+      filter.remove(id, previous);
+    }
+    if (previous == null || !previous.equals(key)) {
+      filter.add(id, key);
+    }
+    ids.put(key, id);
+  }
+
+  /**
+   * Removes a player who is no longer online this server.
+   * <p>
+   * Does nothing if the player is not in this index.
+   * 
+   * @param id The player's unique id.
+   */
+  public void remove(UUID id) {
+    if (id == null) {
+      return;
+    }
+    String name = names.remove(id);
+    if (name != null) {
+      ids.remove(name, id);
+      filter.remove(id, name);
+    }
+  }
+
+  /**
+   * Gets whether there is a player online with the given unique id.
+   * 
+   * @param id The id to search with.
+   * @return <code>true</code> if the player is currently online.
+   */
+  public boolean contains(UUID id) {
+    return id != null && names.containsKey(id);
+  }
+
+  /**
+   * Gets whether there is a player online with the exact given name (not case sensitive).
+   * 
+   * @param name The name to search with.
+   * @return <code>true</code> if the player is currently online.
+   */
+  public boolean contains(String name) {
+    return name != null && ids.containsKey(name.toLowerCase());
+  }
+
+  /**
+   * Gets a serialized Bloom filter of the players in this index.
+   * 
+   * @return The current filter of online players.
+   * @see PlayerFilter#toBytes()
+   */
+  public byte[] getFilter() {
+    return filter.toBytes();
+  }
+
+  /**
+   * Gets the number of players in this index.
+   * 
+   * @return The number of players online.
+   */
+  public int size() {
+    return names.size();
+  }
+
+}
@@ -1,7 +1,10 @@
 package io.brutus.minecraft.serverclusters.gameserver;
 
 import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
 
+import io.brutus.minecraft.serverclusters.logging.Log;
 import io.brutus.minecraft.serverclusters.config.SharedConfiguration;
 import io.brutus.minecraft.serverclusters.protocol.PlayerNameReservationRequest;
 import io.brutus.minecraft.serverclusters.protocol.PlayerUuidReservationRequest;
@@ -23,6 +26,7 @@ public class PlayerRelocationServer {
   private final String thisNodeId;
 
   private final SlotManager slotManager;
+  private final ServerUtils serverUtils;
 
   private final PubSubMessager messager;
   private final byte[] requestChannel;
@@ -36,23 +40,28 @@ public class PlayerRelocationServer {
    *        Essential to uniquely identify and route messages.
    * @param messager The messager to listen to requests on and send responses on.
    * @param slotManager The slot manager for this gameserver.
+   * @param serverUtils Utilities for this gameserver, used to look up the players online it.
    * @param config The network configuration.
    * @throws IllegalArgumentException On a <code>null</code> or empty parameter.
    */
   public PlayerRelocationServer(String thisNodeId, PubSubMessager messager,
-      SlotManager slotManager, SharedConfiguration config) throws IllegalArgumentException {
+      SlotManager slotManager, ServerUtils serverUtils, SharedConfiguration config)
+      throws IllegalArgumentException {
     if (thisNodeId == null || thisNodeId.isEmpty()) {
       throw new IllegalArgumentException("node id cannot be null or empty");
     } else if (messager == null) {
       throw new IllegalArgumentException("pub/sub messager cannot be null");
     } else if (slotManager == null) {
       throw new IllegalArgumentException("slot manager cannot be null");
+    } else if (serverUtils == null) {
+      throw new IllegalArgumentException("server utils cannot be null");
     } else if (config == null) {
       throw new IllegalArgumentException("config cannot be null");
     }
 
     this.thisNodeId = thisNodeId;
     this.slotManager = slotManager;
+    this.serverUtils = serverUtils;
 
     this.messager = messager;
 
@@ -81,72 +90,62 @@ public class PlayerRelocationServer {
       rr = ReservationRequest.fromBytes(message);
 
     } catch (Exception e) {
-      System.out.println("[ServerClusters " + getClass().getSimpleName()
-          + "] Received a message on the reservation-request channel that could not be parsed.");
-      e.printStackTrace();
+      Log.warning("[ServerClusters " + getClass().getSimpleName()
+          + "] Received a message on the reservation-request channel that could not be parsed.", e);
       return;
     }
 
-    TargetType type = rr.getTargetType();
+    // requests limited to the servers their target might be on can be dropped right away
+    if (!rr.isRecipient(thisNodeId)) {
+      return;
+    }
 
-    final ServerUtils serverUtils = ServerClusters.getSingleton().getServerUtils();
+    TargetType type = rr.getTargetType();
 
+    // online-player lookups are thread safe, so requests are answered on the messaging thread
     if (type == TargetType.SERVER_ID) { // targeted by server id
       ServerIdReservationRequest serverRequest = (ServerIdReservationRequest) rr;
 
       if (serverRequest.getTargetServer().equals(thisNodeId)) { // for this server
-        tryReservation(serverRequest);
+        tryReservation(serverRequest, serverRequest.getPlaceholders());
       }
 
     } else if (type == TargetType.PLAYER_UUID) { // targeted by player id
-      final PlayerUuidReservationRequest uidRequest = (PlayerUuidReservationRequest) rr;
-
-      // syncs to main thread before accessing Minecraft server API
-      serverUtils.sync(new Runnable() {
-        @Override
-        public void run() {
-          // if the player is online this server, this request is for this server
-          if (serverUtils.isPlayerOnline(uidRequest.getTargetPlayerUniqueId())) {
-            tryReservation(uidRequest);
-          }
-        }
-      });
+      PlayerUuidReservationRequest uidRequest = (PlayerUuidReservationRequest) rr;
 
+      // if the player is online this server, this request is for this server
+      if (serverUtils.isPlayerOnline(uidRequest.getTargetPlayerUniqueId())) {
+        tryReservation(uidRequest, null);
+      }
 
     } else if (type == TargetType.PLAYER_NAME) { // targeted by player name
-      final PlayerNameReservationRequest nameRequest = (PlayerNameReservationRequest) rr;
-
-      // syncs to main thread before accessing Minecraft server API
-      serverUtils.sync(new Runnable() {
-        @Override
-        public void run() {
-          // if the player is online this server, this request is for this server
-          if (serverUtils.isPlayerOnline(nameRequest.getTargetPlayerName())) {
-            tryReservation(nameRequest);
-          }
-        }
-      });
+      PlayerNameReservationRequest nameRequest = (PlayerNameReservationRequest) rr;
+
+      // if the player is online this server, this request is for this server
+      if (serverUtils.isPlayerOnline(nameRequest.getTargetPlayerName())) {
+        tryReservation(nameRequest, null);
+      }
 
     }
     // if no conditions are met, the incoming request is not meant for this server.
   }
 
-  private void tryReservation(ReservationRequest rr) {
+  private void tryReservation(ReservationRequest rr, Set<UUID> placeholders) {
 
-    // TODO debug
-    System.out.println("[ServerClusters " + getClass().getSimpleName()
-        + "] Received reservation request of id " + rr.getRequestId() + " from "
-        + rr.getRequestingServer() + " for " + rr.getPlayers().size() + " players.");
+    Log.debug("[ServerClusters PlayerRelocationServer] Received reservation request of id {}"
+        + " from {} for {} players.", rr.getRequestId(), rr.getRequestingServer(),
+        rr.getPlayers().size());
 
-    boolean reserved = slotManager.getReservation(rr.getPlayers());
+    // hands over slots that were reserved ahead of time, if the request is for any
+    boolean reserved =
+        placeholders != null ? slotManager.transferReservation(placeholders, rr.getPlayers())
+            : slotManager.getReservation(rr.getPlayers());
     byte[] response =
         ReservationResponse.createMessage(rr.getRequestingServer(), thisNodeId, rr.getRequestId(),
             reserved);
 
-    // TODO debug
-    System.out.println("[ServerClusters " + getClass().getSimpleName()
-        + "] Sending a reservation response message of id " + rr.getRequestId() + " to "
-        + rr.getRequestingServer() + ". Approved: " + reserved);
+    Log.debug("[ServerClusters PlayerRelocationServer] Sending a reservation response message of id"
+        + " {} to {}. Approved: {}", rr.getRequestId(), rr.getRequestingServer(), reserved);
 
     messager.publish(responseChannel, response);
 
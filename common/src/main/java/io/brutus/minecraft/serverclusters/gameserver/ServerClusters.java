@@ -11,6 +11,9 @@ import io.brutus.minecraft.serverclusters.networkstatus.NetworkCache;
 import io.brutus.minecraft.serverclusters.networkstatus.NetworkStatus;
 import io.brutus.minecraft.serverclusters.selection.ServerSelectionMode;
 import io.brutus.minecraft.serverclusters.sendplayer.PlayerRelocationClient;
+import io.brutus.minecraft.serverclusters.sendplayer.RelocationMetrics;
+import io.brutus.minecraft.serverclusters.sendplayer.RelocationOutcome;
+import io.brutus.minecraft.serverclusters.sendplayer.RelocationResult;
 import io.brutus.networking.pubsubmessager.PubSubMessager;
 
 import com.google.common.util.concurrent.ListenableFuture;
@@ -137,16 +140,24 @@ public class ServerClusters implements ServerClustersAPI {
 
     // starts this server's heart beating so the network will know about it
     try {
-      beatingHeart = new BeatingHeart(config, messager, slotManager);
+      beatingHeart = new BeatingHeart(config, messager, slotManager, serverUtils);
     } catch (Exception e) {
       e.printStackTrace();
     }
 
     relocationServer =
-        new PlayerRelocationServer(config.getServerId(), messager, slotManager, config);
+        new PlayerRelocationServer(config.getServerId(), messager, slotManager, serverUtils,
+            config);
     relocationClient =
         new PlayerRelocationClient(config.getServerId(), network, serverUtils, messager, config);
 
+    // lets the components pick up timeouts and heart rates changed on the coordinator
+    config.registerListener((NetworkCache) network);
+    if (beatingHeart != null) {
+      config.registerListener(beatingHeart);
+    }
+    config.registerListener(relocationClient);
+
     if (config.attemptInstanceConsolidations()) {
       consolidator = new InstanceConsolidator(config, network, slotManager, relocationClient);
     } else {
@@ -180,9 +191,20 @@ public class ServerClusters implements ServerClustersAPI {
     status.add("Your server: " + getServerId() + " (cluster: " + getClusterId() + ", "
         + slotManager.getOpenSlots() + " open slots, " + slotManager.getTotalSlots()
         + " total slots)");
+    status.addAll(relocationClient.getMetrics().toStringList());
     return status;
   }
 
+  /**
+   * Gets the metrics of the relocations this server has attempted, so they can be displayed or
+   * exported.
+   * 
+   * @return Live, read-only relocation metrics.
+   */
+  public RelocationMetrics getRelocationMetrics() {
+    return relocationClient.getMetrics();
+  }
+
   @Override
   public String getServerId() {
     return config.getServerId();
@@ -219,17 +241,15 @@ public class ServerClusters implements ServerClustersAPI {
   }
 
   @Override
-  public ListenableFuture<Boolean> sendPlayersToCluster(String clusterId, UUID... playersToSend)
-      throws IllegalArgumentException {
+  public ListenableFuture<RelocationResult> sendPlayersToCluster(String clusterId,
+      UUID... playersToSend) throws IllegalArgumentException {
 
     Set<UUID> pSet = sanitizePlayers(playersToSend);
 
     // tolerates and ignores offline players, because it is not really an illegal argument that
     // indicates a logical issue; it is just likely references to players who have since logged off.
     if (pSet.isEmpty()) {
-      SettableFuture<Boolean> ret = SettableFuture.create();
-      ret.set(true);
-      return ret;
+      return nobodyToSend();
     }
 
     ServerSelectionMode mode = config.getSelectionMode(clusterId);
@@ -244,24 +264,22 @@ public class ServerClusters implements ServerClustersAPI {
   }
 
   @Override
-  public ListenableFuture<Boolean> sendPlayersToPlayer(UUID targetPlayerId, UUID... playersToSend)
-      throws IllegalArgumentException {
+  public ListenableFuture<RelocationResult> sendPlayersToPlayer(UUID targetPlayerId,
+      UUID... playersToSend) throws IllegalArgumentException {
 
     Set<UUID> pSet = sanitizePlayers(playersToSend);
 
     // tolerates and ignores offline players, because it is not really an illegal argument that
     // indicates a logical issue; it is just likely references to players who have since logged off.
     if (pSet.isEmpty()) {
-      SettableFuture<Boolean> ret = SettableFuture.create();
-      ret.set(true);
-      return ret;
+      return nobodyToSend();
     }
 
     return relocationClient.sendPlayersToPlayer(targetPlayerId, pSet);
   }
 
   @Override
-  public ListenableFuture<Boolean> sendPlayersToPlayer(String targetPlayerName,
+  public ListenableFuture<RelocationResult> sendPlayersToPlayer(String targetPlayerName,
       UUID... playersToSend) throws IllegalArgumentException {
 
     Set<UUID> pSet = sanitizePlayers(playersToSend);
@@ -269,14 +287,21 @@ public class ServerClusters implements ServerClustersAPI {
     // tolerates and ignores offline players, because it is not really an illegal argument that
     // indicates a logical issue; it is just likely references to players who have since logged off.
     if (pSet.isEmpty()) {
-      SettableFuture<Boolean> ret = SettableFuture.create();
-      ret.set(true);
-      return ret;
+      return nobodyToSend();
     }
 
     return relocationClient.sendPlayersToPlayer(targetPlayerName, pSet);
   }
 
+  /**
+   * Gets the result of a relocation that had nobody to send, which trivially succeeds.
+   */
+  private static ListenableFuture<RelocationResult> nobodyToSend() {
+    SettableFuture<RelocationResult> ret = SettableFuture.create();
+    ret.set(new RelocationResult(RelocationOutcome.SUCCESS, null, 0, 0, 0));
+    return ret;
+  }
+
   @Override
   public ListenableFuture<Boolean> closeThisServer() {
     ListenableFuture<Boolean> ret = null;
@@ -296,7 +321,14 @@ public class ServerClusters implements ServerClustersAPI {
   }
 
   private void destroy() {
+    config.unregisterListener((NetworkCache) network);
+    if (beatingHeart != null) {
+      config.unregisterListener(beatingHeart);
+    }
+    config.unregisterListener(relocationClient);
+
     heartbeatListener.destroy();
+    ((NetworkCache) network).destroy();
     if (beatingHeart != null) {
       beatingHeart.destroy();
     }
@@ -4,6 +4,9 @@ import java.util.UUID;
 
 import com.google.common.util.concurrent.ListenableFuture;
 
+import io.brutus.minecraft.serverclusters.sendplayer.RelocationOutcome;
+import io.brutus.minecraft.serverclusters.sendplayer.RelocationResult;
+
 /**
  * Documentation for the main ServerClusters API.
  */
@@ -113,14 +116,15 @@ public interface ServerClustersAPI {
    * @param clusterId The id of the cluster to send the players to.
    * @param players The player or players to send to an instance of the server cluster.
    * @return The asynchronous, future result of this attempt to relocate players. Returns a value
-   *         when the request finishes. <code>true</code> if the relocation is successful (does not
+   *         when the request finishes. Successful if the relocation is successful (does not
    *         guarantee the players make it to their destination, but does successfully find a server
-   *         and try to send them there). <code>false</code> if the relocation fails, such as if no
-   *         valid servers exist for the given cluster.
+   *         and try to send them there). Otherwise its outcome says why the relocation failed, such
+   *         as {@link RelocationOutcome#NO_CAPACITY} if no server in the cluster has room. Also has
+   *         the server the players were sent to and how many servers and round trips it took.
    * @throws IllegalArgumentException on a <code>null</code> parameter or an empty cluster id or on
    *         sending a player that is already in the process of being sent.
    */
-  ListenableFuture<Boolean> sendPlayersToCluster(String clusterId, UUID... playersToSend)
+  ListenableFuture<RelocationResult> sendPlayersToCluster(String clusterId, UUID... playersToSend)
       throws IllegalArgumentException;
 
   /**
@@ -149,15 +153,16 @@ public interface ServerClustersAPI {
    * @param targetPlayerId The player whose server to try to send the given players to.
    * @param players The players to try to send to the server of the target player.
    * @return The asynchronous, future result of this attempt to relocate players. Returns a value
-   *         when the request finishes. <code>true</code> if the relocation is successful (does not
+   *         when the request finishes. Successful if the relocation is successful (does not
    *         guarantee the players make it to their destination, but successfully tries to send them
-   *         to the target server). <code>false</code> if the relocation fails, such as if the
-   *         target player is not online a connected server.
+   *         to the target server). Otherwise its outcome says why the relocation failed, such as
+   *         {@link RelocationOutcome#TIMEOUT} if the target player is not online a connected
+   *         server.
    * @throws IllegalArgumentException on a <code>null</code> parameter or on sending a player that
    *         is already in the process of being sent or on sending a player that is already in the
    *         process of being sent.
    */
-  ListenableFuture<Boolean> sendPlayersToPlayer(UUID targetPlayerId, UUID... playersToSend)
+  ListenableFuture<RelocationResult> sendPlayersToPlayer(UUID targetPlayerId, UUID... playersToSend)
       throws IllegalArgumentException;
 
   /**
@@ -187,15 +192,16 @@ public interface ServerClustersAPI {
    *        (not case sensitive).
    * @param players The players to try to send to the server of the target player.
    * @return The asynchronous, future result of this attempt to relocate players. Returns a value
-   *         when the request finishes. <code>true</code> if the relocation is successful (does not
+   *         when the request finishes. Successful if the relocation is successful (does not
    *         guarantee the players make it to their destination, but successfully tries to send them
-   *         to the target server). <code>false</code> if the relocation fails, such as if the
-   *         target player is not online a connected server.
+   *         to the target server). Otherwise its outcome says why the relocation failed, such as
+   *         {@link RelocationOutcome#TIMEOUT} if the target player is not online a connected
+   *         server.
    * @throws IllegalArgumentException on a <code>null</code> parameter or an empty player name or on
    *         sending a player that is already in the process of being sent.
    */
-  ListenableFuture<Boolean> sendPlayersToPlayer(String targetPlayerName, UUID... playersToSend)
-      throws IllegalArgumentException;
+  ListenableFuture<RelocationResult> sendPlayersToPlayer(String targetPlayerName,
+      UUID... playersToSend) throws IllegalArgumentException;
 
   /**
    * Stops players from being sent to this server until it shuts down.
@@ -2,6 +2,7 @@ package io.brutus.minecraft.serverclusters.gameserver;
 
 import io.brutus.minecraft.serverclusters.config.LocalConfiguration;
 import io.brutus.minecraft.serverclusters.config.SharedConfiguration;
+import io.brutus.minecraft.serverclusters.config.SharedConfigurationListener;
 
 /**
  * Main configuration for the ServerClusters utility.
@@ -47,4 +48,20 @@ public interface ServerClustersConfiguration extends SharedConfiguration, LocalC
    */
   boolean attemptInstanceConsolidations();
 
+  /**
+   * Registers a listener to be told when the shared configuration changes, such as when it is
+   * reloaded on the coordinator.
+   * 
+   * @param listener The listener to register.
+   * @throws IllegalArgumentException on a <code>null</code> listener.
+   */
+  void registerListener(SharedConfigurationListener listener) throws IllegalArgumentException;
+
+  /**
+   * Unregisters a listener so it is no longer told when the shared configuration changes.
+   * 
+   * @param listener The listener to unregister.
+   */
+  void unregisterListener(SharedConfigurationListener listener);
+
 }
@@ -38,6 +38,8 @@ public interface ServerUtils extends PlayerSender {
 
   /**
    * Gets whether there is a player online with the given unique id.
+   * <p>
+   * This method is thread safe and does not need to be synced to the main thread.
    * 
    * @param id The id to search with.
    * @return <code>true</code> if the player is currently online.
@@ -46,12 +48,21 @@ public interface ServerUtils extends PlayerSender {
 
   /**
    * Gets whether there is a player online with the exact given name (not case sensitive).
+   * <p>
+   * This method is thread safe and does not need to be synced to the main thread.
    * 
    * @param name The name to search with.
    * @return <code>true</code> if the player is currently online.
    */
   boolean isPlayerOnline(String name);
 
+  /**
+   * Gets the thread-safe index of the players online this server.
+   * 
+   * @return The index of online players.
+   */
+  OnlinePlayerIndex getOnlinePlayerIndex();
+
   /**
    * Gets a set of the unique ids of all the players on the server.
    * <p>
@@ -84,4 +84,27 @@ public interface SlotManager {
    */
   boolean getReservation(Set<UUID> players);
 
+  /**
+   * Attempts to hand the reserved slots of placeholder ids over to a set of players.
+   * <p>
+   * Lets other nodes reserve slots before they know which players will fill them. The players'
+   * reservations are given a fresh timeout. Placeholders that no longer have a reservation are
+   * ignored, and any slots still needed are reserved as by {@link #getReservation(Set)}. Slots
+   * left over from extra placeholders are freed. Players who are already on the server or logging
+   * in to it keep the slot they hold and get no reservation, so their placeholders' slots are
+   * freed.
+   * <p>
+   * Succeeds or fails for all players passed in. On failure, the placeholders' reservations are
+   * released anyway, since the node holding them has given up on them.
+   * 
+   * @param placeholders The ids that slots were reserved under.
+   * @param players The players to reserve slots for.
+   * @return <code>true</code> if every player now has a reservation. <code>false</code> if this
+   *         server cannot currently accommodate all of the given players.
+   * @throws IllegalArgumentException on a <code>null</code> or empty set of placeholders or
+   *         players.
+   */
+  boolean transferReservation(Set<UUID> placeholders, Set<UUID> players)
+      throws IllegalArgumentException;
+
 }
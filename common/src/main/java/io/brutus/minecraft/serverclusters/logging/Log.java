@@ -0,0 +1,296 @@
+package io.brutus.minecraft.serverclusters.logging;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/**
+ * The ServerClusters log.
+ * <p>
+ * Messages below the current level are discarded by a single volatile read, before any text is
+ * built. Messages that pass are put on a bounded ring buffer with their arguments unformatted, and
+ * a background thread formats them and writes them to the platform logger. Calling threads never
+ * wait on console I/O. If the buffer fills up, messages are dropped and the number dropped is
+ * logged once the buffer drains.
+ * <p>
+ * Templates use <code>{}</code> for each argument, which is formatted with
+ * {@link String#valueOf(Object)} on the background thread. Primitive arguments are boxed, so hot
+ * paths should still check {@link #isDebugEnabled()} before logging anything expensive to box.
+ * <p>
+ * Until a platform logger is set with {@link #start(Logger)}, messages are written to a logger
+ * named "ServerClusters". The level defaults to the <code>serverclusters.logLevel</code> system
+ * property, or <code>INFO</code>.
+ * <p>
+ * This class is thread safe.
+ */
+public final class Log {
+
+  private static final int CAPACITY = 4096;
+  private static final long IDLE_PARK_NANOS = 100000000L; // 100ms
+  private static final long FLUSH_TIMEOUT = 2000;
+
+  private static final LogRing ring = new LogRing(CAPACITY);
+
+  private static volatile LogLevel level = LogLevel.parse(
+      System.getProperty("serverclusters.logLevel"), LogLevel.INFO);
+  private static volatile Logger output = Logger.getLogger("ServerClusters");
+
+  private static volatile Thread appender;
+  private static Thread retired; // guarded by Log.class
+  private static volatile boolean sleeping;
+
+  private Log() {}
+
+  /**
+   * Starts writing log messages to a platform logger.
+   * 
+   * @param logger The logger to write to, such as the one from
+   *        {@link io.brutus.minecraft.serverclusters.gameserver.ServerUtils#getLogger()}.
+   * @throws IllegalArgumentException on a <code>null</code> logger.
+   */
+  public static void start(Logger logger) throws IllegalArgumentException {
+    if (logger == null) {
+      throw new IllegalArgumentException("logger cannot be null");
+    }
+    output = logger;
+    ensureAppender();
+  }
+
+  /**
+   * Writes every message that has already been logged, then stops the background thread.
+   * <p>
+   * Logging again afterwards starts a new background thread.
+   */
+  public static void stop() {
+    Thread thread;
+    synchronized (Log.class) {
+      thread = appender;
+      appender = null;
+      if (thread != null) {
+        retired = thread;
+      }
+    }
+    if (thread != null) {
+      LockSupport.unpark(thread);
+      try {
+        thread.join(FLUSH_TIMEOUT);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Sets the lowest level of messages that are logged.
+   * 
+   * @param newLevel The lowest level to log.
+   * @throws IllegalArgumentException on a <code>null</code> level.
+   */
+  public static void setLevel(LogLevel newLevel) throws IllegalArgumentException {
+    if (newLevel == null) {
+      throw new IllegalArgumentException("level cannot be null");
+    }
+    level = newLevel;
+  }
+
+  /**
+   * Gets the lowest level of messages that are logged.
+   * 
+   * @return The current level.
+   */
+  public static LogLevel getLevel() {
+    return level;
+  }
+
+  /**
+   * Gets whether messages of a level are currently logged.
+   * 
+   * @param messageLevel The level of a message.
+   * @return <code>true</code> if messages of that level are logged.
+   */
+  public static boolean isEnabled(LogLevel messageLevel) {
+    return messageLevel.compareTo(level) >= 0 && level != LogLevel.OFF;
+  }
+
+  /**
+   * Gets whether debug messages are currently logged.
+   * 
+   * @return <code>true</code> if debug messages are logged.
+   */
+  public static boolean isDebugEnabled() {
+    return level == LogLevel.DEBUG;
+  }
+
+  public static void debug(String message) {
+    log(LogLevel.DEBUG, message, null, null, null, null);
+  }
+
+  public static void debug(String template, Object arg1) {
+    log(LogLevel.DEBUG, template, arg1, null, null, null);
+  }
+
+  public static void debug(String template, Object arg1, Object arg2) {
+    log(LogLevel.DEBUG, template, arg1, arg2, null, null);
+  }
+
+  public static void debug(String template, Object arg1, Object arg2, Object arg3) {
+    log(LogLevel.DEBUG, template, arg1, arg2, arg3, null);
+  }
+
+  public static void info(String message) {
+    log(LogLevel.INFO, message, null, null, null, null);
+  }
+
+  public static void info(String template, Object arg1) {
+    log(LogLevel.INFO, template, arg1, null, null, null);
+  }
+
+  public static void info(String template, Object arg1, Object arg2) {
+    log(LogLevel.INFO, template, arg1, arg2, null, null);
+  }
+
+  public static void warning(String message) {
+    log(LogLevel.WARNING, message, null, null, null, null);
+  }
+
+  public static void warning(String template, Object arg1) {
+    log(LogLevel.WARNING, template, arg1, null, null, null);
+  }
+
+  public static void warning(String message, Throwable thrown) {
+    log(LogLevel.WARNING, message, null, null, null, thrown);
+  }
+
+  public static void severe(String message) {
+    log(LogLevel.SEVERE, message, null, null, null, null);
+  }
+
+  public static void severe(String message, Throwable thrown) {
+    log(LogLevel.SEVERE, message, null, null, null, thrown);
+  }
+
+  private static void log(LogLevel messageLevel, String template, Object arg1, Object arg2,
+      Object arg3, Throwable thrown) {
+    if (!isEnabled(messageLevel)) {
+      return;
+    }
+    ensureAppender();
+    if (ring.offer(messageLevel, template, arg1, arg2, arg3, thrown) && sleeping) {
+      Thread thread = appender;
+      if (thread != null) {
+        LockSupport.unpark(thread);
+      }
+    }
+  }
+
+  private static void ensureAppender() {
+    if (appender != null) {
+      return;
+    }
+    synchronized (Log.class) {
+      if (appender != null) {
+        return;
+      }
+      Thread thread = new Thread(new Appender(retired), "ServerClusters-Log");
+      retired = null;
+      thread.setDaemon(true);
+      appender = thread;
+      thread.start();
+    }
+  }
+
+  /**
+   * Formats a template by replacing each <code>{}</code> with the next argument.
+   */
+  static String format(String template, Object arg1, Object arg2, Object arg3) {
+    if (template == null) {
+      return "null";
+    }
+    if (template.indexOf("{}") < 0) {
+      return template;
+    }
+    StringBuilder sb = new StringBuilder(template.length() + 32);
+    int argument = 0;
+    int from = 0;
+    int at;
+    while ((at = template.indexOf("{}", from)) >= 0 && argument < 3) {
+      sb.append(template, from, at);
+      sb.append(String.valueOf(argument == 0 ? arg1 : argument == 1 ? arg2 : arg3));
+      argument++;
+      from = at + 2;
+    }
+    sb.append(template, from, template.length());
+    return sb.toString();
+  }
+
+  /**
+   * Writes messages from the ring to the platform logger until it is stopped and the ring is
+   * empty.
+   */
+  private static class Appender implements Runnable {
+
+    private final Thread previous;
+
+    /**
+     * Class constructor.
+     * 
+     * @param previous An appender that was stopped and may still be writing, which must finish
+     *        first since the ring only has one reader. <code>null</code> if there is none.
+     */
+    private Appender(Thread previous) {
+      this.previous = previous;
+    }
+
+    @Override
+    public void run() {
+      if (previous != null) {
+        try {
+          previous.join();
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+      Thread self = Thread.currentThread();
+      while (true) {
+        LogRing.Entry entry = ring.peek();
+        if (entry != null) {
+          write(entry);
+          ring.release(entry);
+          continue;
+        }
+
+        long dropped = ring.takeDropped();
+        if (dropped > 0) {
+          output.warning("[ServerClusters] " + dropped
+              + " log messages were dropped because they were logged faster than they could be "
+              + "written.");
+        }
+
+        if (appender != self) { // stopped, and everything logged before stopping is written
+          return;
+        }
+
+        sleeping = true;
+        if (ring.peek() == null && appender == self) {
+          LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        sleeping = false;
+      }
+    }
+
+    private void write(LogRing.Entry entry) {
+      try {
+        String message = format(entry.template, entry.arg1, entry.arg2, entry.arg3);
+        if (entry.thrown != null) {
+          output.log(entry.level.toJulLevel(), message, entry.thrown);
+        } else {
+          output.log(entry.level.toJulLevel(), message);
+        }
+      } catch (Exception e) {
+        // a broken logger should never take the appender down with it
+        e.printStackTrace();
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,49 @@
+package io.brutus.minecraft.serverclusters.logging;
+
+import java.util.logging.Level;
+
+/**
+ * How important a log message is. Messages below the configured level are discarded before any
+ * text is built.
+ */
+public enum LogLevel {
+
+  DEBUG(Level.INFO), INFO(Level.INFO), WARNING(Level.WARNING), SEVERE(Level.SEVERE), OFF(Level.OFF);
+
+  private final Level julLevel;
+
+  private LogLevel(Level julLevel) {
+    this.julLevel = julLevel;
+  }
+
+  /**
+   * Gets the level to write messages of this level at on a platform logger.
+   * <p>
+   * Debug messages are written at <code>INFO</code>, since platform loggers usually hide anything
+   * finer and debug output is only produced when it has been asked for.
+   * 
+   * @return The <code>java.util.logging</code> level.
+   */
+  public Level toJulLevel() {
+    return julLevel;
+  }
+
+  /**
+   * Parses a level by name.
+   * 
+   * @param name The name of the level (not case sensitive).
+   * @param def The level to return if the name is <code>null</code> or not a level.
+   * @return The named level, or the default.
+   */
+  public static LogLevel parse(String name, LogLevel def) {
+    if (name == null) {
+      return def;
+    }
+    try {
+      return valueOf(name.trim().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      return def;
+    }
+  }
+
+}
@@ -0,0 +1,128 @@
+package io.brutus.minecraft.serverclusters.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded ring of preallocated log entries, written by any number of threads and read by one.
+ * <p>
+ * Writers claim a slot with a compare-and-set on the tail and publish it by writing the slot's
+ * sequence number, so writing never locks and never allocates. When the ring is full, new entries
+ * are dropped and counted rather than making the writer wait.
+ */
+class LogRing {
+
+  /**
+   * One log message, not yet formatted.
+   */
+  static class Entry {
+
+    volatile long sequence;
+
+    LogLevel level;
+    String template;
+    Object arg1;
+    Object arg2;
+    Object arg3;
+    Throwable thrown;
+
+    private void clear() {
+      template = null;
+      arg1 = null;
+      arg2 = null;
+      arg3 = null;
+      thrown = null;
+    }
+
+  }
+
+  private final Entry[] entries;
+  private final int mask;
+
+  private final AtomicLong tail; // the next sequence to claim
+  private volatile long head; // the next sequence to read
+  private final AtomicLong dropped;
+
+  /**
+   * Class constructor.
+   * 
+   * @param capacity The number of entries the ring holds. Rounded up to a power of two.
+   */
+  LogRing(int capacity) {
+    int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+    this.entries = new Entry[size];
+    this.mask = size - 1;
+    for (int i = 0; i < size; i++) {
+      entries[i] = new Entry();
+      entries[i].sequence = i - size; // never equal to a sequence the reader is waiting for
+    }
+    this.tail = new AtomicLong();
+    this.dropped = new AtomicLong();
+  }
+
+  /**
+   * Adds an entry to the ring.
+   * 
+   * @return <code>false</code> if the ring was full and the entry was dropped.
+   */
+  boolean offer(LogLevel level, String template, Object arg1, Object arg2, Object arg3,
+      Throwable thrown) {
+    long sequence;
+    do {
+      sequence = tail.get();
+      if (sequence - head >= entries.length) {
+        dropped.incrementAndGet();
+        return false;
+      }
+    } while (!tail.compareAndSet(sequence, sequence + 1));
+
+    Entry entry = entries[(int) sequence & mask];
+    entry.level = level;
+    entry.template = template;
+    entry.arg1 = arg1;
+    entry.arg2 = arg2;
+    entry.arg3 = arg3;
+    entry.thrown = thrown;
+    entry.sequence = sequence; // publishes the entry to the reader
+    return true;
+  }
+
+  /**
+   * Gets the next entry, if it has been published. Only the reader thread may call this.
+   * 
+   * @return The next entry, or <code>null</code> if there is none yet. Must be passed back to
+   *         {@link #release(Entry)} once it has been written.
+   */
+  Entry peek() {
+    Entry entry = entries[(int) head & mask];
+    return entry.sequence == head ? entry : null;
+  }
+
+  /**
+   * Frees the entry from {@link #peek()} so writers can reuse its slot.
+   * 
+   * @param entry The entry that was just written.
+   */
+  void release(Entry entry) {
+    entry.clear();
+    head = head + 1;
+  }
+
+  /**
+   * Gets whether every entry that was added has been read.
+   * 
+   * @return <code>true</code> if the ring is empty.
+   */
+  boolean isEmpty() {
+    return head == tail.get();
+  }
+
+  /**
+   * Gets and resets the number of entries dropped because the ring was full.
+   * 
+   * @return The number of dropped entries since the last call.
+   */
+  long takeDropped() {
+    return dropped.getAndSet(0);
+  }
+
+}
@@ -0,0 +1,153 @@
+package io.brutus.minecraft.serverclusters.messaging;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import io.brutus.minecraft.serverclusters.logging.Log;
+import io.brutus.minecraft.serverclusters.notifications.AdminNotifier;
+import io.brutus.networking.pubsubmessager.PubSubMessager;
+
+/**
+ * Publishes a request to the coordinator until it is answered, with exponential backoff.
+ * <p>
+ * The request is published immediately, and then again each time no answer arrives in time,
+ * waiting twice as long each time up to a limit. While waiting, logs every so often why the node
+ * might be hanging, and notifies admins once if the request goes unanswered for a long time.
+ * <p>
+ * Subclasses create the request to publish, which is created again for every resend so it can
+ * carry up-to-date information.
+ */
+public abstract class RequestResender {
+
+  private static final long MAX_RESEND_DELAY = 10000;
+  private static final long LOG_INTERVAL = 15000;
+  private static final long NOTIFY_ADMIN_AFTER = 100000;
+
+  private final PubSubMessager messager;
+  private final byte[] requestChannel;
+  private final long firstResendDelay;
+  private final String awaited;
+  private final String requestName;
+
+  /**
+   * Class constructor.
+   * 
+   * @param messager The pub/sub messager to publish the request on.
+   * @param requestChannel The channel to publish the request on.
+   * @param firstResendDelay How long to wait for an answer to the first request before resending
+   *        it, in milliseconds.
+   * @param awaited What the request is waiting for, for logging. Such as "a unique server id".
+   * @param requestName The name of the request with its article, for logging. Such as "an
+   *        id-request".
+   * @throws IllegalArgumentException on a <code>null</code> parameter, an empty channel or a delay
+   *         that is not positive.
+   */
+  protected RequestResender(PubSubMessager messager, byte[] requestChannel, long firstResendDelay,
+      String awaited, String requestName) throws IllegalArgumentException {
+    if (messager == null || requestChannel == null || awaited == null || requestName == null) {
+      throw new IllegalArgumentException("params cannot be null");
+    } else if (requestChannel.length < 1) {
+      throw new IllegalArgumentException("request channel cannot be empty");
+    } else if (firstResendDelay < 1) {
+      throw new IllegalArgumentException("first resend delay must be positive");
+    }
+    this.messager = messager;
+    this.requestChannel = requestChannel;
+    this.firstResendDelay = firstResendDelay;
+    this.awaited = awaited;
+    this.requestName = requestName;
+  }
+
+  /**
+   * Creates the request to publish. Called for every request published.
+   * 
+   * @return The serialized request.
+   */
+  protected abstract byte[] createRequest();
+
+  /**
+   * Publishes the request until it is answered, waiting on the thread this is called on.
+   * 
+   * @param answered A future that completes once the request is answered.
+   * @param notifier The admin notifier to use if the request goes unanswered for a long time.
+   *        <code>null</code> not to notify admins.
+   * @param subject The subject of the admin notification.
+   * @param body The body of the admin notification.
+   * @return <code>true</code> once the request was answered. <code>false</code> if the waiting
+   *         thread was interrupted first.
+   */
+  public boolean resendUntilAnswered(Future<?> answered, AdminNotifier notifier, String subject,
+      String body) {
+    long delay = firstResendDelay;
+    long started = System.currentTimeMillis();
+    long lastLog = started;
+    boolean notified = false;
+
+    while (!answered.isDone()) {
+      publishRequest();
+
+      try {
+        answered.get(delay, TimeUnit.MILLISECONDS);
+        return true;
+      } catch (TimeoutException e) {
+        // no response yet, resends
+      } catch (InterruptedException e) {
+        Log.warning("[ServerClusters] thread was interrupted while waiting for " + awaited
+            + ". Aborting...", e);
+        return false;
+      } catch (ExecutionException | CancellationException e) {
+        return true;
+      }
+
+      // periodically logs to clarify why the server might be hanging
+      long now = System.currentTimeMillis();
+      if (now - lastLog >= LOG_INTERVAL) {
+        Log.info("[ServerClusters] Still waiting for {}...", awaited);
+        lastLog = now;
+      }
+
+      // attempts to send a notification to admins if the request keeps failing
+      if (notifier != null && !notified && now - started >= NOTIFY_ADMIN_AFTER) {
+        notifier.sendNotification(subject, body);
+        notified = true;
+      }
+
+      delay = Math.min(delay * 2, MAX_RESEND_DELAY);
+    }
+    return true;
+  }
+
+  /**
+   * Publishes the request without waiting for the broker to accept it.
+   */
+  private void publishRequest() {
+    final ListenableFuture<Boolean> published;
+    try {
+      published = messager.publish(requestChannel, createRequest());
+    } catch (RuntimeException e) {
+      Log.warning("[ServerClusters] failed to publish " + requestName + " message.", e);
+      return;
+    }
+
+    published.addListener(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          if (!published.get()) {
+            // publishing obviously failed
+            Log.warning("[ServerClusters] failed to publish {} message.", requestName);
+          }
+        } catch (Exception e) {
+          Log.warning("[ServerClusters] failed to publish " + requestName + " message.", e);
+        }
+      }
+    }, MoreExecutors.sameThreadExecutor());
+  }
+
+}
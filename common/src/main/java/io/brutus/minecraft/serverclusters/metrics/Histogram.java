@@ -0,0 +1,133 @@
+package io.brutus.minecraft.serverclusters.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size histogram of non-negative values, in the style of an HDR histogram.
+ * <p>
+ * Values below 64 are counted exactly. Larger values are counted in buckets that each cover about
+ * 3% of their value, so every percentile is accurate to within about 3% no matter how large the
+ * values get. The whole range of <code>long</code> fits in under 2,000 buckets.
+ * <p>
+ * Recording is lock free and does not allocate, so it is safe to do on hot paths. Reads are not
+ * atomic as a whole: a percentile read while values are being recorded may not include the very
+ * latest values.
+ * <p>
+ * This implementation is thread safe.
+ */
+public class Histogram {
+
+  private static final int EXACT_BUCKETS = 64;
+  private static final int SUB_BUCKETS = 32;
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int BUCKETS = EXACT_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts;
+  private final AtomicLong count;
+  private final AtomicLong total;
+  private final AtomicLong max;
+
+  public Histogram() {
+    this.counts = new AtomicLongArray(BUCKETS);
+    this.count = new AtomicLong();
+    this.total = new AtomicLong();
+    this.max = new AtomicLong();
+  }
+
+  /**
+   * Records a value. Negative values are recorded as <code>0</code>.
+   * 
+   * @param value The value to record.
+   */
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    counts.incrementAndGet(index(value));
+    count.incrementAndGet();
+    total.addAndGet(value);
+
+    long currentMax = max.get();
+    while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+      currentMax = max.get();
+    }
+  }
+
+  /**
+   * Gets the number of values recorded.
+   * 
+   * @return The count of recorded values.
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * Gets the largest value recorded.
+   * 
+   * @return The exact maximum, or <code>0</code> if nothing has been recorded.
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Gets the mean of the values recorded.
+   * 
+   * @return The exact mean, or <code>0</code> if nothing has been recorded.
+   */
+  public double getMean() {
+    long n = count.get();
+    return n == 0 ? 0 : (double) total.get() / n;
+  }
+
+  /**
+   * Gets the value at a percentile of everything recorded.
+   * 
+   * @param percentile The percentile, from <code>0</code> to <code>100</code>.
+   * @return The highest value that could be in the bucket of the given percentile, but never more
+   *         than the exact maximum. <code>0</code> if nothing has been recorded.
+   * @throws IllegalArgumentException on a percentile outside of <code>0</code> to
+   *         <code>100</code>.
+   */
+  public long getValueAtPercentile(double percentile) throws IllegalArgumentException {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("percentile must be from 0 to 100");
+    }
+    long n = count.get();
+    if (n == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(highestValue(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  private static int index(long value) {
+    if (value < EXACT_BUCKETS) {
+      return (int) value;
+    }
+    // keeps the top 6 bits of the value: a leading 1 and 5 bits of sub-bucket
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+    return EXACT_BUCKETS + ((shift - 1) * SUB_BUCKETS) + subBucket;
+  }
+
+  private static long highestValue(int index) {
+    if (index < EXACT_BUCKETS) {
+      return index;
+    }
+    int shift = ((index - EXACT_BUCKETS) / SUB_BUCKETS) + 1;
+    long mantissa = SUB_BUCKETS + ((index - EXACT_BUCKETS) % SUB_BUCKETS);
+    long highest = ((mantissa + 1) << shift) - 1;
+    return highest < 0 ? Long.MAX_VALUE : highest;
+  }
+
+}
@@ -0,0 +1,79 @@
+package io.brutus.minecraft.serverclusters.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the phases of a startup, so slow boots can be traced to the step that held them up.
+ * <p>
+ * Starts counting when created. Each call to {@link #phase(String)} ends the current phase and
+ * starts the next one.
+ * <p>
+ * This implementation is thread safe.
+ */
+public class StartupTimer {
+
+  private final long started;
+  private final Map<String, Long> phases; // <phase, nanoseconds it took>, in the order they ended
+  private long lastMark;
+
+  public StartupTimer() {
+    this.started = System.nanoTime();
+    this.lastMark = started;
+    this.phases = new LinkedHashMap<String, Long>();
+  }
+
+  /**
+   * Ends the current phase of the startup and starts the next one.
+   * 
+   * @param name The name of the phase that just ended. If a phase of the same name already ended,
+   *        the time is added to it.
+   * @return How long the phase took, in milliseconds.
+   * @throws IllegalArgumentException on a <code>null</code> name.
+   */
+  public synchronized long phase(String name) throws IllegalArgumentException {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+    long now = System.nanoTime();
+    long took = now - lastMark;
+    lastMark = now;
+
+    Long before = phases.get(name);
+    phases.put(name, before == null ? took : before + took);
+    return TimeUnit.NANOSECONDS.toMillis(took);
+  }
+
+  /**
+   * Gets how long each phase that has ended took.
+   * 
+   * @return A copy of the phases, in the order they ended, with how long each took in milliseconds.
+   */
+  public synchronized Map<String, Long> getPhases() {
+    Map<String, Long> ret = new LinkedHashMap<String, Long>();
+    for (Map.Entry<String, Long> entry : phases.entrySet()) {
+      ret.put(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue()));
+    }
+    return ret;
+  }
+
+  /**
+   * Gets how long it has been since the startup began, up to the end of the last phase.
+   * 
+   * @return The time the ended phases took together, in milliseconds.
+   */
+  public synchronized long getTotal() {
+    return TimeUnit.NANOSECONDS.toMillis(lastMark - started);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<String, Long> entry : getPhases().entrySet()) {
+      sb.append(entry.getKey()).append(' ').append(entry.getValue()).append(" ms, ");
+    }
+    return sb.append("total ").append(getTotal()).append(" ms").toString();
+  }
+
+}
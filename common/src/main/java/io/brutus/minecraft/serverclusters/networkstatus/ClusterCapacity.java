@@ -0,0 +1,161 @@
+package io.brutus.minecraft.serverclusters.networkstatus;
+
+import java.util.Arrays;
+
+/**
+ * Capacity of a cluster: how many of its servers are known and how much room they have left.
+ * <p>
+ * An immutable snapshot of the cached data at the time it was read from the cache. Servers that
+ * stopped sending heartbeats are still counted until the cache's next sweep removes them.
+ * <p>
+ * Heartbeats do not carry a server's total number of slots, only its open slots and the players it
+ * has, so the total capacity of a cluster is at least its open slots plus its players. Servers
+ * that do not send player changes count as having no players.
+ * <p>
+ * Also has a histogram of how many servers have how many open slots. Bucket <code>0</code> counts
+ * full servers, and each bucket <code>i</code> after that counts servers with from
+ * <code>2^(i-1)</code> to <code>2^i - 1</code> open slots: 1, 2 to 3, 4 to 7, and so on.
+ */
+public class ClusterCapacity {
+
+  /**
+   * The number of buckets in an open-slot histogram, enough for any positive <code>int</code>.
+   */
+  public static final int HISTOGRAM_BUCKETS = 32;
+
+  /**
+   * Gets the histogram bucket that a number of open slots falls into.
+   * 
+   * @param openSlots A server's open slots.
+   * @return The index of the bucket, from <code>0</code> to {@link #HISTOGRAM_BUCKETS} - 1.
+   */
+  public static int bucket(int openSlots) {
+    return openSlots <= 0 ? 0 : 32 - Integer.numberOfLeadingZeros(openSlots);
+  }
+
+  private final String clusterId;
+  private final int servers;
+  private final long openSlots;
+  private final int maxOpenSlots;
+  private final int players;
+  private final int[] histogram;
+
+  /**
+   * Class constructor.
+   * 
+   * @param clusterId The id of the cluster.
+   * @param servers The number of known servers in the cluster.
+   * @param openSlots The open slots across every known server in the cluster.
+   * @param maxOpenSlots The most open slots on any one known server in the cluster.
+   * @param players The players on known servers in the cluster.
+   * @param histogram The number of servers in each open-slot bucket. Copied.
+   * @throws IllegalArgumentException on a <code>null</code> or empty cluster id, on a negative
+   *         number, or on a histogram without {@link #HISTOGRAM_BUCKETS} buckets.
+   */
+  ClusterCapacity(String clusterId, int servers, long openSlots, int maxOpenSlots, int players,
+      int[] histogram) throws IllegalArgumentException {
+    if (clusterId == null || clusterId.isEmpty()) {
+      throw new IllegalArgumentException("the cluster id cannot be null or empty");
+    }
+    if (servers < 0 || openSlots < 0 || maxOpenSlots < 0 || players < 0) {
+      throw new IllegalArgumentException("counts cannot be negative");
+    }
+    if (histogram == null || histogram.length != HISTOGRAM_BUCKETS) {
+      throw new IllegalArgumentException("histogram must have " + HISTOGRAM_BUCKETS + " buckets");
+    }
+
+    this.clusterId = clusterId;
+    this.servers = servers;
+    this.openSlots = openSlots;
+    this.maxOpenSlots = maxOpenSlots;
+    this.players = players;
+    this.histogram = Arrays.copyOf(histogram, HISTOGRAM_BUCKETS);
+  }
+
+  /**
+   * Gets the id of the cluster this is the capacity of.
+   * 
+   * @return The cluster's id.
+   */
+  public String getClusterId() {
+    return clusterId;
+  }
+
+  /**
+   * Gets the number of known servers in the cluster.
+   * 
+   * @return The cluster's size.
+   */
+  public int getServers() {
+    return servers;
+  }
+
+  /**
+   * Gets the total open slots across every known server in the cluster.
+   * 
+   * @return The cluster's open slots. A <code>long</code>, since servers report their own open
+   *         slots and their total is not bounded by any one of them.
+   */
+  public long getOpenSlots() {
+    return openSlots;
+  }
+
+  /**
+   * Gets the most open slots on any one known server in the cluster. A group of players
+   * larger than this cannot be placed together in the cluster.
+   * 
+   * @return The largest number of open slots on one server.
+   */
+  public int getMaxOpenSlots() {
+    return maxOpenSlots;
+  }
+
+  /**
+   * Gets the number of players that known servers in the cluster reported having.
+   * 
+   * @return The cluster's players.
+   */
+  public int getPlayers() {
+    return players;
+  }
+
+  /**
+   * Gets the number of servers in the cluster whose open slots fall into a histogram bucket.
+   * 
+   * @param bucket The index of the bucket, as from {@link #bucket(int)}.
+   * @return The servers in the bucket.
+   * @throws IllegalArgumentException on a bucket index out of range.
+   */
+  public int getServersInBucket(int bucket) throws IllegalArgumentException {
+    if (bucket < 0 || bucket >= HISTOGRAM_BUCKETS) {
+      throw new IllegalArgumentException("bucket must be from 0 to " + (HISTOGRAM_BUCKETS - 1));
+    }
+    return histogram[bucket];
+  }
+
+  /**
+   * Gets the number of servers in the cluster that are certain to have room for a group of
+   * players, judging only by the histogram.
+   * <p>
+   * Servers in the group's own bucket may or may not have room, so are not counted. Use
+   * {@link #getMaxOpenSlots()} to know whether any server at all has room.
+   * 
+   * @param groupSize The number of players in the group.
+   * @return The servers whose open-slot bucket is entirely at or above the group's size.
+   */
+  public int getServersWithRoomFor(int groupSize) {
+    int ret = 0;
+    int first = groupSize <= 1 ? 1 : bucket(groupSize - 1) + 1;
+    for (int i = first; i < HISTOGRAM_BUCKETS; i++) {
+      ret += histogram[i];
+    }
+    return ret;
+  }
+
+  @Override
+  public String toString() {
+    return clusterId + " (" + servers + " servers, " + openSlots + " open slots, " + maxOpenSlots
+        + " max open slots, " + players + " players)";
+  }
+
+}
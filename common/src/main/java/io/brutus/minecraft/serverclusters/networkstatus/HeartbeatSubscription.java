@@ -4,6 +4,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
+import io.brutus.minecraft.serverclusters.logging.Log;
 import io.brutus.minecraft.serverclusters.protocol.Heartbeat;
 import io.brutus.minecraft.serverclusters.protocol.ShutdownNotification;
 import io.brutus.networking.pubsubmessager.PubSubMessager;
@@ -99,9 +100,7 @@ public class HeartbeatSubscription {
           }
 
         } catch (Exception e) {
-          System.out
-              .println("Received a message on the heartbeat channel that could not be parsed.");
-          e.printStackTrace();
+          Log.warning("Received a message on the heartbeat channel that could not be parsed.", e);
           return;
         }
 
@@ -114,9 +113,7 @@ public class HeartbeatSubscription {
           }
 
         } catch (Exception e) {
-          System.out
-              .println("Received a message on the shutdown channel that could not be parsed.");
-          e.printStackTrace();
+          Log.warning("Received a message on the shutdown channel that could not be parsed.", e);
           return;
         }
       }
@@ -1,42 +1,106 @@
 package io.brutus.minecraft.serverclusters.networkstatus;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
-
-import net.jodah.expiringmap.ExpiringMap;
-import net.jodah.expiringmap.ExpiringMap.ExpirationListener;
-import net.jodah.expiringmap.ExpiringMap.ExpirationPolicy;
-
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
-
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import io.brutus.minecraft.serverclusters.config.SharedConfiguration;
+import io.brutus.minecraft.serverclusters.config.SharedConfigurationListener;
+import io.brutus.minecraft.serverclusters.logging.Log;
 import io.brutus.minecraft.serverclusters.protocol.Heartbeat;
+import io.brutus.minecraft.serverclusters.protocol.PlayerFilter;
 import io.brutus.minecraft.serverclusters.protocol.ShutdownNotification;
 import io.brutus.minecraft.serverclusters.selection.ServerSelectionMode;
 
 /**
  * A cache of data about connected servers, updated and maintained by their incoming heartbeat and
  * shutdown messages.
+ * <p>
+ * Each server is assigned a dense int handle when it joins. Its status is stored in parallel
+ * primitive columns indexed by that handle, and each cluster keeps an int array of its members'
+ * handles. String ids are only kept for display and routing. Handles are recycled once a server
+ * times out or shuts down.
+ * <p>
+ * Also keeps a directory of which server each player on the network is on, built from the player
+ * changes that servers send with their heartbeats, along with each server's latest Bloom filter of
+ * its players for lookups the directory cannot answer, such as by name.
+ * <p>
+ * Each cluster's capacity (its servers, open slots, most open slots on one server, players and a
+ * histogram of open slots) is kept as running totals, adjusted as heartbeats arrive and as servers
+ * join, shut down and time out, so it can be read without visiting the cluster's servers. These
+ * totals include servers that have stopped sending heartbeats until the next sweep removes them.
  */
 public class NetworkCache implements NetworkStatus, HeartbeatListener,
-    ExpirationListener<String, ServerStatus> {
-
-  private final long serverTimeout;
-
-  private Multimap<String, ServerStatus> clusters; // <cluster id, server statuses within cluster>
-  private ExpiringMap<String, ServerStatus> servers; // <server id, server status>
+    SharedConfigurationListener {
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final long MIN_SWEEP_INTERVAL = 50;
+  private static final int SWEEPS_PER_TIMEOUT = 10;
+  private static final int EXACT_OPEN_SLOTS = 1024; // counted in an array, more in a sorted map
+
+  private volatile long serverTimeout;
+  private volatile long sweepInterval;
+
+  private final ReadWriteLock lock;
+
+  private final Map<String, Integer> handles; // <server id, handle>
+  private final Map<String, Integer> clusterIndices; // <cluster id, cluster index>
+
+  // columns, indexed by server handle
+  private String[] serverIds; // null if the handle is free
+  private String[] ips;
+  private int[] ports;
+  private int[] clusterIndex;
+  private int[] memberPosition; // position of the handle within its cluster's member array
+  private int[] openSlots;
+  private long[] lastUpdated;
+  private int highestHandle; // one past the highest handle ever assigned
+
+  private int[] freeHandles;
+  private int freeCount;
+
+  // indexed by cluster index
+  private String[] clusterIds;
+  private int[][] members; // <cluster index, handles of servers in the cluster>
+  private int[] memberCounts;
+  private int clusterCount;
+
+  // running per-cluster capacity, indexed by cluster index
+  private long[] clusterOpenSlots;
+  private int[] clusterMaxOpenSlots;
+  private int[] clusterPlayers;
+  private int[][] openSlotCounts; // <cluster index, number of servers with each exact open slots>
+  private TreeMap<Integer, Integer>[] largeOpenSlotCounts; // the same, from EXACT_OPEN_SLOTS up
+  private int[][] openSlotHistograms; // <cluster index, servers per ClusterCapacity bucket>
+
+  private int liveServers;
+
+  private final Map<UUID, Integer> playerLocations; // <player, handle of the player's server>
+  private Set<UUID>[] hostedPlayers; // indexed by server handle
+  private int[] playerSequences; // indexed by server handle
+  private byte[][] playerFilters; // indexed by server handle
 
   private Set<NetworkChangeListener> listeners;
 
+  private final AtomicLong heartbeatsReceived;
+  private final AtomicLong serversTimedOut;
+  private final AtomicLong serversShutDown;
+
   private String thisServerId; // this game server's id, if this is being used on a game server.
 
+  private volatile boolean alive;
+
   /**
    * Class constructor.
    * 
@@ -52,15 +116,80 @@ public class NetworkCache implements NetworkStatus, HeartbeatListener,
     }
 
     this.serverTimeout = serverTimeout;
-
-    HashMultimap<String, ServerStatus> notThreadSafe = HashMultimap.create();
-    clusters = Multimaps.synchronizedSetMultimap(notThreadSafe);
+    this.sweepInterval = Math.max(MIN_SWEEP_INTERVAL, serverTimeout / SWEEPS_PER_TIMEOUT);
+
+    this.lock = new ReentrantReadWriteLock();
+
+    this.handles = new HashMap<String, Integer>();
+    this.clusterIndices = new HashMap<String, Integer>();
+
+    serverIds = new String[INITIAL_CAPACITY];
+    ips = new String[INITIAL_CAPACITY];
+    ports = new int[INITIAL_CAPACITY];
+    clusterIndex = new int[INITIAL_CAPACITY];
+    memberPosition = new int[INITIAL_CAPACITY];
+    openSlots = new int[INITIAL_CAPACITY];
+    lastUpdated = new long[INITIAL_CAPACITY];
+    freeHandles = new int[INITIAL_CAPACITY];
+
+    clusterIds = new String[INITIAL_CAPACITY];
+    members = new int[INITIAL_CAPACITY][];
+    memberCounts = new int[INITIAL_CAPACITY];
+    clusterOpenSlots = new long[INITIAL_CAPACITY];
+    clusterMaxOpenSlots = new int[INITIAL_CAPACITY];
+    clusterPlayers = new int[INITIAL_CAPACITY];
+    openSlotCounts = new int[INITIAL_CAPACITY][];
+    largeOpenSlotCounts = newOpenSlotMaps(INITIAL_CAPACITY);
+    openSlotHistograms = new int[INITIAL_CAPACITY][];
+
+    playerLocations = new HashMap<UUID, Integer>();
+    hostedPlayers = newPlayerSets(INITIAL_CAPACITY);
+    playerSequences = new int[INITIAL_CAPACITY];
+    playerFilters = new byte[INITIAL_CAPACITY][];
 
     listeners = new HashSet<NetworkChangeListener>();
 
-    servers =
-        ExpiringMap.builder().expiration(serverTimeout, TimeUnit.MILLISECONDS)
-            .expirationPolicy(ExpirationPolicy.ACCESSED).expirationListener(this).build();
+    heartbeatsReceived = new AtomicLong();
+    serversTimedOut = new AtomicLong();
+    serversShutDown = new AtomicLong();
+
+    startSweeping();
+  }
+
+  /**
+   * Stops this cache from checking for unresponsive servers. Irreversible.
+   * <p>
+   * Cached data can still be read, but servers will no longer be reported as unresponsive.
+   */
+  public void destroy() {
+    alive = false;
+  }
+
+  /**
+   * Changes how long a server can go without sending a heartbeat before it is assumed to be down.
+   * Takes effect from the next sweep on.
+   * 
+   * @param serverTimeout The new timeout, in milliseconds.
+   * @throws IllegalArgumentException On a timeout that is not positive.
+   */
+  public void setServerTimeout(long serverTimeout) throws IllegalArgumentException {
+    if (serverTimeout < 1) {
+      throw new IllegalArgumentException("server timeout must be positive");
+    }
+    this.serverTimeout = serverTimeout;
+    this.sweepInterval = Math.max(MIN_SWEEP_INTERVAL, serverTimeout / SWEEPS_PER_TIMEOUT);
+  }
+
+  @Override
+  public void onConfigurationChange(SharedConfiguration config) {
+    long timeout = config.getServerTimeout();
+    if (timeout < 1) {
+      Log.warning("[ServerClusters] Ignoring the updated server timeout of {} ms, it must be"
+          + " positive.", timeout);
+    } else if (timeout != serverTimeout) {
+      setServerTimeout(timeout);
+      Log.info("[ServerClusters] Server timeout changed to {} ms.", timeout);
+    }
   }
 
   @Override
@@ -78,28 +207,48 @@ public class NetworkCache implements NetworkStatus, HeartbeatListener,
     if (hb.getServerId().equals(thisServerId)) {
       return;
     }
+    heartbeatsReceived.incrementAndGet();
 
-    ServerStatus status = servers.get(hb.getServerId());
+    boolean joined = false;
 
-    if (status == null) {
-      try {
-        status =
-            new ServerStatus(hb.getServerId(), hb.getClusterId(), hb.getServerIp(),
-                hb.getServerPort(), hb.getOpenSlots());
-        servers.put(status.getServerId(), status);
-        clusters.put(status.getClusterId(), status);
+    lock.writeLock().lock();
+    try {
+      Integer handle = handles.get(hb.getServerId());
 
-        for (NetworkChangeListener listener : listeners) {
+      if (handle == null) {
+        if (hb.getServerIp() == null || hb.getServerIp().isEmpty()) {
+          Log.warning("[ServerClusters] Error while caching a new server's status. {} did not"
+              + " send an ip.", hb.getServerId());
+          return;
+        }
+        handle = allocate(hb);
+        joined = true;
+
+      } else {
+        int cluster = clusterIndex[handle];
+        removeCapacity(cluster, openSlots[handle]);
+        openSlots[handle] = hb.getOpenSlots();
+        addCapacity(cluster, openSlots[handle]);
+        lastUpdated[handle] = System.currentTimeMillis();
+      }
+
+      if (hb.hasPlayerChanges()) {
+        updatePlayers(handle, hb);
+      }
+
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    if (joined) {
+      for (NetworkChangeListener listener : listeners) {
+        try {
           listener.onServerJoin(hb.getServerId(), hb.getClusterId(), hb.getServerIp(),
               hb.getServerPort());
+        } catch (Exception e) {
+          Log.warning("[ServerClusters] A listener failed to handle a server joining.", e);
         }
-      } catch (Exception e) {
-        System.out.println("[ServerClusters] Error while caching a new server's status.");
-        e.printStackTrace();
       }
-
-    } else {
-      status.updateOpenSlots(hb.getOpenSlots());
     }
   }
 
@@ -109,16 +258,51 @@ public class NetworkCache implements NetworkStatus, HeartbeatListener,
       return;
     }
 
-    ServerStatus status = servers.remove(sn.getServerId());
-    if (status != null) {
-      clusters.remove(status.getClusterId(), status);
-      for (NetworkChangeListener listener : listeners) {
-        listener.onServerWillShutdown(sn.getServerId(), status.getClusterId(), status.getIp(),
-            status.getPort());
+    String clusterId;
+    String ip;
+    int port;
+
+    lock.writeLock().lock();
+    try {
+      Integer handle = handles.get(sn.getServerId());
+      if (handle == null) {
+        return;
+      }
+      clusterId = clusterIds[clusterIndex[handle]];
+      ip = ips[handle];
+      port = ports[handle];
+      release(handle);
+      serversShutDown.incrementAndGet();
+
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    for (NetworkChangeListener listener : listeners) {
+      try {
+        listener.onServerWillShutdown(sn.getServerId(), clusterId, ip, port);
+      } catch (Exception e) {
+        Log.warning("[ServerClusters] A listener failed to handle a server shutting down.", e);
       }
     }
   }
 
+  @Override
+  public List<ServerStatus> getPossiblePlayerServers(UUID playerId) {
+    if (playerId == null) {
+      throw new IllegalArgumentException("player id cannot be null");
+    }
+    return getPossiblePlayerServers(playerId, null);
+  }
+
+  @Override
+  public List<ServerStatus> getPossiblePlayerServers(String playerName) {
+    if (playerName == null || playerName.isEmpty()) {
+      throw new IllegalArgumentException("player name cannot be null or empty");
+    }
+    return getPossiblePlayerServers(null, playerName);
+  }
+
   @Override
   public int getClusterSize(String clusterId) {
     int ret = 0;
@@ -132,14 +316,15 @@ public class NetworkCache implements NetworkStatus, HeartbeatListener,
       ret++;
     }
 
-    Collection<ServerStatus> instances = clusters.get(clusterId);
-    if (instances != null) {
-      for (ServerStatus status : instances) {
-        // makes sure the servers being counted are still valid
-        if (!hasTimedOut(status)) {
-          ret++;
-        }
+    lock.readLock().lock();
+    try {
+      Integer cluster = clusterIndices.get(clusterId);
+      if (cluster != null) {
+        ret += memberCounts[cluster];
       }
+
+    } finally {
+      lock.readLock().unlock();
     }
 
     return ret;
@@ -158,18 +343,31 @@ public class NetworkCache implements NetworkStatus, HeartbeatListener,
       throw new IllegalArgumentException("number of players cannot be negative");
     }
 
-    List<ServerStatus> servers = new ArrayList<ServerStatus>();
+    List<ServerStatus> servers;
+    long now = System.currentTimeMillis();
 
-    Collection<ServerStatus> clusteredServers = clusters.get(clusterId);
-    if (clusteredServers == null || clusteredServers.isEmpty()) {
-      return servers;
-    }
+    lock.readLock().lock();
+    try {
+      Integer cluster = clusterIndices.get(clusterId);
+      if (cluster == null || memberCounts[cluster] == 0) {
+        return new ArrayList<ServerStatus>();
+      }
+
+      int[] clusterMembers = members[cluster];
+      int count = memberCounts[cluster];
+      servers = new ArrayList<ServerStatus>(count);
 
-    for (ServerStatus server : clusteredServers) {
-      if (hasTimedOut(server) || server.getOpenSlots() < numPlayers) { // ignores invalid servers
-        continue;
+      for (int i = 0; i < count; i++) {
+        int handle = clusterMembers[i];
+        // ignores invalid servers
+        if (hasTimedOut(handle, now) || openSlots[handle] < numPlayers) {
+          continue;
+        }
+        servers.add(snapshot(handle));
       }
-      servers.add(server);
+
+    } finally {
+      lock.readLock().unlock();
     }
 
     Collections.sort(servers, mode);
@@ -178,13 +376,21 @@ public class NetworkCache implements NetworkStatus, HeartbeatListener,
   }
 
   @Override
-  public void expired(String serverId, ServerStatus status) {
-    if (clusters.remove(status.getClusterId(), status)) {
+  public ServerStatus getPlayerServer(UUID playerId) {
+    if (playerId == null) {
+      return null;
+    }
 
-      for (NetworkChangeListener listener : listeners) {
-        listener.onServerUnresponsive(serverId, status.getClusterId(), status.getIp(),
-            status.getPort());
+    lock.readLock().lock();
+    try {
+      Integer handle = playerLocations.get(playerId);
+      if (handle == null || hasTimedOut(handle, System.currentTimeMillis())) {
+        return null;
       }
+      return snapshot(handle);
+
+    } finally {
+      lock.readLock().unlock();
     }
   }
 
@@ -194,33 +400,480 @@ public class NetworkCache implements NetworkStatus, HeartbeatListener,
 
     ret.add("[NetworkStatus] Clusters: ");
 
-    if (clusters.isEmpty()) {
-      ret.add("  No active clusters found.");
+    long now = System.currentTimeMillis();
+
+    lock.readLock().lock();
+    try {
+      if (liveServers == 0) {
+        ret.add("  No active clusters found.");
+      }
+
+      for (int cluster = 0; cluster < clusterCount; cluster++) { // for each tracked cluster
+        String clusterHeader = "  " + clusterIds[cluster] + ": ";
+        boolean anyServers = false;
+
+        for (int i = 0; i < memberCounts[cluster]; i++) {
+          int handle = members[cluster][i];
+          if (hasTimedOut(handle, now)) {
+            continue;
+          }
+          // only adds the cluster if at least one of its servers is up
+          if (!anyServers) {
+            ret.add(clusterHeader);
+            anyServers = true;
+          }
+          ret.add("    - " + serverIds[handle] + " (" + ips[handle] + ":" + ports[handle] + ", "
+              + openSlots[handle] + " open slots)");
+        }
+      }
+
+    } finally {
+      lock.readLock().unlock();
     }
 
-    for (String clusterId : clusters.keySet()) { // for each tracked cluster
-      String clusterHeader = "  " + clusterId + ": ";
-      boolean anyServers = false;
+    return ret;
+  }
 
-      for (ServerStatus status : clusters.get(clusterId)) {
-        if (hasTimedOut(status)) {
+  @Override
+  public ClusterCapacity getClusterCapacity(String clusterId) {
+    if (clusterId == null || clusterId.isEmpty()) {
+      throw new IllegalArgumentException("cluster id cannot be null or empty");
+    }
+
+    lock.readLock().lock();
+    try {
+      Integer cluster = clusterIndices.get(clusterId);
+      if (cluster == null) {
+        return null;
+      }
+      return capacity(cluster);
+
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<ClusterCapacity> getClusterCapacities() {
+    List<ClusterCapacity> ret = new ArrayList<ClusterCapacity>();
+
+    lock.readLock().lock();
+    try {
+      for (int cluster = 0; cluster < clusterCount; cluster++) {
+        if (memberCounts[cluster] > 0) {
+          ret.add(capacity(cluster));
+        }
+      }
+
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    return ret;
+  }
+
+  /**
+   * Gets the number of heartbeats this cache has received from other servers since it was
+   * created.
+   * 
+   * @return The total heartbeats received.
+   */
+  public long getHeartbeatsReceived() {
+    return heartbeatsReceived.get();
+  }
+
+  /**
+   * Gets the number of times a server has stopped sending heartbeats and been assumed to be down
+   * since this cache was created.
+   * 
+   * @return The total servers that have timed out.
+   */
+  public long getServersTimedOut() {
+    return serversTimedOut.get();
+  }
+
+  /**
+   * Gets the number of times a server has announced that it is shutting down since this cache was
+   * created.
+   * 
+   * @return The total servers that have shut down cleanly.
+   */
+  public long getServersShutDown() {
+    return serversShutDown.get();
+  }
+
+  /**
+   * Removes servers whose last heartbeat is older than the server timeout and informs listeners
+   * that they have become unresponsive.
+   */
+  private void sweep() {
+    List<ServerStatus> expired = null;
+    long now = System.currentTimeMillis();
+
+    lock.writeLock().lock();
+    try {
+      for (int handle = 0; handle < highestHandle; handle++) {
+        if (serverIds[handle] != null && hasTimedOut(handle, now)) {
+          // this likely runs many times fruitlessly. Avoids making new collection unless actually
+          // necessary.
+          if (expired == null) {
+            expired = new ArrayList<ServerStatus>();
+          }
+          expired.add(snapshot(handle));
+          release(handle);
+          serversTimedOut.incrementAndGet();
+        }
+      }
+
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    if (expired != null) {
+      for (ServerStatus status : expired) {
+        for (NetworkChangeListener listener : listeners) {
+          try {
+            listener.onServerUnresponsive(status.getServerId(), status.getClusterId(),
+                status.getIp(), status.getPort());
+          } catch (Exception e) {
+            Log.warning("[ServerClusters] A listener failed to handle a server timing out.", e);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Starts periodically checking for servers that have stopped sending heartbeats.
+   */
+  private void startSweeping() {
+    alive = true;
+
+    Thread sweeper = new Thread() {
+
+      @Override
+      public void run() {
+        while (alive) {
+          try {
+            Thread.sleep(sweepInterval);
+          } catch (InterruptedException e) {
+            Log.warning("[ServerClusters] The network cache's sweeper was interrupted.", e);
+            alive = false;
+            return;
+          }
+          // keeps sweeping after a failure, or servers that time out would never be removed
+          try {
+            sweep();
+          } catch (Exception e) {
+            Log.warning("[ServerClusters] The network cache's sweeper failed to sweep.", e);
+          }
+        }
+      }
+    };
+    sweeper.setDaemon(true);
+    sweeper.start();
+  }
+
+  /**
+   * Gets the responsive servers whose player filter might contain a player, by either id or name.
+   */
+  private List<ServerStatus> getPossiblePlayerServers(UUID playerId, String playerName) {
+    List<ServerStatus> ret = new ArrayList<ServerStatus>();
+    long now = System.currentTimeMillis();
+
+    lock.readLock().lock();
+    try {
+      for (int handle = 0; handle < highestHandle; handle++) {
+        if (serverIds[handle] == null || hasTimedOut(handle, now)) {
           continue;
         }
-        // only adds the cluster if at least one of its servers is up
-        if (!anyServers) {
-          ret.add(clusterHeader);
-          anyServers = true;
+        // a server that has not sent a filter yet might have anyone
+        byte[] filter = playerFilters[handle];
+        if (filter != null && filter.length == PlayerFilter.LENGTH) {
+          boolean match =
+              playerId != null ? PlayerFilter.mightContain(filter, playerId) : PlayerFilter
+                  .mightContain(filter, playerName);
+          if (!match) {
+            continue;
+          }
         }
-        ret.add("    - " + status.getServerId() + " (" + status.getIp() + ":" + status.getPort()
-            + ", " + status.getOpenSlots() + " open slots)");
+        ret.add(snapshot(handle));
       }
+
+    } finally {
+      lock.readLock().unlock();
     }
 
     return ret;
   }
 
-  private boolean hasTimedOut(ServerStatus server) {
-    return (System.currentTimeMillis() - server.getLastUpdated()) > serverTimeout;
+  /**
+   * Applies the player changes from a server's heartbeat to the player directory. Must hold the
+   * write lock.
+   * <p>
+   * A full player list always replaces the server's previous list, so a server that restarted and
+   * reset its sequence is picked up again. Changes older than the last ones applied are ignored.
+   */
+  private void updatePlayers(int handle, Heartbeat hb) {
+    if (hb.isFullPlayerList()) {
+      clearPlayers(handle);
+    } else if (hb.getPlayerSequence() <= playerSequences[handle]) {
+      return;
+    }
+    playerSequences[handle] = hb.getPlayerSequence();
+    playerFilters[handle] = hb.getPlayerFilter();
+
+    Set<UUID> hosted = hostedPlayers[handle];
+    if (hosted == null) {
+      hosted = new HashSet<UUID>();
+      hostedPlayers[handle] = hosted;
+    }
+
+    for (UUID player : hb.getLeftPlayers()) {
+      if (hosted.remove(player)) {
+        clusterPlayers[clusterIndex[handle]]--;
+      }
+      Integer location = playerLocations.get(player);
+      // another server may have already reported that the player joined it
+      if (location != null && location == handle) {
+        playerLocations.remove(player);
+      }
+    }
+
+    for (UUID player : hb.getJoinedPlayers()) {
+      Integer previous = playerLocations.put(player, handle);
+      if (previous != null && previous != handle && hostedPlayers[previous] != null
+          && hostedPlayers[previous].remove(player)) {
+        clusterPlayers[clusterIndex[previous]]--;
+      }
+      if (hosted.add(player)) {
+        clusterPlayers[clusterIndex[handle]]++;
+      }
+    }
+  }
+
+  /**
+   * Removes all of a server's players from the player directory. Must hold the write lock.
+   */
+  private void clearPlayers(int handle) {
+    Set<UUID> hosted = hostedPlayers[handle];
+    if (hosted == null) {
+      return;
+    }
+    for (UUID player : hosted) {
+      Integer location = playerLocations.get(player);
+      if (location != null && location == handle) {
+        playerLocations.remove(player);
+      }
+    }
+    clusterPlayers[clusterIndex[handle]] -= hosted.size();
+    hosted.clear();
+  }
+
+  /**
+   * Assigns a handle to a newly joined server and fills in its columns. Must hold the write lock.
+   * 
+   * @return The new server's handle.
+   */
+  private int allocate(Heartbeat hb) {
+    int handle;
+    if (freeCount > 0) {
+      handle = freeHandles[--freeCount];
+    } else {
+      if (highestHandle == serverIds.length) {
+        growServerColumns();
+      }
+      handle = highestHandle++;
+    }
+
+    Integer cluster = clusterIndices.get(hb.getClusterId());
+    if (cluster == null) {
+      if (clusterCount == clusterIds.length) {
+        growClusterColumns();
+      }
+      cluster = clusterCount++;
+      clusterIds[cluster] = hb.getClusterId();
+      members[cluster] = new int[INITIAL_CAPACITY];
+      openSlotCounts[cluster] = new int[INITIAL_CAPACITY];
+      largeOpenSlotCounts[cluster] = new TreeMap<Integer, Integer>();
+      openSlotHistograms[cluster] = new int[ClusterCapacity.HISTOGRAM_BUCKETS];
+      clusterIndices.put(hb.getClusterId(), cluster);
+    }
+
+    int[] clusterMembers = members[cluster];
+    int position = memberCounts[cluster]++;
+    if (position == clusterMembers.length) {
+      clusterMembers = Arrays.copyOf(clusterMembers, clusterMembers.length * 2);
+      members[cluster] = clusterMembers;
+    }
+    clusterMembers[position] = handle;
+
+    serverIds[handle] = hb.getServerId();
+    ips[handle] = hb.getServerIp();
+    ports[handle] = hb.getServerPort();
+    clusterIndex[handle] = cluster;
+    memberPosition[handle] = position;
+    openSlots[handle] = hb.getOpenSlots();
+    lastUpdated[handle] = System.currentTimeMillis();
+    addCapacity(cluster, openSlots[handle]);
+
+    playerSequences[handle] = Integer.MIN_VALUE;
+
+    handles.put(hb.getServerId(), handle);
+    liveServers++;
+
+    return handle;
+  }
+
+  /**
+   * Frees a server's handle so it can be reused. Must hold the write lock.
+   */
+  private void release(int handle) {
+    int cluster = clusterIndex[handle];
+    int[] clusterMembers = members[cluster];
+
+    // swaps the last member of the cluster into the released server's position
+    int last = --memberCounts[cluster];
+    int position = memberPosition[handle];
+    int moved = clusterMembers[last];
+    clusterMembers[position] = moved;
+    memberPosition[moved] = position;
+
+    removeCapacity(cluster, openSlots[handle]);
+    clearPlayers(handle);
+    hostedPlayers[handle] = null;
+    playerFilters[handle] = null;
+
+    handles.remove(serverIds[handle]);
+    serverIds[handle] = null;
+    ips[handle] = null;
+
+    freeHandles[freeCount++] = handle;
+    liveServers--;
+  }
+
+  private void growServerColumns() {
+    int capacity = serverIds.length * 2;
+    serverIds = Arrays.copyOf(serverIds, capacity);
+    ips = Arrays.copyOf(ips, capacity);
+    ports = Arrays.copyOf(ports, capacity);
+    clusterIndex = Arrays.copyOf(clusterIndex, capacity);
+    memberPosition = Arrays.copyOf(memberPosition, capacity);
+    openSlots = Arrays.copyOf(openSlots, capacity);
+    lastUpdated = Arrays.copyOf(lastUpdated, capacity);
+    freeHandles = Arrays.copyOf(freeHandles, capacity);
+    hostedPlayers = Arrays.copyOf(hostedPlayers, capacity);
+    playerSequences = Arrays.copyOf(playerSequences, capacity);
+    playerFilters = Arrays.copyOf(playerFilters, capacity);
+  }
+
+  private void growClusterColumns() {
+    int capacity = clusterIds.length * 2;
+    clusterIds = Arrays.copyOf(clusterIds, capacity);
+    members = Arrays.copyOf(members, capacity);
+    memberCounts = Arrays.copyOf(memberCounts, capacity);
+    clusterOpenSlots = Arrays.copyOf(clusterOpenSlots, capacity);
+    clusterMaxOpenSlots = Arrays.copyOf(clusterMaxOpenSlots, capacity);
+    clusterPlayers = Arrays.copyOf(clusterPlayers, capacity);
+    openSlotCounts = Arrays.copyOf(openSlotCounts, capacity);
+    largeOpenSlotCounts = Arrays.copyOf(largeOpenSlotCounts, capacity);
+    openSlotHistograms = Arrays.copyOf(openSlotHistograms, capacity);
+  }
+
+  /**
+   * Counts a server's open slots toward its cluster's capacity. Must hold the write lock.
+   * <p>
+   * Servers with fewer than {@value #EXACT_OPEN_SLOTS} open slots are counted in an array indexed
+   * by their open slots, which only grows as large as the most open slots seen below that. Any
+   * with more are counted in a sorted map, so a server reporting a huge number of open slots cannot
+   * make the array huge. Cannot fail partway through.
+   */
+  private void addCapacity(int cluster, int open) {
+    open = Math.max(0, open);
+    if (open < EXACT_OPEN_SLOTS) {
+      int[] counts = openSlotCounts[cluster];
+      if (open >= counts.length) {
+        counts = Arrays.copyOf(counts, Math.min(EXACT_OPEN_SLOTS, Math.max(counts.length * 2,
+            open + 1)));
+        openSlotCounts[cluster] = counts;
+      }
+      counts[open]++;
+    } else {
+      Integer servers = largeOpenSlotCounts[cluster].get(open);
+      largeOpenSlotCounts[cluster].put(open, servers == null ? 1 : servers + 1);
+    }
+
+    clusterOpenSlots[cluster] += open;
+    openSlotHistograms[cluster][ClusterCapacity.bucket(open)]++;
+    if (open > clusterMaxOpenSlots[cluster]) {
+      clusterMaxOpenSlots[cluster] = open;
+    }
+  }
+
+  /**
+   * Stops counting a server's open slots toward its cluster's capacity. Must hold the write lock.
+   * <p>
+   * Only looks for a new most open slots when the last server with the most loses some, and then
+   * only walks down as far as the next server's open slots.
+   */
+  private void removeCapacity(int cluster, int open) {
+    open = Math.max(0, open);
+    clusterOpenSlots[cluster] -= open;
+    openSlotHistograms[cluster][ClusterCapacity.bucket(open)]--;
+
+    int[] counts = openSlotCounts[cluster];
+    TreeMap<Integer, Integer> large = largeOpenSlotCounts[cluster];
+    if (open < EXACT_OPEN_SLOTS) {
+      counts[open]--;
+    } else {
+      int servers = large.get(open);
+      if (servers == 1) {
+        large.remove(open);
+      } else {
+        large.put(open, servers - 1);
+      }
+    }
+
+    if (open != clusterMaxOpenSlots[cluster]) {
+      return;
+    }
+    if (!large.isEmpty()) {
+      clusterMaxOpenSlots[cluster] = large.lastKey();
+      return;
+    }
+    int max = Math.min(open, counts.length - 1);
+    while (max > 0 && counts[max] == 0) {
+      max--;
+    }
+    clusterMaxOpenSlots[cluster] = max;
+  }
+
+  /**
+   * Gets a snapshot of a cluster's running capacity. Must hold the read or write lock.
+   */
+  private ClusterCapacity capacity(int cluster) {
+    return new ClusterCapacity(clusterIds[cluster], memberCounts[cluster],
+        clusterOpenSlots[cluster], clusterMaxOpenSlots[cluster], clusterPlayers[cluster],
+        openSlotHistograms[cluster]);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static TreeMap<Integer, Integer>[] newOpenSlotMaps(int capacity) {
+    return new TreeMap[capacity];
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Set<UUID>[] newPlayerSets(int capacity) {
+    return new Set[capacity];
+  }
+
+  private ServerStatus snapshot(int handle) {
+    return new ServerStatus(handle, serverIds[handle], clusterIds[clusterIndex[handle]],
+        ips[handle], ports[handle], openSlots[handle], lastUpdated[handle]);
+  }
+
+  private boolean hasTimedOut(int handle, long now) {
+    return (now - lastUpdated[handle]) > serverTimeout;
   }
 
 }
@@ -1,6 +1,7 @@
 package io.brutus.minecraft.serverclusters.networkstatus;
 
 import java.util.List;
+import java.util.UUID;
 
 import io.brutus.minecraft.serverclusters.selection.ServerSelectionMode;
 
@@ -29,6 +30,48 @@ public interface NetworkStatus {
   List<ServerStatus> getServers(String clusterId, ServerSelectionMode mode, int numPlayers)
       throws IllegalArgumentException;
 
+  /**
+   * Gets cached data about the server a player is currently on.
+   * <p>
+   * Based on the player changes servers send with their heartbeats, and so may be slightly out of
+   * date. There is no guarantee the player is still on the server by the time it is contacted.
+   * 
+   * @param playerId The unique id of the player to locate.
+   * @return The status of the player's server. <code>null</code> if the player is not known to be
+   *         on any responsive server.
+   */
+  ServerStatus getPlayerServer(UUID playerId);
+
+  /**
+   * Gets the servers that a player might be on, based on the Bloom filters of online players that
+   * servers send with their heartbeats.
+   * <p>
+   * Can include servers the player is not on, but never leaves out a responsive server that the
+   * player was on as of its last heartbeat. Servers that have not sent a filter are always
+   * included.
+   * 
+   * @param playerId The unique id of the player to look for.
+   * @return The responsive servers the player might be on. An empty list if the player is not on
+   *         any of them.
+   * @throws IllegalArgumentException on a <code>null</code> player id.
+   */
+  List<ServerStatus> getPossiblePlayerServers(UUID playerId) throws IllegalArgumentException;
+
+  /**
+   * Gets the servers that a player might be on, based on the Bloom filters of online players that
+   * servers send with their heartbeats.
+   * <p>
+   * Can include servers the player is not on, but never leaves out a responsive server that the
+   * player was on as of its last heartbeat. Servers that have not sent a filter are always
+   * included.
+   * 
+   * @param playerName The name of the player to look for (not case sensitive).
+   * @return The responsive servers the player might be on. An empty list if the player is not on
+   *         any of them.
+   * @throws IllegalArgumentException on a <code>null</code> or empty player name.
+   */
+  List<ServerStatus> getPossiblePlayerServers(String playerName) throws IllegalArgumentException;
+
   /**
    * Gets the number of server instances in a cluster on the network.
    * <p>
@@ -40,6 +83,29 @@ public interface NetworkStatus {
    */
   int getClusterSize(String clusterId);
 
+  /**
+   * Gets the capacity of a cluster: its servers, open slots, the most open slots on any one of its
+   * servers, its players, and a histogram of its servers' open slots.
+   * <p>
+   * Kept as running totals, so this does not visit the cluster's servers. The result is based on
+   * cached data and may be slightly out of date.
+   * 
+   * @param clusterId The id of the cluster to get the capacity of.
+   * @return The cluster's current capacity. <code>null</code> if no server has ever been seen in
+   *         the cluster.
+   * @throws IllegalArgumentException on a <code>null</code> or empty cluster id.
+   */
+  ClusterCapacity getClusterCapacity(String clusterId) throws IllegalArgumentException;
+
+  /**
+   * Gets the capacity of every cluster that currently has at least one server.
+   * 
+   * @return The current capacity of each active cluster.
+   * 
+   * @see #getClusterCapacity(String)
+   */
+  List<ClusterCapacity> getClusterCapacities();
+
   /**
    * Registers a listener to be informed when connected servers come online or go offline.
    * 
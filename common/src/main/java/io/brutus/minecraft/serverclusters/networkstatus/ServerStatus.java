@@ -4,6 +4,10 @@ package io.brutus.minecraft.serverclusters.networkstatus;
  * Status of a remote server. Contains information about its cluster, its number of open player
  * slots, and the last time the data was updated.
  * <p>
+ * A status is an immutable snapshot of the cached data for a server at the time it was read from
+ * the cache. The cache itself stores this data in primitive columns indexed by each server's int
+ * handle; see {@link NetworkCache}.
+ * <p>
  * This implementation is thread safe.
  * <p>
  * Equality and hashing are judged based solely on server and cluster ids, not the ephemeral current
@@ -11,16 +15,18 @@ package io.brutus.minecraft.serverclusters.networkstatus;
  */
 public class ServerStatus {
 
+  private final int handle;
   private final String id;
   private final String clusterId;
   private final String ip;
   private final int port;
 
-  private volatile int openSlots;
-  private volatile long lastUpdated;
+  private final int openSlots;
+  private final long lastUpdated;
 
   /**
-   * Class constructor.
+   * Class constructor, for a status that did not come from a cache. It has no handle and is
+   * considered updated when created.
    * 
    * @param id The id of the server this status is for.
    * @param clusterId The id of the cluster the server is a part of.
@@ -32,6 +38,24 @@ public class ServerStatus {
    */
   public ServerStatus(String id, String clusterId, String ip, int port, int openSlots)
       throws IllegalArgumentException {
+    this(-1, id, clusterId, ip, port, openSlots, System.currentTimeMillis());
+  }
+
+  /**
+   * Class constructor.
+   * 
+   * @param handle The dense int handle the local cache assigned to the server.
+   * @param id The id of the server this status is for.
+   * @param clusterId The id of the cluster the server is a part of.
+   * @param ip The ip that players can connect to the server on.
+   * @param port The port that the server is running on.
+   * @param openSlots The number of open player slots the server currently has.
+   * @param lastUpdated The millisecond timestamp of when the server's data was last updated.
+   * @throws IllegalArgumentException on a <code>null</code> or empty string, or on a negative
+   *         number of open slots.
+   */
+  public ServerStatus(int handle, String id, String clusterId, String ip, int port, int openSlots,
+      long lastUpdated) throws IllegalArgumentException {
     if (id == null || id.equals("")) {
       throw new IllegalArgumentException("the server's id cannot be null or empty");
     }
@@ -41,12 +65,31 @@ public class ServerStatus {
     if (ip == null || ip.isEmpty()) {
       throw new IllegalArgumentException("the ip cannot be null or empty");
     }
-    updateOpenSlots(openSlots);
+    if (openSlots < 0) {
+      throw new IllegalArgumentException("the number of open slots cannot be less than 0");
+    }
 
+    this.handle = handle;
     this.id = id;
     this.clusterId = clusterId;
     this.ip = ip;
     this.port = port;
+    this.openSlots = openSlots;
+    this.lastUpdated = lastUpdated;
+  }
+
+  /**
+   * Gets the int handle that the local network cache uses to identify this server.
+   * <p>
+   * Handles are dense, local to the cache that assigned them, and only valid while the server is
+   * considered responsive. A handle can be reused for a different server after this one times out
+   * or shuts down. Handles should never be sent to other nodes; use {@link #getServerId()} for
+   * routing and display.
+   * 
+   * @return This server's local handle. <code>-1</code> if this status did not come from a cache.
+   */
+  public final int getHandle() {
+    return handle;
   }
 
   /**
@@ -105,21 +148,6 @@ public class ServerStatus {
     return openSlots;
   }
 
-  /**
-   * Updates this server's number of open player slots. This number may affect how it compares to
-   * other servers in its cluster when trying to select one of them to send players to.
-   * 
-   * @param openSlots The number of open player slots available on this server.
-   * @throws IllegalArgumentException on a negative number of slots.
-   */
-  final void updateOpenSlots(int openSlots) throws IllegalArgumentException {
-    if (openSlots < 0) {
-      throw new IllegalArgumentException("the number of open slots cannot be less than 0");
-    }
-    this.openSlots = openSlots;
-    lastUpdated = System.currentTimeMillis();
-  }
-
   @Override
   public int hashCode() {
     final int prime = 31;
@@ -153,8 +181,8 @@ public class ServerStatus {
 
   @Override
   public String toString() {
-    return "ServerStatus [id=" + id + ", clusterId=" + clusterId + ", ip=" + ip + ", port:" + port
-        + ", openSlots=" + openSlots + ", lastUpdated=" + lastUpdated + "]";
+    return "ServerStatus [handle=" + handle + ", id=" + id + ", clusterId=" + clusterId + ", ip="
+        + ip + ", port:" + port + ", openSlots=" + openSlots + ", lastUpdated=" + lastUpdated + "]";
   }
 
 }
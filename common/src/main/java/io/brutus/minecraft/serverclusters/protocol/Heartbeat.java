@@ -3,23 +3,44 @@ package io.brutus.minecraft.serverclusters.protocol;
 import io.brutus.minecraft.serverclusters.protocol.serialization.Encoding;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
 
 /**
  * Protocol for encoding/decoding heartbeat messages from servers and clusters on the network.
  * <p>
  * Serialization is done manually, in large part to efficiently allow editing of the same heartbeat
  * message over and over again for reuse with minor changes.
+ * <p>
+ * Heartbeats can also carry changes to the set of players online the server, which connected
+ * servers use to keep a directory of where players are on the network. Each set of changes has a
+ * sequence number, so receivers can ignore changes that arrive out of order. Periodically, the full
+ * list of players is sent instead of just the changes, so receivers that missed changes can catch
+ * up. Heartbeats with player changes also carry a {@link PlayerFilter} of the players online, which
+ * can be checked for players by name.
  */
 public class Heartbeat {
 
   /*
    * Protocol: (int clusterIdLength, byte[] clusterId, int serverIdLength, byte[] serverId, int
-   * serverIpLength, byte[] serverIp, int serverPort, int openSlots)
+   * serverIpLength, byte[] serverIp, int serverPort, int openSlots[, int playerSequence, byte
+   * fullPlayerList, int filterLength, byte[] filter, int joinedCount, long[2 * joinedCount] joined,
+   * int leftCount, long[2 * leftCount] left])
+   * 
+   * The bracketed player section is optional. A heartbeat without it carries no player changes.
    */
 
-  // 3 ints, for number of open slots and 2 id lengths.
+  // 5 ints, for the 3 string lengths, the port, and the number of open slots.
   private static final int BASE_LENGTH = ((Integer.SIZE / 8) * 5);
 
+  // 4 ints and a byte, for the sequence, the full-list flag, the filter length, and 2 list lengths.
+  private static final int PLAYER_SECTION_LENGTH = ((Integer.SIZE / 8) * 4) + 1;
+
+  private static final int UUID_LENGTH = (Long.SIZE / 8) * 2;
+
   /**
    * Creates a serialized <code>byte</code> array of a heartbeat message.
    * 
@@ -66,6 +87,74 @@ public class Heartbeat {
     return bb.array();
   }
 
+  /**
+   * Creates a serialized <code>byte</code> array of a heartbeat message that carries changes to the
+   * players online the server.
+   * 
+   * @param clusterId The id of the cluster of the server the heartbeat is for.
+   * @param serverId The id of the server the heartbeat is for.
+   * @param serverIp The ip address of the server the heartbeat is for.
+   * @param serverPort The port of the server the heartbeat is for.
+   * @param openSlots The number of open slots the server has.
+   * @param playerSequence The sequence number of this set of player changes. Should increase with
+   *        each set of changes the server sends.
+   * @param fullPlayerList <code>true</code> if the joined players are the full list of players
+   *        online the server, replacing any previous list. <code>false</code> if the joined and
+   *        left players are only changes since the previous sequence.
+   * @param joined The players who joined the server, or all players online it if this is a full
+   *        list.
+   * @param left The players who left the server. Ignored if this is a full list.
+   * @param playerFilter A serialized {@link PlayerFilter} of the players online the server.
+   *        <code>null</code> to not send one.
+   * @return The serialized <code>byte</code> array version of the heartbeat. Can be decoded with
+   *         {@link #fromBytes(byte[])}.
+   * @throws IllegalArgumentException on a <code>null</code> or empty parameter or on a negative
+   *         number of open slots.
+   */
+  public static byte[] createMessage(String clusterId, String serverId, String serverIp,
+      int serverPort, int openSlots, int playerSequence, boolean fullPlayerList,
+      Collection<UUID> joined, Collection<UUID> left, byte[] playerFilter)
+      throws IllegalArgumentException {
+    if (joined == null || left == null) {
+      throw new IllegalArgumentException("player collections cannot be null");
+    }
+    if (fullPlayerList) {
+      left = Collections.emptyList();
+    }
+    if (playerFilter == null) {
+      playerFilter = new byte[0];
+    }
+
+    byte[] base = createMessage(clusterId, serverId, serverIp, serverPort, openSlots);
+
+    int messageLength =
+        base.length + PLAYER_SECTION_LENGTH + playerFilter.length
+            + ((joined.size() + left.size()) * UUID_LENGTH);
+    ByteBuffer bb = ByteBuffer.allocate(messageLength);
+
+    bb.put(base);
+
+    bb.putInt(playerSequence);
+    bb.put(fullPlayerList ? (byte) 1 : (byte) 0);
+
+    bb.putInt(playerFilter.length);
+    bb.put(playerFilter);
+
+    bb.putInt(joined.size());
+    for (UUID player : joined) {
+      bb.putLong(player.getMostSignificantBits());
+      bb.putLong(player.getLeastSignificantBits());
+    }
+
+    bb.putInt(left.size());
+    for (UUID player : left) {
+      bb.putLong(player.getMostSignificantBits());
+      bb.putLong(player.getLeastSignificantBits());
+    }
+
+    return bb.array();
+  }
+
   /**
    * Updates an existing serialized <code>byte</code> array heartbeat with a new number of open
    * slots.
@@ -73,7 +162,8 @@ public class Heartbeat {
    * Open slots will change constantly, whereas the server and cluster ids will not. Updating an
    * existing message saves time and memory.
    * <p>
-   * Modifies the exact array passed in. Does not copy it.
+   * Modifies the exact array passed in. Does not copy it. Works on messages with or without player
+   * changes.
    * 
    * @param message The existing message to modify.
    * @param newOpenSlots The new number of slots the message should contain.
@@ -91,7 +181,13 @@ public class Heartbeat {
 
     try {
       ByteBuffer bb = ByteBuffer.wrap(message);
-      bb.putInt(message.length - (Integer.SIZE / 8), newOpenSlots);
+      // skips past the cluster id, server id, and ip, and then the port
+      for (int i = 0; i < 3; i++) {
+        int stringLength = bb.getInt();
+        bb.position(bb.position() + stringLength);
+      }
+      bb.getInt();
+      bb.putInt(newOpenSlots);
 
     } catch (Exception e) {
       e.printStackTrace();
@@ -135,7 +231,25 @@ public class Heartbeat {
 
       int openSlots = bb.getInt();
 
-      return new Heartbeat(clusterId, serverId, serverIp, serverPort, openSlots);
+      if (!bb.hasRemaining()) { // no player changes
+        return new Heartbeat(clusterId, serverId, serverIp, serverPort, openSlots);
+      }
+
+      int playerSequence = bb.getInt();
+      boolean fullPlayerList = bb.get() != 0;
+
+      int filterLength = bb.getInt();
+      byte[] filter = null;
+      if (filterLength > 0) {
+        filter = new byte[filterLength];
+        bb.get(filter);
+      }
+
+      List<UUID> joined = readPlayers(bb);
+      List<UUID> left = readPlayers(bb);
+
+      return new Heartbeat(clusterId, serverId, serverIp, serverPort, openSlots, playerSequence,
+          fullPlayerList, joined, left, filter);
 
     } catch (Exception e) {
       e.printStackTrace();
@@ -143,14 +257,46 @@ public class Heartbeat {
     }
   }
 
+  private static List<UUID> readPlayers(ByteBuffer bb) {
+    int count = bb.getInt();
+    if (count < 0 || count > bb.remaining() / UUID_LENGTH) {
+      throw new IllegalArgumentException("improperly formatted player list");
+    }
+    List<UUID> players = new ArrayList<UUID>(count);
+    for (int i = 0; i < count; i++) {
+      players.add(new UUID(bb.getLong(), bb.getLong()));
+    }
+    return players;
+  }
+
   private final String clusterId;
   private final String serverId;
   private final String serverIp;
   private final int serverPort;
   private final int openSlots;
 
+  private final boolean hasPlayerChanges;
+  private final int playerSequence;
+  private final boolean fullPlayerList;
+  private final List<UUID> joinedPlayers;
+  private final List<UUID> leftPlayers;
+  private final byte[] playerFilter;
+
   private Heartbeat(String clusterId, String serverId, String serverIp, int serverPort,
       int openSlots) {
+    this(clusterId, serverId, serverIp, serverPort, openSlots, false, 0, false, null, null, null);
+  }
+
+  private Heartbeat(String clusterId, String serverId, String serverIp, int serverPort,
+      int openSlots, int playerSequence, boolean fullPlayerList, List<UUID> joinedPlayers,
+      List<UUID> leftPlayers, byte[] playerFilter) {
+    this(clusterId, serverId, serverIp, serverPort, openSlots, true, playerSequence,
+        fullPlayerList, joinedPlayers, leftPlayers, playerFilter);
+  }
+
+  private Heartbeat(String clusterId, String serverId, String serverIp, int serverPort,
+      int openSlots, boolean hasPlayerChanges, int playerSequence, boolean fullPlayerList,
+      List<UUID> joinedPlayers, List<UUID> leftPlayers, byte[] playerFilter) {
     if (clusterId == null || serverId == null || clusterId.equals("") || serverId.equals("")) {
       throw new IllegalArgumentException("ids cannot be null or empty");
     }
@@ -162,6 +308,18 @@ public class Heartbeat {
     this.serverIp = serverIp;
     this.serverPort = serverPort;
     this.openSlots = openSlots;
+
+    this.hasPlayerChanges = hasPlayerChanges;
+    this.playerSequence = playerSequence;
+    this.fullPlayerList = fullPlayerList;
+    if (hasPlayerChanges) {
+      this.joinedPlayers = Collections.unmodifiableList(joinedPlayers);
+      this.leftPlayers = Collections.unmodifiableList(leftPlayers);
+    } else {
+      this.joinedPlayers = Collections.emptyList();
+      this.leftPlayers = Collections.emptyList();
+    }
+    this.playerFilter = playerFilter;
   }
 
   /**
@@ -209,4 +367,65 @@ public class Heartbeat {
     return openSlots;
   }
 
+  /**
+   * Gets whether this heartbeat carries changes to the players online its server.
+   * 
+   * @return <code>true</code> if this heartbeat has a player sequence and player lists.
+   */
+  public boolean hasPlayerChanges() {
+    return hasPlayerChanges;
+  }
+
+  /**
+   * Gets the sequence number of this heartbeat's player changes. Later changes from the same server
+   * have higher sequence numbers.
+   * 
+   * @return The sequence of this heartbeat's player changes. <code>0</code> if it has none.
+   */
+  public int getPlayerSequence() {
+    return playerSequence;
+  }
+
+  /**
+   * Gets whether this heartbeat's joined players are the full list of players online its server,
+   * rather than only the players who joined since the last sequence.
+   * 
+   * @return <code>true</code> if the joined players replace any previous list for the server.
+   */
+  public boolean isFullPlayerList() {
+    return fullPlayerList;
+  }
+
+  /**
+   * Gets the players who joined the server this heartbeat is for, or all of the players online it
+   * if this is a full list.
+   * 
+   * @return The joined players. An empty list if there are none.
+   */
+  public List<UUID> getJoinedPlayers() {
+    return joinedPlayers;
+  }
+
+  /**
+   * Gets the players who left the server this heartbeat is for.
+   * 
+   * @return The players who left. An empty list if there are none.
+   */
+  public List<UUID> getLeftPlayers() {
+    return leftPlayers;
+  }
+
+  /**
+   * Gets the Bloom filter of the players online the server this heartbeat is for.
+   * <p>
+   * For the sake of efficiency, does not clone the array. It should not be edited.
+   * 
+   * @return The serialized player filter. <code>null</code> if this heartbeat does not have one.
+   * @see PlayerFilter#mightContain(byte[], UUID)
+   * @see PlayerFilter#mightContain(byte[], String)
+   */
+  public byte[] getPlayerFilter() {
+    return playerFilter;
+  }
+
 }
@@ -0,0 +1,167 @@
+package io.brutus.minecraft.serverclusters.protocol;
+
+import io.brutus.minecraft.serverclusters.protocol.serialization.Encoding;
+
+import java.util.UUID;
+
+/**
+ * A small Bloom filter of the players online a server, by unique id and by lower-cased name.
+ * <p>
+ * Servers send their filter with their heartbeats so that connected servers can tell which few
+ * servers a player might be on without asking every server. A filter can have false positives but
+ * never false negatives.
+ * <p>
+ * The local copy keeps a count for each bit so that players can be removed as they quit, rather
+ * than rebuilding the filter. Only the bits are sent over the network.
+ * <p>
+ * This implementation is thread safe.
+ */
+public class PlayerFilter {
+
+  /**
+   * The length, in bytes, of a serialized filter.
+   */
+  public static final int LENGTH = 512;
+
+  private static final int BITS = LENGTH * 8;
+  private static final int HASHES = 4;
+
+  /**
+   * Gets whether a serialized filter might contain a player.
+   * 
+   * @param filter The serialized filter, as from {@link #toBytes()}.
+   * @param playerId The unique id of the player to look for.
+   * @return <code>false</code> if the player is definitely not in the filter. <code>true</code> if
+   *         they might be.
+   * @throws IllegalArgumentException on a <code>null</code> parameter or an incorrectly sized
+   *         filter.
+   */
+  public static boolean mightContain(byte[] filter, UUID playerId)
+      throws IllegalArgumentException {
+    if (playerId == null) {
+      throw new IllegalArgumentException("player id cannot be null");
+    }
+    return mightContain(filter, mix(playerId.getMostSignificantBits()),
+        mix(playerId.getLeastSignificantBits()));
+  }
+
+  /**
+   * Gets whether a serialized filter might contain a player.
+   * 
+   * @param filter The serialized filter, as from {@link #toBytes()}.
+   * @param playerName The name of the player to look for (not case sensitive).
+   * @return <code>false</code> if the player is definitely not in the filter. <code>true</code> if
+   *         they might be.
+   * @throws IllegalArgumentException on a <code>null</code> parameter or an incorrectly sized
+   *         filter.
+   */
+  public static boolean mightContain(byte[] filter, String playerName)
+      throws IllegalArgumentException {
+    if (playerName == null) {
+      throw new IllegalArgumentException("player name cannot be null");
+    }
+    long hash = nameHash(playerName);
+    return mightContain(filter, mix(hash), mix(~hash));
+  }
+
+  private static boolean mightContain(byte[] filter, int h1, int h2) {
+    if (filter == null || filter.length != LENGTH) {
+      throw new IllegalArgumentException("filter must be " + LENGTH + " bytes");
+    }
+    for (int i = 0; i < HASHES; i++) {
+      int bit = index(h1, h2, i);
+      if ((filter[bit >>> 3] & (1 << (bit & 7))) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private final short[] counts;
+
+  public PlayerFilter() {
+    this.counts = new short[BITS];
+  }
+
+  /**
+   * Adds a player to this filter.
+   * 
+   * @param playerId The player's unique id.
+   * @param playerName The player's name.
+   * @throws IllegalArgumentException on a <code>null</code> parameter.
+   */
+  public synchronized void add(UUID playerId, String playerName) throws IllegalArgumentException {
+    if (playerId == null || playerName == null) {
+      throw new IllegalArgumentException("params cannot be null");
+    }
+    long hash = nameHash(playerName);
+    update(mix(playerId.getMostSignificantBits()), mix(playerId.getLeastSignificantBits()), 1);
+    update(mix(hash), mix(~hash), 1);
+  }
+
+  /**
+   * Removes a player from this filter. Should only be called for players who were added with the
+   * same id and name.
+   * 
+   * @param playerId The player's unique id.
+   * @param playerName The player's name.
+   * @throws IllegalArgumentException on a <code>null</code> parameter.
+   */
+  public synchronized void remove(UUID playerId, String playerName)
+      throws IllegalArgumentException {
+    if (playerId == null || playerName == null) {
+      throw new IllegalArgumentException("params cannot be null");
+    }
+    long hash = nameHash(playerName);
+    update(mix(playerId.getMostSignificantBits()), mix(playerId.getLeastSignificantBits()), -1);
+    update(mix(hash), mix(~hash), -1);
+  }
+
+  /**
+   * Serializes the current state of this filter.
+   * 
+   * @return A new array of {@link #LENGTH} bytes with the bits of this filter.
+   */
+  public synchronized byte[] toBytes() {
+    byte[] ret = new byte[LENGTH];
+    for (int bit = 0; bit < BITS; bit++) {
+      if (counts[bit] > 0) {
+        ret[bit >>> 3] |= (1 << (bit & 7));
+      }
+    }
+    return ret;
+  }
+
+  private void update(int h1, int h2, int delta) {
+    for (int i = 0; i < HASHES; i++) {
+      int bit = index(h1, h2, i);
+      int count = counts[bit] + delta;
+      // saturates rather than overflowing; a saturated bit simply stays set
+      if (count >= 0 && count <= Short.MAX_VALUE) {
+        counts[bit] = (short) count;
+      }
+    }
+  }
+
+  private static int index(int h1, int h2, int i) {
+    return (h1 + (i * (h2 | 1))) & (BITS - 1);
+  }
+
+  private static long nameHash(String playerName) {
+    long hash = 1125899906842597L;
+    for (byte b : playerName.toLowerCase().getBytes(Encoding.CHARSET)) {
+      hash = (31 * hash) + b;
+    }
+    return hash;
+  }
+
+  private static int mix(long value) {
+    value ^= (value >>> 33);
+    value *= 0xff51afd7ed558ccdL;
+    value ^= (value >>> 33);
+    value *= 0xc4ceb9fe1a85ec53L;
+    value ^= (value >>> 33);
+    return (int) value;
+  }
+
+}
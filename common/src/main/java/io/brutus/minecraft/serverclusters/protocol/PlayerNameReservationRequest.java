@@ -14,9 +14,9 @@ public class PlayerNameReservationRequest extends ReservationRequest {
   private final String targetPlayerName;
 
   PlayerNameReservationRequest(String targetPlayerName, String requestingServer, int requestId,
-      Set<UUID> players) throws IllegalArgumentException {
+      Set<UUID> players, Set<String> recipients) throws IllegalArgumentException {
 
-    super(TargetType.PLAYER_NAME, requestingServer, requestId, players);
+    super(TargetType.PLAYER_NAME, requestingServer, requestId, players, recipients);
 
     if (targetPlayerName == null || targetPlayerName.equals("")) {
       throw new IllegalArgumentException("target player's name cannot be null or empty");
@@ -14,9 +14,9 @@ public class PlayerUuidReservationRequest extends ReservationRequest {
   private final UUID targetPlayerId;
 
   PlayerUuidReservationRequest(UUID targetPlayerUniqueId, String requestingServer, int requestId,
-      Set<UUID> players) throws IllegalArgumentException {
+      Set<UUID> players, Set<String> recipients) throws IllegalArgumentException {
 
-    super(TargetType.PLAYER_UUID, requestingServer, requestId, players);
+    super(TargetType.PLAYER_UUID, requestingServer, requestId, players, recipients);
 
     if (targetPlayerUniqueId == null) {
       throw new IllegalArgumentException("target player's id cannot be null");
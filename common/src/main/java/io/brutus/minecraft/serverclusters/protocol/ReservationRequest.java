@@ -36,6 +36,37 @@ public abstract class ReservationRequest implements Serializable {
 
   }
 
+  /**
+   * Creates a serialized <code>byte</code> array of a request for players to take over slots that a
+   * server already reserved for placeholder ids.
+   * <p>
+   * Lets a node reserve slots ahead of time, before it knows which players will fill them. If the
+   * placeholders' reservations have expired, the server treats this as a normal request for new
+   * slots.
+   * 
+   * @param targetServer The id of the server the placeholders have reservations on.
+   * @param requestingServer The id of the server making the request.
+   * @param requestId A unique identified for this request. The response will reference this request
+   *        in order to make clear what it is responding to. The id should be unique within the
+   *        server sending the request. No definite scheme for defining ids is defined.
+   * @param placeholders The ids that the slots were reserved under.
+   * @param players The players to hand the slots over to.
+   * @return The serialized <code>byte</code> array version of the request. Can be decoded with
+   *         {@link #fromBytes(byte[])}.
+   * @throws IllegalArgumentException on a <code>null</code> or empty target or requesting server
+   *         id, or on less than <code>1</code> placeholder or player being passed in.
+   */
+  public static byte[] createTransferMessage(String targetServer, String requestingServer,
+      int requestId, Set<UUID> placeholders, Set<UUID> players) throws IllegalArgumentException {
+    if (placeholders == null) {
+      throw new IllegalArgumentException("placeholders cannot be null");
+    }
+
+    return SerializationUtils.serialize(new ServerIdReservationRequest(targetServer,
+        requestingServer, requestId, players, placeholders));
+
+  }
+
   /**
    * Creates a serialized <code>byte</code> array of a reservation request targeted at a given
    * player using their unique id.
@@ -54,8 +85,32 @@ public abstract class ReservationRequest implements Serializable {
   public static byte[] createMessageToPlayer(UUID targetPlayerUniqueId, String requestingServer,
       int requestId, Set<UUID> players) throws IllegalArgumentException {
 
+    return createMessageToPlayer(targetPlayerUniqueId, requestingServer, requestId, players, null);
+
+  }
+
+  /**
+   * Creates a serialized <code>byte</code> array of a reservation request targeted at a given
+   * player using their unique id, which only the given servers should consider.
+   * 
+   * @param targetPlayerUniqueId The id of the target player.
+   * @param requestingServer The id of the server making the request.
+   * @param requestId A unique identified for this request. The response will reference this request
+   *        in order to make clear what it is responding to. The id should be unique within the
+   *        server sending the request. No definite scheme for defining ids is defined.
+   * @param players The players the requested slots are for.
+   * @param recipients The ids of the servers the target player might be on. Other servers will
+   *        ignore the request without looking for the player. <code>null</code> for all servers.
+   * @return The serialized <code>byte</code> array version of the request. Can be decoded with
+   *         {@link #fromBytes(byte[])}.
+   * @throws IllegalArgumentException on a <code>null</code> parameter or empty requesting server
+   *         id, or on less than <code>1</code> player being passed in.
+   */
+  public static byte[] createMessageToPlayer(UUID targetPlayerUniqueId, String requestingServer,
+      int requestId, Set<UUID> players, Set<String> recipients) throws IllegalArgumentException {
+
     return SerializationUtils.serialize(new PlayerUuidReservationRequest(targetPlayerUniqueId,
-        requestingServer, requestId, players));
+        requestingServer, requestId, players, recipients));
 
   }
 
@@ -77,8 +132,32 @@ public abstract class ReservationRequest implements Serializable {
   public static byte[] createMessageToPlayer(String targetPlayerName, String requestingServer,
       int requestId, Set<UUID> players) throws IllegalArgumentException {
 
+    return createMessageToPlayer(targetPlayerName, requestingServer, requestId, players, null);
+
+  }
+
+  /**
+   * Creates a serialized <code>byte</code> array of a reservation request targeted at a given
+   * player using their name, which only the given servers should consider.
+   * 
+   * @param targetPlayerName The name of the target player.
+   * @param requestingServer The id of the server making the request.
+   * @param requestId A unique identified for this request. The response will reference this request
+   *        in order to make clear what it is responding to. The id should be unique within the
+   *        server sending the request. No definite scheme for defining ids is defined.
+   * @param players The players the requested slots are for.
+   * @param recipients The ids of the servers the target player might be on. Other servers will
+   *        ignore the request without looking for the player. <code>null</code> for all servers.
+   * @return The serialized <code>byte</code> array version of the request. Can be decoded with
+   *         {@link #fromBytes(byte[])}.
+   * @throws IllegalArgumentException on a <code>null</code> or empty requesting server id or player
+   *         name, or on less than <code>1</code> player being passed in.
+   */
+  public static byte[] createMessageToPlayer(String targetPlayerName, String requestingServer,
+      int requestId, Set<UUID> players, Set<String> recipients) throws IllegalArgumentException {
+
     return SerializationUtils.serialize(new PlayerNameReservationRequest(targetPlayerName,
-        requestingServer, requestId, players));
+        requestingServer, requestId, players, recipients));
 
   }
 
@@ -108,9 +187,15 @@ public abstract class ReservationRequest implements Serializable {
   private final String requestingServer;
   private final int requestId;
   private final Set<UUID> players;
+  private final Set<String> recipients;
 
   protected ReservationRequest(TargetType type, String requestingServer, int requestId,
       Set<UUID> players) {
+    this(type, requestingServer, requestId, players, null);
+  }
+
+  protected ReservationRequest(TargetType type, String requestingServer, int requestId,
+      Set<UUID> players, Set<String> recipients) {
     if (type == null || requestingServer == null || requestingServer.equals("")) {
       throw new IllegalArgumentException("type and server id cannot be null or empty");
     }
@@ -123,6 +208,7 @@ public abstract class ReservationRequest implements Serializable {
     this.requestingServer = requestingServer;
     this.requestId = requestId;
     this.players = players;
+    this.recipients = recipients;
   }
 
   /**
@@ -174,6 +260,20 @@ public abstract class ReservationRequest implements Serializable {
     return players;
   }
 
+  /**
+   * Gets whether a server should consider this request at all.
+   * <p>
+   * Requests can be limited to the few servers that their target might be on, so that other servers
+   * can ignore them without doing any work.
+   * 
+   * @param serverId The id of the server.
+   * @return <code>true</code> if the server is one of this request's recipients, or if this request
+   *         is for all servers.
+   */
+  public boolean isRecipient(String serverId) {
+    return recipients == null || recipients.contains(serverId);
+  }
+
   /**
    * The different supported types of reservation request targets.
    */
@@ -11,16 +11,26 @@ public class ServerIdReservationRequest extends ReservationRequest {
   private static final long serialVersionUID = -970482228095698099L;
 
   private final String targetServerId;
+  private final Set<UUID> placeholders;
 
   ServerIdReservationRequest(String targetServerId, String requestingServer, int requestId,
       Set<UUID> players) throws IllegalArgumentException {
+    this(targetServerId, requestingServer, requestId, players, null);
+  }
+
+  ServerIdReservationRequest(String targetServerId, String requestingServer, int requestId,
+      Set<UUID> players, Set<UUID> placeholders) throws IllegalArgumentException {
 
     super(TargetType.SERVER_ID, requestingServer, requestId, players);
 
     if (targetServerId == null || targetServerId.equals("")) {
       throw new IllegalArgumentException("target server id cannot be null or empty");
     }
+    if (placeholders != null && placeholders.isEmpty()) {
+      throw new IllegalArgumentException("placeholders cannot be empty");
+    }
     this.targetServerId = targetServerId;
+    this.placeholders = placeholders;
   }
 
   /**
@@ -32,5 +42,18 @@ public class ServerIdReservationRequest extends ReservationRequest {
     return targetServerId;
   }
 
+  /**
+   * Gets the placeholder ids whose reserved slots the players in this request should take over.
+   * <p>
+   * For the sake of efficiency, does not clone the set. It should not be edited or exposed to
+   * clients.
+   * 
+   * @return The placeholders whose reservations to hand over. <code>null</code> if this request is
+   *         for new slots.
+   */
+  public final Set<UUID> getPlaceholders() {
+    return placeholders;
+  }
+
 
 }
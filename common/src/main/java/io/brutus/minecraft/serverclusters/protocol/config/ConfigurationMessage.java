@@ -1,6 +1,9 @@
 package io.brutus.minecraft.serverclusters.protocol.config;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.concurrent.ConcurrentHashMap;
 
 import io.brutus.minecraft.serverclusters.config.SharedConfiguration;
@@ -59,6 +62,30 @@ public class ConfigurationMessage implements SharedConfiguration, Serializable {
     }
   }
 
+  /**
+   * Gets the version of a serialized configuration message: a hash of its contents, so the same
+   * configuration has the same version on every node that has it.
+   * 
+   * @param message The serialized configuration message, as created by
+   *        {@link #createMessage(ConfigurationMessage)}.
+   * @return The message's version. Never <code>0</code>, which stands for no version.
+   * @throws IllegalArgumentException on a <code>null</code> or empty message array.
+   */
+  public static long getVersion(byte[] message) throws IllegalArgumentException {
+    if (message == null || message.length < 1) {
+      throw new IllegalArgumentException("message array cannot be null or empty");
+    }
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // every java platform has to support SHA-256
+      throw new IllegalStateException(e);
+    }
+    long ret = ByteBuffer.wrap(digest.digest(message)).getLong();
+    return ret != 0 ? ret : 1;
+  }
+
   ConcurrentHashMap<String, ServerSelectionMode> clusters;
 
   byte[] idRequestChannel;
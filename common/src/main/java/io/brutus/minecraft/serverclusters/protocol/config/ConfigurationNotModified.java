@@ -0,0 +1,78 @@
+package io.brutus.minecraft.serverclusters.protocol.config;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A response to configuration requests from nodes that already have the current configuration.
+ * Tells them which version is current without sending the configuration again.
+ * <p>
+ * Sent on the same channel as full configuration messages. The two can be told apart with
+ * {@link #isNotModified(byte[])}.
+ */
+public class ConfigurationNotModified {
+
+  /*
+   * Protocol: [byte marker, long currentVersion]
+   * 
+   * Full configuration messages are Java-serialized, so they always start with 0xACED and are
+   * never this short.
+   */
+
+  private static final byte MARKER = 'N';
+  private static final int LENGTH = 9;
+
+  /**
+   * Creates a serialized <code>byte</code> array of a not-modified response.
+   * 
+   * @param currentVersion The version of the current configuration, as given by
+   *        {@link ConfigurationMessage#getVersion(byte[])}.
+   * @return The serialized <code>byte</code> array version of the message. Can be decoded with
+   *         {@link #fromBytes(byte[])}.
+   */
+  public static byte[] createMessage(long currentVersion) {
+    return ByteBuffer.allocate(LENGTH).put(MARKER).putLong(currentVersion).array();
+  }
+
+  /**
+   * Gets whether a message on the configuration response channel is a not-modified response, rather
+   * than a full configuration message.
+   * 
+   * @param message The message to check.
+   * @return <code>true</code> if the message can be decoded with {@link #fromBytes(byte[])}.
+   */
+  public static boolean isNotModified(byte[] message) {
+    return message != null && message.length == LENGTH && message[0] == MARKER;
+  }
+
+  /**
+   * Gets a <code>ConfigurationNotModified</code> object for a serialized <code>byte</code> array
+   * version of a message.
+   * 
+   * @param message The <code>byte</code> array to get a <code>ConfigurationNotModified</code>
+   *        object for.
+   * @return The decoded response.
+   * @throws IllegalArgumentException on a message that is not a not-modified response.
+   */
+  public static ConfigurationNotModified fromBytes(byte[] message) throws IllegalArgumentException {
+    if (!isNotModified(message)) {
+      throw new IllegalArgumentException("not a not-modified configuration response");
+    }
+    return new ConfigurationNotModified(ByteBuffer.wrap(message, 1, 8).getLong());
+  }
+
+  private final long currentVersion;
+
+  private ConfigurationNotModified(long currentVersion) {
+    this.currentVersion = currentVersion;
+  }
+
+  /**
+   * Gets the version of the current configuration.
+   * 
+   * @return The current version.
+   */
+  public long getCurrentVersion() {
+    return currentVersion;
+  }
+
+}
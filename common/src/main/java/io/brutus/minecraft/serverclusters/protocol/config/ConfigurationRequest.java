@@ -1,10 +1,21 @@
 package io.brutus.minecraft.serverclusters.protocol.config;
 
+import java.nio.ByteBuffer;
+
 /**
  * A request for the network-wide configuration.
  */
 public class ConfigurationRequest {
 
+  /*
+   * Protocol: [byte format, long knownVersion]
+   * 
+   * Requests from before versions existed are a single byte, and are read as knowing no version.
+   */
+
+  private static final byte VERSIONED = 1;
+  private static final int VERSIONED_LENGTH = 9;
+
   /**
    * Creates a serialized <code>byte</code> array of a configuration request.
    * 
@@ -15,6 +26,22 @@ public class ConfigurationRequest {
     return new byte[1];
   }
 
+  /**
+   * Creates a serialized <code>byte</code> array of a configuration request from a node that
+   * already has a version of the configuration.
+   * 
+   * @param knownVersion The version of the configuration the requester has, as given by
+   *        {@link ConfigurationMessage#getVersion(byte[])}. <code>0</code> if it has none.
+   * @return The serialized <code>byte</code> array version of the message. Can be decoded with
+   *         {@link #fromBytes(byte[])}.
+   */
+  public static byte[] createMessage(long knownVersion) {
+    if (knownVersion == 0) {
+      return createMessage();
+    }
+    return ByteBuffer.allocate(VERSIONED_LENGTH).put(VERSIONED).putLong(knownVersion).array();
+  }
+
   /**
    * Gets an <code>ConfigurationRequest</code> object for a serialized <code>byte</code> array
    * version of a message.
@@ -24,9 +51,25 @@ public class ConfigurationRequest {
    * @return The decoded response.
    */
   public static ConfigurationRequest fromBytes(byte[] message) {
-    return new ConfigurationRequest();
+    if (message != null && message.length == VERSIONED_LENGTH && message[0] == VERSIONED) {
+      return new ConfigurationRequest(ByteBuffer.wrap(message, 1, 8).getLong());
+    }
+    return new ConfigurationRequest(0);
+  }
+
+  private final long knownVersion;
+
+  private ConfigurationRequest(long knownVersion) {
+    this.knownVersion = knownVersion;
   }
 
-  private ConfigurationRequest() {}
+  /**
+   * Gets the version of the configuration the requester already has.
+   * 
+   * @return The requester's version. <code>0</code> if it has none.
+   */
+  public long getKnownVersion() {
+    return knownVersion;
+  }
 
 }
@@ -18,6 +18,9 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
 import io.brutus.minecraft.serverclusters.config.SharedConfiguration;
+import io.brutus.minecraft.serverclusters.config.SharedConfigurationListener;
+import io.brutus.minecraft.serverclusters.logging.Log;
+import io.brutus.minecraft.serverclusters.networkstatus.ClusterCapacity;
 import io.brutus.minecraft.serverclusters.networkstatus.NetworkStatus;
 import io.brutus.minecraft.serverclusters.networkstatus.ServerStatus;
 import io.brutus.minecraft.serverclusters.protocol.ReservationRequest;
@@ -36,8 +39,15 @@ import io.brutus.networking.pubsubmessager.Subscriber;
  * <p>
  * Supports sending players together in a group. Also supports multiple targeting parameters, such
  * as targeting a given cluster, or else at a specific player somewhere on the network.
+ * <p>
+ * Relocations to a cluster are checked against the cluster's capacity first. If no known server in
+ * the cluster has room for the group, the attempt fails straight away, without a thread or any
+ * messages.
+ * <p>
+ * Keeps {@link RelocationMetrics} on every attempt. Logs each request and response at the debug
+ * level.
  */
-public class PlayerRelocationClient {
+public class PlayerRelocationClient implements SharedConfigurationListener {
 
   private final String thisNodeId;
 
@@ -47,16 +57,19 @@ public class PlayerRelocationClient {
   private final PubSubMessager messager;
   private final byte[] requestChannel;
   private final byte[] responseChannel;
-  private final long responseTimeout;
+  private volatile long responseTimeout;
   private final ResponseSubscriber sub;
 
   private final ExecutorService threadPool;
   private final AtomicInteger requestCounter;
   private final Map<Integer, ServerGroupRelocationAttempt> clusterAttempts;
   private final Map<Integer, PlayerRelocationAttempt> playerAttempts;
+  private final Map<Integer, TransferAttempt> transferAttempts;
 
   private final Set<UUID> inProgress;
 
+  private final RelocationStats stats;
+
   /**
    * Class constructor.
    * 
@@ -110,8 +123,20 @@ public class PlayerRelocationClient {
     requestCounter = new AtomicInteger(Integer.MIN_VALUE);
     clusterAttempts = new ConcurrentHashMap<Integer, ServerGroupRelocationAttempt>();
     playerAttempts = new ConcurrentHashMap<Integer, PlayerRelocationAttempt>();
+    transferAttempts = new ConcurrentHashMap<Integer, TransferAttempt>();
 
     inProgress = Collections.newSetFromMap(new ConcurrentHashMap<UUID, Boolean>());
+
+    stats = new RelocationStats();
+  }
+
+  /**
+   * Gets the metrics of the relocations this client has attempted.
+   * 
+   * @return Live, read-only relocation metrics.
+   */
+  public RelocationMetrics getMetrics() {
+    return stats;
   }
 
   /**
@@ -122,6 +147,18 @@ public class PlayerRelocationClient {
     threadPool.shutdown();
   }
 
+  @Override
+  public void onConfigurationChange(SharedConfiguration config) {
+    long timeout = config.getReservationResponseTimeout();
+    if (timeout < 1) {
+      Log.warning("[ServerClusters] Ignoring the updated reservation response timeout of {} ms,"
+          + " it must be positive.", timeout);
+    } else if (timeout != responseTimeout) {
+      responseTimeout = timeout;
+      Log.info("[ServerClusters] Reservation response timeout changed to {} ms.", timeout);
+    }
+  }
+
   /**
    * Makes an asynchronous attempt to send players to an instance of the given Minecraft-server
    * cluster together.
@@ -150,16 +187,48 @@ public class PlayerRelocationClient {
    * @param clusterId The id of the cluster to send the players to.
    * @param players The player or players to send to an instance of the server cluster.
    * @return The asynchronous, future result of this attempt to relocate players. Returns a value
-   *         when the request finishes. <code>true</code> if the relocation is successful (does not
-   *         guarantee the players make it to their destination, but does successfully find a server
-   *         and try to send them there). <code>false</code> if the relocation fails, such as if no
-   *         valid servers exist for the given cluster.
+   *         when the request finishes. Its outcome is {@link RelocationOutcome#SUCCESS} if a server
+   *         was found and the players were sent to it (does not guarantee the players make it to
+   *         their destination). Otherwise the outcome is the reason it failed. Completes
+   *         immediately with {@link RelocationOutcome#UNKNOWN_CLUSTER} or
+   *         {@link RelocationOutcome#NO_CAPACITY} if no known server in the cluster could fit the
+   *         players.
    * @throws IllegalArgumentException on a <code>null</code> parameter or an empty cluster id.
    * @throws ConcurrentModificationException On sending a player that is already in the process of
    *         being sent.
    */
-  public ListenableFuture<Boolean> sendPlayersToCluster(String clusterId, ServerSelectionMode mode,
-      Set<UUID> players) throws IllegalArgumentException, ConcurrentModificationException {
+  public ListenableFuture<RelocationResult> sendPlayersToCluster(String clusterId,
+      ServerSelectionMode mode, Set<UUID> players) throws IllegalArgumentException,
+      ConcurrentModificationException {
+    return sendToCluster(clusterId, mode, players, false);
+  }
+
+  /**
+   * Makes an asynchronous attempt to reserve slots on an instance of a cluster for placeholder ids,
+   * to be handed to real players later.
+   * <p>
+   * Works like {@link #sendPlayersToCluster(String, ServerSelectionMode, Set)}, but is counted in
+   * the metrics under {@link RelocationMetrics#POOL_TARGET} and left out of their distributions, so
+   * reservations made ahead of time are not mistaken for placements of players.
+   * 
+   * @param clusterId The id of the cluster to reserve slots on.
+   * @param mode The mode with which to select servers in the cluster.
+   * @param placeholders The ids to reserve the slots under.
+   * @return The asynchronous, future result of this attempt, as with
+   *         {@link #sendPlayersToCluster(String, ServerSelectionMode, Set)}.
+   * @throws IllegalArgumentException on a <code>null</code> parameter or an empty cluster id.
+   * @throws ConcurrentModificationException On reserving for an id that is already in the process
+   *         of being sent.
+   */
+  public ListenableFuture<RelocationResult> reserveForPool(String clusterId,
+      ServerSelectionMode mode, Set<UUID> placeholders) throws IllegalArgumentException,
+      ConcurrentModificationException {
+    return sendToCluster(clusterId, mode, placeholders, true);
+  }
+
+  private ListenableFuture<RelocationResult> sendToCluster(String clusterId,
+      ServerSelectionMode mode, Set<UUID> players, boolean pooled) throws IllegalArgumentException,
+      ConcurrentModificationException {
     if (clusterId == null || clusterId.equals("")) {
       throw new IllegalArgumentException("cluster id cannot be null or empty");
     } else if (players == null || players.isEmpty()) {
@@ -168,8 +237,21 @@ public class PlayerRelocationClient {
       throw new IllegalArgumentException("server selection mode cannot be null");
     }
 
+    long started = System.nanoTime();
+    RelocationOutcome rejection = checkCapacity(clusterId, players.size());
+    if (rejection != null) {
+      checkNotInProgress(players);
+      RelocationStats.Counters counters =
+          stats.forTarget(pooled ? RelocationMetrics.POOL_TARGET : clusterId);
+      counters.attempts.incrementAndGet();
+      counters.rejected.incrementAndGet();
+      SettableFuture<RelocationResult> ret = SettableFuture.create();
+      ret.set(new RelocationResult(rejection, null, 0, 0, System.nanoTime() - started));
+      return ret;
+    }
+
     ServerGroupRelocationAttempt attempt =
-        new ServerGroupRelocationAttempt(clusterId, mode, players);
+        new ServerGroupRelocationAttempt(clusterId, mode, players, pooled);
     return attempt.start();
   }
 
@@ -199,16 +281,17 @@ public class PlayerRelocationClient {
    * @param targetPlayerId The player whose server to try to send the given players to.
    * @param players The players to try to send to the server of the target player.
    * @return The asynchronous, future result of this attempt to relocate players. Returns a value
-   *         when the request finishes. <code>true</code> if the relocation is successful (does not
-   *         guarantee the players make it to their destination, but successfully tries to send them
-   *         to the target server). <code>false</code> if the relocation fails, such as if the
-   *         target player is not online a connected server.
+   *         when the request finishes. Its outcome is {@link RelocationOutcome#SUCCESS} if the
+   *         target server approved and the players were sent to it (does not guarantee the players
+   *         make it to their destination). Otherwise the outcome is the reason it failed, such as
+   *         {@link RelocationOutcome#TIMEOUT} if the target player is not online a connected
+   *         server.
    * @throws IllegalArgumentException on a <code>null</code> parameter.
    * @throws ConcurrentModificationException On sending a player that is already in the process of
    *         being sent.
    */
-  public ListenableFuture<Boolean> sendPlayersToPlayer(UUID targetPlayerId, Set<UUID> players)
-      throws IllegalArgumentException, ConcurrentModificationException {
+  public ListenableFuture<RelocationResult> sendPlayersToPlayer(UUID targetPlayerId,
+      Set<UUID> players) throws IllegalArgumentException, ConcurrentModificationException {
     if (targetPlayerId == null) {
       throw new IllegalArgumentException("player id cannot be null");
     } else if (players == null || players.isEmpty()) {
@@ -246,16 +329,17 @@ public class PlayerRelocationClient {
    *        (not case sensitive).
    * @param players The players to try to send to the server of the target player.
    * @return The asynchronous, future result of this attempt to relocate players. Returns a value
-   *         when the request finishes. <code>true</code> if the relocation is successful (does not
-   *         guarantee the players make it to their destination, but successfully tries to send them
-   *         to the target server). <code>false</code> if the relocation fails, such as if the
-   *         target player is not online a connected server.
+   *         when the request finishes. Its outcome is {@link RelocationOutcome#SUCCESS} if the
+   *         target server approved and the players were sent to it (does not guarantee the players
+   *         make it to their destination). Otherwise the outcome is the reason it failed, such as
+   *         {@link RelocationOutcome#TIMEOUT} if the target player is not online a connected
+   *         server.
    * @throws IllegalArgumentException on a <code>null</code> parameter or an empty player name.
    * @throws ConcurrentModificationException On sending a player that is already in the process of
    *         being sent.
    */
-  public ListenableFuture<Boolean> sendPlayersToPlayer(String targetPlayerName, Set<UUID> players)
-      throws IllegalArgumentException, ConcurrentModificationException {
+  public ListenableFuture<RelocationResult> sendPlayersToPlayer(String targetPlayerName,
+      Set<UUID> players) throws IllegalArgumentException, ConcurrentModificationException {
     if (targetPlayerName == null || targetPlayerName.equals("")) {
       throw new IllegalArgumentException("player name cannot be null or empty");
     } else if (players == null || players.isEmpty()) {
@@ -276,16 +360,17 @@ public class PlayerRelocationClient {
    * @param orderedServers A list of the servers to attempt to send the players to.
    * @param players The ids of the players to send.
    * @return The asynchronous, future result of this attempt to relocate players. Returns a value
-   *         when the request finishes. <code>true</code> if the relocation is successful (does not
-   *         guarantee the players make it to their destination, but does successfully find a server
-   *         and try to send them there). <code>false</code> if the relocation fails, such as if the
-   *         servers deny the requests.
+   *         when the request finishes. Its outcome is {@link RelocationOutcome#SUCCESS} if a server
+   *         was found and the players were sent to it (does not guarantee the players make it to
+   *         their destination). Otherwise the outcome is the reason it failed, such as the servers
+   *         denying the requests.
    * @throws IllegalArgumentException on a <code>null</code> parameter or an empty collection.
    * @throws ConcurrentModificationException On sending a player that is already in the process of
    *         being sent.
    */
-  public ListenableFuture<Boolean> sendPlayersToServers(List<ServerStatus> orderedServers,
-      Set<UUID> players) throws IllegalArgumentException, ConcurrentModificationException {
+  public ListenableFuture<RelocationResult> sendPlayersToServers(
+      List<ServerStatus> orderedServers, Set<UUID> players) throws IllegalArgumentException,
+      ConcurrentModificationException {
     if (orderedServers == null || players == null) {
       throw new IllegalArgumentException("params cannot be null");
     } else if (orderedServers.isEmpty() || players.isEmpty()) {
@@ -297,15 +382,80 @@ public class PlayerRelocationClient {
     return attempt.start();
   }
 
+  /**
+   * Hands slots that a server reserved for placeholder ids over to players, and sends the players
+   * there once the server has taken them over.
+   * <p>
+   * The placeholders' slots must have been reserved ahead of time, such as by relocating the
+   * placeholder ids to a cluster. Only the one server holding them is asked, so this takes a single
+   * round trip. If the reservations have expired, the server tries to reserve new slots for the
+   * players instead, and may deny the request if it has no room. The players are not sent anywhere
+   * if it is denied or not answered.
+   * <p>
+   * For internal use. Not safe for and has no use for external clients through the main API.
+   * 
+   * @param serverId The id of the server the placeholders have reservations on.
+   * @param placeholders The ids that the slots were reserved under.
+   * @param players The players to send.
+   * @return The future result of the transfer.
+   * @throws IllegalArgumentException on a <code>null</code> parameter or an empty server id or
+   *         collection.
+   */
+  public ListenableFuture<RelocationResult> claimReservation(String serverId,
+      Set<UUID> placeholders, Set<UUID> players) throws IllegalArgumentException {
+    if (serverId == null || serverId.isEmpty()) {
+      throw new IllegalArgumentException("server id cannot be null or empty");
+    } else if (placeholders == null || players == null) {
+      throw new IllegalArgumentException("params cannot be null");
+    } else if (placeholders.isEmpty() || players.isEmpty()) {
+      throw new IllegalArgumentException("collections cannot be empty");
+    }
+
+    TransferAttempt attempt = new TransferAttempt(serverId, placeholders, players);
+    return attempt.start();
+  }
+
+  /**
+   * Checks whether any known server in a cluster could fit a group of players, using only the
+   * cluster's running capacity.
+   * 
+   * @return The reason no server could, or <code>null</code> if one might.
+   */
+  private RelocationOutcome checkCapacity(String clusterId, int groupSize) {
+    ClusterCapacity capacity = networkStatus.getClusterCapacity(clusterId);
+    if (capacity == null) {
+      return RelocationOutcome.UNKNOWN_CLUSTER;
+    }
+    if (capacity.getServers() == 0 || capacity.getMaxOpenSlots() < groupSize) {
+      return RelocationOutcome.NO_CAPACITY;
+    }
+    return null;
+  }
+
+  /**
+   * Makes sure none of the players are already being relocated.
+   * 
+   * @throws ConcurrentModificationException if any of them is.
+   */
+  private void checkNotInProgress(Set<UUID> players) throws ConcurrentModificationException {
+    for (UUID id : players) {
+      if (inProgress.contains(id)) {
+        throw new ConcurrentModificationException(
+            "player "
+                + id.toString()
+                + " is already in the process of being relocated. Two requests cannot run concurrently for the same player.");
+      }
+    }
+  }
+
   private void onResponseMessage(byte[] message) {
     ReservationResponse rr = null;
     try {
       rr = ReservationResponse.fromBytes(message);
 
     } catch (Exception e) {
-      System.out.println("[ServerClusters " + getClass().getSimpleName()
-          + "] Received a message on the reservation-response channel that could not be parsed.");
-      e.printStackTrace();
+      Log.warning("[ServerClusters PlayerRelocationClient] Received a message on the "
+          + "reservation-response channel that could not be parsed.", e);
       return;
     }
 
@@ -322,6 +472,11 @@ public class PlayerRelocationClient {
     if (playerAttempt != null) {
       playerAttempt.onResponse(rr);
     }
+
+    TransferAttempt transferAttempt = transferAttempts.get(rr.getRequestId());
+    if (transferAttempt != null) {
+      transferAttempt.onResponse(rr);
+    }
   }
 
   private class ResponseSubscriber implements Subscriber {
@@ -347,12 +502,17 @@ public class PlayerRelocationClient {
     private static final long WAIT_INTERVAL = 50;
 
     private final int id;
-    private final SettableFuture<Boolean> callback;
+    private final SettableFuture<RelocationResult> callback;
 
     private final Set<UUID> players;
     private final UUID targetId;
     private final String targetName;
 
+    private final RelocationStats.Counters counters;
+    private final long started;
+    private volatile int serversTried;
+    private volatile int roundTrips;
+
     private volatile boolean complete;
 
     private PlayerRelocationAttempt(UUID targetId, String targetName, Set<UUID> players) {
@@ -362,18 +522,13 @@ public class PlayerRelocationClient {
       this.id = requestCounter.getAndIncrement();
 
       this.players = players;
-      for (UUID id : players) {
-        if (inProgress.contains(id)) {
-          throw new ConcurrentModificationException(
-              "player "
-                  + id.toString()
-                  + " is already in the process of being relocated. Two requests cannot run concurrently for the same player.");
-        }
-      }
+      checkNotInProgress(players);
 
       this.targetId = targetId;
       this.targetName = targetName;
       this.callback = SettableFuture.create();
+      this.counters = stats.forTarget(RelocationMetrics.PLAYER_TARGET);
+      this.started = System.nanoTime();
 
       playerAttempts.put(id, this);
     }
@@ -381,63 +536,116 @@ public class PlayerRelocationClient {
     @Override
     public void run() {
 
-      // TODO debug
-      System.out.println("[ServerClusters " + getClass().getSimpleName()
-          + "] Sending a reservation request message of id " + id
-          + " to the server of player (UUID:  " + targetId + ", name: " + targetName + ") for "
-          + players.size() + " players.");
+      Log.debug("[ServerClusters PlayerRelocationClient] Sending a reservation request message of "
+          + "id {} to the server of player {} for {} players.", id,
+          targetId != null ? targetId : targetName, players.size());
 
+      // asks the target's server first if the directory knows where they are. The request still
+      // names the target, so the server only approves it if they are really there: the directory
+      // can be a heartbeat behind a player who just switched servers.
+      ServerStatus targetServer = null;
       if (targetId != null) {
-        messager.publish(requestChannel,
-            ReservationRequest.createMessageToPlayer(targetId, thisNodeId, id, players));
+        targetServer = networkStatus.getPlayerServer(targetId);
+      }
+
+      if (targetServer != null) {
+        serversTried = 1;
+        messager.publish(requestChannel, ReservationRequest.createMessageToPlayer(targetId,
+            thisNodeId, id, players, Collections.singleton(targetServer.getServerId())));
+        if (awaitResponse()) {
+          return;
+        }
+        Log.debug("[ServerClusters PlayerRelocationClient] {} did not answer for player {}, asking"
+            + " the servers they might be on instead.", targetServer.getServerId(), targetId);
+      }
+
+      // only asks the servers whose player filters match, or every server if none do
+      List<ServerStatus> possible =
+          targetId != null ? networkStatus.getPossiblePlayerServers(targetId) : networkStatus
+              .getPossiblePlayerServers(targetName);
+      Set<String> recipients = null;
+      if (!possible.isEmpty()) {
+        recipients = new HashSet<String>();
+        for (ServerStatus server : possible) {
+          recipients.add(server.getServerId());
+        }
+        serversTried += recipients.size();
+      }
+
+      if (targetId != null) {
+        messager.publish(requestChannel, ReservationRequest.createMessageToPlayer(targetId,
+            thisNodeId, id, players, recipients));
       } else {
-        messager.publish(requestChannel,
-            ReservationRequest.createMessageToPlayer(targetName, thisNodeId, id, players));
+        messager.publish(requestChannel, ReservationRequest.createMessageToPlayer(targetName,
+            thisNodeId, id, players, recipients));
       }
 
+      if (!awaitResponse()) {
+        counters.timeouts.incrementAndGet();
+        complete(RelocationOutcome.TIMEOUT, null);
+      }
+    }
+
+    /**
+     * Waits up to the response timeout for this attempt to complete.
+     * 
+     * @return <code>true</code> if it completed, <code>false</code> if no response came in time.
+     */
+    private boolean awaitResponse() {
       long timePassed = 0;
       while (!complete) {
         if (timePassed > responseTimeout) {
-          complete(false);
-          break;
+          return false;
         }
         try {
           Thread.sleep(WAIT_INTERVAL);
         } catch (InterruptedException e) {
-          System.out
-              .println("[ServerClusters PlayerRelocationClient] Interruption on a response timeout thread. Returning false...");
-          e.printStackTrace();
-          complete(false);
+          Log.warning("[ServerClusters PlayerRelocationClient] Interruption on a response timeout"
+              + " thread. Returning false...", e);
+          complete(RelocationOutcome.TIMEOUT, null);
         }
         timePassed += WAIT_INTERVAL;
       }
+      return true;
     }
 
     private void onResponse(ReservationResponse response) {
 
-      // TODO debug
-      System.out.println("[ServerClusters " + getClass().getSimpleName()
-          + "] Received reservation response of id " + response.getRequestId() + " from "
-          + response.getRespondingServer() + ". Approved: " + response.isApproved());
+      Log.debug("[ServerClusters PlayerRelocationClient] Received reservation response of id {} "
+          + "from {}. Approved: {}", response.getRequestId(), response.getRespondingServer(),
+          response.isApproved());
+
+      roundTrips++;
+      if (serversTried == 0) { // was sent to every server; counts the one that responded
+        serversTried = 1;
+      }
 
       if (response.isApproved()) {
+        counters.approvals.incrementAndGet();
+        stats.getPlacementLatency().record((System.nanoTime() - started) / 1000);
         for (UUID playerId : players) {
           playerSender.sendPlayer(playerId, response.getRespondingServer());
         }
-        complete(true);
+        complete(RelocationOutcome.SUCCESS, response.getRespondingServer());
       } else {
-        complete(false);
+        counters.denials.incrementAndGet();
+        complete(RelocationOutcome.DENIED, null);
       }
     }
 
-    private void complete(boolean successful) {
+    private void complete(RelocationOutcome outcome, String serverId) {
       inProgress.removeAll(players);
       complete = true;
-      clusterAttempts.remove(id);
-      callback.set(successful);
+      if (playerAttempts.remove(id) != null) {
+        // the same count as the result, so the histogram and results agree
+        stats.getServersTried().record(serversTried);
+      }
+      callback.set(new RelocationResult(outcome, serverId, serversTried, roundTrips,
+          System.nanoTime() - started));
     }
 
-    private ListenableFuture<Boolean> start() {
+    private ListenableFuture<RelocationResult> start() {
+      counters.attempts.incrementAndGet();
       inProgress.addAll(players);
       threadPool.execute(this);
       return this.callback;
@@ -445,6 +653,106 @@ public class PlayerRelocationClient {
 
   }
 
+  /**
+   * Private helper runnable class that hands reservations made for placeholders on a server over to
+   * players.
+   * <p>
+   * Defines the behavior of sending the request, waiting for the response, reacting to the
+   * response, timeouts, etc.
+   */
+  private class TransferAttempt implements Runnable {
+
+    private static final long WAIT_INTERVAL = 50;
+
+    private final int id;
+    private final SettableFuture<RelocationResult> callback;
+
+    private final String serverId;
+    private final Set<UUID> placeholders;
+    private final Set<UUID> players;
+
+    private final RelocationStats.Counters counters;
+    private final long started;
+    private volatile int roundTrips;
+
+    private volatile boolean complete;
+
+    private TransferAttempt(String serverId, Set<UUID> placeholders, Set<UUID> players) {
+      this.id = requestCounter.getAndIncrement();
+      this.callback = SettableFuture.create();
+      this.serverId = serverId;
+      this.placeholders = placeholders;
+      this.players = players;
+      this.counters = stats.forTarget(RelocationMetrics.CLAIM_TARGET);
+      this.started = System.nanoTime();
+
+      transferAttempts.put(id, this);
+    }
+
+    @Override
+    public void run() {
+      Log.debug("[ServerClusters PlayerRelocationClient] Sending a reservation transfer message of"
+          + " id {} to {} for {} players.", id, serverId, players.size());
+
+      messager.publish(requestChannel, ReservationRequest.createTransferMessage(serverId,
+          thisNodeId, id, placeholders, players));
+
+      long timePassed = 0;
+      while (!complete) {
+        if (timePassed > responseTimeout) {
+          counters.timeouts.incrementAndGet();
+          Log.warning("[ServerClusters PlayerRelocationClient] {} did not answer a reservation"
+              + " transfer in time.", serverId);
+          complete(RelocationOutcome.TIMEOUT, null);
+          break;
+        }
+        try {
+          Thread.sleep(WAIT_INTERVAL);
+        } catch (InterruptedException e) {
+          Log.warning("[ServerClusters PlayerRelocationClient] Interruption on a response timeout"
+              + " thread. Returning false...", e);
+          complete(RelocationOutcome.TIMEOUT, null);
+        }
+        timePassed += WAIT_INTERVAL;
+      }
+    }
+
+    private void onResponse(ReservationResponse response) {
+
+      Log.debug("[ServerClusters PlayerRelocationClient] Received reservation response of id {} "
+          + "from {}. Approved: {}", response.getRequestId(), response.getRespondingServer(),
+          response.isApproved());
+
+      roundTrips++;
+      if (response.isApproved()) {
+        counters.approvals.incrementAndGet();
+        for (UUID playerId : players) {
+          playerSender.sendPlayer(playerId, serverId);
+        }
+        complete(RelocationOutcome.SUCCESS, serverId);
+      } else {
+        counters.denials.incrementAndGet();
+        Log.warning("[ServerClusters PlayerRelocationClient] {} denied a reservation transfer,"
+            + " its reserved slots were likely taken after they expired.", serverId);
+        complete(RelocationOutcome.DENIED, null);
+      }
+    }
+
+    private void complete(RelocationOutcome outcome, String serverId) {
+      complete = true;
+      transferAttempts.remove(id);
+      callback.set(new RelocationResult(outcome, serverId, 1, roundTrips, System.nanoTime()
+          - started));
+    }
+
+    private ListenableFuture<RelocationResult> start() {
+      counters.attempts.incrementAndGet();
+      threadPool.execute(this);
+      return this.callback;
+    }
+
+  }
+
   /**
    * Private helper runnable class that attempts to get a reservation on one of a group of instances
    * for a player or group of players.
@@ -460,16 +768,25 @@ public class PlayerRelocationClient {
     private static final long WAIT_INTERVAL = 50;
 
     private final int id;
-    private final SettableFuture<Boolean> callback;
+    private final SettableFuture<RelocationResult> callback;
     private final Set<UUID> players;
 
     private String clusterId;
     private ServerSelectionMode mode;
+    private boolean pooled; // reserving for a placement pool, not placing players
 
+    // by server id, since cache handles are reused when servers leave during an attempt
     private Set<String> serversTried;
     private String currentServerId;
     private Iterator<ServerStatus> servers;
 
+    private final RelocationStats.Counters counters;
+    private volatile int requestsSent;
+    private volatile int roundTrips;
+    private final long started;
+    // why the servers tried so far have not worked out
+    private volatile RelocationOutcome lastFailure = RelocationOutcome.NO_CAPACITY;
+
     private volatile boolean wakeUp;
     private volatile boolean complete;
 
@@ -479,26 +796,23 @@ public class PlayerRelocationClient {
      * @param clusterId The id of the cluster to try to send players to.
      * @param mode The mode with which to select servers in the cluster.
      * @param players The players to send.
+     * @param pooled Whether the players are placeholders reserving slots for a placement pool.
      */
     private ServerGroupRelocationAttempt(String clusterId, ServerSelectionMode mode,
-        Set<UUID> players) {
+        Set<UUID> players, boolean pooled) {
       this.id = requestCounter.getAndIncrement();
       this.clusterId = clusterId;
       this.mode = mode;
+      this.pooled = pooled;
 
       this.players = players;
-      for (UUID id : players) {
-        if (inProgress.contains(id)) {
-          throw new ConcurrentModificationException(
-              "player "
-                  + id.toString()
-                  + " is already in the process of being relocated. Two requests cannot run concurrently for the same player.");
-        }
-      }
+      checkNotInProgress(players);
 
       this.callback = SettableFuture.create();
 
       this.serversTried = new HashSet<String>();
+      this.counters = stats.forTarget(pooled ? RelocationMetrics.POOL_TARGET : clusterId);
+      this.started = System.nanoTime();
 
       clusterAttempts.put(id, this);
     }
@@ -516,6 +830,8 @@ public class PlayerRelocationClient {
       this.callback = SettableFuture.create();
 
       this.serversTried = new HashSet<String>();
+      this.counters = stats.forTarget(RelocationMetrics.SERVER_LIST_TARGET);
+      this.started = System.nanoTime();
 
       clusterAttempts.put(id, this);
     }
@@ -547,65 +863,82 @@ public class PlayerRelocationClient {
           }
         }
         if (!foundNew) {
-          complete(false);
+          counters.unavailable.incrementAndGet();
+          complete(lastFailure, null);
           return;
         }
 
-        // TODO debug
-        System.out.println("[ServerClusters " + getClass().getSimpleName()
-            + "] Sending a reservation request message of id " + id + " to " + currentServerId
-            + " for " + players.size() + " players.");
+        Log.debug("[ServerClusters PlayerRelocationClient] Sending a reservation request message "
+            + "of id {} to {} for {} players.", id, currentServerId, players.size());
 
         messager.publish(requestChannel,
             ReservationRequest.createMessageToServer(currentServerId, thisNodeId, id, players));
+        requestsSent++;
 
+        boolean answered = false;
         long timeWaited = 0;
         while (timeWaited < responseTimeout) {
           try {
             Thread.sleep(WAIT_INTERVAL);
           } catch (Exception e) {
-            System.out.println("[ServerClusters " + getClass().getSimpleName()
-                + "] Interruption on a response timeout thread. Returning false...");
-            e.printStackTrace();
-            complete(false);
+            Log.warning("[ServerClusters PlayerRelocationClient] Interruption on a response "
+                + "timeout thread. Returning false...", e);
+            complete(RelocationOutcome.TIMEOUT, null);
           }
           timeWaited += WAIT_INTERVAL;
           if (wakeUp) {
             wakeUp = false;
+            answered = true;
             break;
           }
         }
+        if (!answered && !complete) {
+          counters.timeouts.incrementAndGet();
+          lastFailure = RelocationOutcome.TIMEOUT;
+        }
       }
       if (!complete) {
-        complete(false);
+        counters.exhaustions.incrementAndGet();
+        complete(lastFailure, null);
       }
     }
 
     private void onResponse(ReservationResponse response) {
 
-      // TODO debug
-      System.out.println("[ServerClusters " + getClass().getSimpleName()
-          + "] Received reservation response of id " + response.getRequestId() + " from "
-          + response.getRespondingServer() + ". Approved: " + response.isApproved());
+      Log.debug("[ServerClusters PlayerRelocationClient] Received reservation response of id {} "
+          + "from {}. Approved: {}", response.getRequestId(), response.getRespondingServer(),
+          response.isApproved());
 
+      roundTrips++;
       if (response.isApproved()) {
+        counters.approvals.incrementAndGet();
+        if (!pooled) {
+          stats.getPlacementLatency().record((System.nanoTime() - started) / 1000);
+        }
         for (UUID playerId : players) {
           playerSender.sendPlayer(playerId, response.getRespondingServer());
         }
-        complete(true);
+        complete(RelocationOutcome.SUCCESS, response.getRespondingServer());
+      } else {
+        counters.denials.incrementAndGet();
+        lastFailure = RelocationOutcome.DENIED;
       }
       wakeUp = true;
     }
 
-    private void complete(boolean successful) {
+    private void complete(RelocationOutcome outcome, String serverId) {
       inProgress.removeAll(players);
       complete = true;
       wakeUp = true;
-      clusterAttempts.remove(id);
-      callback.set(successful);
+      if (clusterAttempts.remove(id) != null && !pooled) {
+        stats.getServersTried().record(requestsSent);
+      }
+      callback.set(new RelocationResult(outcome, serverId, requestsSent, roundTrips,
+          System.nanoTime() - started));
     }
 
-    private ListenableFuture<Boolean> start() {
+    private ListenableFuture<RelocationResult> start() {
+      counters.attempts.incrementAndGet();
       inProgress.addAll(players);
       threadPool.execute(this);
       return this.callback;
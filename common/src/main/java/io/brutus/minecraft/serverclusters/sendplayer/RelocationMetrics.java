@@ -0,0 +1,131 @@
+package io.brutus.minecraft.serverclusters.sendplayer;
+
+import java.util.List;
+import java.util.Set;
+
+import io.brutus.minecraft.serverclusters.metrics.Histogram;
+
+/**
+ * Read-only counts and distributions of the relocations a {@link PlayerRelocationClient} has made.
+ * <p>
+ * Counts are kept per target. Relocations to a cluster are counted under the cluster's id.
+ * Relocations to a player's server are counted under {@link #PLAYER_TARGET}, and relocations to an
+ * explicit list of servers under {@link #SERVER_LIST_TARGET}. Slots reserved ahead of time for a
+ * placement pool are counted under {@link #POOL_TARGET}, and are left out of the distributions,
+ * since they are not placements of real players. Handing those slots over to players is counted
+ * under {@link #CLAIM_TARGET}, and is also left out of the distributions, since it only ever asks
+ * the one server that holds the slots.
+ * <p>
+ * Every count only ever goes up, so they can be exported as-is to systems that expect monotonic
+ * counters.
+ */
+public interface RelocationMetrics {
+
+  /**
+   * The target that relocations to a player's server are counted under.
+   */
+  String PLAYER_TARGET = "@player";
+
+  /**
+   * The target that relocations to an explicit list of servers are counted under.
+   */
+  String SERVER_LIST_TARGET = "@servers";
+
+  /**
+   * The target that slots reserved ahead of time for a placement pool are counted under.
+   */
+  String POOL_TARGET = "@pool";
+
+  /**
+   * The target that handing slots reserved for a placement pool over to players is counted under.
+   */
+  String CLAIM_TARGET = "@claim";
+
+  /**
+   * Gets every target that at least one relocation has been attempted to.
+   * 
+   * @return The targets with counts.
+   */
+  Set<String> getTargets();
+
+  /**
+   * Gets the number of relocations attempted to a target.
+   * 
+   * @param target A cluster id or one of the special targets.
+   * @return The number of attempts.
+   */
+  long getAttempts(String target);
+
+  /**
+   * Gets the number of reservation requests to a target that a server approved.
+   * 
+   * @param target A cluster id or one of the special targets.
+   * @return The number of approved requests.
+   */
+  long getApprovals(String target);
+
+  /**
+   * Gets the number of reservation requests to a target that a server denied.
+   * 
+   * @param target A cluster id or one of the special targets.
+   * @return The number of denied requests.
+   */
+  long getDenials(String target);
+
+  /**
+   * Gets the number of reservation requests to a target that got no response in time.
+   * 
+   * @param target A cluster id or one of the special targets.
+   * @return The number of timed-out requests.
+   */
+  long getTimeouts(String target);
+
+  /**
+   * Gets the number of relocations to a target that gave up after trying as many servers as they
+   * are allowed to.
+   * 
+   * @param target A cluster id or one of the special targets.
+   * @return The number of exhausted attempts.
+   */
+  long getExhaustions(String target);
+
+  /**
+   * Gets the number of relocations to a target that failed because no untried server had room.
+   * 
+   * @param target A cluster id or one of the special targets.
+   * @return The number of attempts that ran out of servers.
+   */
+  long getUnavailable(String target);
+
+  /**
+   * Gets the number of relocations to a target that failed up front, without asking any server,
+   * because no known server in the cluster had room for the players.
+   * 
+   * @param target A cluster id or one of the special targets.
+   * @return The number of attempts rejected before they started.
+   */
+  long getRejected(String target);
+
+  /**
+   * Gets the end-to-end latency of successful relocations, from the start of the attempt until a
+   * server approves it, in microseconds.
+   * 
+   * @return The placement-latency histogram.
+   */
+  Histogram getPlacementLatency();
+
+  /**
+   * Gets the number of servers each finished relocation sent a reservation request to.
+   * 
+   * @return The servers-tried histogram.
+   */
+  Histogram getServersTried();
+
+  /**
+   * Gets a human-readable summary of these metrics.
+   * 
+   * @return The summary, one line per entry.
+   */
+  List<String> toStringList();
+
+}
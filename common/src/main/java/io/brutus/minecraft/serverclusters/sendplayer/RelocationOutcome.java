@@ -0,0 +1,43 @@
+package io.brutus.minecraft.serverclusters.sendplayer;
+
+/**
+ * How an attempt to relocate players ended.
+ */
+public enum RelocationOutcome {
+
+  /**
+   * A server approved the reservation and the players were sent to it. Does not guarantee the
+   * players make it to their destination.
+   */
+  SUCCESS,
+
+  /**
+   * No server had enough open slots for the players, or every server that did was already tried.
+   */
+  NO_CAPACITY,
+
+  /**
+   * No server in the target cluster has been seen on the network, so there was nowhere to try.
+   */
+  UNKNOWN_CLUSTER,
+
+  /**
+   * The last server asked did not respond in time.
+   */
+  TIMEOUT,
+
+  /**
+   * The last server asked denied the reservation.
+   */
+  DENIED;
+
+  /**
+   * Gets whether this outcome means the players were sent.
+   * 
+   * @return <code>true</code> if this is {@link #SUCCESS}.
+   */
+  public boolean isSuccessful() {
+    return this == SUCCESS;
+  }
+
+}
@@ -0,0 +1,127 @@
+package io.brutus.minecraft.serverclusters.sendplayer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The result of an attempt to relocate players: how it ended, where the players went, and what it
+ * took to get there.
+ * <p>
+ * Lets callers tell a full cluster from an unresponsive one or a denial, so they can back off or
+ * try elsewhere instead of retrying blindly.
+ * <p>
+ * Immutable.
+ */
+public class RelocationResult {
+
+  private final RelocationOutcome outcome;
+  private final String serverId;
+  private final int serversTried;
+  private final int roundTrips;
+  private final long elapsedNanos;
+
+  /**
+   * Class constructor.
+   * 
+   * @param outcome How the attempt ended.
+   * @param serverId The id of the server the players were sent to. <code>null</code> if the attempt
+   *        failed or there was nobody to send.
+   * @param serversTried The number of servers a reservation was asked of.
+   * @param roundTrips The number of reservation requests that got a response.
+   * @param elapsedNanos How long the attempt took, in nanoseconds.
+   * @throws IllegalArgumentException on a <code>null</code> outcome or a negative number.
+   */
+  public RelocationResult(RelocationOutcome outcome, String serverId, int serversTried,
+      int roundTrips, long elapsedNanos) throws IllegalArgumentException {
+    if (outcome == null) {
+      throw new IllegalArgumentException("outcome cannot be null");
+    }
+    if (serversTried < 0 || roundTrips < 0 || elapsedNanos < 0) {
+      throw new IllegalArgumentException("counts and times cannot be negative");
+    }
+
+    this.outcome = outcome;
+    this.serverId = outcome.isSuccessful() ? serverId : null;
+    this.serversTried = serversTried;
+    this.roundTrips = roundTrips;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Gets how the attempt ended.
+   * 
+   * @return The attempt's outcome.
+   */
+  public RelocationOutcome getOutcome() {
+    return outcome;
+  }
+
+  /**
+   * Gets whether the players were sent. Does not guarantee the players make it to their
+   * destination.
+   * 
+   * @return <code>true</code> if a server approved the players and they were sent to it.
+   */
+  public boolean isSuccessful() {
+    return outcome.isSuccessful();
+  }
+
+  /**
+   * Gets the server the players were sent to.
+   * 
+   * @return The id of the server that approved the reservation. <code>null</code> if the attempt
+   *         failed, or if it succeeded without anybody to send.
+   */
+  public String getServerId() {
+    return serverId;
+  }
+
+  /**
+   * Gets the number of servers a reservation was asked of.
+   * <p>
+   * When a request for the server of a player is sent to every server that might have them, each
+   * of those counts. When it is sent to every server on the network, only a server that responded
+   * counts.
+   * 
+   * @return The servers tried. <code>0</code> if the attempt failed without sending any requests.
+   */
+  public int getServersTried() {
+    return serversTried;
+  }
+
+  /**
+   * Gets the number of reservation requests that got a response, approving or denying. Requests
+   * that got no response timed out.
+   * 
+   * @return The completed request/response round trips.
+   */
+  public int getRoundTrips() {
+    return roundTrips;
+  }
+
+  /**
+   * Gets how long the attempt took, from when it was made until it finished.
+   * 
+   * @return The elapsed time, in nanoseconds.
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Gets how long the attempt took, from when it was made until it finished.
+   * 
+   * @param unit The unit to get the elapsed time in.
+   * @return The elapsed time, in the given unit.
+   */
+  public long getElapsed(TimeUnit unit) {
+    return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public String toString() {
+    return outcome + (serverId != null ? " (" + serverId + ")" : "") + " after " + serversTried
+        + " servers tried, " + roundTrips + " round trips, "
+        + TimeUnit.NANOSECONDS.toMicros(elapsedNanos) + " us";
+  }
+
+}
@@ -0,0 +1,144 @@
+package io.brutus.minecraft.serverclusters.sendplayer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.brutus.minecraft.serverclusters.metrics.Histogram;
+
+/**
+ * The live metrics of a relocation client, which the client records into as it works.
+ * <p>
+ * This implementation is thread safe. Recording does not lock and only allocates the first time a
+ * target is seen.
+ */
+class RelocationStats implements RelocationMetrics {
+
+  private final ConcurrentMap<String, Counters> counters;
+  private final Histogram placementLatency;
+  private final Histogram serversTried;
+
+  RelocationStats() {
+    this.counters = new ConcurrentHashMap<String, Counters>();
+    this.placementLatency = new Histogram();
+    this.serversTried = new Histogram();
+  }
+
+  @Override
+  public Set<String> getTargets() {
+    return Collections.unmodifiableSet(new TreeSet<String>(counters.keySet()));
+  }
+
+  @Override
+  public long getAttempts(String target) {
+    Counters c = counters.get(target);
+    return c == null ? 0 : c.attempts.get();
+  }
+
+  @Override
+  public long getApprovals(String target) {
+    Counters c = counters.get(target);
+    return c == null ? 0 : c.approvals.get();
+  }
+
+  @Override
+  public long getDenials(String target) {
+    Counters c = counters.get(target);
+    return c == null ? 0 : c.denials.get();
+  }
+
+  @Override
+  public long getTimeouts(String target) {
+    Counters c = counters.get(target);
+    return c == null ? 0 : c.timeouts.get();
+  }
+
+  @Override
+  public long getExhaustions(String target) {
+    Counters c = counters.get(target);
+    return c == null ? 0 : c.exhaustions.get();
+  }
+
+  @Override
+  public long getUnavailable(String target) {
+    Counters c = counters.get(target);
+    return c == null ? 0 : c.unavailable.get();
+  }
+
+  @Override
+  public long getRejected(String target) {
+    Counters c = counters.get(target);
+    return c == null ? 0 : c.rejected.get();
+  }
+
+  @Override
+  public Histogram getPlacementLatency() {
+    return placementLatency;
+  }
+
+  @Override
+  public Histogram getServersTried() {
+    return serversTried;
+  }
+
+  @Override
+  public List<String> toStringList() {
+    List<String> ret = new ArrayList<String>();
+    ret.add("[Relocations] Targets:");
+    for (String target : getTargets()) {
+      ret.add("  " + target + ": " + getAttempts(target) + " attempts, " + getApprovals(target)
+          + " approved, " + getDenials(target) + " denied, " + getTimeouts(target)
+          + " timed out, " + getExhaustions(target) + " exhausted, " + getUnavailable(target)
+          + " without servers, " + getRejected(target) + " rejected up front");
+    }
+    ret.add("  placement latency (ms): p50 " + millis(placementLatency.getValueAtPercentile(50))
+        + ", p99 " + millis(placementLatency.getValueAtPercentile(99)) + ", max "
+        + millis(placementLatency.getMax()) + " (" + placementLatency.getCount() + " placed)");
+    ret.add("  servers tried: p50 " + serversTried.getValueAtPercentile(50) + ", p99 "
+        + serversTried.getValueAtPercentile(99) + ", max " + serversTried.getMax());
+    return ret;
+  }
+
+  /**
+   * Gets the counters for a target, creating them if this is the first time it has been seen.
+   * 
+   * @param target A cluster id or one of the special targets.
+   * @return The target's counters.
+   */
+  Counters forTarget(String target) {
+    Counters ret = counters.get(target);
+    if (ret == null) {
+      Counters created = new Counters();
+      ret = counters.putIfAbsent(target, created);
+      if (ret == null) {
+        ret = created;
+      }
+    }
+    return ret;
+  }
+
+  private static String millis(long micros) {
+    return String.format("%.1f", micros / 1000.0);
+  }
+
+  /**
+   * The counts for one target.
+   */
+  static class Counters {
+
+    final AtomicLong attempts = new AtomicLong();
+    final AtomicLong approvals = new AtomicLong();
+    final AtomicLong denials = new AtomicLong();
+    final AtomicLong timeouts = new AtomicLong();
+    final AtomicLong exhaustions = new AtomicLong();
+    final AtomicLong unavailable = new AtomicLong();
+    final AtomicLong rejected = new AtomicLong();
+
+  }
+
+}
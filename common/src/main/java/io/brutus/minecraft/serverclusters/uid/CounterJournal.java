@@ -0,0 +1,465 @@
+package io.brutus.minecraft.serverclusters.uid;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import io.brutus.minecraft.serverclusters.logging.Log;
+import io.brutus.minecraft.serverclusters.protocol.serialization.Encoding;
+
+/**
+ * An append-only, crash-safe log of id counter positions.
+ * <p>
+ * Each record holds a cluster id and a counter position for it. Records are appended by a single
+ * writer thread, which writes everything queued since its last write at once and then syncs it to
+ * disk, so many appends share one sync. An append's future completes only once its record is on
+ * disk.
+ * <p>
+ * Records carry a checksum. A record torn by a crash partway through a write is cut off when the
+ * journal is opened again, which is safe because its future never completed. A bad record with
+ * whole records after it was not torn by a crash, so the journal is refused as corrupt instead.
+ * <p>
+ * A failed write is rolled back, so the records after it are not written behind a torn one. If it
+ * cannot be rolled back, every later append fails until the journal is opened again.
+ * <p>
+ * {@link #compact()} replaces the journal with one record per cluster, so it does not grow without
+ * bound.
+ * <p>
+ * This implementation is thread safe.
+ */
+public class CounterJournal {
+
+  private static final int MAGIC = 0x53434a4c; // "SCJL"
+  private static final int FORMAT_VERSION = 1;
+  private static final int HEADER_SIZE = 8;
+  private static final int MAX_CLUSTER_ID_LENGTH = 0xffff;
+
+  private final File file;
+  private FileChannel channel;
+
+  private final Map<String, Long> counters; // <cluster, highest position recorded>
+  private final BlockingQueue<Append> queue;
+  private final Object queueLock;
+  private volatile boolean alive; // guarded by queueLock for writes
+  private volatile boolean broken;
+
+  private final AtomicLong appends;
+  private final AtomicLong syncs;
+  private long records;
+
+  /**
+   * Class constructor. Opens the journal, creating it if it does not exist, and reads the counters
+   * recorded in it.
+   * 
+   * @param file The file to keep the journal in.
+   * @throws IllegalArgumentException on a <code>null</code> file.
+   * @throws IOException if the journal could not be opened, is not a journal, or is corrupt.
+   */
+  public CounterJournal(File file) throws IllegalArgumentException, IOException {
+    if (file == null) {
+      throw new IllegalArgumentException("file cannot be null");
+    }
+    this.file = file;
+    this.counters = new HashMap<String, Long>();
+    this.queue = new LinkedBlockingQueue<Append>();
+    this.queueLock = new Object();
+    this.appends = new AtomicLong();
+    this.syncs = new AtomicLong();
+
+    File dir = file.getAbsoluteFile().getParentFile();
+    if (dir != null) {
+      dir.mkdirs();
+    }
+    channel =
+        FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    try {
+      replay();
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+
+    startWriting();
+  }
+
+  /**
+   * Stops writing to the journal and closes it. Appends still queued are written first.
+   * <p>
+   * Irreversible.
+   */
+  public void destroy() {
+    synchronized (queueLock) {
+      alive = false;
+      // wakes the writer up so it notices
+      queue.add(new Append(null, 0));
+    }
+  }
+
+  /**
+   * Gets the highest counter position recorded for each cluster.
+   * 
+   * @return A copy of the recorded counters. Includes those appended but not yet synced to disk.
+   */
+  public synchronized Map<String, Long> getCounters() {
+    return new HashMap<String, Long>(counters);
+  }
+
+  /**
+   * Records a counter position for a cluster.
+   * 
+   * @param clusterId The cluster the counter is for.
+   * @param counter The counter position to record.
+   * @return A future that completes with <code>true</code> once the record is on disk, or with
+   *         <code>false</code> if it could not be written, including when the journal is destroyed
+   *         or broken.
+   * @throws IllegalArgumentException on a <code>null</code>, empty, or overly long cluster id.
+   */
+  public ListenableFuture<Boolean> append(String clusterId, long counter)
+      throws IllegalArgumentException {
+    if (clusterId == null || clusterId.isEmpty()) {
+      throw new IllegalArgumentException("cluster id cannot be null or empty");
+    }
+    if (clusterId.getBytes(Encoding.CHARSET).length > MAX_CLUSTER_ID_LENGTH) {
+      throw new IllegalArgumentException("cluster id is too long");
+    }
+    Append ret = new Append(clusterId, counter);
+    synchronized (queueLock) {
+      // the writer only stops once the queue is empty after being destroyed, so anything queued
+      // here is always completed
+      if (alive && !broken) {
+        queue.add(ret);
+        return ret.written;
+      }
+    }
+    ret.written.set(false);
+    return ret.written;
+  }
+
+  /**
+   * Replaces the journal with one holding a single record for each cluster's highest counter.
+   * <p>
+   * The replacement is written and synced to a temporary file before it takes the journal's place,
+   * so a crash partway through leaves the old journal intact.
+   * 
+   * @throws IOException if the journal could not be compacted. The old journal is kept in use.
+   */
+  public synchronized void compact() throws IOException {
+    File temp = new File(file.getPath() + ".tmp");
+    FileChannel replacement =
+        FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    try {
+      List<byte[]> snapshot = new ArrayList<byte[]>();
+      for (Map.Entry<String, Long> entry : counters.entrySet()) {
+        snapshot.add(encode(entry.getKey(), entry.getValue()));
+      }
+      writeHeader(replacement);
+      write(replacement, snapshot);
+      replacement.force(true);
+      Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException e) {
+      replacement.close();
+      temp.delete();
+      throw e;
+    }
+
+    channel.close();
+    channel = replacement;
+    records = counters.size();
+  }
+
+  /**
+   * Gets the number of records written since the journal was opened.
+   * 
+   * @return The total records appended.
+   */
+  public long getAppendCount() {
+    return appends.get();
+  }
+
+  /**
+   * Gets the number of times the journal was synced to disk since it was opened. Lower than the
+   * number of appends when appends share syncs.
+   * 
+   * @return The total syncs.
+   */
+  public long getSyncCount() {
+    return syncs.get();
+  }
+
+  /**
+   * Gets the number of records in the journal, which compacting brings down to one per cluster.
+   * 
+   * @return The records in the journal.
+   */
+  public synchronized long getRecordCount() {
+    return records;
+  }
+
+  /**
+   * Reads the journal from the start, keeping each cluster's highest counter, and cuts off anything
+   * after the last whole record.
+   * 
+   * @throws IOException if the journal is not a journal, or has whole records after a bad one.
+   */
+  private void replay() throws IOException {
+    long size = channel.size();
+    if (size == 0) {
+      writeHeader(channel);
+      channel.force(true);
+      return;
+    }
+
+    ByteBuffer all = ByteBuffer.allocate((int) size);
+    while (all.hasRemaining() && channel.read(all, all.position()) >= 0) {
+      // reads the whole journal
+    }
+    all.flip();
+
+    if (all.remaining() < HEADER_SIZE || all.getInt() != MAGIC || all.getInt() != FORMAT_VERSION) {
+      throw new IOException("'" + file + "' is not a counter journal this version understands");
+    }
+
+    int good = all.position();
+    while (isRecord(all, good)) {
+      int length = all.getShort(good) & 0xffff;
+      byte[] name = new byte[length];
+      all.position(good + 2);
+      all.get(name);
+      long counter = all.getLong();
+
+      String clusterId = new String(name, Encoding.CHARSET);
+      Long before = counters.get(clusterId);
+      if (before == null || counter > before) {
+        counters.put(clusterId, counter);
+      }
+      records++;
+      good = all.position() + 4;
+    }
+
+    // a crash only tears the end of the last write, so a whole record past a bad one means
+    // something else damaged the journal, and counters it recorded may be lost
+    for (int i = good + 1; i < size; i++) {
+      if (isRecord(all, i)) {
+        throw new IOException("'" + file + "' is corrupt, it has a bad record at byte " + good
+            + " followed by whole records from byte " + i + ". It was left as it is.");
+      }
+    }
+
+    if (good < size) {
+      Log.warning("[ServerClusters] Cut off {} bytes of a partly written record at the end of the"
+          + " counter journal.", size - good);
+      channel.truncate(good);
+      channel.force(true);
+    }
+    channel.position(good);
+  }
+
+  /**
+   * Writes and syncs everything queued, until destroyed.
+   */
+  private void writeQueued() {
+    List<Append> batch = new ArrayList<Append>();
+    while (true) {
+      synchronized (queueLock) {
+        if (!alive && queue.isEmpty()) {
+          // nothing can be queued anymore
+          break;
+        }
+      }
+
+      batch.clear();
+      try {
+        batch.add(queue.take());
+      } catch (InterruptedException e) {
+        Log.warning("[ServerClusters] The counter journal writer was interrupted.", e);
+        synchronized (queueLock) {
+          alive = false;
+        }
+      }
+      queue.drainTo(batch);
+
+      List<byte[]> toWrite = new ArrayList<byte[]>(batch.size());
+      for (Append append : batch) {
+        if (append.clusterId != null) {
+          toWrite.add(append.record);
+        }
+      }
+      if (toWrite.isEmpty()) {
+        continue;
+      }
+
+      boolean written = false;
+      synchronized (this) {
+        long start = -1;
+        try {
+          if (broken) {
+            // queued before it broke, fails along with the rest
+            throw new IOException("the journal is broken by an earlier write");
+          }
+          start = channel.position();
+          write(channel, toWrite);
+          channel.force(false);
+          written = true;
+          for (Append append : batch) {
+            if (append.clusterId == null) {
+              continue;
+            }
+            Long before = counters.get(append.clusterId);
+            if (before == null || append.counter > before) {
+              counters.put(append.clusterId, append.counter);
+            }
+          }
+          records += toWrite.size();
+          appends.addAndGet(toWrite.size());
+          syncs.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+          if (!broken) {
+            Log.warning("[ServerClusters] Could not write to the counter journal at " + file, e);
+            rollBack(start);
+          }
+        }
+      }
+
+      for (Append append : batch) {
+        append.written.set(written);
+      }
+    }
+
+    synchronized (this) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        Log.warning("[ServerClusters] Could not close the counter journal at " + file, e);
+      }
+    }
+  }
+
+  /**
+   * Cuts off whatever part of a failed write made it into the journal. If that fails too, the end
+   * of the journal is unknown, so it is marked as broken and takes no more appends.
+   * 
+   * @param start Where the failed write started, or <code>-1</code> if that is not known.
+   */
+  private void rollBack(long start) {
+    try {
+      if (start < 0) {
+        throw new IOException("the position of the failed write is not known");
+      }
+      channel.truncate(start);
+      channel.position(start);
+    } catch (IOException | RuntimeException e) {
+      Log.severe("[ServerClusters] Could not roll back a failed write to the counter journal at "
+          + file + ". No more leases will be recorded in it until it is opened again.", e);
+      synchronized (queueLock) {
+        broken = true;
+      }
+    }
+  }
+
+  /**
+   * Starts writing queued appends to disk.
+   */
+  private void startWriting() {
+    alive = true;
+
+    Thread writer = new Thread() {
+      @Override
+      public void run() {
+        writeQueued();
+      }
+    };
+    writer.setName("ServerClusters counter journal");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  private static void writeHeader(FileChannel channel) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+    while (header.hasRemaining()) {
+      channel.write(header);
+    }
+  }
+
+  private static void write(FileChannel channel, List<byte[]> records) throws IOException {
+    int length = 0;
+    for (byte[] record : records) {
+      length += record.length;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    for (byte[] record : records) {
+      buffer.put(record);
+    }
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /**
+   * Gets whether a whole record with a matching checksum starts at a position in a buffer.
+   */
+  private static boolean isRecord(ByteBuffer buffer, int at) {
+    if (buffer.limit() - at < 2) {
+      return false;
+    }
+    int length = buffer.getShort(at) & 0xffff;
+    if (length == 0 || buffer.limit() - at - 2 < length + 12) {
+      return false;
+    }
+    CRC32 crc = new CRC32();
+    for (int i = at + 2; i < at + 2 + length + 8; i++) {
+      crc.update(buffer.get(i));
+    }
+    return (int) crc.getValue() == buffer.getInt(at + 2 + length + 8);
+  }
+
+  private static byte[] encode(String clusterId, long counter) {
+    byte[] name = clusterId.getBytes(Encoding.CHARSET);
+    CRC32 crc = new CRC32();
+    crc.update(name);
+    crc.update(ByteBuffer.allocate(8).putLong(0, counter).array());
+
+    ByteBuffer record = ByteBuffer.allocate(name.length + 14);
+    record.putShort((short) name.length).put(name).putLong(counter).putInt((int) crc.getValue());
+    return record.array();
+  }
+
+  /**
+   * A record waiting to be written.
+   */
+  private static class Append {
+
+    private final String clusterId;
+    private final long counter;
+    private final byte[] record;
+    private final SettableFuture<Boolean> written;
+
+    private Append(String clusterId, long counter) {
+      this.clusterId = clusterId;
+      this.counter = counter;
+      this.record = clusterId == null ? null : encode(clusterId, counter);
+      this.written = SettableFuture.create();
+    }
+  }
+
+}
@@ -1,10 +1,15 @@
 package io.brutus.minecraft.serverclusters.uid;
 
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 
+import io.brutus.minecraft.serverclusters.logging.Log;
 import io.brutus.minecraft.serverclusters.protocol.IdRequest;
 import io.brutus.minecraft.serverclusters.protocol.IdResponse;
 import io.brutus.networking.pubsubmessager.PubSubMessager;
@@ -12,18 +17,31 @@ import io.brutus.networking.pubsubmessager.Subscriber;
 
 /**
  * Provides unique ids for servers that request them.
+ * <p>
+ * Requesters resend their request until they get an answer. A request repeated while the first is
+ * still being answered is dropped, and one repeated shortly after it was answered gets the same id
+ * again, so resends do not use up ids.
  */
 public class IdProvider {
 
   private static final String CLUSTER_VAR = "%cluster%";
   private static final String COUNTER_VAR = "%counter%";
 
+  private static final long REPEAT_WINDOW = 60000;
+
   private PubSubMessager messager;
   private byte[] requestChannel;
   private byte[] responseChannel;
   private IdCounterConfiguration counterConfig;
   private RequestSubscriber sub;
 
+  private final ConcurrentMap<IdRequest, Answer> answers; // <request, the id it was given>
+  private volatile long lastSweep;
+
+  private final AtomicLong requests;
+  private final AtomicLong allocations;
+  private final AtomicLong repeats;
+
   public IdProvider(PubSubMessager messager, byte[] requestChannel, byte[] responseChannel,
       IdCounterConfiguration counterConfig) {
     if (messager == null || requestChannel == null || responseChannel == null
@@ -38,6 +56,11 @@ public class IdProvider {
     this.responseChannel = responseChannel;
     this.counterConfig = counterConfig;
     this.sub = new RequestSubscriber();
+    this.answers = new ConcurrentHashMap<IdRequest, Answer>();
+    this.lastSweep = System.currentTimeMillis();
+    this.requests = new AtomicLong();
+    this.allocations = new AtomicLong();
+    this.repeats = new AtomicLong();
 
     messager.subscribe(requestChannel, sub);
   }
@@ -51,6 +74,70 @@ public class IdProvider {
     messager.unsubscribe(requestChannel, sub);
   }
 
+  /**
+   * Gets the number of id requests this has received since it was created, including any that
+   * could not be answered.
+   * 
+   * @return The total id requests received.
+   */
+  public long getRequestCount() {
+    return requests.get();
+  }
+
+  /**
+   * Gets the number of unique ids this has allocated and sent out since it was created.
+   * 
+   * @return The total ids allocated.
+   */
+  public long getAllocationCount() {
+    return allocations.get();
+  }
+
+  /**
+   * Gets the number of repeated id requests this has received since it was created, which were
+   * dropped or answered with the id they were already given.
+   * 
+   * @return The total repeated requests received.
+   */
+  public long getRepeatCount() {
+    return repeats.get();
+  }
+
+  /**
+   * Forgets answers that are old enough that their requesters have stopped resending, and requests
+   * that have been pending for so long that their answer is not coming.
+   */
+  private void sweepAnswers() {
+    long now = System.currentTimeMillis();
+    if (now - lastSweep < REPEAT_WINDOW) {
+      return;
+    }
+    lastSweep = now;
+
+    Iterator<Answer> it = answers.values().iterator();
+    while (it.hasNext()) {
+      Answer answer = it.next();
+      if (now - answer.time > REPEAT_WINDOW) {
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * An id given in answer to a request, or a marker for a request that is still being answered if
+   * it has no id yet.
+   */
+  private static class Answer {
+
+    private final String id;
+    private final long time;
+
+    private Answer(String id) {
+      this.id = id;
+      this.time = System.currentTimeMillis();
+    }
+  }
+
   /**
    * Responds to incoming id requests.
    */
@@ -65,9 +152,20 @@ public class IdProvider {
         try {
           request = IdRequest.fromBytes(message);
         } catch (Exception ex) {
-          System.out
-              .println("[ServerClusters] Received a message on the id request channel, but it was not a correctly formatted id message");
-          ex.printStackTrace();
+          Log.warning("[ServerClusters] Received a message on the id request channel, but it was"
+              + " not a correctly formatted id message", ex);
+          return;
+        }
+        requests.incrementAndGet();
+        sweepAnswers();
+
+        final Answer pending = new Answer(null);
+        Answer previous = answers.putIfAbsent(request, pending);
+        if (previous != null) {
+          repeats.incrementAndGet();
+          if (previous.id != null) {
+            messager.publish(responseChannel, IdResponse.createMessage(previous.id, request));
+          }
           return;
         }
 
@@ -78,6 +176,7 @@ public class IdProvider {
             try {
               Long counter = callback.get();
               if (counter == null) {
+                answers.remove(request, pending);
                 return;
               }
 
@@ -86,10 +185,14 @@ public class IdProvider {
               id = id.replace(CLUSTER_VAR, request.getClusterId());
               id = id.replace(COUNTER_VAR, String.valueOf(counter));
 
+              answers.replace(request, pending, new Answer(id));
               byte[] response = IdResponse.createMessage(id, request);
               messager.publish(responseChannel, response);
+              allocations.incrementAndGet();
 
             } catch (Exception e) {
+              // lets a resend of the request try again
+              answers.remove(request, pending);
             }
           }
         }, MoreExecutors.sameThreadExecutor());
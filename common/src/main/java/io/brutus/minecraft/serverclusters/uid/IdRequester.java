@@ -1,7 +1,15 @@
 package io.brutus.minecraft.serverclusters.uid;
 
 import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import io.brutus.minecraft.serverclusters.logging.Log;
+import io.brutus.minecraft.serverclusters.messaging.RequestResender;
 import io.brutus.minecraft.serverclusters.notifications.AdminNotifier;
 import io.brutus.minecraft.serverclusters.protocol.IdRequest;
 import io.brutus.minecraft.serverclusters.protocol.IdResponse;
@@ -11,20 +19,21 @@ import io.brutus.networking.pubsubmessager.Subscriber;
 /**
  * Makes requests for unique server ids.
  * <p>
- * Hangs and continually retries until a response is received.
+ * A request is published as soon as it is made, and resent with exponential backoff until a
+ * response arrives, starting at a few hundred milliseconds. The coordinator answers repeats of a
+ * request it has just answered with the same id, so resending does not use up ids.
  */
 public class IdRequester implements Subscriber {
 
-  private static final long WAIT_INTERVAL = 100;
-  private static final long LOG_INTERVAL = 15000;
-  private static final long RESEND_INTERVAL = 10000;
-  private static final int FAILS_TO_NOTIFY_ADMIN = 10;
+  private static final long FIRST_RESEND_DELAY = 250;
 
   /**
    * Gets a unique id for a server that is a member of a cluster.
    * <p>
    * Thread-safe, but waits to get a response from a remote server on whatever thread it is run on.
-   * Should not be used on any thread that cannot be delayed indefinitely.
+   * Should not be used on any thread that cannot be delayed indefinitely. To get an id without
+   * blocking, use {@link #requestUniqueId(PubSubMessager, byte[], byte[], String, String, int,
+   * AdminNotifier)}.
    * <p>
    * Making multiple requests for the same cluster-ip-port combination may cause strange behavior.
    * 
@@ -44,8 +53,65 @@ public class IdRequester implements Subscriber {
       byte[] responseChannel, String clusterId, String requesterIp, int requesterPort,
       AdminNotifier notifier) throws IllegalArgumentException {
 
-    return new IdRequester(messager, requestChannel, responseChannel, clusterId, requesterIp,
-        requesterPort, notifier).get();
+    String ret = null;
+    try {
+      ret =
+          requestUniqueId(messager, requestChannel, responseChannel, clusterId, requesterIp,
+              requesterPort, notifier).get();
+    } catch (InterruptedException e) {
+      Log.warning("[ServerClusters] thread was interrupted while waiting for a unique server id",
+          e);
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | CancellationException e) {
+      Log.warning("[ServerClusters] Failed to get a unique id.", e);
+    }
+
+    if (ret == null) {
+      Log.severe("[ServerClusters] Could not get a unique server id.");
+    }
+    return ret;
+  }
+
+  /**
+   * Starts getting a unique id for a server that is a member of a cluster, without waiting for it.
+   * <p>
+   * Keeps resending the request in the background until a response arrives.
+   * <p>
+   * Making multiple requests for the same cluster-ip-port combination may cause strange behavior.
+   * 
+   * @param messager The pub/sub messager to make the request on.
+   * @param requestChannel The channel to publish the request on.
+   * @param responseChannel The channel to listen for a response on.
+   * @param clusterId The id of the cluster the server that is being identified is part of.
+   * @param ip The ip of the server that is being identified.
+   * @param port The port of the server that is being identified.
+   * @param notifier The admin notifier to use in case the request goes unanswered for a long time.
+   *        Can be <code>null</code> not to attempt to notify admins in case of a continuously
+   *        unfulfilled request.
+   * @return A future that completes with a unique id for the server to use once it arrives.
+   *         Completes with <code>null</code> if the request was aborted.
+   * @throws IllegalArgumentException On a <code>null</code> parameter or an empty string/array.
+   */
+  public static ListenableFuture<String> requestUniqueId(PubSubMessager messager,
+      byte[] requestChannel, byte[] responseChannel, String clusterId, String requesterIp,
+      int requesterPort, AdminNotifier notifier) throws IllegalArgumentException {
+
+    final IdRequester requester =
+        new IdRequester(messager, requestChannel, responseChannel, clusterId, requesterIp,
+            requesterPort, notifier);
+
+    Log.info("[ServerClusters] Requesting unique server id...");
+
+    Thread resender = new Thread() {
+      @Override
+      public void run() {
+        requester.resendUntilAnswered();
+      }
+    };
+    resender.setDaemon(true);
+    resender.start();
+
+    return requester.result;
   }
 
   private final PubSubMessager messager;
@@ -58,7 +124,8 @@ public class IdRequester implements Subscriber {
 
   private final AdminNotifier notifier;
 
-  private volatile String result;
+  private final SettableFuture<String> result;
+  private final long requested;
 
   private IdRequester(PubSubMessager messager, byte[] requestChannel, byte[] responseChannel,
       String clusterId, String requesterIp, int requesterPort, AdminNotifier notifier)
@@ -83,74 +150,43 @@ public class IdRequester implements Subscriber {
 
     this.notifier = notifier;
 
+    this.result = SettableFuture.create();
+    this.requested = System.nanoTime();
+
     messager.subscribe(responseChannel, this);
   }
 
-  private String get() {
-
-    System.out.println("[ServerClusters] Requesting unique server id...");
-    try {
-
-      long timeSinceRequest = Long.MAX_VALUE;
-      long timeSinceLog = 0;
-      int tries = 0;
-
-      while (result == null) {
-
-        if (timeSinceRequest >= RESEND_INTERVAL) {
-          // time to publish a request
-          timeSinceRequest = 0;
-          tries++;
-
-          if (!messager.publish(requestChannel, IdRequest.createMessage(clusterId, ip, port)).get()) {
-            // publishing obviously failed
-            System.out.println("[ServerClusters] failed to publish an id-request message.");
+  /**
+   * Publishes id requests until one is answered, waiting twice as long for a response each time,
+   * up to a limit.
+   */
+  private void resendUntilAnswered() {
+    RequestResender resender =
+        new RequestResender(messager, requestChannel, FIRST_RESEND_DELAY, "a unique server id",
+            "an id-request") {
+          @Override
+          protected byte[] createRequest() {
+            return IdRequest.createMessage(clusterId, ip, port);
           }
-        }
-
-        if (timeSinceLog >= LOG_INTERVAL) {
-          System.out.println("[ServerClusters] Still waiting for a unique server id...");
-          timeSinceLog = 0;
-        }
-
-        try {
-          Thread.sleep(WAIT_INTERVAL);
-          timeSinceRequest += WAIT_INTERVAL;
-          timeSinceLog += WAIT_INTERVAL;
-        } catch (InterruptedException e) {
-          System.out
-              .println("[ServerClusters] thread was interrupted while waiting for a unique server id");
-          e.printStackTrace();
-          return null;
-        }
-
-        // attempts to send a notification to admins if the request keeps failing
-        if (notifier != null && result == null && tries == FAILS_TO_NOTIFY_ADMIN) {
-          notifier
-              .sendNotification(
-                  "ServerClusters Coordinator Unresponsive (id request)",
-                  "The ServerClusters coordinator is failing to respond to a unique-id request from a server in the cluster '"
-                      + clusterId
-                      + "' on the host "
-                      + ip
-                      + ":"
-                      + port
-                      + ". The coordinator, the message broker, or the network path between them and this server may be down or malfunctioning.");
-        }
-      }
-
-    } catch (Exception e) {
-      System.out.println("[ServerClusters] Failed to get a unique id.");
-      e.printStackTrace();
-    }
-
-    if (result != null) {
-      System.out.println("[ServerClusters] Unique server id '" + result + "' obtained.");
-    } else {
-      System.out.println("[ServerClusters] Could not get a unique server id.");
+        };
+
+    boolean answered =
+        resender
+            .resendUntilAnswered(
+                result,
+                notifier,
+                "ServerClusters Coordinator Unresponsive (id request)",
+                "The ServerClusters coordinator is failing to respond to a unique-id request from a server in the cluster '"
+                    + clusterId
+                    + "' on the host "
+                    + ip
+                    + ":"
+                    + port
+                    + ". The coordinator, the message broker, or the network path between them and this server may be down or malfunctioning.");
+    if (!answered) {
+      messager.unsubscribe(responseChannel, this);
+      result.set(null);
     }
-
-    return result;
   }
 
   @Override
@@ -159,20 +195,22 @@ public class IdRequester implements Subscriber {
       try {
         IdResponse ir = IdResponse.fromBytes(message);
 
-        // if the response is to this object's specific request, preps the result for being returned
-        // and stops listening for any more responses.
+        // if the response is to this object's specific request, returns the result and stops
+        // listening for any more responses.
         if (ir.getClusterId().equals(clusterId) && ir.getRequestingIp().equals(ip)
             && ir.getRequestingPort() == port) {
 
-          result = ir.getUniqueServerId();
-
           messager.unsubscribe(responseChannel, this);
 
+          if (result.set(ir.getUniqueServerId())) {
+            Log.info("[ServerClusters] Unique server id '{}' obtained in {} ms.",
+                ir.getUniqueServerId(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - requested));
+          }
         }
       } catch (Exception e) {
-        System.out
-            .println("[ServerClusters] Received a message on the id response channel, but it was not a correctly formatted id message");
-        e.printStackTrace();
+        Log.warning("[ServerClusters] Received a message on the id response channel, but it was"
+            + " not a correctly formatted id message", e);
       }
     }
   }
@@ -1,39 +1,110 @@
 package io.brutus.minecraft.serverclusters.coordinator.bukkit;
 
+import io.brutus.minecraft.serverclusters.uid.CounterJournal;
 import io.brutus.minecraft.serverclusters.uid.IdCounterConfiguration;
 import io.brutus.minecraft.simpleconfig.Configuration;
 import io.brutus.minecraft.simpleconfig.YamlConfigAccessor;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
 
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 
 /**
  * Bukkit config for unique server id counters and id formats.
+ * <p>
+ * Counters are leased in blocks. Only the end of each cluster's current lease is stored, so it only
+ * has to be saved once per block. Counters left in a lease when the coordinator stops are skipped,
+ * never reused.
+ * <p>
+ * Lease ends are appended to a journal next to the config file, rather than rewriting the whole
+ * file each time. The journal syncs leases taken at about the same time together, off the main
+ * thread, and ids from a new lease are only given out once it is on disk. Every few minutes, and
+ * when disabled, the counters are written back to the config file and the journal is compacted.
+ * If the journal cannot be opened, the config file is saved for every lease instead.
+ * <p>
+ * Counters are given out on whatever thread asks for them, without waiting for the main thread.
+ * Only taking a new lease goes through a dedicated allocation thread, which keeps leases in order.
+ * The next lease is taken once half of the current one is given out, so counters rarely have to
+ * wait for a lease to reach the disk.
+ * <p>
+ * Reloading only picks up the id format and lease size. Counters are only read when the
+ * coordinator starts, since leases being given out would otherwise be replaced from under the
+ * requests using them.
  */
 public class BukkitCounterConfiguration extends Configuration implements IdCounterConfiguration {
 
   private static final String SUBDIRECTORY = "";
   private static final String FILE_NAME = "id-allocation.yml";
+  private static final String JOURNAL_FILE_NAME = "id-allocation.journal";
   private static final String COUNTERS_SECTION = "counters";
+  private static final int DEFAULT_LEASE_SIZE = 100;
+  private static final long COMPACT_INTERVAL = 20 * 60 * 5; // ticks
 
   private JavaPlugin plugin;
+  private CounterJournal journal;
+  private BukkitTask compacter;
+  private final ExecutorService allocator;
 
-  private String format;
-  private Map<String, AtomicLong> counters;
+  private volatile String format;
+  private volatile int leaseSize;
+  private final ConcurrentMap<String, AtomicLong> counters;
+  private final ConcurrentMap<String, Lease> leases; // <cluster, the block being given out>
 
   public BukkitCounterConfiguration(JavaPlugin plugin) {
     super(new YamlConfigAccessor(plugin, FILE_NAME, SUBDIRECTORY));
     this.plugin = plugin;
+    this.counters = new ConcurrentHashMap<String, AtomicLong>();
+    this.leases = new ConcurrentHashMap<String, Lease>();
+    this.allocator = Executors.newSingleThreadExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread t = new Thread(r, "ServerClusters id allocator");
+        t.setDaemon(true);
+        return t;
+      }
+    });
+
+    try {
+      journal = new CounterJournal(new File(plugin.getDataFolder(), JOURNAL_FILE_NAME));
+    } catch (IOException e) {
+      plugin.getLogger().severe(
+          "Could not open the id counter journal, saving " + FILE_NAME
+              + " for every lease instead: " + e.getMessage());
+    }
 
-    load();
+    loadSettings();
+    loadCounters();
+
+    if (journal != null) {
+      Runnable compaction = new Runnable() {
+        @Override
+        public void run() {
+          compact();
+        }
+      };
+      compacter =
+          plugin.getServer().getScheduler()
+              .runTaskTimerAsynchronously(plugin, compaction, COMPACT_INTERVAL, COMPACT_INTERVAL);
+    }
   }
 
   @Override
@@ -45,57 +116,244 @@ public class BukkitCounterConfiguration extends Configuration implements IdCount
   public ListenableFuture<Long> getCounter(final String clusterId) {
     final SettableFuture<Long> callback = SettableFuture.create();
 
-    plugin.getServer().getScheduler().runTask(plugin, new Runnable() {
+    AtomicLong counter = counters.get(clusterId);
+    if (counter == null) {
+      AtomicLong created = new AtomicLong();
+      counter = counters.putIfAbsent(clusterId, created);
+      if (counter == null) {
+        counter = created;
+      }
+    }
+    final long ret = counter.incrementAndGet();
+
+    final Lease lease = leases.get(clusterId);
+    if (lease != null && ret <= lease.end) {
+      // takes the next lease early, so it is on disk by the time this one runs out
+      if (ret > lease.end - leaseSize / 2 && lease.renewing.compareAndSet(false, true)) {
+        allocate(new Runnable() {
+          @Override
+          public void run() {
+            Lease current = leases.get(clusterId);
+            if (current == null || current.end <= lease.end) {
+              renew(clusterId, current, lease.end + leaseSize);
+            }
+          }
+        });
+      }
+      completeWhenPersisted(callback, clusterId, ret, lease);
+      return callback;
+    }
 
+    // the lease ran out, waits for the next one
+    boolean queued = allocate(new Runnable() {
       @Override
       public void run() {
-        AtomicLong counter = counters.get(clusterId);
-        long ret;
-        if (counter == null) {
-          counter = new AtomicLong(1);
-          counters.put(clusterId, counter);
-          ret = 1;
-        } else {
-          ret = counter.incrementAndGet();
+        Lease current = leases.get(clusterId);
+        if (current == null || ret > current.end) {
+          current = renew(clusterId, current, ret + leaseSize - 1);
+        } else if (ret > current.end - leaseSize / 2
+            && current.renewing.compareAndSet(false, true)) {
+          // another request took the next lease already, and this one is far enough into it
+          renew(clusterId, current, current.end + leaseSize);
         }
-
-        // first saves the new counter position to disk and does so from the main thread. running on
-        // the main thread should also ensure that the saves to disk are in the correct order.
-        getConfig().set(COUNTERS_SECTION + "." + clusterId, ret);
-        getAccessor().saveConfig();
-
-        callback.set(ret);
+        completeWhenPersisted(callback, clusterId, ret, current);
       }
     });
+    if (!queued) {
+      callback.set(null);
+    }
     return callback;
   }
 
   /**
-   * Reloads the configuration from disk.
+   * Reloads the id format and lease size from disk. Counters keep going from where they are.
    */
-  public void reload() {
+  public synchronized void reload() {
     refresh();
-    load();
+    loadSettings();
+  }
+
+  /**
+   * Writes the counters back to the config file and compacts the journal.
+   */
+  public synchronized void compact() {
+    if (journal == null) {
+      return;
+    }
+
+    Map<String, Long> recorded = journal.getCounters();
+    if (journal.getRecordCount() <= recorded.size()) {
+      // nothing new since the last compaction
+      return;
+    }
+    for (Map.Entry<String, Long> entry : recorded.entrySet()) {
+      getConfig().set(COUNTERS_SECTION + "." + entry.getKey(), entry.getValue());
+    }
+    getAccessor().saveConfig();
+
+    try {
+      journal.compact();
+    } catch (IOException e) {
+      plugin.getLogger().warning("Could not compact the id counter journal: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Stops recording counters, after writing them back to the config file.
+   * <p>
+   * Irreversible.
+   */
+  public void destroy() {
+    if (compacter != null) {
+      compacter.cancel();
+    }
+    allocator.shutdown();
+    try {
+      // lets leases being taken reach the journal
+      allocator.awaitTermination(1, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (journal != null) {
+      compact();
+      journal.destroy();
+    }
+  }
+
+  /**
+   * Runs a task on the allocation thread.
+   * 
+   * @return <code>false</code> if the task was not queued, because this was destroyed.
+   */
+  private boolean allocate(Runnable task) {
+    try {
+      allocator.execute(task);
+      return true;
+    } catch (RejectedExecutionException e) {
+      return false;
+    }
   }
 
-  private void load() {
+  /**
+   * Takes a new lease for a cluster. Must be run on the allocation thread.
+   */
+  private Lease renew(String clusterId, Lease current, long end) {
+    long durable = 0;
+    if (current != null) {
+      durable = isPersisted(current) ? current.end : current.durable;
+    }
+    Lease ret = new Lease(end, durable, persist(clusterId, end));
+    leases.put(clusterId, ret);
+    return ret;
+  }
+
+  /**
+   * Records the end of a new lease.
+   */
+  private ListenableFuture<Boolean> persist(String clusterId, long end) {
+    if (journal != null) {
+      return journal.append(clusterId, end);
+    }
+    synchronized (this) {
+      getConfig().set(COUNTERS_SECTION + "." + clusterId, end);
+      getAccessor().saveConfig();
+    }
+    return Futures.immediateFuture(true);
+  }
+
+  /**
+   * Gives out a counter once it is on disk, which it may already be from an earlier lease. If the
+   * lease could not be recorded, it is given up and the counter is not given out, so the next
+   * request takes a new lease.
+   */
+  private void completeWhenPersisted(final SettableFuture<Long> callback, final String clusterId,
+      final long counter, final Lease lease) {
+    if (counter <= lease.durable) {
+      callback.set(counter);
+      return;
+    }
+
+    lease.persisted.addListener(new Runnable() {
+      @Override
+      public void run() {
+        boolean persisted = false;
+        try {
+          persisted = lease.persisted.get();
+        } catch (Exception e) {
+          // treated as not persisted
+        }
+
+        if (persisted) {
+          callback.set(counter);
+        } else {
+          leases.remove(clusterId, lease);
+          callback.set(null);
+        }
+      }
+    }, MoreExecutors.sameThreadExecutor());
+  }
+
+  private void loadSettings() {
     FileConfiguration config = getConfig();
 
     format = config.getString("id-format");
+    // configs from before leasing existed get the default
+    leaseSize = Math.max(1, config.getInt("lease-size", DEFAULT_LEASE_SIZE));
+  }
 
-    counters = new ConcurrentHashMap<String, AtomicLong>();
-    ConfigurationSection countSec = config.getConfigurationSection(COUNTERS_SECTION);
+  private void loadCounters() {
+    ConfigurationSection countSec = getConfig().getConfigurationSection(COUNTERS_SECTION);
     if (countSec != null) {
       for (String cluster : countSec.getKeys(false)) {
         Long counter = countSec.getLong(cluster);
         if (counter != null) {
+          // the last lease may have been given out in full
           counters.put(cluster, new AtomicLong(counter));
+          leases.put(cluster, new Lease(counter, counter, Futures.immediateFuture(true)));
         } else {
           plugin.getLogger().warning(
               "A cluster id of '" + cluster + "' was found, but does not have a valid counter.");
         }
       }
     }
+
+    // leases taken since the config file was last written
+    if (journal != null) {
+      for (Map.Entry<String, Long> entry : journal.getCounters().entrySet()) {
+        Lease lease = leases.get(entry.getKey());
+        if (lease == null || entry.getValue() > lease.end) {
+          counters.put(entry.getKey(), new AtomicLong(entry.getValue()));
+          leases.put(entry.getKey(),
+              new Lease(entry.getValue(), entry.getValue(), Futures.immediateFuture(true)));
+        }
+      }
+    }
+  }
+
+  private static boolean isPersisted(Lease lease) {
+    try {
+      return lease.persisted.isDone() && lease.persisted.get();
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
+  /**
+   * A block of counters that can be given out once it is on disk.
+   */
+  private static class Lease {
+
+    private final long end;
+    private final long durable; // counters up to here were on disk before this lease was taken
+    private final ListenableFuture<Boolean> persisted;
+    private final AtomicBoolean renewing;
+
+    private Lease(long end, long durable, ListenableFuture<Boolean> persisted) {
+      this.end = end;
+      this.durable = durable;
+      this.persisted = persisted;
+      this.renewing = new AtomicBoolean();
+    }
   }
 
 }
@@ -1,10 +1,14 @@
 package io.brutus.minecraft.serverclusters.coordinator.bukkit;
 
+import java.io.IOException;
+
 import io.brutus.minecraft.pubsub.PubSub;
 import io.brutus.minecraft.serverclusters.config.LocalConfiguration;
 import io.brutus.minecraft.serverclusters.config.SharedConfiguration;
 import io.brutus.minecraft.serverclusters.config.SharedConfigurationLoader;
 import io.brutus.minecraft.serverclusters.config.SharedConfigurationProvider;
+import io.brutus.minecraft.serverclusters.coordinator.metrics.MetricsServer;
+import io.brutus.minecraft.serverclusters.logging.Log;
 import io.brutus.minecraft.serverclusters.networkstatus.HeartbeatSubscription;
 import io.brutus.minecraft.serverclusters.networkstatus.NetworkCache;
 import io.brutus.minecraft.serverclusters.networkstatus.NetworkStatus;
@@ -30,14 +34,18 @@ public class BukkitMain extends JavaPlugin {
 
   private SharedConfigurationProvider configProvider;
   private IdProvider idProvider;
+  private BukkitCounterConfiguration counterConfig;
   private AdminNotifier adminNotifier;
   private GameserverCrashNotifier crashNotifier;
 
   private HeartbeatSubscription heartbeats;
   private NetworkStatus networkStatus;
 
+  private MetricsServer metricsServer;
+
   @Override
   public void onEnable() {
+    Log.start(getLogger());
 
     this.localConfig = new BukkitLocalConfiguration(this);
     this.sharedConfig = new BukkitSharedConfiguration(this);
@@ -47,9 +55,10 @@ public class BukkitMain extends JavaPlugin {
 
     this.configProvider = new SharedConfigurationProvider(messager, localConfig, sharedConfig);
     this.configProvider.publishConfiguration();
+    this.counterConfig = new BukkitCounterConfiguration(this);
     this.idProvider =
         new IdProvider(messager, sConfig.getIdRequestChannel(), sConfig.getIdResponseChannel(),
-            new BukkitCounterConfiguration(this));
+            counterConfig);
     this.adminNotifier =
         new AdminNotifier(getDataFolder(), new BukkitCrashNotifierConfiguration(this));
     crashNotifier = new GameserverCrashNotifier(adminNotifier);
@@ -63,6 +72,18 @@ public class BukkitMain extends JavaPlugin {
     // lets the crash notifier listen to the network-status cache for servers becoming unresponsive
     networkStatus.registerListener(crashNotifier);
 
+    BukkitMetricsConfiguration metricsConfig = new BukkitMetricsConfiguration(this);
+    if (metricsConfig.isEnabled()) {
+      try {
+        metricsServer =
+            new MetricsServer(metricsConfig, (NetworkCache) networkStatus, idProvider,
+                configProvider);
+        getLogger().info("serving metrics on " + metricsServer.getAddress() + ".");
+      } catch (IOException | IllegalArgumentException e) {
+        getLogger().severe("could not start the metrics endpoint: " + e.getMessage());
+      }
+    }
+
     getCommand("networkstatus").setExecutor(this);
     getCommand("serverclustersconfig").setExecutor(this);
 
@@ -71,16 +92,26 @@ public class BukkitMain extends JavaPlugin {
 
   @Override
   public void onDisable() {
+    if (metricsServer != null) {
+      metricsServer.destroy();
+    }
     if (configProvider != null) {
       configProvider.destroy();
     }
     if (idProvider != null) {
       idProvider.destroy();
     }
+    if (counterConfig != null) {
+      counterConfig.destroy();
+    }
     if (heartbeats != null) {
       heartbeats.destroy();
     }
+    if (networkStatus != null) {
+      ((NetworkCache) networkStatus).destroy();
+    }
     getLogger().info("has been disabled.");
+    Log.stop();
   }
 
   @Override
@@ -100,6 +131,7 @@ public class BukkitMain extends JavaPlugin {
 
       sharedConfig.reload();
       configProvider.publishConfiguration();
+      ((NetworkCache) networkStatus).onConfigurationChange(sharedConfig.getConfigurationMessage());
       sender.sendMessage(ChatColor.GREEN + "Config reloaded.");
     }
     return true;
@@ -0,0 +1,55 @@
+package io.brutus.minecraft.serverclusters.coordinator.bukkit;
+
+import io.brutus.minecraft.serverclusters.coordinator.metrics.MetricsConfiguration;
+import io.brutus.minecraft.simpleconfig.Configuration;
+import io.brutus.minecraft.simpleconfig.YamlConfigAccessor;
+
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * Bukkit configuration for the metrics endpoint.
+ */
+public class BukkitMetricsConfiguration extends Configuration implements MetricsConfiguration {
+
+  private static final String SUBDIRECTORY = "";
+  private static final String FILE_NAME = "metrics.yml";
+
+  private boolean enabled;
+  private String bindAddress;
+  private int port;
+
+  public BukkitMetricsConfiguration(JavaPlugin plugin) {
+    super(new YamlConfigAccessor(plugin, FILE_NAME, SUBDIRECTORY));
+    load();
+  }
+
+  public void reload() {
+    refresh();
+    load();
+  }
+
+  private void load() {
+    FileConfiguration config = getConfig();
+
+    enabled = config.getBoolean("enabled");
+    bindAddress = config.getString("bind-address", "127.0.0.1");
+    port = config.getInt("port", 9225);
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public String getBindAddress() {
+    return bindAddress;
+  }
+
+  @Override
+  public int getPort() {
+    return port;
+  }
+
+}
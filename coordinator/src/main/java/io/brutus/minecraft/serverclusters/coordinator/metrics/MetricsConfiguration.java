@@ -0,0 +1,31 @@
+package io.brutus.minecraft.serverclusters.coordinator.metrics;
+
+/**
+ * Configuration for the HTTP endpoint that monitoring systems scrape the coordinator's metrics
+ * from.
+ */
+public interface MetricsConfiguration {
+
+  /**
+   * Gets whether the metrics endpoint should be served at all.
+   * 
+   * @return <code>true</code> to serve metrics over HTTP.
+   */
+  boolean isEnabled();
+
+  /**
+   * Gets the local address to listen for scrapes on.
+   * 
+   * @return The host name or IP address to bind to. <code>0.0.0.0</code> listens on every
+   *         interface.
+   */
+  String getBindAddress();
+
+  /**
+   * Gets the port to listen for scrapes on.
+   * 
+   * @return The port to bind to.
+   */
+  int getPort();
+
+}
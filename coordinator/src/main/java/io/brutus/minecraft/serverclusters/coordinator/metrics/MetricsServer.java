@@ -0,0 +1,241 @@
+package io.brutus.minecraft.serverclusters.coordinator.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import io.brutus.minecraft.serverclusters.config.SharedConfigurationProvider;
+import io.brutus.minecraft.serverclusters.networkstatus.ClusterCapacity;
+import io.brutus.minecraft.serverclusters.networkstatus.NetworkCache;
+import io.brutus.minecraft.serverclusters.protocol.serialization.Encoding;
+import io.brutus.minecraft.serverclusters.uid.IdProvider;
+
+/**
+ * Serves the coordinator's view of the network over HTTP, in the Prometheus text format, at
+ * <code>/metrics</code>.
+ * <p>
+ * Capacity is reported per cluster as gauges. Heartbeats, timeouts, id allocations and
+ * configuration requests are reported as counters since the coordinator started, so monitoring
+ * systems can take their rate over whatever window they need, such as
+ * <code>rate(serverclusters_ids_allocated_total[1m])</code>.
+ * <p>
+ * Every value is read fresh on each scrape; nothing is cached between scrapes. Capacity includes
+ * servers that stopped sending heartbeats until the network cache's next sweep removes them.
+ */
+public class MetricsServer {
+
+  private static final String PATH = "/metrics";
+  private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private final NetworkCache networkCache;
+  private final IdProvider idProvider;
+  private final SharedConfigurationProvider configProvider;
+
+  private final HttpServer server;
+
+  /**
+   * Class constructor. Starts serving metrics immediately.
+   * 
+   * @param config The configuration for where to serve metrics.
+   * @param networkCache The coordinator's cache of the network's status.
+   * @param idProvider The coordinator's provider of unique server ids.
+   * @param configProvider The coordinator's provider of the shared configuration.
+   * @throws IllegalArgumentException on a <code>null</code> parameter or an invalid port.
+   * @throws IOException on failing to bind to the configured address and port.
+   */
+  public MetricsServer(MetricsConfiguration config, NetworkCache networkCache,
+      IdProvider idProvider, SharedConfigurationProvider configProvider)
+      throws IllegalArgumentException, IOException {
+    if (config == null || networkCache == null || idProvider == null || configProvider == null) {
+      throw new IllegalArgumentException("params cannot be null");
+    }
+    if (config.getPort() < 1 || config.getPort() > 65535) {
+      throw new IllegalArgumentException("port must be from 1 to 65535");
+    }
+
+    this.networkCache = networkCache;
+    this.idProvider = idProvider;
+    this.configProvider = configProvider;
+
+    server = HttpServer.create(new InetSocketAddress(config.getBindAddress(), config.getPort()), 0);
+    server.createContext(PATH, new MetricsHandler());
+    // scrapes are infrequent and cheap, so the server's own dispatcher thread handles them
+    server.setExecutor(null);
+    server.start();
+  }
+
+  /**
+   * Gets the address this is serving metrics on.
+   * 
+   * @return The bound address.
+   */
+  public InetSocketAddress getAddress() {
+    return server.getAddress();
+  }
+
+  /**
+   * Stops serving metrics and closes the port.
+   * <p>
+   * Irreversible.
+   */
+  public void destroy() {
+    server.stop(0);
+  }
+
+  /**
+   * Gets the current metrics in the Prometheus text format.
+   * 
+   * @return The metrics, one sample per line.
+   */
+  public String getMetrics() {
+    StringBuilder sb = new StringBuilder();
+
+    List<ClusterCapacity> clusters = networkCache.getClusterCapacities();
+    int servers = 0;
+    for (ClusterCapacity cluster : clusters) {
+      servers += cluster.getServers();
+    }
+
+    header(sb, "serverclusters_servers", "gauge", "Servers known on the network, including ones"
+        + " that stopped sending heartbeats until the next sweep removes them.");
+    sample(sb, "serverclusters_servers", null, servers);
+
+    header(sb, "serverclusters_cluster_servers", "gauge", "Servers known in the cluster, including"
+        + " ones that stopped sending heartbeats until the next sweep removes them.");
+    for (ClusterCapacity cluster : clusters) {
+      sample(sb, "serverclusters_cluster_servers", cluster.getClusterId(), cluster.getServers());
+    }
+
+    header(sb, "serverclusters_cluster_open_slots", "gauge",
+        "Open slots across the known servers in the cluster.");
+    for (ClusterCapacity cluster : clusters) {
+      sample(sb, "serverclusters_cluster_open_slots", cluster.getClusterId(),
+          cluster.getOpenSlots());
+    }
+
+    header(sb, "serverclusters_cluster_max_open_slots", "gauge",
+        "Most open slots on any one known server in the cluster.");
+    for (ClusterCapacity cluster : clusters) {
+      sample(sb, "serverclusters_cluster_max_open_slots", cluster.getClusterId(),
+          cluster.getMaxOpenSlots());
+    }
+
+    header(sb, "serverclusters_cluster_players", "gauge",
+        "Players the known servers in the cluster reported having.");
+    for (ClusterCapacity cluster : clusters) {
+      sample(sb, "serverclusters_cluster_players", cluster.getClusterId(), cluster.getPlayers());
+    }
+
+    header(sb, "serverclusters_cluster_slots", "gauge",
+        "Known slots in the cluster, open or taken by a player.");
+    for (ClusterCapacity cluster : clusters) {
+      sample(sb, "serverclusters_cluster_slots", cluster.getClusterId(),
+          cluster.getOpenSlots() + cluster.getPlayers());
+    }
+
+    header(sb, "serverclusters_heartbeats_received_total", "counter",
+        "Heartbeats received from servers.");
+    sample(sb, "serverclusters_heartbeats_received_total", null,
+        networkCache.getHeartbeatsReceived());
+
+    header(sb, "serverclusters_servers_timed_out_total", "counter",
+        "Servers assumed to be down after they stopped sending heartbeats.");
+    sample(sb, "serverclusters_servers_timed_out_total", null, networkCache.getServersTimedOut());
+
+    header(sb, "serverclusters_servers_shut_down_total", "counter",
+        "Servers that announced they were shutting down.");
+    sample(sb, "serverclusters_servers_shut_down_total", null, networkCache.getServersShutDown());
+
+    header(sb, "serverclusters_id_requests_total", "counter", "Unique id requests received.");
+    sample(sb, "serverclusters_id_requests_total", null, idProvider.getRequestCount());
+
+    header(sb, "serverclusters_ids_allocated_total", "counter", "Unique ids allocated and sent.");
+    sample(sb, "serverclusters_ids_allocated_total", null, idProvider.getAllocationCount());
+
+    header(sb, "serverclusters_id_requests_repeated_total", "counter",
+        "Resent id requests, answered with the id already given or dropped while it was pending.");
+    sample(sb, "serverclusters_id_requests_repeated_total", null, idProvider.getRepeatCount());
+
+    header(sb, "serverclusters_config_requests_total", "counter",
+        "Shared configuration requests received.");
+    sample(sb, "serverclusters_config_requests_total", null, configProvider.getRequestCount());
+
+    header(sb, "serverclusters_config_publishes_total", "counter",
+        "Times the shared configuration was published.");
+    sample(sb, "serverclusters_config_publishes_total", null, configProvider.getPublishCount());
+
+    header(sb, "serverclusters_config_not_modified_total", "counter",
+        "Times requesters were told the configuration they had was current.");
+    sample(sb, "serverclusters_config_not_modified_total", null,
+        configProvider.getNotModifiedCount());
+
+    header(sb, "serverclusters_config_requests_collapsed_total", "counter",
+        "Configuration requests answered by a response published for another request.");
+    sample(sb, "serverclusters_config_requests_collapsed_total", null,
+        configProvider.getCollapsedCount());
+
+    return sb.toString();
+  }
+
+  private static void header(StringBuilder sb, String name, String type, String help) {
+    sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  private static void sample(StringBuilder sb, String name, String clusterId, long value) {
+    sb.append(name);
+    if (clusterId != null) {
+      sb.append("{cluster=\"");
+      for (int i = 0; i < clusterId.length(); i++) {
+        char c = clusterId.charAt(i);
+        if (c == '\\' || c == '"') {
+          sb.append('\\').append(c);
+        } else if (c == '\n') {
+          sb.append("\\n");
+        } else {
+          sb.append(c);
+        }
+      }
+      sb.append("\"}");
+    }
+    sb.append(' ').append(value).append('\n');
+  }
+
+  /**
+   * Answers scrapes with the current metrics.
+   */
+  private class MetricsHandler implements HttpHandler {
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+      try {
+        String method = exchange.getRequestMethod();
+        if (!method.equals("GET") && !method.equals("HEAD")) {
+          exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+          exchange.sendResponseHeaders(405, -1);
+          return;
+        }
+
+        byte[] body = getMetrics().getBytes(Encoding.CHARSET);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        if (method.equals("HEAD")) {
+          exchange.sendResponseHeaders(200, -1);
+          return;
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(body);
+        out.close();
+
+      } finally {
+        exchange.close();
+      }
+    }
+  }
+
+}
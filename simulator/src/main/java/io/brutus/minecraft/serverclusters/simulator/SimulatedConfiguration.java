@@ -0,0 +1,152 @@
+package io.brutus.minecraft.serverclusters.simulator;
+
+import io.brutus.minecraft.serverclusters.config.SharedConfigurationListener;
+import io.brutus.minecraft.serverclusters.gameserver.ServerClustersConfiguration;
+import io.brutus.minecraft.serverclusters.selection.ServerSelectionMode;
+
+/**
+ * The configuration of one simulated node, built from the settings of the whole simulation.
+ * <p>
+ * Every cluster uses the simulation's selection mode.
+ */
+class SimulatedConfiguration implements ServerClustersConfiguration {
+
+  static final byte[] ID_REQUEST_CHANNEL = "ServerClusters-IdRequests".getBytes();
+  static final byte[] ID_RESPONSE_CHANNEL = "ServerClusters-IdResponses".getBytes();
+  static final byte[] HEARTBEAT_CHANNEL = "ServerClusters-Heartbeats".getBytes();
+  static final byte[] SHUTDOWN_CHANNEL = "ServerClusters-Shutdowns".getBytes();
+  static final byte[] RESERVATION_REQUEST_CHANNEL = "ServerClusters-ReservationRequests"
+      .getBytes();
+  static final byte[] RESERVATION_RESPONSE_CHANNEL = "ServerClusters-ReservationResponses"
+      .getBytes();
+  static final byte[] CONFIGURATION_REQUEST_CHANNEL = "ServerClusters-ConfigurationRequests"
+      .getBytes();
+  static final byte[] CONFIGURATION_RESPONSE_CHANNEL = "ServerClusters-ConfigurationResponses"
+      .getBytes();
+
+  private final SimulationSettings settings;
+  private final String serverId;
+  private final String clusterId;
+
+  /**
+   * Class constructor.
+   * 
+   * @param settings The settings of the simulation.
+   * @param serverId The id of the node.
+   * @param clusterId The cluster of the node, or <code>null</code> if it is not a game server.
+   */
+  SimulatedConfiguration(SimulationSettings settings, String serverId, String clusterId) {
+    this.settings = settings;
+    this.serverId = serverId;
+    this.clusterId = clusterId;
+  }
+
+  @Override
+  public ServerSelectionMode getSelectionMode(String clusterId) {
+    return settings.getMode();
+  }
+
+  @Override
+  public byte[] getIdRequestChannel() {
+    return ID_REQUEST_CHANNEL.clone();
+  }
+
+  @Override
+  public byte[] getIdResponseChannel() {
+    return ID_RESPONSE_CHANNEL.clone();
+  }
+
+  @Override
+  public byte[] getHeartbeatChannel() {
+    return HEARTBEAT_CHANNEL.clone();
+  }
+
+  @Override
+  public byte[] getShutdownChannel() {
+    return SHUTDOWN_CHANNEL.clone();
+  }
+
+  @Override
+  public byte[] getReservationRequestChannel() {
+    return RESERVATION_REQUEST_CHANNEL.clone();
+  }
+
+  @Override
+  public byte[] getReservationResponseChannel() {
+    return RESERVATION_RESPONSE_CHANNEL.clone();
+  }
+
+  @Override
+  public long getMinHeartRate() {
+    return settings.getMinHeartRate();
+  }
+
+  @Override
+  public long getMaxHeartRate() {
+    return settings.getMaxHeartRate();
+  }
+
+  @Override
+  public long getServerTimeout() {
+    return settings.getServerTimeout();
+  }
+
+  @Override
+  public long getReservationResponseTimeout() {
+    return settings.getReservationResponseTimeout();
+  }
+
+  @Override
+  public long getReservationFulfillmentTimeout() {
+    return settings.getReservationFulfillmentTimeout();
+  }
+
+  @Override
+  public String getMessagerInstanceName() {
+    return "simulation";
+  }
+
+  @Override
+  public byte[] getConfigurationRequestChannel() {
+    return CONFIGURATION_REQUEST_CHANNEL.clone();
+  }
+
+  @Override
+  public byte[] getConfigurationResponseChannel() {
+    return CONFIGURATION_RESPONSE_CHANNEL.clone();
+  }
+
+  @Override
+  public String getServerId() {
+    return serverId;
+  }
+
+  @Override
+  public String getClusterId() {
+    return clusterId;
+  }
+
+  @Override
+  public int getTotalSlots() {
+    return settings.getSlotsPerServer();
+  }
+
+  @Override
+  public boolean strictReservations() {
+    return true;
+  }
+
+  @Override
+  public boolean attemptInstanceConsolidations() {
+    return false;
+  }
+
+  // the simulated configuration never changes during a run
+
+  @Override
+  public void registerListener(SharedConfigurationListener listener) {}
+
+  @Override
+  public void unregisterListener(SharedConfigurationListener listener) {}
+
+}
@@ -0,0 +1,82 @@
+package io.brutus.minecraft.serverclusters.simulator;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import io.brutus.minecraft.serverclusters.networkstatus.HeartbeatSubscription;
+import io.brutus.minecraft.serverclusters.networkstatus.NetworkCache;
+import io.brutus.minecraft.serverclusters.selection.ServerSelectionMode;
+import io.brutus.minecraft.serverclusters.sendplayer.PlayerRelocationClient;
+import io.brutus.minecraft.serverclusters.sendplayer.PlayerSender;
+import io.brutus.minecraft.serverclusters.sendplayer.RelocationResult;
+import io.brutus.networking.pubsubmessager.PubSubMessager;
+
+/**
+ * A proxy on the simulated network, which places logging-in players on game servers.
+ * <p>
+ * Runs the same network cache and relocation client as a real proxy.
+ */
+class SimulatedProxy {
+
+  private final HeartbeatSubscription heartbeats;
+  private final NetworkCache network;
+  private final PlayerRelocationClient relocationClient;
+
+  /**
+   * Class constructor.
+   * 
+   * @param settings The settings of the simulation.
+   * @param number The number of this proxy on the network, used for its id.
+   * @param messager The simulated network's messager.
+   * @param playerSender The simulated network's service for sending players to servers.
+   */
+  SimulatedProxy(SimulationSettings settings, int number, PubSubMessager messager,
+      PlayerSender playerSender) {
+    String proxyId = "proxy-" + number;
+    SimulatedConfiguration config = new SimulatedConfiguration(settings, proxyId, null);
+
+    this.heartbeats =
+        new HeartbeatSubscription(messager, config.getHeartbeatChannel(),
+            config.getShutdownChannel());
+    this.network = new NetworkCache(config.getServerTimeout(), null);
+    heartbeats.registerListener(network);
+
+    this.relocationClient =
+        new PlayerRelocationClient(proxyId, network, playerSender, messager, config);
+  }
+
+  /**
+   * Gets the number of servers this proxy knows of in a cluster.
+   * 
+   * @param clusterId The cluster.
+   * @return The number of known servers in the cluster.
+   */
+  int getClusterSize(String clusterId) {
+    return network.getClusterSize(clusterId);
+  }
+
+  /**
+   * Places a logging-in player on a server in a cluster.
+   * 
+   * @param clusterId The cluster to place the player in.
+   * @param mode The selection mode of the cluster.
+   * @param player The player.
+   * @return The future result of the placement.
+   */
+  ListenableFuture<RelocationResult> place(String clusterId, ServerSelectionMode mode,
+      UUID player) {
+    return relocationClient.sendPlayersToCluster(clusterId, mode, Collections.singleton(player));
+  }
+
+  /**
+   * Shuts this proxy down.
+   */
+  void destroy() {
+    heartbeats.destroy();
+    network.destroy();
+    relocationClient.destroy();
+  }
+
+}
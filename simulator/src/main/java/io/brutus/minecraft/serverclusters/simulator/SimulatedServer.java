@@ -0,0 +1,115 @@
+package io.brutus.minecraft.serverclusters.simulator;
+
+import java.util.UUID;
+
+import io.brutus.minecraft.serverclusters.gameserver.BeatingHeart;
+import io.brutus.minecraft.serverclusters.gameserver.PlayerRelocationServer;
+import io.brutus.minecraft.serverclusters.sendplayer.PlayerSender;
+import io.brutus.networking.pubsubmessager.PubSubMessager;
+
+/**
+ * A game server on the simulated network.
+ * <p>
+ * Runs the same heartbeat and reservation components as a real game server, against simulated
+ * slots and a simulated main thread.
+ */
+class SimulatedServer {
+
+  private final String serverId;
+  private final String clusterId;
+
+  private final SimulatedSlotManager slotManager;
+  private final SimulatedServerUtils serverUtils;
+  private final BeatingHeart beatingHeart;
+  private final PlayerRelocationServer relocationServer;
+
+  /**
+   * Class constructor. Starts the server's heart beating.
+   * 
+   * @param settings The settings of the simulation.
+   * @param number The number of this server on the network, used for its id and address.
+   * @param clusterId The cluster this server is part of.
+   * @param messager The simulated network's messager.
+   * @param playerSender The simulated network's service for sending players between servers.
+   */
+  SimulatedServer(SimulationSettings settings, int number, String clusterId,
+      PubSubMessager messager, PlayerSender playerSender) {
+    this.serverId = "server-" + number;
+    this.clusterId = clusterId;
+
+    SimulatedConfiguration config = new SimulatedConfiguration(settings, serverId, clusterId);
+    this.slotManager =
+        new SimulatedSlotManager(settings.getSlotsPerServer(),
+            settings.getReservationFulfillmentTimeout());
+    this.serverUtils =
+        new SimulatedServerUtils(serverId, "10.0." + (number / 250) + "." + (number % 250 + 1),
+            25565, playerSender);
+
+    this.beatingHeart = new BeatingHeart(config, messager, slotManager, serverUtils);
+    this.relocationServer =
+        new PlayerRelocationServer(serverId, messager, slotManager, serverUtils, config);
+  }
+
+  /**
+   * Gets this server's id.
+   * 
+   * @return The server id.
+   */
+  String getServerId() {
+    return serverId;
+  }
+
+  /**
+   * Gets the cluster this server is part of.
+   * 
+   * @return The cluster id.
+   */
+  String getClusterId() {
+    return clusterId;
+  }
+
+  /**
+   * Gets this server's slots.
+   * 
+   * @return The slot manager.
+   */
+  SimulatedSlotManager getSlots() {
+    return slotManager;
+  }
+
+  /**
+   * Lets a player onto this server if they have a reservation.
+   * 
+   * @param id The player's unique id.
+   * @param name The player's name.
+   * @return <code>true</code> if the player had a reservation and is now online.
+   */
+  boolean join(UUID id, String name) {
+    if (!slotManager.arrive(id)) {
+      return false;
+    }
+    serverUtils.addPlayer(id, name);
+    return true;
+  }
+
+  /**
+   * Takes a player off this server.
+   * 
+   * @param id The player's unique id.
+   */
+  void quit(UUID id) {
+    if (slotManager.leave(id)) {
+      serverUtils.removePlayer(id);
+    }
+  }
+
+  /**
+   * Shuts this server down.
+   */
+  void destroy() {
+    beatingHeart.destroy();
+    relocationServer.destroy();
+    serverUtils.destroy();
+  }
+
+}
@@ -0,0 +1,159 @@
+package io.brutus.minecraft.serverclusters.simulator;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Logger;
+
+import io.brutus.minecraft.serverclusters.gameserver.OnlinePlayerIndex;
+import io.brutus.minecraft.serverclusters.gameserver.ServerUtils;
+import io.brutus.minecraft.serverclusters.sendplayer.PlayerSender;
+
+/**
+ * Server utilities for a simulated game server.
+ * <p>
+ * Each simulated server has its own single "main" thread, which tasks are synced to just as they
+ * would be on a real server.
+ */
+class SimulatedServerUtils implements ServerUtils {
+
+  private final String ip;
+  private final int port;
+  private final Logger logger;
+  private final PlayerSender playerSender;
+
+  private final ExecutorService mainThread;
+  private final OnlinePlayerIndex index;
+  private final Set<UUID> online; // only accessed on the main thread
+
+  /**
+   * Class constructor.
+   * 
+   * @param serverId The id of the server, used to name its main thread and logger.
+   * @param ip The ip of the server.
+   * @param port The port of the server.
+   * @param playerSender The simulated network's service for sending players between servers.
+   */
+  SimulatedServerUtils(final String serverId, String ip, int port, PlayerSender playerSender) {
+    this.ip = ip;
+    this.port = port;
+    this.logger = Logger.getLogger(serverId);
+    this.playerSender = playerSender;
+
+    this.mainThread = Executors.newSingleThreadExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, serverId + "-main");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    this.index = new OnlinePlayerIndex();
+    this.online = new HashSet<UUID>();
+  }
+
+  @Override
+  public void sendPlayer(UUID playerId, String destinationServer) {
+    playerSender.sendPlayer(playerId, destinationServer);
+  }
+
+  @Override
+  public String getServerIp() {
+    return ip;
+  }
+
+  @Override
+  public int getServerPort() {
+    return port;
+  }
+
+  @Override
+  public Logger getLogger() {
+    return logger;
+  }
+
+  @Override
+  public boolean isPlayerOnline(UUID id) {
+    return index.contains(id);
+  }
+
+  @Override
+  public boolean isPlayerOnline(String name) {
+    return index.contains(name);
+  }
+
+  @Override
+  public OnlinePlayerIndex getOnlinePlayerIndex() {
+    return index;
+  }
+
+  @Override
+  public Set<UUID> getOnlinePlayerIds() {
+    return new HashSet<UUID>(online);
+  }
+
+  @Override
+  public void sendMessage(String message, Collection<UUID> targets) {}
+
+  @Override
+  public void sync(final Runnable task) throws IllegalStateException, IllegalArgumentException {
+    if (task == null) {
+      throw new IllegalArgumentException("task cannot be null");
+    }
+    mainThread.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          task.run();
+        } catch (Exception e) {
+          System.out.println("[ServerClusters] A task on a simulated main thread threw an "
+              + "exception:");
+          e.printStackTrace();
+        }
+      }
+    });
+  }
+
+  /**
+   * Adds a player who arrived on this server.
+   * 
+   * @param id The player's unique id.
+   * @param name The player's name.
+   */
+  void addPlayer(final UUID id, String name) {
+    index.add(id, name);
+    sync(new Runnable() {
+      @Override
+      public void run() {
+        online.add(id);
+      }
+    });
+  }
+
+  /**
+   * Removes a player who left this server.
+   * 
+   * @param id The player's unique id.
+   */
+  void removePlayer(final UUID id) {
+    index.remove(id);
+    sync(new Runnable() {
+      @Override
+      public void run() {
+        online.remove(id);
+      }
+    });
+  }
+
+  /**
+   * Stops this server's main thread.
+   */
+  void destroy() {
+    mainThread.shutdown();
+  }
+
+}
@@ -0,0 +1,181 @@
+package io.brutus.minecraft.serverclusters.simulator;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import io.brutus.minecraft.serverclusters.gameserver.SlotManager;
+
+/**
+ * The slots of a simulated game server.
+ * <p>
+ * Reservations work as they do on a real server with strict reservations: players can only arrive
+ * with an unexpired reservation, and reservations count against the open slots until they are
+ * used or expire. Expired reservations are released lazily whenever the slots are looked at.
+ * <p>
+ * This implementation is thread safe.
+ */
+class SimulatedSlotManager implements SlotManager {
+
+  private final long reservationTimeout;
+
+  private int totalSlots;
+  private final Map<UUID, Long> reservations; // <player, reservation deadline>
+  private final Set<UUID> online;
+
+  private int granted;
+  private int denied;
+  private int expired;
+
+  /**
+   * Class constructor.
+   * 
+   * @param totalSlots The total number of slots on the server.
+   * @param reservationTimeout How long a reservation is held for a player who has not arrived, in
+   *        milliseconds.
+   */
+  SimulatedSlotManager(int totalSlots, long reservationTimeout) {
+    this.totalSlots = totalSlots;
+    this.reservationTimeout = reservationTimeout;
+    this.reservations = new HashMap<UUID, Long>();
+    this.online = new HashSet<UUID>();
+  }
+
+  @Override
+  public synchronized ListenableFuture<Boolean> setTotalSlots(int totalSlots)
+      throws IllegalArgumentException {
+    if (totalSlots < 0) {
+      throw new IllegalArgumentException("total slots cannot be negative");
+    }
+    this.totalSlots = totalSlots;
+    SettableFuture<Boolean> ret = SettableFuture.create();
+    ret.set(true);
+    return ret;
+  }
+
+  @Override
+  public synchronized int getTotalSlots() {
+    return totalSlots;
+  }
+
+  @Override
+  public synchronized int getOpenSlots() {
+    expireReservations();
+    return Math.max(0, totalSlots - online.size() - reservations.size());
+  }
+
+  @Override
+  public synchronized boolean getReservation(Set<UUID> players) {
+    if (players == null || players.isEmpty()) {
+      throw new IllegalArgumentException("players cannot be null or empty");
+    }
+    if (getOpenSlots() < players.size()) {
+      denied++;
+      return false;
+    }
+    long deadline = System.currentTimeMillis() + reservationTimeout;
+    for (UUID player : players) {
+      reservations.put(player, deadline);
+    }
+    granted++;
+    return true;
+  }
+
+  @Override
+  public synchronized boolean transferReservation(Set<UUID> placeholders, Set<UUID> players) {
+    if (placeholders == null || placeholders.isEmpty() || players == null || players.isEmpty()) {
+      throw new IllegalArgumentException("placeholders and players cannot be null or empty");
+    }
+    expireReservations();
+    for (UUID placeholder : placeholders) {
+      reservations.remove(placeholder);
+    }
+    // players already on the server hold a slot of their own
+    Set<UUID> coming = new HashSet<UUID>(players);
+    coming.removeAll(online);
+    if (coming.isEmpty()) {
+      granted++;
+      return true;
+    }
+    return getReservation(coming);
+  }
+
+  /**
+   * Lets a player onto the server if they have a reservation.
+   * 
+   * @param player The arriving player.
+   * @return <code>true</code> if the player had an unexpired reservation and is now online.
+   */
+  synchronized boolean arrive(UUID player) {
+    expireReservations();
+    if (reservations.remove(player) == null) {
+      return false;
+    }
+    online.add(player);
+    return true;
+  }
+
+  /**
+   * Frees the slot of a player who left the server.
+   * 
+   * @param player The leaving player.
+   * @return <code>true</code> if the player was online.
+   */
+  synchronized boolean leave(UUID player) {
+    return online.remove(player);
+  }
+
+  /**
+   * Gets the number of players online.
+   * 
+   * @return The number of players online.
+   */
+  synchronized int getOnline() {
+    return online.size();
+  }
+
+  /**
+   * Gets the number of reservation requests this server approved.
+   * 
+   * @return The number of granted reservations.
+   */
+  synchronized int getGranted() {
+    return granted;
+  }
+
+  /**
+   * Gets the number of reservation requests this server denied for lack of slots.
+   * 
+   * @return The number of denied reservations.
+   */
+  synchronized int getDenied() {
+    return denied;
+  }
+
+  /**
+   * Gets the number of reserved slots that expired before their players arrived.
+   * 
+   * @return The number of expired reservations.
+   */
+  synchronized int getExpired() {
+    return expired;
+  }
+
+  private void expireReservations() {
+    long now = System.currentTimeMillis();
+    Iterator<Long> it = reservations.values().iterator();
+    while (it.hasNext()) {
+      if (it.next() < now) {
+        it.remove();
+        expired++;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,406 @@
+package io.brutus.minecraft.serverclusters.simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import io.brutus.minecraft.serverclusters.protocol.ReservationRequest;
+import io.brutus.minecraft.serverclusters.protocol.ReservationResponse;
+import io.brutus.minecraft.serverclusters.sendplayer.PlayerSender;
+import io.brutus.minecraft.serverclusters.sendplayer.RelocationResult;
+import io.brutus.minecraft.serverclusters.simulator.messaging.ChannelStats;
+import io.brutus.minecraft.serverclusters.simulator.messaging.InMemoryMessager;
+import io.brutus.networking.pubsubmessager.Subscriber;
+
+/**
+ * A whole ServerClusters network in one JVM: game servers, proxies, and the players moving
+ * between them.
+ * <p>
+ * Game servers run the real heartbeat and reservation components, and proxies run the real network
+ * cache and relocation client, all over an {@link InMemoryMessager}. Only slots, main threads and
+ * player connections are simulated. A {@link Trace} is replayed in real time: each login is placed
+ * by one of the proxies, and each quit frees a slot on whichever server the player ended up on.
+ * <p>
+ * A simulation can only be run once.
+ */
+public class Simulation {
+
+  private static final long MAX_DRAIN_TIME = 30000;
+  private static final long POLL_INTERVAL = 10;
+
+  private final SimulationSettings settings;
+  private final Trace trace;
+
+  private InMemoryMessager messager;
+  private ScheduledExecutorService scheduler;
+  private List<SimulatedServer> servers;
+  private Map<String, SimulatedServer> serversById;
+  private SimulatedProxy[] proxies;
+
+  private final Map<UUID, String> names;
+  private final Map<UUID, SimulatedServer> locations;
+  private final Set<UUID> placing;
+  private final Set<UUID> quitWhilePlacing;
+  private final List<Long> latencies;
+  private final Set<String> requestIds;
+  private final AtomicInteger inFlight;
+
+  private final SimulationReport report;
+  private boolean ran;
+
+  /**
+   * Class constructor.
+   * 
+   * @param settings The shape and timings of the network.
+   * @param trace The logins and quits to replay.
+   * @throws IllegalArgumentException on a <code>null</code> parameter or a trace with no logins.
+   */
+  public Simulation(SimulationSettings settings, Trace trace) throws IllegalArgumentException {
+    if (settings == null || trace == null) {
+      throw new IllegalArgumentException("params cannot be null");
+    }
+    if (trace.getClusterIds().isEmpty()) {
+      throw new IllegalArgumentException("trace must have at least one login");
+    }
+    this.settings = settings;
+    this.trace = trace;
+
+    this.names = new ConcurrentHashMap<UUID, String>();
+    this.locations = new ConcurrentHashMap<UUID, SimulatedServer>();
+    this.placing = Collections.newSetFromMap(new ConcurrentHashMap<UUID, Boolean>());
+    this.quitWhilePlacing = Collections.newSetFromMap(new ConcurrentHashMap<UUID, Boolean>());
+    this.latencies = Collections.synchronizedList(new ArrayList<Long>());
+    this.requestIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    this.inFlight = new AtomicInteger();
+
+    this.report = new SimulationReport();
+  }
+
+  /**
+   * Builds the network, replays the trace, waits for every placement to finish, and tears the
+   * network down.
+   * 
+   * @return The results of the run.
+   * @throws IllegalStateException if this simulation has already been run.
+   * @throws InterruptedException if interrupted while replaying the trace.
+   */
+  public synchronized SimulationReport run() throws IllegalStateException, InterruptedException {
+    if (ran) {
+      throw new IllegalStateException("a simulation can only be run once");
+    }
+    ran = true;
+
+    try {
+      start();
+      awaitDiscovery();
+      replay();
+      return finish();
+    } finally {
+      stop();
+    }
+  }
+
+  private void start() {
+    messager = new InMemoryMessager(settings.getDeliveryProfile());
+    messager.subscribe(SimulatedConfiguration.RESERVATION_REQUEST_CHANNEL, new RequestTap());
+    messager.subscribe(SimulatedConfiguration.RESERVATION_RESPONSE_CHANNEL, new ResponseTap());
+
+    scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "Simulation");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+
+    PlayerSender connections = new Connections();
+
+    List<String> clusterIds = new ArrayList<String>(trace.getClusterIds());
+    servers = new ArrayList<SimulatedServer>();
+    serversById = new HashMap<String, SimulatedServer>();
+    for (int i = 0; i < settings.getServers(); i++) {
+      SimulatedServer server =
+          new SimulatedServer(settings, i, clusterIds.get(i % clusterIds.size()), messager,
+              connections);
+      servers.add(server);
+      serversById.put(server.getServerId(), server);
+    }
+
+    proxies = new SimulatedProxy[settings.getProxies()];
+    for (int i = 0; i < proxies.length; i++) {
+      proxies[i] = new SimulatedProxy(settings, i, messager, connections);
+    }
+
+    report.mode = settings.getMode();
+    report.servers = settings.getServers();
+    report.proxies = settings.getProxies();
+    report.totalSlots = settings.getServers() * settings.getSlotsPerServer();
+  }
+
+  /**
+   * Waits until every proxy has heard a heartbeat from every server, so placements do not fail
+   * just because the network is still starting up.
+   */
+  private void awaitDiscovery() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + settings.getServerTimeout();
+    while (System.currentTimeMillis() < deadline) {
+      boolean discovered = true;
+      for (SimulatedProxy proxy : proxies) {
+        int known = 0;
+        for (String clusterId : trace.getClusterIds()) {
+          known += proxy.getClusterSize(clusterId);
+        }
+        if (known < servers.size()) {
+          discovered = false;
+          break;
+        }
+      }
+      if (discovered) {
+        return;
+      }
+      Thread.sleep(POLL_INTERVAL);
+    }
+    System.out.println("[ServerClusters] Not every proxy discovered every server before the "
+        + "trace started.");
+  }
+
+  private void replay() throws InterruptedException {
+    final long start = System.currentTimeMillis();
+
+    scheduler.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        sample();
+      }
+    }, 0, settings.getSampleInterval(), TimeUnit.MILLISECONDS);
+
+    for (Trace.Event event : trace.getEvents()) {
+      long wait = start + event.getTime() - System.currentTimeMillis();
+      if (wait > 0) {
+        Thread.sleep(wait);
+      }
+      if (event.getType() == Trace.Type.LOGIN) {
+        login(event);
+      } else {
+        quit(event.getPlayerId());
+      }
+    }
+
+    long deadline = System.currentTimeMillis() + MAX_DRAIN_TIME;
+    while ((inFlight.get() > 0 || !placing.isEmpty()) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(POLL_INTERVAL);
+    }
+    report.elapsed = System.currentTimeMillis() - start;
+  }
+
+  private void login(Trace.Event event) {
+    final UUID player = event.getPlayerId();
+    if (names.put(player, event.getPlayerName()) != null && locations.containsKey(player)) {
+      return; // already online somewhere; a trace with overlapping sessions
+    }
+
+    SimulatedProxy proxy = proxies[(player.hashCode() & Integer.MAX_VALUE) % proxies.length];
+    synchronized (report) {
+      report.logins++;
+    }
+    placing.add(player);
+
+    final long started = System.nanoTime();
+    final ListenableFuture<RelocationResult> future;
+    try {
+      future = proxy.place(event.getClusterId(), settings.getMode(), player);
+    } catch (ConcurrentModificationException e) {
+      placing.remove(player);
+      synchronized (report) {
+        report.failed++;
+      }
+      return;
+    }
+
+    inFlight.incrementAndGet();
+    future.addListener(new Runnable() {
+      @Override
+      public void run() {
+        latencies.add(System.nanoTime() - started);
+        RelocationResult result = null;
+        try {
+          result = future.get();
+        } catch (Exception e) {
+          e.printStackTrace();
+        }
+        synchronized (report) {
+          if (result != null && result.isSuccessful()) {
+            report.placed++;
+          } else {
+            report.failed++;
+            if (result != null) {
+              report.failures[result.getOutcome().ordinal()]++;
+            }
+            placing.remove(player);
+            quitWhilePlacing.remove(player);
+          }
+        }
+        inFlight.decrementAndGet();
+      }
+    }, MoreExecutors.sameThreadExecutor());
+  }
+
+  private void quit(UUID player) {
+    SimulatedServer server = locations.remove(player);
+    if (server != null) {
+      server.quit(player);
+    } else if (placing.contains(player)) {
+      quitWhilePlacing.add(player);
+    }
+  }
+
+  private void arrive(UUID player, String serverId) {
+    SimulatedServer server = serversById.get(serverId);
+    if (server == null || !server.join(player, names.get(player))) {
+      synchronized (report) {
+        report.rejectedArrivals++;
+      }
+      placing.remove(player);
+      return;
+    }
+    if (quitWhilePlacing.remove(player)) {
+      server.quit(player);
+    } else {
+      locations.put(player, server);
+    }
+    placing.remove(player);
+  }
+
+  private void sample() {
+    int online = 0;
+    int occupied = 0;
+    double occupiedFill = 0;
+    for (SimulatedServer server : servers) {
+      int players = server.getSlots().getOnline();
+      online += players;
+      if (players > 0) {
+        occupied++;
+        occupiedFill += (double) players / settings.getSlotsPerServer();
+      }
+    }
+    double utilization = (double) online / report.totalSlots;
+
+    synchronized (report) {
+      report.samples++;
+      report.utilizationSum += utilization;
+      report.peakUtilization = Math.max(report.peakUtilization, utilization);
+      report.occupiedServersSum += occupied;
+      report.occupiedFillSum += occupied == 0 ? 0 : occupiedFill / occupied;
+    }
+  }
+
+  private SimulationReport finish() {
+    scheduler.shutdownNow();
+
+    synchronized (latencies) {
+      long[] sorted = new long[latencies.size()];
+      for (int i = 0; i < sorted.length; i++) {
+        sorted[i] = latencies.get(i);
+      }
+      Arrays.sort(sorted);
+      report.latencies = sorted;
+    }
+
+    report.requests =
+        messager.getStats(SimulatedConfiguration.RESERVATION_REQUEST_CHANNEL).getPublished();
+    report.requestingPlacements = requestIds.size();
+    for (ChannelStats stats : messager.getAllStats().values()) {
+      report.messages += stats.getPublished();
+      report.messageBytes += stats.getPublishedBytes();
+    }
+    return report;
+  }
+
+  private void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+    if (proxies != null) {
+      for (SimulatedProxy proxy : proxies) {
+        if (proxy != null) {
+          proxy.destroy();
+        }
+      }
+    }
+    if (servers != null) {
+      for (SimulatedServer server : servers) {
+        server.destroy();
+      }
+    }
+    if (messager != null) {
+      messager.destroy();
+    }
+  }
+
+  /**
+   * Moves players from proxies to the servers they were sent to, after the configured delay.
+   */
+  private class Connections implements PlayerSender {
+
+    @Override
+    public void sendPlayer(final UUID playerId, final String destinationServer) {
+      scheduler.schedule(new Runnable() {
+        @Override
+        public void run() {
+          arrive(playerId, destinationServer);
+        }
+      }, settings.getConnectDelay(), TimeUnit.MILLISECONDS);
+    }
+
+  }
+
+  /**
+   * Counts the placements that sent any reservation request. Every retry of a placement reuses its
+   * request id.
+   */
+  private class RequestTap implements Subscriber {
+
+    @Override
+    public void onMessage(byte[] channel, byte[] message) {
+      ReservationRequest request = ReservationRequest.fromBytes(message);
+      requestIds.add(request.getRequestingServer() + ":" + request.getRequestId());
+    }
+
+  }
+
+  /**
+   * Counts approvals and denials on the reservation-response channel.
+   */
+  private class ResponseTap implements Subscriber {
+
+    @Override
+    public void onMessage(byte[] channel, byte[] message) {
+      ReservationResponse response = ReservationResponse.fromBytes(message);
+      synchronized (report) {
+        if (response.isApproved()) {
+          report.approved++;
+        } else {
+          report.denied++;
+        }
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,162 @@
+package io.brutus.minecraft.serverclusters.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.brutus.minecraft.serverclusters.selection.ServerSelectionMode;
+import io.brutus.minecraft.serverclusters.sendplayer.RelocationOutcome;
+
+/**
+ * The results of one simulation run.
+ * <p>
+ * A placement is one login: one call to the relocation client, which may send several reservation
+ * requests before it succeeds or gives up. Latencies are from the login until the relocation
+ * client reports its result.
+ */
+public class SimulationReport {
+
+  ServerSelectionMode mode;
+  int servers;
+  int proxies;
+  int totalSlots;
+  long elapsed;
+
+  int logins;
+  int placed;
+  int failed;
+  int rejectedArrivals;
+  int[] failures = new int[RelocationOutcome.values().length]; // by outcome
+  long[] latencies = new long[0]; // sorted, in nanoseconds
+
+  long requests;
+  long requestingPlacements;
+  long approved;
+  long denied;
+
+  int samples;
+  double utilizationSum;
+  double peakUtilization;
+  double occupiedServersSum;
+  double occupiedFillSum;
+
+  long messages;
+  long messageBytes;
+
+  SimulationReport() {}
+
+  /**
+   * Gets the selection mode every cluster used.
+   * 
+   * @return The server selection mode.
+   */
+  public ServerSelectionMode getMode() {
+    return mode;
+  }
+
+  /**
+   * Gets the number of players successfully placed per second of the run.
+   * 
+   * @return Relocations per second.
+   */
+  public double getRelocationsPerSecond() {
+    return elapsed < 1 ? 0 : placed * 1000.0 / elapsed;
+  }
+
+  /**
+   * Gets a placement latency percentile.
+   * 
+   * @param percentile The percentile, from <code>0</code> to <code>100</code>.
+   * @return The latency at that percentile, in milliseconds, or <code>0</code> if there were no
+   *         placements.
+   */
+  public double getLatencyPercentile(double percentile) {
+    if (latencies.length == 0) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+    return latencies[Math.max(0, Math.min(latencies.length - 1, rank))] / 1000000.0;
+  }
+
+  /**
+   * Gets the share of answered reservation requests that game servers denied.
+   * 
+   * @return The denial rate, from <code>0</code> to <code>1</code>.
+   */
+  public double getDenialRate() {
+    long answered = approved + denied;
+    return answered == 0 ? 0 : (double) denied / answered;
+  }
+
+  /**
+   * Gets the average number of reservation requests each placement sent beyond its first, among
+   * placements that sent any. Placements that found no candidate server send none.
+   * 
+   * @return The retries per placement.
+   */
+  public double getRetryRate() {
+    return requestingPlacements == 0 ? 0 : (double) (requests - requestingPlacements)
+        / requestingPlacements;
+  }
+
+  /**
+   * Gets the number of placements that failed for a reason. Placements the relocation client
+   * refused outright, such as for a player it was already placing, are not counted under any.
+   * 
+   * @param outcome Why the placements failed.
+   * @return The failed placements with that outcome.
+   */
+  public int getFailures(RelocationOutcome outcome) {
+    return failures[outcome.ordinal()];
+  }
+
+  /**
+   * Gets the share of all slots on the network that were filled, averaged over the run.
+   * 
+   * @return The mean utilization, from <code>0</code> to <code>1</code>.
+   */
+  public double getMeanUtilization() {
+    return samples == 0 ? 0 : utilizationSum / samples;
+  }
+
+  /**
+   * Gets how full the servers with anybody on them were, averaged over the run. Higher means
+   * players were packed onto fewer servers.
+   * 
+   * @return The mean fill of occupied servers, from <code>0</code> to <code>1</code>.
+   */
+  public double getMeanOccupiedFill() {
+    return samples == 0 ? 0 : occupiedFillSum / samples;
+  }
+
+  /**
+   * Gets a human-readable version of this report.
+   * 
+   * @return The report, one line per entry.
+   */
+  public List<String> toStringList() {
+    List<String> ret = new ArrayList<String>();
+    ret.add("=== " + mode + ": " + servers + " servers (" + totalSlots + " slots), " + proxies
+        + " proxies, " + elapsed + " ms ===");
+    ret.add(String.format("placements:     %d logins, %d placed, %d failed, %d arrived without a "
+        + "reservation", logins, placed, failed, rejectedArrivals));
+    ret.add(String.format("failures:       %d no capacity, %d unknown cluster, %d timed out, "
+        + "%d denied", getFailures(RelocationOutcome.NO_CAPACITY),
+        getFailures(RelocationOutcome.UNKNOWN_CLUSTER), getFailures(RelocationOutcome.TIMEOUT),
+        getFailures(RelocationOutcome.DENIED)));
+    ret.add(String.format("throughput:     %.1f relocations/sec", getRelocationsPerSecond()));
+    ret.add(String.format("latency (ms):   p50 %.2f, p90 %.2f, p99 %.2f, max %.2f",
+        getLatencyPercentile(50), getLatencyPercentile(90), getLatencyPercentile(99),
+        getLatencyPercentile(100)));
+    ret.add(String.format("requests:       %d sent, %d approved, %d denied, %d unanswered",
+        requests, approved, denied, Math.max(0, requests - approved - denied)));
+    ret.add(String.format("rates:          %.2f%% denied, %.3f retries per placement",
+        getDenialRate() * 100, getRetryRate()));
+    ret.add(String.format("utilization:    %.1f%% mean, %.1f%% peak, %.1f%% mean fill of "
+        + "occupied servers, %.1f servers occupied on average", getMeanUtilization() * 100,
+        peakUtilization * 100, getMeanOccupiedFill() * 100, samples == 0 ? 0
+            : occupiedServersSum / samples));
+    ret.add(String.format("messaging:      %d messages, %d bytes", messages, messageBytes));
+    return ret;
+  }
+
+}
@@ -0,0 +1,311 @@
+package io.brutus.minecraft.serverclusters.simulator;
+
+import io.brutus.minecraft.serverclusters.selection.ServerSelectionMode;
+import io.brutus.minecraft.serverclusters.simulator.messaging.DeliveryProfile;
+
+/**
+ * The shape of a simulated network and the timings it runs with.
+ * <p>
+ * Timings default to much faster heartbeats than a live network uses, so that a short simulation
+ * reaches a steady state quickly. All times are in milliseconds.
+ */
+public class SimulationSettings {
+
+  private int servers = 50;
+  private int proxies = 4;
+  private int slotsPerServer = 20;
+  private ServerSelectionMode mode = ServerSelectionMode.LOAD_BALANCING;
+  private DeliveryProfile deliveryProfile = DeliveryProfile.PERFECT;
+
+  private long maxHeartRate = 50;
+  private long minHeartRate = 1000;
+  private long serverTimeout = 5000;
+  private long reservationResponseTimeout = 500;
+  private long reservationFulfillmentTimeout = 5000;
+  private long connectDelay = 20;
+  private long sampleInterval = 100;
+
+  /**
+   * Gets the number of simulated game servers.
+   * 
+   * @return The number of game servers.
+   */
+  public int getServers() {
+    return servers;
+  }
+
+  /**
+   * Sets the number of simulated game servers, which are spread evenly over the clusters in the
+   * trace.
+   * 
+   * @param servers The number of game servers.
+   * @return These settings.
+   * @throws IllegalArgumentException on a number less than <code>1</code>.
+   */
+  public SimulationSettings setServers(int servers) throws IllegalArgumentException {
+    this.servers = checkPositive(servers, "servers");
+    return this;
+  }
+
+  /**
+   * Gets the number of simulated proxies.
+   * 
+   * @return The number of proxies.
+   */
+  public int getProxies() {
+    return proxies;
+  }
+
+  /**
+   * Sets the number of simulated proxies, which share the logins in the trace between them.
+   * 
+   * @param proxies The number of proxies.
+   * @return These settings.
+   * @throws IllegalArgumentException on a number less than <code>1</code>.
+   */
+  public SimulationSettings setProxies(int proxies) throws IllegalArgumentException {
+    this.proxies = checkPositive(proxies, "proxies");
+    return this;
+  }
+
+  /**
+   * Gets the total number of slots on each game server.
+   * 
+   * @return The slots per game server.
+   */
+  public int getSlotsPerServer() {
+    return slotsPerServer;
+  }
+
+  /**
+   * Sets the total number of slots on each game server.
+   * 
+   * @param slotsPerServer The slots per game server.
+   * @return These settings.
+   * @throws IllegalArgumentException on a number less than <code>1</code>.
+   */
+  public SimulationSettings setSlotsPerServer(int slotsPerServer)
+      throws IllegalArgumentException {
+    this.slotsPerServer = checkPositive(slotsPerServer, "slots per server");
+    return this;
+  }
+
+  /**
+   * Gets the selection mode every cluster uses.
+   * 
+   * @return The server selection mode.
+   */
+  public ServerSelectionMode getMode() {
+    return mode;
+  }
+
+  /**
+   * Sets the selection mode every cluster uses.
+   * 
+   * @param mode The server selection mode.
+   * @return These settings.
+   * @throws IllegalArgumentException on a <code>null</code> mode.
+   */
+  public SimulationSettings setMode(ServerSelectionMode mode) throws IllegalArgumentException {
+    if (mode == null) {
+      throw new IllegalArgumentException("mode cannot be null");
+    }
+    this.mode = mode;
+    return this;
+  }
+
+  /**
+   * Gets how the in-memory messager delivers messages between nodes.
+   * 
+   * @return The delivery profile.
+   */
+  public DeliveryProfile getDeliveryProfile() {
+    return deliveryProfile;
+  }
+
+  /**
+   * Sets how the in-memory messager delivers messages between nodes.
+   * 
+   * @param deliveryProfile The delivery profile.
+   * @return These settings.
+   * @throws IllegalArgumentException on a <code>null</code> profile.
+   */
+  public SimulationSettings setDeliveryProfile(DeliveryProfile deliveryProfile)
+      throws IllegalArgumentException {
+    if (deliveryProfile == null) {
+      throw new IllegalArgumentException("delivery profile cannot be null");
+    }
+    this.deliveryProfile = deliveryProfile;
+    return this;
+  }
+
+  /**
+   * Gets how often game servers check whether they need to send a heartbeat.
+   * 
+   * @return The shortest time between heartbeats.
+   */
+  public long getMaxHeartRate() {
+    return maxHeartRate;
+  }
+
+  /**
+   * Sets how often game servers check whether they need to send a heartbeat.
+   * 
+   * @param maxHeartRate The shortest time between heartbeats.
+   * @return These settings.
+   * @throws IllegalArgumentException on a time less than <code>1</code>.
+   */
+  public SimulationSettings setMaxHeartRate(long maxHeartRate) throws IllegalArgumentException {
+    this.maxHeartRate = checkPositive(maxHeartRate, "max heart rate");
+    return this;
+  }
+
+  /**
+   * Gets the longest game servers go without sending a heartbeat.
+   * 
+   * @return The longest time between heartbeats.
+   */
+  public long getMinHeartRate() {
+    return minHeartRate;
+  }
+
+  /**
+   * Sets the longest game servers go without sending a heartbeat.
+   * 
+   * @param minHeartRate The longest time between heartbeats.
+   * @return These settings.
+   * @throws IllegalArgumentException on a time less than <code>1</code>.
+   */
+  public SimulationSettings setMinHeartRate(long minHeartRate) throws IllegalArgumentException {
+    this.minHeartRate = checkPositive(minHeartRate, "min heart rate");
+    return this;
+  }
+
+  /**
+   * Gets how long after its last heartbeat a server is assumed to be down.
+   * 
+   * @return The server timeout.
+   */
+  public long getServerTimeout() {
+    return serverTimeout;
+  }
+
+  /**
+   * Sets how long after its last heartbeat a server is assumed to be down.
+   * 
+   * @param serverTimeout The server timeout.
+   * @return These settings.
+   * @throws IllegalArgumentException on a time less than <code>1</code>.
+   */
+  public SimulationSettings setServerTimeout(long serverTimeout) throws IllegalArgumentException {
+    this.serverTimeout = checkPositive(serverTimeout, "server timeout");
+    return this;
+  }
+
+  /**
+   * Gets how long proxies wait for a response to a reservation request.
+   * 
+   * @return The reservation response timeout.
+   */
+  public long getReservationResponseTimeout() {
+    return reservationResponseTimeout;
+  }
+
+  /**
+   * Sets how long proxies wait for a response to a reservation request.
+   * 
+   * @param reservationResponseTimeout The reservation response timeout.
+   * @return These settings.
+   * @throws IllegalArgumentException on a time less than <code>1</code>.
+   */
+  public SimulationSettings setReservationResponseTimeout(long reservationResponseTimeout)
+      throws IllegalArgumentException {
+    this.reservationResponseTimeout =
+        checkPositive(reservationResponseTimeout, "reservation response timeout");
+    return this;
+  }
+
+  /**
+   * Gets how long game servers hold a reservation for a player who has not arrived.
+   * 
+   * @return The reservation fulfillment timeout.
+   */
+  public long getReservationFulfillmentTimeout() {
+    return reservationFulfillmentTimeout;
+  }
+
+  /**
+   * Sets how long game servers hold a reservation for a player who has not arrived.
+   * 
+   * @param reservationFulfillmentTimeout The reservation fulfillment timeout.
+   * @return These settings.
+   * @throws IllegalArgumentException on a time less than <code>1</code>.
+   */
+  public SimulationSettings setReservationFulfillmentTimeout(long reservationFulfillmentTimeout)
+      throws IllegalArgumentException {
+    this.reservationFulfillmentTimeout =
+        checkPositive(reservationFulfillmentTimeout, "reservation fulfillment timeout");
+    return this;
+  }
+
+  /**
+   * Gets how long a player takes to arrive on a game server after a proxy sends them.
+   * 
+   * @return The connect delay.
+   */
+  public long getConnectDelay() {
+    return connectDelay;
+  }
+
+  /**
+   * Sets how long a player takes to arrive on a game server after a proxy sends them.
+   * 
+   * @param connectDelay The connect delay.
+   * @return These settings.
+   * @throws IllegalArgumentException on a negative time.
+   */
+  public SimulationSettings setConnectDelay(long connectDelay) throws IllegalArgumentException {
+    if (connectDelay < 0) {
+      throw new IllegalArgumentException("connect delay cannot be negative");
+    }
+    this.connectDelay = connectDelay;
+    return this;
+  }
+
+  /**
+   * Gets how often slot utilization is sampled.
+   * 
+   * @return The sample interval.
+   */
+  public long getSampleInterval() {
+    return sampleInterval;
+  }
+
+  /**
+   * Sets how often slot utilization is sampled.
+   * 
+   * @param sampleInterval The sample interval.
+   * @return These settings.
+   * @throws IllegalArgumentException on a time less than <code>1</code>.
+   */
+  public SimulationSettings setSampleInterval(long sampleInterval)
+      throws IllegalArgumentException {
+    this.sampleInterval = checkPositive(sampleInterval, "sample interval");
+    return this;
+  }
+
+  private static int checkPositive(int value, String name) throws IllegalArgumentException {
+    if (value < 1) {
+      throw new IllegalArgumentException(name + " must be positive");
+    }
+    return value;
+  }
+
+  private static long checkPositive(long value, String name) throws IllegalArgumentException {
+    if (value < 1) {
+      throw new IllegalArgumentException(name + " must be positive");
+    }
+    return value;
+  }
+
+}
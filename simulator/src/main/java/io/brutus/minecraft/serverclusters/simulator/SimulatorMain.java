@@ -0,0 +1,109 @@
+package io.brutus.minecraft.serverclusters.simulator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.brutus.minecraft.serverclusters.logging.Log;
+import io.brutus.minecraft.serverclusters.logging.LogLevel;
+import io.brutus.minecraft.serverclusters.selection.ServerSelectionMode;
+import io.brutus.minecraft.serverclusters.simulator.messaging.DeliveryProfile;
+
+/**
+ * Runs a simulated network from the command line and prints a report for each selection mode.
+ * <p>
+ * Replays a trace file if one is given, and otherwise generates one. For example:
+ * 
+ * <pre>
+ * java -jar ServerClustersSimulator.jar --servers 100 --proxies 4 --slots 20 --clusters 5
+ *     --rate 80 --duration 30 --session 20 --latency 2 --jitter 2 --drop 0.01
+ * java -jar ServerClustersSimulator.jar --trace logins.csv --mode MATCHMAKING
+ * </pre>
+ * 
+ * Times on the command line are in seconds for the trace and milliseconds for the messaging.
+ * Only warnings from the network's own components are logged unless <code>--verbose</code> is
+ * given, which logs every request and response at the debug level.
+ */
+public class SimulatorMain {
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = parseOptions(args);
+
+    Trace trace;
+    if (options.containsKey("trace")) {
+      trace = Trace.read(new File(options.get("trace")));
+    } else {
+      trace =
+          Trace.generate(getDouble(options, "rate", 50),
+              (long) (getDouble(options, "duration", 30) * 1000),
+              (long) (getDouble(options, "session", 20) * 1000),
+              (int) getDouble(options, "clusters", 5), (long) getDouble(options, "seed", 1));
+    }
+
+    DeliveryProfile profile =
+        DeliveryProfile.builder()
+            .setLatency((long) (getDouble(options, "latency", 0) * 1000), TimeUnit.MICROSECONDS)
+            .setJitter((long) (getDouble(options, "jitter", 0) * 1000), TimeUnit.MICROSECONDS)
+            .setReorderRate(getDouble(options, "reorder", 0))
+            .setDuplicateRate(getDouble(options, "duplicate", 0))
+            .setDropRate(getDouble(options, "drop", 0))
+            .setSeed((long) getDouble(options, "seed", 1)).build();
+
+    List<ServerSelectionMode> modes = new ArrayList<ServerSelectionMode>();
+    String mode = options.containsKey("mode") ? options.get("mode").toUpperCase() : "ALL";
+    if (mode.equals("ALL")) {
+      for (ServerSelectionMode each : ServerSelectionMode.values()) {
+        modes.add(each);
+      }
+    } else {
+      modes.add(ServerSelectionMode.valueOf(mode));
+    }
+
+    // components log a line for every request and response; keeps them quiet by default so the
+    // report stays readable and console output does not become the bottleneck
+    Log.setLevel(options.containsKey("verbose") ? LogLevel.DEBUG : LogLevel.WARNING);
+
+    System.out.println("[ServerClusters] Replaying " + trace.getEvents().size() + " events over "
+        + trace.getDuration() + " ms in " + trace.getClusterIds().size() + " clusters");
+
+    for (ServerSelectionMode each : modes) {
+      SimulationSettings settings =
+          new SimulationSettings().setMode(each).setDeliveryProfile(profile)
+              .setServers((int) getDouble(options, "servers", 50))
+              .setProxies((int) getDouble(options, "proxies", 4))
+              .setSlotsPerServer((int) getDouble(options, "slots", 20))
+              .setConnectDelay((long) getDouble(options, "connect-delay", 20));
+
+      SimulationReport report = new Simulation(settings, trace).run();
+      for (String line : report.toStringList()) {
+        System.out.println(line);
+      }
+    }
+    Log.stop();
+  }
+
+  private static Map<String, String> parseOptions(String[] args) {
+    Map<String, String> ret = new HashMap<String, String>();
+    for (int i = 0; i < args.length; i++) {
+      if (!args[i].startsWith("--")) {
+        throw new IllegalArgumentException("unexpected argument: " + args[i]);
+      }
+      String key = args[i].substring(2);
+      if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+        ret.put(key, args[++i]);
+      } else {
+        ret.put(key, "true");
+      }
+    }
+    return ret;
+  }
+
+  private static double getDouble(Map<String, String> options, String key, double def) {
+    String value = options.get(key);
+    return value == null ? def : Double.parseDouble(value);
+  }
+
+}
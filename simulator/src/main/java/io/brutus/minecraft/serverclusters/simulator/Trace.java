@@ -0,0 +1,241 @@
+package io.brutus.minecraft.serverclusters.simulator;
+
+import io.brutus.minecraft.serverclusters.protocol.serialization.Encoding;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A timed sequence of players logging in to and quitting the network.
+ * <p>
+ * Traces are read from text files with one event per line:
+ * 
+ * <pre>
+ * # time in milliseconds, event, player name[, cluster]
+ * 0,login,Notch,lobby
+ * 250,login,jeb_,lobby
+ * 9000,quit,Notch
+ * </pre>
+ * 
+ * Players get the same unique ids an offline-mode server would give them, so the same name is
+ * always the same player.
+ */
+public class Trace {
+
+  /**
+   * What happens in a trace event.
+   */
+  public enum Type {
+    LOGIN, QUIT
+  }
+
+  /**
+   * One player logging in or quitting.
+   */
+  public static class Event {
+
+    private final long time;
+    private final Type type;
+    private final String playerName;
+    private final UUID playerId;
+    private final String clusterId;
+
+    private Event(long time, Type type, String playerName, String clusterId) {
+      this.time = time;
+      this.type = type;
+      this.playerName = playerName;
+      this.playerId = playerId(playerName);
+      this.clusterId = clusterId;
+    }
+
+    /**
+     * Gets when this event happens, relative to the start of the trace.
+     * 
+     * @return The time of the event, in milliseconds.
+     */
+    public long getTime() {
+      return time;
+    }
+
+    /**
+     * Gets what happens in this event.
+     * 
+     * @return The event type.
+     */
+    public Type getType() {
+      return type;
+    }
+
+    /**
+     * Gets the name of the player.
+     * 
+     * @return The player's name.
+     */
+    public String getPlayerName() {
+      return playerName;
+    }
+
+    /**
+     * Gets the unique id of the player.
+     * 
+     * @return The player's unique id.
+     */
+    public UUID getPlayerId() {
+      return playerId;
+    }
+
+    /**
+     * Gets the cluster a logging-in player should be placed in.
+     * 
+     * @return The cluster id, or <code>null</code> for quits.
+     */
+    public String getClusterId() {
+      return clusterId;
+    }
+
+  }
+
+  /**
+   * Reads a trace from a file.
+   * 
+   * @param file The trace file.
+   * @return The trace.
+   * @throws IOException on failing to read the file.
+   * @throws IllegalArgumentException on a malformed line.
+   */
+  public static Trace read(File file) throws IOException, IllegalArgumentException {
+    List<Event> events = new ArrayList<Event>();
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(new FileInputStream(file), Encoding.CHARSET));
+    try {
+      String line;
+      int lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        String[] fields = line.split(",");
+        try {
+          long time = Long.parseLong(fields[0].trim());
+          Type type = Type.valueOf(fields[1].trim().toUpperCase());
+          String name = fields[2].trim();
+          String clusterId = null;
+          if (type == Type.LOGIN) {
+            clusterId = fields[3].trim();
+          }
+          events.add(new Event(time, type, name, clusterId));
+        } catch (RuntimeException e) {
+          throw new IllegalArgumentException("malformed trace event on line " + lineNumber + ": "
+              + line);
+        }
+      }
+    } finally {
+      reader.close();
+    }
+    return new Trace(events);
+  }
+
+  /**
+   * Generates a trace of players arriving at random and staying for random lengths of time.
+   * <p>
+   * Logins arrive as a Poisson process and session lengths are exponentially distributed, so the
+   * network settles at about <code>loginsPerSecond * meanSession / 1000</code> players online.
+   * Logins are spread evenly over the clusters.
+   * 
+   * @param loginsPerSecond The average number of logins per second.
+   * @param duration How long players keep logging in, in milliseconds.
+   * @param meanSession The average time a player stays, in milliseconds.
+   * @param clusters The number of clusters to send players to.
+   * @param seed The random seed.
+   * @return The trace.
+   * @throws IllegalArgumentException on a parameter that is not positive.
+   */
+  public static Trace generate(double loginsPerSecond, long duration, long meanSession,
+      int clusters, long seed) throws IllegalArgumentException {
+    if (loginsPerSecond <= 0 || duration < 1 || meanSession < 1 || clusters < 1) {
+      throw new IllegalArgumentException("params must be positive");
+    }
+    Random random = new Random(seed);
+    List<Event> events = new ArrayList<Event>();
+    double time = 0;
+    int player = 0;
+    while (true) {
+      time += -Math.log(1 - random.nextDouble()) * 1000 / loginsPerSecond;
+      if (time >= duration) {
+        break;
+      }
+      String name = "Player" + player;
+      String clusterId = "cluster-" + (player % clusters);
+      events.add(new Event((long) time, Type.LOGIN, name, clusterId));
+      long session = (long) (-Math.log(1 - random.nextDouble()) * meanSession);
+      if (time + session < duration) {
+        events.add(new Event((long) time + session, Type.QUIT, name, null));
+      }
+      player++;
+    }
+    return new Trace(events);
+  }
+
+  private static UUID playerId(String playerName) {
+    return UUID.nameUUIDFromBytes(("OfflinePlayer:" + playerName).getBytes(Encoding.CHARSET));
+  }
+
+  private final List<Event> events;
+
+  private Trace(List<Event> events) {
+    Collections.sort(events, new Comparator<Event>() {
+      @Override
+      public int compare(Event e1, Event e2) {
+        return Long.compare(e1.time, e2.time);
+      }
+    });
+    this.events = Collections.unmodifiableList(events);
+  }
+
+  /**
+   * Gets the events in this trace, in order.
+   * 
+   * @return The events.
+   */
+  public List<Event> getEvents() {
+    return events;
+  }
+
+  /**
+   * Gets the clusters that players log in to in this trace.
+   * 
+   * @return The cluster ids, in the order they first appear.
+   */
+  public Set<String> getClusterIds() {
+    Set<String> ret = new LinkedHashSet<String>();
+    for (Event event : events) {
+      if (event.clusterId != null) {
+        ret.add(event.clusterId);
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Gets how long this trace runs.
+   * 
+   * @return The time of the last event, in milliseconds.
+   */
+  public long getDuration() {
+    return events.isEmpty() ? 0 : events.get(events.size() - 1).time;
+  }
+
+}
@@ -0,0 +1,107 @@
+package io.brutus.minecraft.serverclusters.simulator.messaging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running counts of the messages and bytes that went through one channel of an
+ * {@link InMemoryMessager}.
+ * <p>
+ * Published counts are per call to publish. Delivered, dropped and duplicated counts are per
+ * subscriber, so one message published to a channel with three subscribers can be delivered three
+ * times.
+ * <p>
+ * This implementation is thread safe. Counts are read one at a time, so a snapshot taken while
+ * messages are flowing may be slightly inconsistent between counts.
+ */
+public class ChannelStats {
+
+  private final AtomicLong published = new AtomicLong();
+  private final AtomicLong publishedBytes = new AtomicLong();
+  private final AtomicLong delivered = new AtomicLong();
+  private final AtomicLong deliveredBytes = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong duplicated = new AtomicLong();
+
+  ChannelStats() {}
+
+  /**
+   * Gets the number of messages published to the channel.
+   * 
+   * @return The published message count.
+   */
+  public long getPublished() {
+    return published.get();
+  }
+
+  /**
+   * Gets the total size of the messages published to the channel.
+   * 
+   * @return The published byte count.
+   */
+  public long getPublishedBytes() {
+    return publishedBytes.get();
+  }
+
+  /**
+   * Gets the number of times a message was handed to a subscriber of the channel, including
+   * duplicates.
+   * 
+   * @return The delivered message count.
+   */
+  public long getDelivered() {
+    return delivered.get();
+  }
+
+  /**
+   * Gets the total size of the messages handed to subscribers of the channel.
+   * 
+   * @return The delivered byte count.
+   */
+  public long getDeliveredBytes() {
+    return deliveredBytes.get();
+  }
+
+  /**
+   * Gets the number of deliveries to subscribers that were deliberately dropped.
+   * 
+   * @return The dropped delivery count.
+   */
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  /**
+   * Gets the number of extra deliveries to subscribers that were deliberately duplicated.
+   * 
+   * @return The duplicated delivery count.
+   */
+  public long getDuplicated() {
+    return duplicated.get();
+  }
+
+  void onPublish(int bytes) {
+    published.incrementAndGet();
+    publishedBytes.addAndGet(bytes);
+  }
+
+  void onDelivery(int bytes) {
+    delivered.incrementAndGet();
+    deliveredBytes.addAndGet(bytes);
+  }
+
+  void onDrop() {
+    dropped.incrementAndGet();
+  }
+
+  void onDuplicate() {
+    duplicated.incrementAndGet();
+  }
+
+  @Override
+  public String toString() {
+    return "published=" + getPublished() + " (" + getPublishedBytes() + " bytes), delivered="
+        + getDelivered() + " (" + getDeliveredBytes() + " bytes), dropped=" + getDropped()
+        + ", duplicated=" + getDuplicated();
+  }
+
+}
@@ -0,0 +1,216 @@
+package io.brutus.minecraft.serverclusters.simulator.messaging;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How an {@link InMemoryMessager} delivers messages: how late, how out of order, and how reliably.
+ * <p>
+ * Each delivery to each subscriber is decided independently. A message can be dropped for one
+ * subscriber and delivered twice to another.
+ * <p>
+ * Immutable. Use {@link #builder()} to make one.
+ */
+public class DeliveryProfile {
+
+  /**
+   * A profile that delivers every message exactly once, in order, as fast as possible.
+   */
+  public static final DeliveryProfile PERFECT = builder().build();
+
+  /**
+   * Gets a new builder, which starts out as a perfect profile.
+   * 
+   * @return A delivery-profile builder.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private long latencyNanos;
+  private long jitterNanos;
+  private double reorderRate;
+  private double duplicateRate;
+  private double dropRate;
+  private long seed;
+
+  private DeliveryProfile() {}
+
+  /**
+   * Gets the base delay before every delivery.
+   * 
+   * @return The latency, in nanoseconds.
+   */
+  public long getLatencyNanos() {
+    return latencyNanos;
+  }
+
+  /**
+   * Gets the most random extra delay added to each delivery.
+   * 
+   * @return The jitter, in nanoseconds.
+   */
+  public long getJitterNanos() {
+    return jitterNanos;
+  }
+
+  /**
+   * Gets the chance of a delivery being held back long enough to land behind later messages.
+   * 
+   * @return The reorder rate, from <code>0</code> to <code>1</code>.
+   */
+  public double getReorderRate() {
+    return reorderRate;
+  }
+
+  /**
+   * Gets the chance of a delivery happening twice.
+   * 
+   * @return The duplicate rate, from <code>0</code> to <code>1</code>.
+   */
+  public double getDuplicateRate() {
+    return duplicateRate;
+  }
+
+  /**
+   * Gets the chance of a delivery never happening.
+   * 
+   * @return The drop rate, from <code>0</code> to <code>1</code>.
+   */
+  public double getDropRate() {
+    return dropRate;
+  }
+
+  /**
+   * Gets the seed for the random decisions about each delivery, so runs can be repeated.
+   * 
+   * @return The random seed.
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Gets whether any delivery under this profile is delayed.
+   * 
+   * @return <code>true</code> if deliveries can be scheduled for later.
+   */
+  boolean isDelayed() {
+    return latencyNanos > 0 || jitterNanos > 0 || reorderRate > 0;
+  }
+
+  /**
+   * A builder for a delivery profile.
+   */
+  public static class Builder {
+
+    private DeliveryProfile building;
+
+    private Builder() {
+      building = new DeliveryProfile();
+    }
+
+    /**
+     * Finishes the delivery profile.
+     * 
+     * @return The finished profile.
+     */
+    public DeliveryProfile build() {
+      DeliveryProfile ret = building;
+      building = new DeliveryProfile();
+      building.seed = ret.seed;
+      return ret;
+    }
+
+    /**
+     * Sets the base delay before every delivery.
+     * 
+     * @param latency The delay.
+     * @param unit The unit of the delay.
+     * @return This builder.
+     * @throws IllegalArgumentException on a negative delay or a <code>null</code> unit.
+     */
+    public Builder setLatency(long latency, TimeUnit unit) throws IllegalArgumentException {
+      building.latencyNanos = toNanos(latency, unit);
+      return this;
+    }
+
+    /**
+     * Sets the most random extra delay added to each delivery.
+     * 
+     * @param jitter The most extra delay.
+     * @param unit The unit of the delay.
+     * @return This builder.
+     * @throws IllegalArgumentException on a negative delay or a <code>null</code> unit.
+     */
+    public Builder setJitter(long jitter, TimeUnit unit) throws IllegalArgumentException {
+      building.jitterNanos = toNanos(jitter, unit);
+      return this;
+    }
+
+    /**
+     * Sets the chance of a delivery being held back long enough to land behind later messages.
+     * 
+     * @param reorderRate The chance, from <code>0</code> to <code>1</code>.
+     * @return This builder.
+     * @throws IllegalArgumentException on a chance outside of <code>0</code> to <code>1</code>.
+     */
+    public Builder setReorderRate(double reorderRate) throws IllegalArgumentException {
+      building.reorderRate = checkRate(reorderRate);
+      return this;
+    }
+
+    /**
+     * Sets the chance of a delivery happening twice.
+     * 
+     * @param duplicateRate The chance, from <code>0</code> to <code>1</code>.
+     * @return This builder.
+     * @throws IllegalArgumentException on a chance outside of <code>0</code> to <code>1</code>.
+     */
+    public Builder setDuplicateRate(double duplicateRate) throws IllegalArgumentException {
+      building.duplicateRate = checkRate(duplicateRate);
+      return this;
+    }
+
+    /**
+     * Sets the chance of a delivery never happening.
+     * 
+     * @param dropRate The chance, from <code>0</code> to <code>1</code>.
+     * @return This builder.
+     * @throws IllegalArgumentException on a chance outside of <code>0</code> to <code>1</code>.
+     */
+    public Builder setDropRate(double dropRate) throws IllegalArgumentException {
+      building.dropRate = checkRate(dropRate);
+      return this;
+    }
+
+    /**
+     * Sets the seed for the random decisions about each delivery.
+     * 
+     * @param seed The random seed.
+     * @return This builder.
+     */
+    public Builder setSeed(long seed) {
+      building.seed = seed;
+      return this;
+    }
+
+    private static long toNanos(long duration, TimeUnit unit) throws IllegalArgumentException {
+      if (duration < 0) {
+        throw new IllegalArgumentException("delays cannot be negative");
+      }
+      if (unit == null) {
+        throw new IllegalArgumentException("time unit cannot be null");
+      }
+      return unit.toNanos(duration);
+    }
+
+    private static double checkRate(double rate) throws IllegalArgumentException {
+      if (rate < 0 || rate > 1) {
+        throw new IllegalArgumentException("rates must be from 0 to 1");
+      }
+      return rate;
+    }
+
+  }
+
+}
@@ -0,0 +1,285 @@
+package io.brutus.minecraft.serverclusters.simulator.messaging;
+
+import io.brutus.networking.pubsubmessager.PubSubMessager;
+import io.brutus.networking.pubsubmessager.Subscriber;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * A messager that passes messages between subscribers in the same JVM, with no broker.
+ * <p>
+ * Every component of the network can share one of these in place of a live messager, so that the
+ * whole protocol can be run and measured locally. A {@link DeliveryProfile} decides how late, out
+ * of order, duplicated or lost each delivery is.
+ * <p>
+ * Each message is copied when it is published, and again for each subscriber, just as each
+ * subscriber to a real messager would get its own copy off the network. Deliveries run on the
+ * executor this messager was created with. With a single delivery thread and a profile that does
+ * not reorder, each subscriber sees messages in the order they were published.
+ * <p>
+ * Random decisions about deliveries come from one generator seeded by the profile. Runs repeat
+ * exactly only when messages are published from a single thread.
+ * <p>
+ * This implementation is thread safe.
+ */
+public class InMemoryMessager implements PubSubMessager {
+
+  private static final long MIN_REORDER_DELAY = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final ConcurrentMap<ByteBuffer, Set<Subscriber>> subscribers;
+  private final ConcurrentMap<ByteBuffer, ChannelStats> stats;
+
+  private final ScheduledExecutorService executor;
+  private final boolean ownsExecutor;
+  private final DeliveryProfile profile;
+  private final Random random;
+
+  private volatile boolean alive = true;
+
+  /**
+   * Creates a messager that delivers every message on its own single delivery thread.
+   * 
+   * @param profile How messages are delivered.
+   * @throws IllegalArgumentException on a <code>null</code> profile.
+   */
+  public InMemoryMessager(DeliveryProfile profile) throws IllegalArgumentException {
+    this(profile, newDeliveryThread(), true);
+  }
+
+  /**
+   * Creates a messager that delivers messages on the threads of an executor.
+   * <p>
+   * The executor is not shut down when this messager is destroyed.
+   * 
+   * @param profile How messages are delivered.
+   * @param executor The executor to deliver messages on.
+   * @throws IllegalArgumentException on a <code>null</code> parameter.
+   */
+  public InMemoryMessager(DeliveryProfile profile, ScheduledExecutorService executor)
+      throws IllegalArgumentException {
+    this(profile, executor, false);
+  }
+
+  private InMemoryMessager(DeliveryProfile profile, ScheduledExecutorService executor,
+      boolean ownsExecutor) throws IllegalArgumentException {
+    if (profile == null || executor == null) {
+      throw new IllegalArgumentException("params cannot be null");
+    }
+    this.profile = profile;
+    this.executor = executor;
+    this.ownsExecutor = ownsExecutor;
+    this.random = new Random(profile.getSeed());
+    this.subscribers = new ConcurrentHashMap<ByteBuffer, Set<Subscriber>>();
+    this.stats = new ConcurrentHashMap<ByteBuffer, ChannelStats>();
+  }
+
+  @Override
+  public ListenableFuture<Boolean> publish(byte[] channel, byte[] message) {
+    if (channel == null || message == null) {
+      throw new IllegalArgumentException("params cannot be null");
+    }
+    if (!alive) {
+      return Futures.immediateFuture(false);
+    }
+
+    // copied now, since publishers are free to reuse their arrays as soon as this returns
+    final byte[] channelCopy = channel.clone();
+    final byte[] messageCopy = message.clone();
+    ByteBuffer key = ByteBuffer.wrap(channelCopy);
+
+    ChannelStats channelStats = getOrCreateStats(key);
+    channelStats.onPublish(messageCopy.length);
+
+    Set<Subscriber> subs = subscribers.get(key);
+    if (subs == null) {
+      return Futures.immediateFuture(true);
+    }
+
+    for (Subscriber sub : subs) {
+      if (roll(profile.getDropRate())) {
+        channelStats.onDrop();
+        continue;
+      }
+      schedule(key, sub, channelCopy, messageCopy, channelStats);
+      if (roll(profile.getDuplicateRate())) {
+        channelStats.onDuplicate();
+        schedule(key, sub, channelCopy, messageCopy, channelStats);
+      }
+    }
+    return Futures.immediateFuture(true);
+  }
+
+  @Override
+  public void subscribe(byte[] channel, Subscriber sub) {
+    if (channel == null || sub == null) {
+      throw new IllegalArgumentException("params cannot be null");
+    }
+    ByteBuffer key = ByteBuffer.wrap(channel.clone());
+    Set<Subscriber> subs = subscribers.get(key);
+    if (subs == null) {
+      Set<Subscriber> created = new CopyOnWriteArraySet<Subscriber>();
+      subs = subscribers.putIfAbsent(key, created);
+      if (subs == null) {
+        subs = created;
+      }
+    }
+    subs.add(sub);
+  }
+
+  @Override
+  public void unsubscribe(byte[] channel, Subscriber sub) {
+    if (channel == null || sub == null) {
+      throw new IllegalArgumentException("params cannot be null");
+    }
+    Set<Subscriber> subs = subscribers.get(ByteBuffer.wrap(channel));
+    if (subs != null) {
+      subs.remove(sub);
+    }
+  }
+
+  /**
+   * Stops delivering messages. Messages already scheduled for delivery are discarded.
+   */
+  public void destroy() {
+    alive = false;
+    subscribers.clear();
+    if (ownsExecutor) {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Gets the counts for a channel.
+   * 
+   * @param channel The channel.
+   * @return The channel's counts. Counts start at zero for channels nothing has been published to.
+   * @throws IllegalArgumentException on a <code>null</code> channel.
+   */
+  public ChannelStats getStats(byte[] channel) throws IllegalArgumentException {
+    if (channel == null) {
+      throw new IllegalArgumentException("channel cannot be null");
+    }
+    return getOrCreateStats(ByteBuffer.wrap(channel.clone()));
+  }
+
+  /**
+   * Gets the counts for every channel that has been published to.
+   * 
+   * @return The counts, by channel name.
+   */
+  public Map<String, ChannelStats> getAllStats() {
+    Map<String, ChannelStats> ret = new HashMap<String, ChannelStats>();
+    for (Map.Entry<ByteBuffer, ChannelStats> entry : stats.entrySet()) {
+      ByteBuffer key = entry.getKey().duplicate();
+      byte[] name = new byte[key.remaining()];
+      key.get(name);
+      ret.put(new String(name), entry.getValue());
+    }
+    return Collections.unmodifiableMap(ret);
+  }
+
+  /**
+   * Gets how this messager delivers messages.
+   * 
+   * @return The delivery profile.
+   */
+  public DeliveryProfile getProfile() {
+    return profile;
+  }
+
+  private void schedule(final ByteBuffer key, final Subscriber sub, final byte[] channel,
+      final byte[] message, final ChannelStats channelStats) {
+    Runnable delivery = new Runnable() {
+      @Override
+      public void run() {
+        Set<Subscriber> subs = subscribers.get(key);
+        if (!alive || subs == null || !subs.contains(sub)) {
+          return; // unsubscribed while the message was in flight
+        }
+        channelStats.onDelivery(message.length);
+        try {
+          sub.onMessage(channel.clone(), message.clone());
+        } catch (Exception e) {
+          System.out.println("[ServerClusters] A subscriber threw an exception while handling "
+              + "an in-memory message:");
+          e.printStackTrace();
+        }
+      }
+    };
+
+    try {
+      long delay = nextDelay();
+      if (delay > 0) {
+        executor.schedule(delivery, delay, TimeUnit.NANOSECONDS);
+      } else {
+        executor.execute(delivery);
+      }
+    } catch (RejectedExecutionException e) {
+      // the executor is shutting down; the message is lost, as it would be on a dead connection
+      channelStats.onDrop();
+    }
+  }
+
+  private long nextDelay() {
+    if (!profile.isDelayed()) {
+      return 0;
+    }
+    long delay = profile.getLatencyNanos();
+    if (profile.getJitterNanos() > 0) {
+      delay += (long) (random.nextDouble() * profile.getJitterNanos());
+    }
+    if (roll(profile.getReorderRate())) {
+      // held back long enough for messages published after it to overtake it
+      long holdBack =
+          Math.max(MIN_REORDER_DELAY, 2 * (profile.getLatencyNanos() + profile.getJitterNanos()));
+      delay += 1 + (long) (random.nextDouble() * holdBack);
+    }
+    return delay;
+  }
+
+  private boolean roll(double rate) {
+    return rate > 0 && random.nextDouble() < rate;
+  }
+
+  private ChannelStats getOrCreateStats(ByteBuffer key) {
+    ChannelStats ret = stats.get(key);
+    if (ret == null) {
+      ChannelStats created = new ChannelStats();
+      ret = stats.putIfAbsent(key, created);
+      if (ret == null) {
+        ret = created;
+      }
+    }
+    return ret;
+  }
+
+  private static ScheduledExecutorService newDeliveryThread() {
+    final AtomicInteger count = new AtomicInteger();
+    return Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "InMemoryMessager-" + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+}